@@ -29,6 +29,12 @@ public class DynamicVariable extends StringVariable implements IDynamicVariable
 	 */
 	private IDynamicVariableResolver fResolver;
 
+	/**
+	 * Whether values can be reused within a substitution session, or
+	 * <code>null</code> until needed
+	 */
+	private Boolean fStableInSession;
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.internal.core.stringsubstitution.IContextVariable#getValue(java.lang.String)
 	 */
@@ -40,6 +46,13 @@ public class DynamicVariable extends StringVariable implements IDynamicVariable
 				throw new CoreException(new Status(IStatus.ERROR, VariablesPlugin.getUniqueIdentifier(), VariablesPlugin.INTERNAL_ERROR, NLS.bind(VariablesMessages.DynamicVariable_0, new String[]{argument, getName()}), null));
 			}
 		}
+		SubstitutionSession session = null;
+		if (isStableInSession()) {
+			session = SubstitutionSession.getCurrent();
+			if (session != null && session.contains(getName(), argument)) {
+				return session.getValue(getName(), argument);
+			}
+		}
 		if (fResolver == null) {
 			String name = getConfigurationElement().getAttribute("resolver"); //$NON-NLS-1$
 			if (name == null) {
@@ -53,7 +66,11 @@ public class DynamicVariable extends StringVariable implements IDynamicVariable
 			}
 		}
 		try {
-		    return fResolver.resolveValue(this, argument);
+			String value = fResolver.resolveValue(this, argument);
+			if (session != null) {
+				session.putValue(getName(), argument, value);
+			}
+			return value;
 		} catch (RuntimeException e) {
             throw new CoreException(new Status(IStatus.ERROR, VariablesPlugin.getUniqueIdentifier(), VariablesPlugin.INTERNAL_ERROR, NLS.bind("Error while evaluating variable {0}.",new String[]{getName()}), e)); //$NON-NLS-1$
 		}
@@ -79,4 +96,18 @@ public class DynamicVariable extends StringVariable implements IDynamicVariable
 		return arg == null || Boolean.valueOf(arg).booleanValue();
 	}
 
+	/**
+	 * Returns whether the value of this variable does not change within a
+	 * substitution session, so that it only needs to be resolved once for
+	 * each argument.
+	 *
+	 * @return whether values can be reused within a substitution session
+	 */
+	public boolean isStableInSession() {
+		if (fStableInSession == null) {
+			fStableInSession = Boolean.valueOf(getConfigurationElement().getAttribute("stableInSession")); //$NON-NLS-1$
+		}
+		return fStableInSession.booleanValue();
+	}
+
 }
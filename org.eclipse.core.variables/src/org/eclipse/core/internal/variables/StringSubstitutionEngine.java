@@ -13,7 +13,6 @@ package org.eclipse.core.internal.variables;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Stack;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
@@ -26,6 +25,12 @@ import org.eclipse.osgi.util.NLS;
 
 /**
  * Performs string substitution for context and value variables.
+ * <p>
+ * Expressions are parsed into templates of literal text and variable
+ * references. Templates do not depend on the values of variables, so a
+ * {@link SubstitutionCache} can keep them to avoid parsing the same
+ * expression again.
+ * </p>
  */
 public class StringSubstitutionEngine {
 
@@ -40,7 +45,7 @@ public class StringSubstitutionEngine {
 	/**
 	 * Resulting string
 	 */
-	private StringBuffer fResult;
+	private String fResult;
 
 	/**
 	 * Whether substitutions were performed
@@ -48,27 +53,155 @@ public class StringSubstitutionEngine {
 	private boolean fSubs;
 
 	/**
-	 * Stack of variables to resolve
+	 * Whether only value variables were resolved, in which case the result
+	 * can be cached until a value variable changes
 	 */
-	private Stack<VariableReference> fStack;
+	private boolean fValuesOnly;
 
-	class VariableReference {
+	/**
+	 * Cache of templates and results, or <code>null</code>
+	 */
+	private final SubstitutionCache fCache;
 
-		// the text inside the variable reference
-		private StringBuffer fText;
+	/**
+	 * A parsed expression: literal text and variable references, in the
+	 * order they appear in the expression.
+	 */
+	static class Template {
+
+		// literal text (String) or variable references (VariableReference)
+		private final Object[] fParts;
+
+		Template(Object[] parts) {
+			fParts = parts;
+		}
 
-		public VariableReference() {
-			fText = new StringBuffer();
+		/**
+		 * Parses the given expression.
+		 *
+		 * @param expression the expression to parse
+		 * @return the template of the expression
+		 */
+		static Template parse(String expression) {
+			List<Object> result = new ArrayList<>();
+			List<List<Object>> stack = new ArrayList<>();
+			int pos = 0;
+			int state = SCAN_FOR_START;
+			while (pos < expression.length()) {
+				switch (state) {
+					case SCAN_FOR_START:
+						int start = expression.indexOf(VARIABLE_START, pos);
+						if (start >= 0) {
+							// copy non-variable text to the result
+							if (start > pos) {
+								result.add(expression.substring(pos, start));
+							}
+							pos = start + 2;
+							state = SCAN_FOR_END;
+							stack.add(new ArrayList<>());
+						} else {
+							// done - no more variables
+							result.add(expression.substring(pos));
+							pos = expression.length();
+						}
+						break;
+					case SCAN_FOR_END:
+						// be careful of nested variables
+						start = expression.indexOf(VARIABLE_START, pos);
+						int end = expression.indexOf(VARIABLE_END, pos);
+						if (end < 0) {
+							// variables are not completed
+							stack.get(stack.size() - 1).add(expression.substring(pos));
+							pos = expression.length();
+						} else if (start >= 0 && start < end) {
+							// start of a nested variable
+							if (start > pos) {
+								stack.get(stack.size() - 1).add(expression.substring(pos, start));
+							}
+							pos = start + 2;
+							stack.add(new ArrayList<>());
+						} else {
+							// end of variable reference
+							List<Object> parts = stack.remove(stack.size() - 1);
+							VariableReference var = new VariableReference(parts.toArray(), expression.substring(pos, end));
+							pos = end + 1;
+							if (stack.isEmpty()) {
+								result.add(var);
+								state = SCAN_FOR_START;
+							} else {
+								stack.get(stack.size() - 1).add(var);
+							}
+						}
+						break;
+					default:
+						break;
+				}
+			}
+			// incomplete variable references
+			while (!stack.isEmpty()) {
+				List<Object> parts = stack.remove(stack.size() - 1);
+				VariableReference var = new VariableReference(parts.toArray(), null);
+				if (stack.isEmpty()) {
+					result.add(var);
+				} else {
+					stack.get(stack.size() - 1).add(var);
+				}
+			}
+			return new Template(result.toArray());
 		}
+	}
+
+	/**
+	 * A variable reference in a template. The text inside the reference is
+	 * made of the values of nested references and literal text, ending with
+	 * the text following the last nested reference.
+	 */
+	static class VariableReference {
+
+		// literal text (String) and nested references (VariableReference)
+		// preceding the last text
+		private final Object[] fParts;
+
+		// the text following the last nested reference, or null if the
+		// reference is incomplete
+		private final String fLastText;
+
+		// variable name and argument, when there are no nested references
+		private final String fName;
+		private final String fArgument;
 
-		public void append(String text) {
-			fText.append(text);
+		VariableReference(Object[] parts, String lastText) {
+			fParts = parts;
+			fLastText = lastText;
+			if (parts.length == 0 && lastText != null) {
+				String[] nameAndArg = splitReference(lastText);
+				fName = nameAndArg[0];
+				fArgument = nameAndArg[1];
+			} else {
+				fName = null;
+				fArgument = null;
+			}
 		}
 
-		public String getText() {
-			return fText.toString();
+		boolean isComplete() {
+			return fLastText != null;
 		}
+	}
 
+	/**
+	 * Constructs an engine that parses every expression it resolves.
+	 */
+	public StringSubstitutionEngine() {
+		this(null);
+	}
+
+	/**
+	 * Constructs an engine using the given cache for templates and results.
+	 *
+	 * @param cache the cache to use, or <code>null</code>
+	 */
+	public StringSubstitutionEngine(SubstitutionCache cache) {
+		fCache = cache;
 	}
 
 	/**
@@ -84,10 +217,20 @@ public class StringSubstitutionEngine {
 	 *  in referenced variables
 	 */
 	public String performStringSubstitution(String expression, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
-		substitute(expression, reportUndefinedVariables, resolveVariables, manager);
+		boolean useResults = fCache != null && resolveVariables;
+		long generation = 0;
+		if (useResults) {
+			String result = fCache.getResult(expression);
+			if (result != null) {
+				return result;
+			}
+			generation = fCache.getGeneration();
+		}
+		fValuesOnly = true;
+		substitute(fCache != null ? fCache.getTemplate(expression) : Template.parse(expression), reportUndefinedVariables, resolveVariables, manager);
 		List<HashSet<String>> resolvedVariableSets = new ArrayList<>();
 		while (fSubs) {
-			HashSet<String> resolved = substitute(fResult.toString(), reportUndefinedVariables, true, manager);
+			HashSet<String> resolved = substitute(Template.parse(fResult), reportUndefinedVariables, true, manager);
 			for(int i=resolvedVariableSets.size()-1; i>=0; i--) {
 				HashSet<String> prevSet = resolvedVariableSets.get(i);
 				if (prevSet.equals(resolved)) {
@@ -107,7 +250,10 @@ public class StringSubstitutionEngine {
 
 			resolvedVariableSets.add(resolved);
 		}
-		return fResult.toString();
+		if (useResults && fValuesOnly) {
+			fCache.putResult(expression, fResult, generation);
+		}
+		return fResult;
 	}
 
 	/**
@@ -123,123 +269,84 @@ public class StringSubstitutionEngine {
 	}
 
 	/**
-	 * Makes a substitution pass of the given expression returns a Set of the variables that were resolved in this
+	 * Makes a substitution pass of the given template returns a Set of the variables that were resolved in this
 	 *  pass
 	 *
-	 * @param expression source expression
+	 * @param template parsed source expression
 	 * @param reportUndefinedVariables whether to report undefined variables as an error
 	 * @param resolveVariables whether to resolve the value of any variables
 	 * @param manager the {@link IStringVariableManager} to use for the substitution
 	 * @return the set of {@link String}s resolved from the given expression
 	 * @exception CoreException if unable to resolve a variable
 	 */
-	private HashSet<String> substitute(String expression, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
-		fResult = new StringBuffer(expression.length());
-		fStack = new Stack<>();
+	private HashSet<String> substitute(Template template, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
 		fSubs = false;
-
 		HashSet<String> resolvedVariables = new HashSet<>();
+		Object[] parts = template.fParts;
+		if (parts.length == 1 && parts[0] instanceof String) {
+			// no variables
+			fResult = (String) parts[0];
+		} else if (parts.length == 0) {
+			fResult = ""; //$NON-NLS-1$
+		} else {
+			StringBuilder result = new StringBuilder();
+			append(parts, result, resolvedVariables, reportUndefinedVariables, resolveVariables, manager);
+			fResult = result.toString();
+		}
+		return resolvedVariables;
+	}
 
-		int pos = 0;
-		int state = SCAN_FOR_START;
-		while (pos < expression.length()) {
-			switch (state) {
-				case SCAN_FOR_START:
-					int start = expression.indexOf(VARIABLE_START, pos);
-					if (start >= 0) {
-						int length = start - pos;
-						// copy non-variable text to the result
-						if (length > 0) {
-							fResult.append(expression.substring(pos, start));
-						}
-						pos = start + 2;
-						state = SCAN_FOR_END;
-
-						fStack.push(new VariableReference());
-					} else {
-						// done - no more variables
-						fResult.append(expression.substring(pos));
-						pos = expression.length();
-					}
-					break;
-				case SCAN_FOR_END:
-					// be careful of nested variables
-					start = expression.indexOf(VARIABLE_START, pos);
-					int end = expression.indexOf(VARIABLE_END, pos);
-					if (end < 0) {
-						// variables are not completed
-						VariableReference tos = fStack.peek();
-						tos.append(expression.substring(pos));
-						pos = expression.length();
-					} else {
-						if (start >= 0 && start < end) {
-							// start of a nested variable
-							int length = start - pos;
-							if (length > 0) {
-								VariableReference tos = fStack.peek();
-								tos.append(expression.substring(pos, start));
-							}
-							pos = start + 2;
-							fStack.push(new VariableReference());
-						} else {
-							// end of variable reference
-							VariableReference tos = fStack.pop();
-							String substring = expression.substring(pos, end);
-							tos.append(substring);
-							resolvedVariables.add(substring);
-
-							pos = end + 1;
-							String value= resolve(tos, reportUndefinedVariables, resolveVariables, manager);
-							if (value == null) {
-								value = ""; //$NON-NLS-1$
-							}
-							if (fStack.isEmpty()) {
-								// append to result
-								fResult.append(value);
-								state = SCAN_FOR_START;
-							} else {
-								// append to previous variable
-								tos = fStack.peek();
-								tos.append(value);
-							}
-						}
-					}
-					break;
-				default:
-					break;
+	/**
+	 * Appends the text of the given template parts, resolving variable
+	 * references in the order they end in the expression.
+	 *
+	 * @param parts literal text and variable references
+	 * @param buffer the buffer to append to
+	 * @param resolvedVariables the set to add the text of resolved references to
+	 * @param reportUndefinedVariables whether to report undefined variables as an error
+	 * @param resolveVariables whether to resolve the value of any variables
+	 * @param manager the {@link IStringVariableManager} to use for the substitution
+	 * @exception CoreException if unable to resolve a variable
+	 */
+	private void append(Object[] parts, StringBuilder buffer, HashSet<String> resolvedVariables, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
+		for (Object part : parts) {
+			if (part instanceof String) {
+				buffer.append((String) part);
+				continue;
 			}
-		}
-		// process incomplete variable references
-		while (!fStack.isEmpty()) {
-			VariableReference tos = fStack.pop();
-			if (fStack.isEmpty()) {
-				fResult.append(VARIABLE_START);
-				fResult.append(tos.getText());
+			VariableReference var = (VariableReference) part;
+			if (!var.isComplete()) {
+				buffer.append(VARIABLE_START);
+				append(var.fParts, buffer, resolvedVariables, reportUndefinedVariables, resolveVariables, manager);
+				continue;
+			}
+			String value;
+			if (var.fParts.length == 0) {
+				resolvedVariables.add(var.fLastText);
+				value = resolve(var.fLastText, var.fName, var.fArgument, reportUndefinedVariables, resolveVariables, manager);
 			} else {
-				VariableReference var = fStack.peek();
-				var.append(VARIABLE_START);
-				var.append(tos.getText());
+				StringBuilder text = new StringBuilder();
+				append(var.fParts, text, resolvedVariables, reportUndefinedVariables, resolveVariables, manager);
+				text.append(var.fLastText);
+				resolvedVariables.add(var.fLastText);
+				String reference = text.toString();
+				String[] nameAndArg = splitReference(reference);
+				value = resolve(reference, nameAndArg[0], nameAndArg[1], reportUndefinedVariables, resolveVariables, manager);
+			}
+			if (value != null) {
+				buffer.append(value);
 			}
 		}
-
-
-		return resolvedVariables;
 	}
 
 	/**
-	 * Resolve and return the value of the given variable reference,
-	 * possibly <code>null</code>.
+	 * Splits the text inside a variable reference into the variable name and
+	 * argument.
 	 *
-	 * @param var the {@link VariableReference} to try and resolve
-	 * @param reportUndefinedVariables whether to report undefined variables as
-	 *  an error
-	 * @param resolveVariables whether to resolve the variables value or just to validate that this variable is valid
-	 * @param manager variable registry
-	 * @return variable value, possibly <code>null</code>
-	 * @exception CoreException if unable to resolve a value
+	 * @param text the text inside the reference
+	 * @return the name and argument, the argument possibly <code>null</code>
 	 */
-	private String resolve(VariableReference var, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
-		String text = var.getText();
+	static String[] splitReference(String text) {
 		int pos = text.indexOf(VARIABLE_ARG);
 		String name = null;
 		String arg = null;
@@ -252,8 +359,27 @@ public class StringSubstitutionEngine {
 		} else {
 			name = text;
 		}
+		return new String[] { name, arg };
+	}
+
+	/**
+	 * Resolve and return the value of the given variable reference,
+	 * possibly <code>null</code>.
+	 *
+	 * @param text the text inside the variable reference
+	 * @param name the variable name
+	 * @param arg the variable argument, or <code>null</code>
+	 * @param reportUndefinedVariables whether to report undefined variables as
+	 *  an error
+	 * @param resolveVariables whether to resolve the variables value or just to validate that this variable is valid
+	 * @param manager variable registry
+	 * @return variable value, possibly <code>null</code>
+	 * @exception CoreException if unable to resolve a value
+	 */
+	private String resolve(String text, String name, String arg, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
 		IValueVariable valueVariable = manager.getValueVariable(name);
 		if (valueVariable == null) {
+			fValuesOnly = false;
 			IDynamicVariable dynamicVariable = manager.getDynamicVariable(name);
 			if (dynamicVariable == null) {
 				// no variables with the given name
@@ -261,7 +387,7 @@ public class StringSubstitutionEngine {
 					throw new CoreException(new Status(IStatus.ERROR, VariablesPlugin.getUniqueIdentifier(), VariablesPlugin.INTERNAL_ERROR, NLS.bind(VariablesMessages.StringSubstitutionEngine_3, new String[]{name}), null));
 				}
 				// leave as is
-				return getOriginalVarText(var);
+				return getOriginalVarText(text);
 			}
 
 			if (resolveVariables) {
@@ -269,7 +395,7 @@ public class StringSubstitutionEngine {
 				return dynamicVariable.getValue(arg);
 			}
 			//leave as is
-			return getOriginalVarText(var);
+			return getOriginalVarText(text);
 		}
 
 		if (arg == null) {
@@ -278,16 +404,13 @@ public class StringSubstitutionEngine {
 				return valueVariable.getValue();
 			}
 			//leave as is
-			return getOriginalVarText(var);
+			return getOriginalVarText(text);
 		}
 		// error - an argument specified for a value variable
 		throw new CoreException(new Status(IStatus.ERROR, VariablesPlugin.getUniqueIdentifier(), VariablesPlugin.INTERNAL_ERROR, NLS.bind(VariablesMessages.StringSubstitutionEngine_4, new String[]{valueVariable.getName()}), null));
 	}
 
-	private String getOriginalVarText(VariableReference var) {
-		StringBuffer res = new StringBuffer(var.getText());
-		res.insert(0, VARIABLE_START);
-		res.append(VARIABLE_END);
-		return res.toString();
+	private String getOriginalVarText(String text) {
+		return VARIABLE_START + text + VARIABLE_END;
 	}
 }
@@ -47,6 +47,7 @@ import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.core.variables.IDynamicVariable;
 import org.eclipse.core.variables.IStringVariable;
 import org.eclipse.core.variables.IStringVariableManager;
+import org.eclipse.core.variables.ISubstitutionSession;
 import org.eclipse.core.variables.IValueVariable;
 import org.eclipse.core.variables.IValueVariableListener;
 import org.eclipse.core.variables.VariablesPlugin;
@@ -78,6 +79,11 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	 */
 	private ListenerList<IValueVariableListener> fListeners;
 
+	/**
+	 * Cache of parsed expressions and value variable substitutions
+	 */
+	private SubstitutionCache fCache;
+
 	// notifications
 	private static final int ADDED = 0;
 	private static final int CHANGED = 1;
@@ -194,6 +200,8 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	 */
 	private StringVariableManager() {
 		fListeners = new ListenerList<>();
+		fCache = new SubstitutionCache();
+		fListeners.add(fCache);
 	}
 
 	/**
@@ -588,7 +596,7 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	 */
 	@Override
 	public String performStringSubstitution(String expression,	boolean reportUndefinedVariables) throws CoreException {
-		return new StringSubstitutionEngine().performStringSubstitution(expression, reportUndefinedVariables, true, this);
+		return new StringSubstitutionEngine(fCache).performStringSubstitution(expression, reportUndefinedVariables, true, this);
 	}
 
 	/* (non-Javadoc)
@@ -596,7 +604,15 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	 */
 	@Override
 	public void validateStringVariables(String expression) throws CoreException {
-		new StringSubstitutionEngine().validateStringVariables(expression, this);
+		new StringSubstitutionEngine(fCache).validateStringVariables(expression, this);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.core.variables.IStringVariableManager#openSubstitutionSession()
+	 */
+	@Override
+	public ISubstitutionSession openSubstitutionSession() {
+		return SubstitutionSession.open();
 	}
 
     /* (non-Javadoc)
@@ -621,6 +637,7 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 					fValueVariables.clear();
 					loadPersistedValueVariables();
 					loadContributedValueVariables();
+					fCache.clearResults();
 				}
 			}
 		}
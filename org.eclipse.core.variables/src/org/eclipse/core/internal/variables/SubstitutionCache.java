@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.variables;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.internal.variables.StringSubstitutionEngine.Template;
+import org.eclipse.core.variables.IValueVariable;
+import org.eclipse.core.variables.IValueVariableListener;
+
+/**
+ * Caches parsed expressions and the results of expressions that only
+ * reference value variables.
+ * <p>
+ * Templates do not depend on the values of variables and are kept for the
+ * most recently used expressions. Results are discarded whenever value
+ * variables are added, removed or changed.
+ * </p>
+ */
+public class SubstitutionCache implements IValueVariableListener {
+
+	/**
+	 * Maximum number of cached templates and results
+	 */
+	private static final int MAX_ENTRIES = 1000;
+
+	/**
+	 * Expressions longer than this are not cached
+	 */
+	private static final int MAX_EXPRESSION_LENGTH = 16 * 1024;
+
+	/**
+	 * Map discarding the least recently used entry when full.
+	 */
+	private static class LRUMap<V> extends LinkedHashMap<String, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		LRUMap() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	}
+
+	private final Map<String, Template> fTemplates = new LRUMap<>();
+
+	private final Map<String, String> fResults = new LRUMap<>();
+
+	/**
+	 * Incremented whenever results are discarded, so that results computed
+	 * from older values are not cached
+	 */
+	private long fGeneration = 0;
+
+	/**
+	 * Returns the template of the given expression, parsing it if it is not
+	 * cached.
+	 *
+	 * @param expression the expression
+	 * @return the template of the expression
+	 */
+	public Template getTemplate(String expression) {
+		synchronized (fTemplates) {
+			Template template = fTemplates.get(expression);
+			if (template != null) {
+				return template;
+			}
+		}
+		Template template = Template.parse(expression);
+		if (expression.length() <= MAX_EXPRESSION_LENGTH) {
+			synchronized (fTemplates) {
+				fTemplates.put(expression, template);
+			}
+		}
+		return template;
+	}
+
+	/**
+	 * Returns the cached result of the given expression, or <code>null</code>.
+	 *
+	 * @param expression the expression
+	 * @return the result, or <code>null</code> if not cached
+	 */
+	public synchronized String getResult(String expression) {
+		return fResults.get(expression);
+	}
+
+	/**
+	 * Returns the current generation of results, to be passed to
+	 * {@link #putResult(String, String, long)}.
+	 *
+	 * @return the current generation
+	 */
+	public synchronized long getGeneration() {
+		return fGeneration;
+	}
+
+	/**
+	 * Caches the result of the given expression, unless results were
+	 * discarded since the given generation.
+	 *
+	 * @param expression the expression
+	 * @param result the result
+	 * @param generation the generation when the substitution started
+	 */
+	public synchronized void putResult(String expression, String result, long generation) {
+		if (generation == fGeneration && expression.length() <= MAX_EXPRESSION_LENGTH) {
+			fResults.put(expression, result);
+		}
+	}
+
+	/**
+	 * Discards all cached results.
+	 */
+	public synchronized void clearResults() {
+		fResults.clear();
+		fGeneration++;
+	}
+
+	@Override
+	public void variablesAdded(IValueVariable[] variables) {
+		clearResults();
+	}
+
+	@Override
+	public void variablesRemoved(IValueVariable[] variables) {
+		clearResults();
+	}
+
+	@Override
+	public void variablesChanged(IValueVariable[] variables) {
+		clearResults();
+	}
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.variables;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.variables.ISubstitutionSession;
+
+/**
+ * Values of stable dynamic variables resolved on a thread while a session is
+ * open. Nested sessions share the outermost session.
+ */
+public class SubstitutionSession implements ISubstitutionSession {
+
+	/**
+	 * The open session of each thread
+	 */
+	private static final ThreadLocal<SubstitutionSession> fgCurrent = new ThreadLocal<>();
+
+	/**
+	 * Maps variable names to the values resolved for each argument. The
+	 * argument may be <code>null</code>, as may the values.
+	 */
+	private final Map<String, Map<String, String>> fValues = new HashMap<>();
+
+	/**
+	 * Number of times the session was opened and not yet closed
+	 */
+	private int fDepth = 1;
+
+	private int fHits = 0;
+
+	private int fMisses = 0;
+
+	/**
+	 * Opens a session for the calling thread, or re-enters the session that
+	 * is already open.
+	 *
+	 * @return the session
+	 */
+	static SubstitutionSession open() {
+		SubstitutionSession session = fgCurrent.get();
+		if (session == null) {
+			session = new SubstitutionSession();
+			fgCurrent.set(session);
+		} else {
+			session.fDepth++;
+		}
+		return session;
+	}
+
+	/**
+	 * Returns the session open on the calling thread, or <code>null</code>.
+	 *
+	 * @return the open session or <code>null</code>
+	 */
+	static SubstitutionSession getCurrent() {
+		return fgCurrent.get();
+	}
+
+	/**
+	 * Returns whether a value was resolved for the given variable and
+	 * argument in this session, counting a hit if so.
+	 *
+	 * @param name variable name
+	 * @param argument argument or <code>null</code>
+	 * @return whether a value is available from {@link #getValue(String, String)}
+	 */
+	boolean contains(String name, String argument) {
+		Map<String, String> values = fValues.get(name);
+		if (values != null && values.containsKey(argument)) {
+			fHits++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the value resolved for the given variable and argument.
+	 *
+	 * @param name variable name
+	 * @param argument argument or <code>null</code>
+	 * @return the value, possibly <code>null</code>
+	 */
+	String getValue(String name, String argument) {
+		Map<String, String> values = fValues.get(name);
+		return values == null ? null : values.get(argument);
+	}
+
+	/**
+	 * Remembers the value resolved for the given variable and argument,
+	 * counting a miss.
+	 *
+	 * @param name variable name
+	 * @param argument argument or <code>null</code>
+	 * @param value the value, possibly <code>null</code>
+	 */
+	void putValue(String name, String argument, String value) {
+		fMisses++;
+		Map<String, String> values = fValues.get(name);
+		if (values == null) {
+			values = new HashMap<>(4);
+			fValues.put(name, values);
+		}
+		values.put(argument, value);
+	}
+
+	@Override
+	public int getHitCount() {
+		return fHits;
+	}
+
+	@Override
+	public int getMissCount() {
+		return fMisses;
+	}
+
+	@Override
+	public void close() {
+		if (fDepth > 0 && --fDepth == 0 && fgCurrent.get() == this) {
+			fgCurrent.remove();
+			fValues.clear();
+		}
+	}
+}
@@ -187,5 +187,21 @@ public interface IStringVariableManager {
 	 *  optional argument
 	 */
 	public String generateVariableExpression(String varName, String arg);
-	
+
+	/**
+	 * Opens a substitution session for the calling thread. While the session
+	 * is open, dynamic variables declared as stable within a session are
+	 * resolved only once for each argument, and later references reuse the
+	 * value. Sessions opened while a session is open on the same thread
+	 * share the outer session.
+	 * <p>
+	 * The session must be closed by the thread that opened it, for example
+	 * with a <code>try</code>-with-resources statement.
+	 * </p>
+	 *
+	 * @return the session, to be closed when done
+	 * @since 3.4
+	 */
+	public ISubstitutionSession openSubstitutionSession();
+
 }
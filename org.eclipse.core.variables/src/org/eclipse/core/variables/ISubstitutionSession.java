@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.variables;
+
+/**
+ * A scope in which dynamic variables declared as stable within a session
+ * (see the <code>stableInSession</code> attribute of the
+ * <code>org.eclipse.core.variables.dynamicVariables</code> extension point)
+ * are resolved only once for each argument.
+ * <p>
+ * Sessions are opened with
+ * {@link IStringVariableManager#openSubstitutionSession()} and are confined to
+ * the thread that opened them.
+ * </p>
+ *
+ * @since 3.4
+ * @noimplement This interface is not intended to be implemented by clients.
+ */
+public interface ISubstitutionSession extends AutoCloseable {
+
+	/**
+	 * Returns the number of variable references resolved with a value
+	 * reused from earlier in this session.
+	 *
+	 * @return number of reused values
+	 */
+	public int getHitCount();
+
+	/**
+	 * Returns the number of variable references of stable variables that
+	 * were resolved by their resolver in this session.
+	 *
+	 * @return number of resolved values
+	 */
+	public int getMissCount();
+
+	/**
+	 * Closes this session. Values resolved in the session are discarded when
+	 * the outermost session on the thread is closed.
+	 */
+	@Override
+	public void close();
+}
@@ -29,6 +29,7 @@ import javax.xml.transform.TransformerException;
 
 import org.eclipse.core.resources.ISaveContext;
 import org.eclipse.core.resources.ISaveParticipant;
+import org.eclipse.core.resources.ISavedState;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
@@ -66,7 +67,9 @@ import org.eclipse.debug.internal.core.LaunchManager;
 import org.eclipse.debug.internal.core.LogicalStructureManager;
 import org.eclipse.debug.internal.core.MemoryBlockManager;
 import org.eclipse.debug.internal.core.Preferences;
+import org.eclipse.debug.internal.core.SavedLaunchConfigurationIndex;
 import org.eclipse.debug.internal.core.StepFilterManager;
+import org.eclipse.debug.internal.core.StreamMonitorPool;
 import org.eclipse.debug.internal.core.commands.CommandAdapterFactory;
 import org.eclipse.debug.internal.core.sourcelookup.SourceLookupUtils;
 import org.eclipse.osgi.service.environment.Constants;
@@ -349,6 +352,12 @@ public class DebugPlugin extends Plugin {
 	 */
 	private LaunchManager fLaunchManager;
 
+	/**
+	 * Index of launch configurations saved with the workspace, restored in
+	 * the background until the launch manager is created.
+	 */
+	private SavedLaunchConfigurationIndex fSavedLaunchConfigurationIndex;
+
 	/**
 	 * The singleton memory block manager.
 	 * @since 3.1
@@ -571,7 +580,7 @@ public class DebugPlugin extends Plugin {
 	 */
 	public synchronized ILaunchManager getLaunchManager() {
 		if (fLaunchManager == null) {
-			fLaunchManager = new LaunchManager();
+			fLaunchManager = new LaunchManager(fSavedLaunchConfigurationIndex);
 		}
 		return fLaunchManager;
 	}
@@ -669,7 +678,11 @@ public class DebugPlugin extends Plugin {
 			fEventListeners.clear();
             fEventFilters.clear();
 
+			if (fSavedLaunchConfigurationIndex != null) {
+				fSavedLaunchConfigurationIndex.stopListening();
+			}
 			SourceLookupUtils.shutdown();
+			StreamMonitorPool.shutdown();
 			Preferences.savePreferences(DebugPlugin.getUniqueIdentifier());
 			ResourcesPlugin.getWorkspace().removeSaveParticipant(getUniqueIdentifier());
 		} finally {
@@ -685,13 +698,25 @@ public class DebugPlugin extends Plugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		new DebugOptions(context);
-		ResourcesPlugin.getWorkspace().addSaveParticipant(getUniqueIdentifier(),
+		// collect changes before the saved state is taken, so that none are missed
+		fSavedLaunchConfigurationIndex = new SavedLaunchConfigurationIndex();
+		fSavedLaunchConfigurationIndex.startListening();
+		ISavedState savedState = ResourcesPlugin.getWorkspace().addSaveParticipant(getUniqueIdentifier(),
 				new ISaveParticipant() {
 					@Override
 					public void saving(ISaveContext saveContext) throws CoreException {
 						if (fExpressionManager != null) {
 							fExpressionManager.storeWatchExpressions();
 						}
+						LaunchManager launchManager;
+						synchronized (DebugPlugin.this) {
+							launchManager = fLaunchManager;
+						}
+						if (launchManager != null) {
+							launchManager.saveLaunchConfigurationIndex(saveContext);
+						} else {
+							SavedLaunchConfigurationIndex.delete();
+						}
 						Preferences.savePreferences(DebugPlugin.getUniqueIdentifier());
 					}
 					@Override
@@ -701,6 +726,7 @@ public class DebugPlugin extends Plugin {
 					@Override
 					public void doneSaving(ISaveContext saveContext) {}
 				});
+		fSavedLaunchConfigurationIndex.restore(savedState);
 		//command adapters
 		IAdapterManager manager= Platform.getAdapterManager();
 		CommandAdapterFactory actionFactory = new CommandAdapterFactory();
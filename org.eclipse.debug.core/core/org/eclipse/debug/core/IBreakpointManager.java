@@ -12,9 +12,13 @@ package org.eclipse.debug.core;
 
 
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.debug.core.model.IBreakpointImportParticipant;
+import org.eclipse.debug.core.model.ILineBreakpoint;
 
 /**
  * The breakpoint manager manages the collection of breakpoints
@@ -107,6 +111,38 @@ public interface IBreakpointManager {
 	 */
 	public IBreakpoint[] getBreakpoints(String modelIdentifier);
 
+	/**
+	 * Returns a collection of all breakpoints registered on the given
+	 * resource, that is the breakpoints whose marker is on the resource.
+	 * Breakpoints on the members of a container are not returned. Answers an
+	 * empty array if no breakpoints are registered on the resource.
+	 *
+	 * @param resource a resource
+	 * @return an array of breakpoints
+	 * @since 3.11
+	 */
+	public IBreakpoint[] getBreakpoints(IResource resource);
+
+	/**
+	 * Returns a line breakpoint registered on the given line of the given
+	 * resource, or <code>null</code> if none. When there is more than one
+	 * line breakpoint on the line, the breakpoint registered or moved to the
+	 * line first is returned.
+	 * <p>
+	 * The line numbers of registered breakpoints are indexed, and updated
+	 * when the breakpoint manager is notified of a change of a breakpoint
+	 * marker. Changes made in a workspace operation are seen once the
+	 * operation is complete.
+	 * </p>
+	 *
+	 * @param resource a resource
+	 * @param lineNumber a line number, as returned by
+	 *            {@link ILineBreakpoint#getLineNumber()}
+	 * @return a line breakpoint on the line or <code>null</code> if none
+	 * @since 3.11
+	 */
+	public ILineBreakpoint getLineBreakpoint(IResource resource, int lineNumber);
+
 	/**
 	 * Returns whether the given breakpoint is currently
 	 * registered with this breakpoint manager.
@@ -342,6 +378,47 @@ public interface IBreakpointManager {
 	 */
 	public void refreshTriggerpointDisplay();
 
+	/**
+	 * Runs the given runnable in a single workspace operation, deferring the
+	 * notification of breakpoints added, removed and changed by the calling
+	 * thread until the runnable completes. Listeners are then notified once
+	 * of each breakpoint, {@link IBreakpointListener}s once for each
+	 * breakpoint and {@link IBreakpointsListener}s once for all breakpoints
+	 * added, changed or removed.
+	 * <p>
+	 * The changes of a breakpoint are merged into the change its listeners
+	 * would observe by comparing the breakpoint before and after the batch:
+	 * <ul>
+	 * <li>a breakpoint added and then changed is reported as added,</li>
+	 * <li>a breakpoint added and then removed is not reported,</li>
+	 * <li>a breakpoint removed and then added again is reported as changed,</li>
+	 * <li>a breakpoint changed and then removed is reported as removed.</li>
+	 * </ul>
+	 * A breakpoint changed more than once is reported with the first marker
+	 * delta reported for it. Breakpoints are reported in the order they were
+	 * first changed. Changes made by other threads while the runnable runs are
+	 * reported immediately, and batches run by the runnable are part of this
+	 * batch.
+	 * </p>
+	 * <p>
+	 * Breakpoints are reported as changed when the resource changes of their
+	 * markers are processed after a build. When the workspace builds
+	 * automatically, this happens in the build job after the runnable has
+	 * completed. The changes of breakpoints made by the runnable that were
+	 * not added or removed by it are then reported separately from the batch,
+	 * in the build job, and the merge rules above only apply to breakpoints
+	 * added and removed in the batch. The changes of all breakpoints made in
+	 * the operation are still reported in one notification.
+	 * </p>
+	 *
+	 * @param runnable the changes to make
+	 * @param monitor progress monitor or <code>null</code>
+	 * @exception CoreException if the runnable fails, listeners are notified
+	 *                of the changes made before it failed
+	 * @since 3.11
+	 */
+	public void runBatch(IWorkspaceRunnable runnable, IProgressMonitor monitor) throws CoreException;
+
 }
 
 
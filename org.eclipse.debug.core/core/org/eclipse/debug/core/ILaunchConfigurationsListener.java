@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.core;
+
+
+/**
+ * Notified when launch configurations are created, deleted, or changed.
+ * <p>
+ * This interface is analogous to {@link ILaunchConfigurationListener}, except
+ * notifications are batched to include more than one launch configuration
+ * when possible. Launch configurations saved together with
+ * {@link ILaunchManager#saveLaunchConfigurations(ILaunchConfigurationWorkingCopy[], org.eclipse.core.runtime.IProgressMonitor)}
+ * are reported in a single notification of each kind.
+ * </p>
+ * <p>
+ * Clients may implement this interface.
+ * </p>
+ * @see ILaunchConfigurationListener
+ * @see ILaunchManager#addLaunchConfigurationListener(ILaunchConfigurationsListener)
+ * @since 3.11
+ */
+public interface ILaunchConfigurationsListener {
+
+	/**
+	 * The given launch configurations have been created.
+	 *
+	 * @param configurations the newly created launch configurations
+	 */
+	public void launchConfigurationsAdded(ILaunchConfiguration[] configurations);
+
+	/**
+	 * The given launch configurations have changed in some way.
+	 * The configurations may be working copies.
+	 *
+	 * @param configurations the launch configurations that have
+	 *  changed
+	 */
+	public void launchConfigurationsChanged(ILaunchConfiguration[] configurations);
+
+	/**
+	 * The given launch configurations have been deleted.
+	 * <p>
+	 * The launch configurations no longer exist. Data stored
+	 * in the configurations can no longer be accessed, however
+	 * handle-only attributes of the launch configurations
+	 * can be retrieved.
+	 * </p>
+	 *
+	 * @param configurations the deleted launch configurations
+	 */
+	public void launchConfigurationsRemoved(ILaunchConfiguration[] configurations);
+}
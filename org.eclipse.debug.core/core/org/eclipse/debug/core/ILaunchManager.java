@@ -15,6 +15,7 @@ import java.util.Map;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.IPersistableSourceLocator;
 import org.eclipse.debug.core.model.IProcess;
@@ -94,6 +95,15 @@ public interface ILaunchManager {
 	 * @since 2.0
 	 */
 	public void addLaunchConfigurationListener(ILaunchConfigurationListener listener);
+	/**
+	 * Adds the given listener to the list of listeners notified when launch
+	 * configurations are added, removed, or changed. Has no effect if the
+	 * given listener is already registered.
+	 *
+	 * @param listener launch configurations listener
+	 * @since 3.11
+	 */
+	public void addLaunchConfigurationListener(ILaunchConfigurationsListener listener);
 	/**
 	 * Adds the specified launch objects and notifies listeners. Has no
 	 * effect on identical launch objects already registered.
@@ -117,6 +127,14 @@ public interface ILaunchManager {
 	 * @param listener the listener to register
 	 */
 	public void addLaunchListener(ILaunchListener listener);
+	/**
+	 * Adds the given listener to the collection of registered launch timeline
+	 * listeners. Has no effect if an identical listener is already registered.
+	 *
+	 * @param listener the listener to register
+	 * @since 3.11
+	 */
+	public void addLaunchTimelineListener(ILaunchTimelineListener listener);
 	/**
 	 * Return a String that can be used as the name of a launch configuration.  The name
 	 * is guaranteed to be unique (no existing launch configurations will have this name).
@@ -500,6 +518,16 @@ public interface ILaunchManager {
 	 */
 	public void removeLaunchConfigurationListener(ILaunchConfigurationListener listener);
 
+	/**
+	 * Removes the given listener from the list of listeners notified when
+	 * launch configurations are added, removed, or changed. Has no effect if
+	 * the given listener is not already registered.
+	 *
+	 * @param listener launch configurations listener
+	 * @since 3.11
+	 */
+	public void removeLaunchConfigurationListener(ILaunchConfigurationsListener listener);
+
 	/**
 	 * Removes the specified launch objects and notifies listeners.
 	 * Has no effect on identical launch objects that are not already
@@ -527,6 +555,38 @@ public interface ILaunchManager {
 	 */
 	public void removeLaunchListener(ILaunchListener listener);
 
+	/**
+	 * Removes the given listener from the collection of registered launch
+	 * timeline listeners. Has no effect if an identical listener is not
+	 * already registered.
+	 *
+	 * @param listener the listener to unregister
+	 * @since 3.11
+	 */
+	public void removeLaunchTimelineListener(ILaunchTimelineListener listener);
+
+	/**
+	 * Saves the given launch configuration working copies as with
+	 * {@link ILaunchConfigurationWorkingCopy#doSave()}, in a single workspace
+	 * operation. Listeners are notified once all working copies have been
+	 * saved, {@link ILaunchConfigurationListener}s once for each launch
+	 * configuration and {@link ILaunchConfigurationsListener}s once for all
+	 * launch configurations added, changed or removed.
+	 * <p>
+	 * Working copies are saved in the given order. When a working copy
+	 * cannot be saved, the working copies before it remain saved, listeners
+	 * are notified of them, and the exception is thrown.
+	 * </p>
+	 *
+	 * @param workingCopies the working copies to save
+	 * @param monitor progress monitor or <code>null</code>
+	 * @return the launch configurations that were saved, in the order of the
+	 *         working copies
+	 * @exception CoreException if a working copy cannot be saved
+	 * @since 3.11
+	 */
+	public ILaunchConfiguration[] saveLaunchConfigurations(ILaunchConfigurationWorkingCopy[] workingCopies, IProgressMonitor monitor) throws CoreException;
+
 }
 
 
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.core;
+
+/**
+ * The time spent in each phase of launching a launch configuration. Phases
+ * that were not performed, such as the build when launching without a build,
+ * have no duration.
+ * <p>
+ * Launch timelines are passed to {@link ILaunchTimelineListener}s after a
+ * launch configuration has been launched, whether launching succeeded or
+ * not.
+ * </p>
+ *
+ * @see ILaunchConfiguration#launch(String, org.eclipse.core.runtime.IProgressMonitor, boolean, boolean)
+ * @since 3.11
+ * @noimplement This interface is not intended to be implemented by clients.
+ */
+public interface ILaunchTimeline {
+
+	/**
+	 * Phase resolving the launch delegate and loading it
+	 */
+	public static final String PHASE_DELEGATE = "delegate"; //$NON-NLS-1$
+
+	/**
+	 * Phase creating the launch object and registering it with the launch
+	 * manager, which notifies launch listeners
+	 */
+	public static final String PHASE_CREATE_LAUNCH = "createLaunch"; //$NON-NLS-1$
+
+	/**
+	 * Phase of the delegate's pre-launch check
+	 */
+	public static final String PHASE_PRE_LAUNCH_CHECK = "preLaunchCheck"; //$NON-NLS-1$
+
+	/**
+	 * Phase of the delegate's build for launch
+	 */
+	public static final String PHASE_BUILD_FOR_LAUNCH = "buildForLaunch"; //$NON-NLS-1$
+
+	/**
+	 * Phase building the workspace incrementally, when the delegate requires
+	 * it
+	 */
+	public static final String PHASE_BUILD = "build"; //$NON-NLS-1$
+
+	/**
+	 * Phase of the delegate's final launch check
+	 */
+	public static final String PHASE_FINAL_LAUNCH_CHECK = "finalLaunchCheck"; //$NON-NLS-1$
+
+	/**
+	 * Phase initializing the source locator of the launch
+	 */
+	public static final String PHASE_SOURCE_LOCATOR = "sourceLocator"; //$NON-NLS-1$
+
+	/**
+	 * Phase of the delegate launching the configuration
+	 */
+	public static final String PHASE_LAUNCH = "launch"; //$NON-NLS-1$
+
+	/**
+	 * Returns the launched configuration.
+	 *
+	 * @return the launched configuration
+	 */
+	public ILaunchConfiguration getLaunchConfiguration();
+
+	/**
+	 * Returns the mode the configuration was launched in.
+	 *
+	 * @return the launch mode
+	 */
+	public String getLaunchMode();
+
+	/**
+	 * Returns the launch, or <code>null</code> if launching failed before the
+	 * launch was created.
+	 *
+	 * @return the launch or <code>null</code>
+	 */
+	public ILaunch getLaunch();
+
+	/**
+	 * Returns the identifier of the launch delegate, or <code>null</code> if
+	 * no delegate was found.
+	 *
+	 * @return the delegate identifier or <code>null</code>
+	 * @see ILaunchDelegate#getId()
+	 */
+	public String getDelegateId();
+
+	/**
+	 * Returns the time launching started, in milliseconds since the epoch.
+	 *
+	 * @return the start time
+	 */
+	public long getStartTime();
+
+	/**
+	 * Returns the phases that were performed, in order.
+	 *
+	 * @return the performed phases, one of the <code>PHASE_*</code>
+	 *         constants each
+	 */
+	public String[] getPhases();
+
+	/**
+	 * Returns the wall time spent in the given phase in nanoseconds, or
+	 * <code>-1</code> if the phase was not performed.
+	 *
+	 * @param phase one of the <code>PHASE_*</code> constants
+	 * @return the duration of the phase or <code>-1</code>
+	 */
+	public long getDuration(String phase);
+
+	/**
+	 * Returns the wall time spent launching in nanoseconds.
+	 *
+	 * @return the duration of the launch
+	 */
+	public long getTotalDuration();
+
+	/**
+	 * Returns whether the workspace was built before launching.
+	 *
+	 * @return whether the workspace was built
+	 */
+	public boolean isBuildPerformed();
+
+	/**
+	 * Returns whether the delegate launched the configuration. Launching is
+	 * not completed when a launch check vetoed the launch, when launching was
+	 * canceled, or when it failed.
+	 *
+	 * @return whether launching completed
+	 */
+	public boolean isCompleted();
+}
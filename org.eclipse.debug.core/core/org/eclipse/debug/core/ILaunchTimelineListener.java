@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.core;
+
+/**
+ * A launch timeline listener is notified of the time spent in each phase of
+ * launching a launch configuration.
+ * <p>
+ * Clients may implement this interface.
+ * </p>
+ *
+ * @see ILaunchManager#addLaunchTimelineListener(ILaunchTimelineListener)
+ * @since 3.11
+ */
+public interface ILaunchTimelineListener {
+
+	/**
+	 * Notifies this listener that a launch configuration has been launched,
+	 * or that launching it failed. Notification occurs in the thread that
+	 * launched the configuration.
+	 *
+	 * @param timeline the phases of launching the configuration
+	 */
+	public void launchTimed(ILaunchTimeline timeline);
+}
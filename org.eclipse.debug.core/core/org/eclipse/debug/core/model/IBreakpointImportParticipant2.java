@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.core.model;
+
+/**
+ * Extension to a breakpoint import participant that tells which existing
+ * breakpoints an imported breakpoint is compared with.
+ * <p>
+ * By default an imported breakpoint with a line number is only compared with
+ * the existing breakpoints of its marker type on the same line, as these are
+ * the attributes the default participant compares. A participant that matches
+ * breakpoints by other attributes, for example to match a breakpoint whose
+ * line has changed since it was exported, implements this interface to be
+ * asked about all breakpoints of the marker type.
+ * </p>
+ * <p>
+ * Clients may implement this interface.
+ * </p>
+ * @since 3.11
+ */
+public interface IBreakpointImportParticipant2 extends IBreakpointImportParticipant {
+
+	/**
+	 * Returns whether this participant only matches imported breakpoints with
+	 * existing breakpoints on the same line.
+	 *
+	 * @return <code>true</code> to only be asked about breakpoints on the
+	 *         line of the imported breakpoint, <code>false</code> to be asked
+	 *         about all breakpoints of its marker type
+	 */
+	public boolean matchesByLine();
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.core.model;
+
+/**
+ * Extension to a flushable stream monitor that allows to limit the size of
+ * the buffered contents. When a limit is set, only the most recent contents of
+ * the stream are retained and older contents are discarded.
+ * <p>
+ * Clients may implement this interface.
+ * </p>
+ * @since 3.11
+ */
+public interface IFlushableStreamMonitor2 extends IFlushableStreamMonitor {
+
+	/**
+	 * Limit value indicating that the buffered contents are not limited.
+	 */
+	public static final int UNLIMITED = -1;
+
+	/**
+	 * Limit kind indicating that the limit is a number of characters.
+	 */
+	public static final int LIMIT_CHARACTERS = 1;
+
+	/**
+	 * Limit kind indicating that the limit is a number of lines. The
+	 * incomplete line currently being written to the stream is retained in
+	 * addition to the given number of lines.
+	 */
+	public static final int LIMIT_LINES = 2;
+
+	/**
+	 * Sets the maximum size of the buffered contents of this monitor. When
+	 * the limit is exceeded, the oldest contents are discarded. Contents
+	 * already buffered are trimmed to the new limit.
+	 *
+	 * @param limit the maximum number of characters or lines to retain, or
+	 *            {@link #UNLIMITED}
+	 * @param kind one of {@link #LIMIT_CHARACTERS} or {@link #LIMIT_LINES}
+	 */
+	public void setBufferLimit(int limit, int kind);
+
+	/**
+	 * Returns the maximum size of the buffered contents of this monitor.
+	 *
+	 * @return the maximum number of characters or lines retained, or
+	 *         {@link #UNLIMITED}
+	 */
+	public int getBufferLimit();
+
+	/**
+	 * Returns the kind of the buffer limit of this monitor.
+	 *
+	 * @return one of {@link #LIMIT_CHARACTERS} or {@link #LIMIT_LINES}
+	 */
+	public int getBufferLimitKind();
+
+	/**
+	 * Returns the number of characters currently buffered by this monitor.
+	 *
+	 * @return the length of the buffered contents
+	 */
+	public int getContentsLength();
+
+	/**
+	 * Returns a range of the buffered contents of this monitor. Offsets are
+	 * relative to the oldest retained character.
+	 *
+	 * @param start the offset of the first character, inclusive
+	 * @param end the offset of the last character, exclusive
+	 * @return the requested range of the buffered contents
+	 * @exception IndexOutOfBoundsException if the range is not within the
+	 *                buffered contents
+	 */
+	public String getContents(int start, int end);
+}
@@ -14,11 +14,19 @@ package org.eclipse.debug.internal.core;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IMarkerDelta;
@@ -29,6 +37,7 @@ import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
@@ -50,7 +59,9 @@ import org.eclipse.debug.core.IBreakpointManagerListener;
 import org.eclipse.debug.core.IBreakpointsListener;
 import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.debug.core.model.IBreakpointImportParticipant;
+import org.eclipse.debug.core.model.ILineBreakpoint;
 import org.eclipse.debug.core.model.ITriggerPoint;
+import org.eclipse.debug.internal.core.StreamMonitorPool.DaemonThreadFactory;
 
 import com.ibm.icu.text.MessageFormat;
 
@@ -75,9 +86,22 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	private final static int CHANGED = 2;
 
 	/**
-	 * A collection of breakpoints registered with this manager.
+	 * The breakpoints registered with this manager, or <code>null</code> if
+	 * not yet loaded.
 	 */
-	private Vector<IBreakpoint> fBreakpoints = null;
+	private BreakpointRegistry fBreakpoints = null;
+
+	/**
+	 * Whether the breakpoints have been loaded, so that the registry can be
+	 * used without synchronizing on this manager.
+	 */
+	private volatile boolean fBreakpointsLoaded = false;
+
+	/**
+	 * Notifications deferred by the batch run by each thread, see
+	 * {@link #runBatch(IWorkspaceRunnable, IProgressMonitor)}
+	 */
+	private final ThreadLocal<BreakpointBatch> fBreakpointBatch = new ThreadLocal<BreakpointBatch>();
 
 	/**
 	 * Map of breakpoint import participants.
@@ -121,14 +145,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 * key: a marker type
 	 * value: the breakpoint extension which corresponds to that marker type
 	 */
-	private HashMap<String, IConfigurationElement> fBreakpointExtensions;
-
-	/**
-	 * Collection of markers that associates markers to breakpoints
-	 * key: a marker
-	 * value: the breakpoint which contains that marker
-	 */
-	private HashMap<IMarker, IBreakpoint> fMarkersToBreakpoints;
+	private Map<String, IConfigurationElement> fBreakpointExtensions;
 
 	/**
 	 * Collection of breakpoint listeners.
@@ -255,12 +272,141 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 
 	}
 
+	/**
+	 * The breakpoint markers of a resource, read when breakpoints are
+	 * restored.
+	 */
+	class MarkerScan implements Callable<Void> {
+
+		final IResource fResource;
+
+		final int fDepth;
+
+		/**
+		 * The persisted breakpoint markers found
+		 */
+		final List<PersistedBreakpoint> fBreakpoints = new ArrayList<PersistedBreakpoint>();
+
+		/**
+		 * Time the scan took, in milliseconds
+		 */
+		long fTime;
+
+		MarkerScan(IResource resource, int depth) {
+			fResource = resource;
+			fDepth = depth;
+		}
+
+		@Override
+		public Void call() throws CoreException {
+			long start = System.currentTimeMillis();
+			for (IMarker marker : getPersistedMarkers(fResource, fDepth)) {
+				fBreakpoints.add(new PersistedBreakpoint(marker));
+			}
+			fTime = System.currentTimeMillis() - start;
+			return null;
+		}
+	}
+
+	/**
+	 * The attributes of a persisted breakpoint marker needed to register its
+	 * breakpoint before the breakpoint is created.
+	 */
+	static class PersistedBreakpoint {
+
+		final IMarker fMarker;
+
+		final String fModelIdentifier;
+
+		final int fLine;
+
+		final boolean fRegistered;
+
+		final boolean fTriggerPoint;
+
+		PersistedBreakpoint(IMarker marker) {
+			fMarker = marker;
+			fModelIdentifier = marker.getAttribute(IBreakpoint.ID, null);
+			fLine = marker.getAttribute(IMarker.LINE_NUMBER, -1);
+			fRegistered = marker.getAttribute(IBreakpoint.REGISTERED, true);
+			fTriggerPoint = marker.getAttribute(ITriggerPoint.TRIGGERPOINT, false);
+		}
+	}
+
+	/**
+	 * Notifications deferred while a batch of breakpoint changes is run.
+	 */
+	static class BreakpointBatch {
+
+		/**
+		 * Type of change of each breakpoint, in the order the breakpoints were
+		 * first changed
+		 */
+		private final Map<IBreakpoint, Integer> fUpdates = new LinkedHashMap<IBreakpoint, Integer>();
+
+		/**
+		 * The first marker delta reported for each breakpoint, if any
+		 */
+		private final Map<IBreakpoint, IMarkerDelta> fDeltas = new HashMap<IBreakpoint, IMarkerDelta>();
+
+		/**
+		 * Whether the deferred notifications are being sent
+		 */
+		private boolean fFlushing = false;
+
+		/**
+		 * Records a change, merged with an earlier change of the same
+		 * breakpoint.
+		 *
+		 * @param breakpoint the breakpoint that has changed
+		 * @param delta the marker delta of the change, or <code>null</code>
+		 * @param update the type of change
+		 */
+		void add(IBreakpoint breakpoint, IMarkerDelta delta, int update) {
+			Integer previous = fUpdates.get(breakpoint);
+			if (previous == null) {
+				fUpdates.put(breakpoint, Integer.valueOf(update));
+				setDelta(breakpoint, delta);
+				return;
+			}
+			switch (previous.intValue()) {
+				case ADDED:
+					// changes of an added breakpoint are part of the addition
+					if (update == REMOVED) {
+						fUpdates.remove(breakpoint);
+						fDeltas.remove(breakpoint);
+					}
+					break;
+				case REMOVED:
+					if (update == ADDED) {
+						// the delta of the removal does not describe a change
+						fUpdates.put(breakpoint, Integer.valueOf(CHANGED));
+						fDeltas.remove(breakpoint);
+					}
+					break;
+				default:
+					if (update == REMOVED) {
+						fUpdates.put(breakpoint, Integer.valueOf(REMOVED));
+						fDeltas.remove(breakpoint);
+					}
+					setDelta(breakpoint, delta);
+					break;
+			}
+		}
+
+		private void setDelta(IBreakpoint breakpoint, IMarkerDelta delta) {
+			if (delta != null && !fDeltas.containsKey(breakpoint)) {
+				fDeltas.put(breakpoint, delta);
+			}
+		}
+	}
+
 	/**
 	 * Constructs a new breakpoint manager.
 	 */
 	public BreakpointManager() {
-		fMarkersToBreakpoints = new HashMap<IMarker, IBreakpoint>(10);
-		fBreakpointExtensions = new HashMap<String, IConfigurationElement>(15);
+		// read by threads creating restored breakpoints
+		fBreakpointExtensions = new ConcurrentHashMap<String, IConfigurationElement>(15);
 	}
 
 	/**
@@ -312,7 +458,22 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 * @throws CoreException if a problem is encountered
 	 */
 	protected IMarker[] getPersistedMarkers(IResource resource) throws CoreException {
-		IMarker[] markers= resource.findMarkers(IBreakpoint.BREAKPOINT_MARKER, true, IResource.DEPTH_INFINITE);
+		List<IMarker> persisted = getPersistedMarkers(resource, IResource.DEPTH_INFINITE);
+		return persisted.toArray(new IMarker[persisted.size()]);
+	}
+
+	/**
+	 * Returns the persisted markers on the given resource and, depending on
+	 * the depth, its members, and deletes any invalid breakpoint markers.
+	 *
+	 * @param resource the {@link IResource} to get markers for
+	 * @param depth the depth of the search, one of the <code>IResource.DEPTH_*</code> constants
+	 * @return the persisted markers
+	 * @throws CoreException if a problem is encountered
+	 * @see #getPersistedMarkers(IResource)
+	 */
+	private List<IMarker> getPersistedMarkers(IResource resource, int depth) throws CoreException {
+		IMarker[] markers= resource.findMarkers(IBreakpoint.BREAKPOINT_MARKER, true, depth);
 		final List<IMarker> delete = new ArrayList<IMarker>();
 		List<IMarker> persisted = new ArrayList<IMarker>();
 		for (int i = 0; i < markers.length; i++) {
@@ -345,7 +506,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 			};
 			new BreakpointManagerJob(wr).schedule();
 		}
-		return persisted.toArray(new IMarker[persisted.size()]);
+		return persisted;
 	}
 
 	/**
@@ -363,13 +524,11 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
         	fImportParticipants = null;
         	fDefaultParticipant = null;
         }
+        fBreakpointsLoaded = false;
         if(fBreakpoints != null) {
         	fBreakpoints.clear();
         	fBreakpoints = null;
         }
-        if(fMarkersToBreakpoints != null) {
-        	fMarkersToBreakpoints.clear();
-        }
 	}
 
 	/**
@@ -406,8 +565,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	@Override
 	public IBreakpoint getBreakpoint(IMarker marker) {
 		// ensure that breakpoints are initialized
-		getBreakpoints0();
-		return fMarkersToBreakpoints.get(marker);
+		return getBreakpoints0().getBreakpoint(marker);
 	}
 
 	/* (non-Javadoc)
@@ -415,13 +573,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 */
 	@Override
 	public IBreakpoint[] getBreakpoints() {
-		IBreakpoint[] temp = new IBreakpoint[0];
-		Vector<IBreakpoint> breakpoints = getBreakpoints0();
-		synchronized (breakpoints) {
-			temp = new IBreakpoint[breakpoints.size()];
-			breakpoints.copyInto(temp);
-		}
-		return temp;
+		return getBreakpoints0().getBreakpoints();
 	}
 
 	/**
@@ -442,13 +594,19 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 * The BreakpointManager waits to load the breakpoints
 	 * of the workspace until a request is made to retrieve the
 	 * breakpoints.
-	 * @return the underlying {@link Vector} of breakpoints
+	 * @return the registry of breakpoints
 	 */
-	private synchronized Vector<IBreakpoint> getBreakpoints0() {
-		if (fBreakpoints == null) {
-			initializeBreakpoints();
+	private BreakpointRegistry getBreakpoints0() {
+		if (fBreakpointsLoaded) {
+			return fBreakpoints;
+		}
+		synchronized (this) {
+			if (fBreakpoints == null) {
+				initializeBreakpoints();
+				fBreakpointsLoaded = true;
+			}
+			return fBreakpoints;
 		}
-		return fBreakpoints;
 	}
 
 	/* (non-Javadoc)
@@ -456,17 +614,27 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 */
 	@Override
 	public IBreakpoint[] getBreakpoints(String modelIdentifier) {
-		Vector<IBreakpoint> allBreakpoints = getBreakpoints0();
-		synchronized (allBreakpoints) {
-			ArrayList<IBreakpoint> temp = new ArrayList<IBreakpoint>(allBreakpoints.size());
-			for (IBreakpoint breakpoint : allBreakpoints) {
-				String id= breakpoint.getModelIdentifier();
-				if (id != null && id.equals(modelIdentifier)) {
-					temp.add(breakpoint);
-				}
-			}
-			return temp.toArray(new IBreakpoint[temp.size()]);
+		return getBreakpoints0().getBreakpoints(modelIdentifier);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.debug.core.IBreakpointManager#getBreakpoints(org.eclipse.core.resources.IResource)
+	 */
+	@Override
+	public IBreakpoint[] getBreakpoints(IResource resource) {
+		return getBreakpoints0().getBreakpoints(resource);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.debug.core.IBreakpointManager#getLineBreakpoint(org.eclipse.core.resources.IResource, int)
+	 */
+	@Override
+	public ILineBreakpoint getLineBreakpoint(IResource resource, int lineNumber) {
+		IBreakpoint[] breakpoints = getBreakpoints0().getLineBreakpoints(resource, lineNumber);
+		if (breakpoints.length > 0) {
+			return (ILineBreakpoint) breakpoints[0];
 		}
+		return null;
 	}
 
 	/**
@@ -474,17 +642,149 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 * workspace. Start listening to resource deltas.
 	 */
 	private void initializeBreakpoints() {
-		setBreakpoints(new Vector<IBreakpoint>(10));
+		setBreakpoints(new BreakpointRegistry(this));
 		try {
-			loadBreakpoints(getWorkspace().getRoot(), false);
+			restoreBreakpoints();
 			getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_BUILD);
 			getWorkspace().addResourceChangeListener(fPostChangeListener, IResourceChangeEvent.POST_CHANGE);
 		} catch (CoreException ce) {
 			DebugPlugin.log(ce);
-			setBreakpoints(new Vector<IBreakpoint>(0));
+			setBreakpoints(new BreakpointRegistry(this));
 		}
 	}
 
+	/**
+	 * Registers the breakpoints of the persisted breakpoint markers in the
+	 * workspace, without notifying listeners.
+	 * <p>
+	 * The markers of the workspace root and of each open project are read in
+	 * parallel. The breakpoints are registered by their marker and created
+	 * when first returned by this manager, except trigger points, which are
+	 * created to be added to the trigger points, and breakpoints whose marker
+	 * has no model identifier, which are created to be found by the model
+	 * identifier of the breakpoint.
+	 * </p>
+	 *
+	 * @throws CoreException if a problem is encountered
+	 */
+	private void restoreBreakpoints() throws CoreException {
+		long start = System.currentTimeMillis();
+		initBreakpointExtensions();
+		IWorkspaceRoot root = getWorkspace().getRoot();
+		List<MarkerScan> scans = new ArrayList<MarkerScan>();
+		// markers of the workspace root are not found in the projects
+		scans.add(new MarkerScan(root, IResource.DEPTH_ZERO));
+		for (IProject project : root.getProjects()) {
+			if (project.isAccessible()) {
+				scans.add(new MarkerScan(project, IResource.DEPTH_INFINITE));
+			}
+		}
+		int threads = scanMarkers(scans);
+
+		List<PersistedBreakpoint> triggerPoints = new ArrayList<PersistedBreakpoint>();
+		List<PersistedBreakpoint> unidentified = new ArrayList<PersistedBreakpoint>();
+		for (MarkerScan scan : scans) {
+			synchronized (fPostChangMarkersChanged) {
+				for (PersistedBreakpoint persisted : scan.fBreakpoints) {
+					fPostBuildMarkersAdded.add(persisted.fMarker);
+				}
+			}
+			for (PersistedBreakpoint persisted : scan.fBreakpoints) {
+				if (persisted.fRegistered) {
+					fBreakpoints.add(persisted.fMarker, persisted.fModelIdentifier, persisted.fLine);
+					if (persisted.fModelIdentifier == null) {
+						unidentified.add(persisted);
+					}
+				}
+				if (persisted.fTriggerPoint) {
+					triggerPoints.add(persisted);
+				}
+			}
+			if (DebugOptions.DEBUG_BREAKPOINTS) {
+				DebugOptions.trace("Read " + scan.fBreakpoints.size() + " breakpoint markers of " + scan.fResource.getFullPath() + " in " + scan.fTime + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			}
+		}
+		// the model identifier of a breakpoint whose marker does not have one
+		// is only known once the breakpoint is created
+		for (PersistedBreakpoint persisted : unidentified) {
+			fBreakpoints.getBreakpoint(persisted.fMarker);
+		}
+		for (PersistedBreakpoint persisted : triggerPoints) {
+			IBreakpoint breakpoint = null;
+			if (persisted.fRegistered) {
+				breakpoint = fBreakpoints.getBreakpoint(persisted.fMarker);
+			} else {
+				try {
+					breakpoint = newBreakpoint(persisted.fMarker);
+				} catch (DebugException e) {
+					DebugPlugin.log(e);
+				}
+			}
+			if (breakpoint instanceof ITriggerPoint && ((ITriggerPoint) breakpoint).isTriggerPoint()) {
+				addTriggerPoint(breakpoint);
+			}
+		}
+		if (DebugOptions.DEBUG_BREAKPOINTS) {
+			DebugOptions.trace("Restored " + fBreakpoints.size() + " breakpoints (" + triggerPoints.size() + " trigger points and " + unidentified.size() + " without model identifier created) from " + (scans.size() - 1) + " projects in " + (System.currentTimeMillis() - start) + "ms using " + threads + " threads"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+		}
+	}
+
+	/**
+	 * Runs the given scans, in parallel if there is more than one. A scan
+	 * that fails is logged and its markers are not restored.
+	 *
+	 * @param scans the scans to run
+	 * @return the number of threads the scans were run in
+	 */
+	private int scanMarkers(List<MarkerScan> scans) {
+		int threads = Math.min(scans.size(), Runtime.getRuntime().availableProcessors());
+		if (threads <= 1) {
+			for (MarkerScan scan : scans) {
+				try {
+					scan.call();
+				} catch (CoreException e) {
+					DebugPlugin.log(e);
+				}
+			}
+			return 1;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory(DebugCoreMessages.BreakpointManager_Restorer, Thread.NORM_PRIORITY));
+		List<Future<Void>> submitted = new ArrayList<Future<Void>>(scans.size());
+		try {
+			for (MarkerScan scan : scans) {
+				submitted.add(executor.submit(scan));
+			}
+		} finally {
+			executor.shutdown();
+		}
+		// all scans must complete, breakpoints are restored only once
+		boolean interrupted = false;
+		for (Future<Void> future : submitted) {
+			while (true) {
+				try {
+					future.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof CoreException) {
+						DebugPlugin.log(cause);
+					} else if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					} else if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					break;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		return threads;
+	}
+
 	/**
 	 * @see IBreakpointManager#isRegistered(IBreakpoint)
 	 */
@@ -508,18 +808,14 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	@Override
 	public void removeBreakpoints(IBreakpoint[] breakpoints, final boolean delete) throws CoreException {
 		final List<IBreakpoint> remove = new ArrayList<IBreakpoint>(breakpoints.length);
-		List<IBreakpoint> bps = getBreakpoints0();
+		BreakpointRegistry bps = getBreakpoints0();
 		for (int i = 0; i < breakpoints.length; i++) {
 			IBreakpoint breakpoint = breakpoints[i];
-			if (bps.contains(breakpoint)) {
+			if (bps.remove(breakpoint)) {
 				remove.add(breakpoint);
 			}
 		}
 		if (!remove.isEmpty()) {
-			for (IBreakpoint breakpoint : remove) {
-				bps.remove(breakpoint);
-				fMarkersToBreakpoints.remove(breakpoint.getMarker());
-			}
 			fireUpdate(remove, null, REMOVED);
 			refreshTriggerpointDisplay();
 			IWorkspaceRunnable r = new IWorkspaceRunnable() {
@@ -564,10 +860,25 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 * </ol>
 	 */
 	public IBreakpoint createBreakpoint(IMarker marker) throws DebugException {
-		IBreakpoint breakpoint= fMarkersToBreakpoints.get(marker);
+		IBreakpoint breakpoint= getBreakpoints0().getBreakpoint(marker);
 		if (breakpoint != null) {
 			return breakpoint;
 		}
+		return newBreakpoint(marker);
+	}
+
+	/**
+	 * Creates a new breakpoint for the given marker, whether or not a
+	 * breakpoint is registered for the marker.
+	 *
+	 * @param marker marker to create a breakpoint for
+	 * @return a new breakpoint on this marker, or <code>null</code> if the
+	 *         breakpoint extension does not create a breakpoint
+	 * @exception DebugException if breakpoint creation fails
+	 * @see #createBreakpoint(IMarker)
+	 */
+	IBreakpoint newBreakpoint(IMarker marker) throws DebugException {
+		IBreakpoint breakpoint = null;
 		try {
 			IConfigurationElement config = fBreakpointExtensions.get(marker.getType());
 			if (config == null) {
@@ -619,9 +930,9 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 				verifyBreakpoint(breakpoint);
 				if (breakpoint.isRegistered()) {
 				    // If notify == false, the breakpoints are just being added at startup
-					added.add(breakpoint);
-					getBreakpoints0().add(breakpoint);
-					fMarkersToBreakpoints.put(breakpoint.getMarker(), breakpoint);
+					if (getBreakpoints0().add(breakpoint)) {
+						added.add(breakpoint);
+					}
 				} else {
 					// need to update the 'registered' and/or 'group' attributes
 					update.add(breakpoint);
@@ -635,11 +946,10 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 			IWorkspaceRunnable r = new IWorkspaceRunnable() {
 				@Override
 				public void run(IProgressMonitor monitor) throws CoreException {
-					List<IBreakpoint> bps = getBreakpoints0();
+					BreakpointRegistry bps = getBreakpoints0();
 					for (IBreakpoint breakpoint : update) {
 						bps.add(breakpoint);
 						breakpoint.setRegistered(true);
-						fMarkersToBreakpoints.put(breakpoint.getMarker(), breakpoint);
 					}
 				}
 			};
@@ -886,11 +1196,12 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		 * @return matching breakpoint if exists else return <code>null</code>
 		 */
 		private IBreakpoint findMatchingBreakpoint(IMarker marker) {
-			Vector<IBreakpoint> breakpoints = getBreakpoints0();
+			// only breakpoints on the same resource can match
+			IBreakpoint[] breakpoints = getBreakpoints0().getBreakpoints(marker.getResource());
 			try {
 				Integer line = (Integer) marker.getAttribute(IMarker.LINE_NUMBER);
-				for (int i = 0; i < breakpoints.size(); i++) {
-					IBreakpoint breakpoint = breakpoints.get(i);
+				for (int i = 0; i < breakpoints.length; i++) {
+					IBreakpoint breakpoint = breakpoints[i];
 					IMarker bpMarker = breakpoint.getMarker();
 					if (bpMarker != null && marker.getResource().equals(bpMarker.getResource()) && bpMarker.getAttribute(IMarker.LINE_NUMBER, -1) == (line == null ? -1 : line.intValue())) {
 						return breakpoint;
@@ -911,6 +1222,10 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 				fPostChangMarkersChanged.remove(marker);
 				fPostBuildMarkersAdded.remove(marker);
 			}
+			// a breakpoint that was never created has not been seen by listeners
+			if (getBreakpoints0().removeUncreated(marker)) {
+				return;
+			}
 			IBreakpoint breakpoint= getBreakpoint(marker);
 			if (breakpoint != null) {
 				fRemoved.add(breakpoint);
@@ -924,6 +1239,10 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		 */
 		protected void handleChangeBreakpoint(IMarker marker, IMarkerDelta delta) {
 			IBreakpoint breakpoint= getBreakpoint(marker);
+			if (breakpoint != null) {
+				// keep the line index up to date, the line may have moved
+				getBreakpoints0().updateLine(breakpoint);
+			}
 			if (breakpoint != null && isRegistered(breakpoint) && !isChangeSuppressed(breakpoint)) {
 				fChanged.add(breakpoint);
 				fChangedDeltas.add(delta);
@@ -937,12 +1256,10 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		 */
 		private void handleProjectResourceOpenStateChange(final IResource project) {
 			if (!project.isAccessible()) {
-				//closed
-				for (@SuppressWarnings("unchecked") IBreakpoint breakpoint : (Vector<IBreakpoint>) getBreakpoints0().clone()) {
-					IResource markerResource= breakpoint.getMarker().getResource();
-					if (project.getFullPath().isPrefixOf(markerResource.getFullPath())) {
-						fRemoved.add(breakpoint);
-					}
+				//closed, breakpoints that were never created are not created from the closed markers
+				getBreakpoints0().removeUncreated(project.getProject());
+				for (IBreakpoint breakpoint : getBreakpoints0().getBreakpoints(project.getProject())) {
+					fRemoved.add(breakpoint);
 				}
 				return;
 			}
@@ -981,6 +1298,13 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		if (breakpoints.isEmpty()) {
 			return;
 		}
+		BreakpointBatch batch = fBreakpointBatch.get();
+		if (batch != null && !batch.fFlushing) {
+			for (int i = 0; i < breakpoints.size(); i++) {
+				batch.add(breakpoints.get(i), deltas != null ? deltas.get(i) : null, update);
+			}
+			return;
+		}
 		IBreakpoint[] bpArray = breakpoints.toArray(new IBreakpoint[breakpoints.size()]);
 		IMarkerDelta[] deltaArray = new IMarkerDelta[bpArray.length];
 		if (deltas != null) {
@@ -993,7 +1317,99 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		getBreakpointsNotifier().notify(bpArray, deltaArray, update);
 	}
 
+	/**
+	 * Sends the notifications deferred while running a batch. Listeners of
+	 * single breakpoints are notified in the order the breakpoints were
+	 * changed, followed by one notification of the "plural" listeners for
+	 * each type of change.
+	 *
+	 * @param batch the deferred notifications
+	 */
+	private void flushBreakpointBatch(BreakpointBatch batch) {
+		batch.fFlushing = true;
+		if (batch.fUpdates.isEmpty()) {
+			return;
+		}
+		List<IBreakpoint> added = new ArrayList<IBreakpoint>();
+		List<IBreakpoint> changed = new ArrayList<IBreakpoint>();
+		List<IMarkerDelta> changedDeltas = new ArrayList<IMarkerDelta>();
+		List<IBreakpoint> removed = new ArrayList<IBreakpoint>();
+		List<IMarkerDelta> removedDeltas = new ArrayList<IMarkerDelta>();
+		BreakpointNotifier notifier = getBreakpointNotifier();
+		for (Entry<IBreakpoint, Integer> entry : batch.fUpdates.entrySet()) {
+			IBreakpoint breakpoint = entry.getKey();
+			IMarkerDelta delta = batch.fDeltas.get(breakpoint);
+			int update = entry.getValue().intValue();
+			notifier.notify(new IBreakpoint[] { breakpoint }, new IMarkerDelta[] { delta }, update);
+			switch (update) {
+				case ADDED:
+					added.add(breakpoint);
+					break;
+				case REMOVED:
+					removed.add(breakpoint);
+					removedDeltas.add(delta);
+					break;
+				default:
+					changed.add(breakpoint);
+					changedDeltas.add(delta);
+					break;
+			}
+		}
+		if (fBreakpointsListeners.isEmpty()) {
+			return;
+		}
+		BreakpointsNotifier breakpointsNotifier = getBreakpointsNotifier();
+		if (!added.isEmpty()) {
+			breakpointsNotifier.notify(added.toArray(new IBreakpoint[added.size()]), new IMarkerDelta[added.size()], ADDED);
+		}
+		if (!changed.isEmpty()) {
+			breakpointsNotifier.notify(changed.toArray(new IBreakpoint[changed.size()]), changedDeltas.toArray(new IMarkerDelta[changedDeltas.size()]), CHANGED);
+		}
+		if (!removed.isEmpty()) {
+			breakpointsNotifier.notify(removed.toArray(new IBreakpoint[removed.size()]), removedDeltas.toArray(new IMarkerDelta[removedDeltas.size()]), REMOVED);
+		}
+	}
+
+	/**
+	 * @see IBreakpointManager#runBatch(IWorkspaceRunnable, IProgressMonitor)
+	 */
+	@Override
+	public void runBatch(IWorkspaceRunnable runnable, IProgressMonitor monitor) throws CoreException {
+		BreakpointBatch outer = fBreakpointBatch.get();
+		// changes made by a listener of an outer batch get a batch of their own
+		boolean nested = outer != null && !outer.fFlushing;
+		if (!nested) {
+			fBreakpointBatch.set(new BreakpointBatch());
+		}
+		try {
+			// marker changes are broadcast once, at the end of the operation
+			getWorkspace().run(runnable, null, 0, monitor);
+		} finally {
+			if (!nested) {
+				try {
+					flushBreakpointBatch(fBreakpointBatch.get());
+				} finally {
+					fBreakpointBatch.set(outer);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replaces the registered breakpoints with the given breakpoints, without
+	 * notifying listeners.
+	 *
+	 * @param breakpoints the breakpoints to register
+	 */
 	protected void setBreakpoints(Vector<IBreakpoint> breakpoints) {
+		BreakpointRegistry registry = new BreakpointRegistry(this);
+		for (IBreakpoint breakpoint : breakpoints) {
+			registry.add(breakpoint);
+		}
+		setBreakpoints(registry);
+	}
+
+	private void setBreakpoints(BreakpointRegistry breakpoints) {
 		fBreakpoints = breakpoints;
 	}
 
@@ -1385,13 +1801,19 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 
 	@Override
 	public void removeAllTriggerPoints() throws CoreException {
-		IBreakpoint[] triggerPointBreakpointList = fTriggerPointBreakpointList.toArray(new IBreakpoint[0]);
-		for (IBreakpoint iBreakpoint : triggerPointBreakpointList) {
-			if (iBreakpoint instanceof ITriggerPoint) {
-				((ITriggerPoint) iBreakpoint).setTriggerPoint(false);
+		final IBreakpoint[] triggerPointBreakpointList = fTriggerPointBreakpointList.toArray(new IBreakpoint[0]);
+		IWorkspaceRunnable runnable = new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				for (IBreakpoint iBreakpoint : triggerPointBreakpointList) {
+					if (iBreakpoint instanceof ITriggerPoint) {
+						((ITriggerPoint) iBreakpoint).setTriggerPoint(false);
+					}
+				}
+				refreshTriggerpointDisplay();
 			}
-		}
-		refreshTriggerpointDisplay();
+		};
+		runBatch(runnable, null);
 	}
 
 	@Override
@@ -1412,20 +1834,27 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	}
 
 	@Override
-	public void enableTriggerPoints(IBreakpoint[] triggerPoints, boolean enable) {
-		IBreakpoint[] triggerPointList = triggerPoints;
-		if (triggerPoints == null) {
-			triggerPointList = fTriggerPointBreakpointList.toArray(new IBreakpoint[0]);
-		}
-		for (IBreakpoint iBreakpoint : triggerPointList) {
-			try {
-				IMarker m = iBreakpoint.getMarker();
-				if (m != null && m.exists()) {
-					iBreakpoint.setEnabled(enable);
+	public void enableTriggerPoints(IBreakpoint[] triggerPoints, final boolean enable) {
+		final IBreakpoint[] triggerPointList = triggerPoints != null ? triggerPoints : fTriggerPointBreakpointList.toArray(new IBreakpoint[0]);
+		IWorkspaceRunnable runnable = new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) {
+				for (IBreakpoint iBreakpoint : triggerPointList) {
+					try {
+						IMarker m = iBreakpoint.getMarker();
+						if (m != null && m.exists()) {
+							iBreakpoint.setEnabled(enable);
+						}
+					} catch (CoreException e) {
+						DebugPlugin.log(e);
+					}
 				}
-			} catch (CoreException e) {
-				e.printStackTrace();
 			}
+		};
+		try {
+			runBatch(runnable, null);
+		} catch (CoreException e) {
+			DebugPlugin.log(e);
 		}
 	}
 
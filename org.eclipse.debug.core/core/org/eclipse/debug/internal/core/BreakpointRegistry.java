@@ -0,0 +1,639 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.core.model.ILineBreakpoint;
+
+/**
+ * The breakpoints registered with the breakpoint manager, indexed by marker,
+ * model identifier, resource and, for line breakpoints, line number. Line
+ * numbers are read when a breakpoint is registered and updated by the
+ * breakpoint manager when the marker of a breakpoint changes.
+ * <p>
+ * Breakpoints restored from the workspace are registered by their marker and
+ * only created when first returned, so that restoring the breakpoints of a
+ * workspace does not instantiate the breakpoint classes of every debug
+ * model. A restored breakpoint that cannot be created is logged and
+ * unregistered. A restored breakpoint is indexed by the model identifier of
+ * its marker until it is created, and by its own model identifier once
+ * created.
+ * </p>
+ * <p>
+ * Lookups do not lock. Breakpoints are returned from snapshots that are
+ * taken when first requested after a change, so that the registry is not
+ * locked while the breakpoints are iterated or created. Changes are
+ * serialized on the registry.
+ * </p>
+ */
+class BreakpointRegistry {
+
+	private static final IBreakpoint[] EMPTY = new IBreakpoint[0];
+
+	/**
+	 * A registered breakpoint, with what it was indexed by when it was
+	 * registered, so that it is removed from the same entries of the indexes.
+	 */
+	private static class Registration {
+
+		final IMarker fMarker;
+
+		/**
+		 * Model identifier of the breakpoint. The model identifier of a
+		 * restored breakpoint is read from its marker, and replaced by the
+		 * model identifier of the breakpoint when it is created.
+		 */
+		String fModelIdentifier;
+
+		final IResource fResource;
+
+		/**
+		 * Line number of a line breakpoint, or -1. The line number of a
+		 * restored breakpoint is read from its marker, the breakpoint is
+		 * checked to be a line breakpoint when it is returned.
+		 */
+		int fLine;
+
+		/**
+		 * The breakpoint, or <code>null</code> until a restored breakpoint is
+		 * created
+		 */
+		volatile IBreakpoint fBreakpoint;
+
+		Registration(IBreakpoint breakpoint) {
+			fMarker = breakpoint.getMarker();
+			fModelIdentifier = breakpoint.getModelIdentifier();
+			fResource = fMarker != null ? fMarker.getResource() : null;
+			fLine = getLine(breakpoint, fMarker);
+			fBreakpoint = breakpoint;
+		}
+
+		Registration(IMarker marker, String modelIdentifier, int line) {
+			fMarker = marker;
+			fModelIdentifier = modelIdentifier;
+			fResource = marker.getResource();
+			fLine = line;
+		}
+
+		/**
+		 * Returns what the registration is found by, the marker, or the
+		 * breakpoint if it has no marker.
+		 */
+		Object getKey() {
+			return fMarker != null ? fMarker : fBreakpoint;
+		}
+	}
+
+	/**
+	 * Creates the restored breakpoints
+	 */
+	private final BreakpointManager fManager;
+
+	/**
+	 * Registrations by marker, or by breakpoint for breakpoints without a
+	 * marker
+	 */
+	private final Map<Object, Registration> fRegistrations = new ConcurrentHashMap<Object, Registration>();
+
+	/**
+	 * Registrations in the order they were registered
+	 */
+	private final Set<Registration> fOrdered = new LinkedHashSet<Registration>();
+
+	/**
+	 * Registrations by model identifier, in the order they were registered
+	 */
+	private final Map<String, Set<Registration>> fModels = new HashMap<String, Set<Registration>>();
+
+	/**
+	 * Registrations by marker resource, in the order they were registered
+	 */
+	private final Map<IResource, Set<Registration>> fResources = new HashMap<IResource, Set<Registration>>();
+
+	/**
+	 * Registrations of line breakpoints by marker resource and line number,
+	 * in the order they were registered or moved to the line
+	 */
+	private final Map<IResource, Map<Integer, Set<Registration>>> fLines = new HashMap<IResource, Map<Integer, Set<Registration>>>();
+
+	/**
+	 * Number of changes, so that a snapshot is only kept if there was no
+	 * change while its breakpoints were created
+	 */
+	private int fModificationCount = 0;
+
+	/**
+	 * Snapshot of all registered breakpoints, or <code>null</code> if
+	 * changed since taken
+	 */
+	private volatile IBreakpoint[] fSnapshot = EMPTY;
+
+	/**
+	 * Snapshots of the breakpoints of each model identifier, removed when
+	 * changed
+	 */
+	private final Map<String, IBreakpoint[]> fModelSnapshots = new ConcurrentHashMap<String, IBreakpoint[]>();
+
+	/**
+	 * Creates an empty registry.
+	 *
+	 * @param manager the breakpoint manager, which creates restored
+	 *            breakpoints
+	 */
+	BreakpointRegistry(BreakpointManager manager) {
+		fManager = manager;
+	}
+
+	/**
+	 * Registers a breakpoint.
+	 *
+	 * @param breakpoint the breakpoint to register
+	 * @return whether the breakpoint was registered, <code>false</code> if
+	 *         already registered
+	 */
+	synchronized boolean add(IBreakpoint breakpoint) {
+		if (contains(breakpoint)) {
+			return false;
+		}
+		add(new Registration(breakpoint));
+		return true;
+	}
+
+	/**
+	 * Registers the breakpoint of a restored marker. The breakpoint is
+	 * created when first returned.
+	 *
+	 * @param marker the breakpoint marker
+	 * @param modelIdentifier the model identifier of the marker
+	 * @param line the line number of the marker, or -1
+	 * @return whether the breakpoint was registered, <code>false</code> if
+	 *         already registered
+	 */
+	synchronized boolean add(IMarker marker, String modelIdentifier, int line) {
+		if (fRegistrations.containsKey(marker)) {
+			return false;
+		}
+		add(new Registration(marker, modelIdentifier, line));
+		return true;
+	}
+
+	/**
+	 * Unregisters a breakpoint.
+	 *
+	 * @param breakpoint the breakpoint to unregister
+	 * @return whether the breakpoint was unregistered, <code>false</code> if
+	 *         not registered
+	 */
+	synchronized boolean remove(IBreakpoint breakpoint) {
+		Registration registration = fRegistrations.get(getKey(breakpoint));
+		if (registration == null) {
+			return false;
+		}
+		remove(registration);
+		return true;
+	}
+
+	/**
+	 * Unregisters the breakpoint of a restored marker if the breakpoint has
+	 * not been created, so that it is not created from a marker that has been
+	 * deleted.
+	 *
+	 * @param marker the marker of a breakpoint
+	 * @return whether a breakpoint that had not been created was
+	 *         unregistered
+	 */
+	synchronized boolean removeUncreated(IMarker marker) {
+		Registration registration = fRegistrations.get(marker);
+		if (registration == null || registration.fBreakpoint != null) {
+			return false;
+		}
+		remove(registration);
+		return true;
+	}
+
+	/**
+	 * Unregisters the breakpoints of restored markers on resources of the
+	 * given project that have not been created, so that they are not created
+	 * from the markers of a closed project.
+	 *
+	 * @param project project
+	 */
+	synchronized void removeUncreated(IProject project) {
+		List<Registration> uncreated = new ArrayList<Registration>();
+		for (Entry<IResource, Set<Registration>> entry : fResources.entrySet()) {
+			if (project.equals(entry.getKey().getProject())) {
+				for (Registration registration : entry.getValue()) {
+					if (registration.fBreakpoint == null) {
+						uncreated.add(registration);
+					}
+				}
+			}
+		}
+		for (Registration registration : uncreated) {
+			remove(registration);
+		}
+	}
+
+	/**
+	 * Reads the line number of a registered line breakpoint again, after its
+	 * marker has changed.
+	 *
+	 * @param breakpoint a breakpoint whose marker has changed
+	 */
+	synchronized void updateLine(IBreakpoint breakpoint) {
+		Registration registration = fRegistrations.get(getKey(breakpoint));
+		if (registration == null || registration.fResource == null) {
+			return;
+		}
+		int line = getLine(breakpoint, registration.fMarker);
+		if (line != registration.fLine) {
+			removeLine(registration);
+			registration.fLine = line;
+			addLine(registration);
+		}
+	}
+
+	/**
+	 * Unregisters all breakpoints.
+	 */
+	synchronized void clear() {
+		fRegistrations.clear();
+		fOrdered.clear();
+		fModels.clear();
+		fResources.clear();
+		fLines.clear();
+		fModelSnapshots.clear();
+		fModificationCount++;
+		fSnapshot = EMPTY;
+	}
+
+	/**
+	 * Returns whether the given breakpoint is registered.
+	 *
+	 * @param breakpoint breakpoint
+	 * @return whether the breakpoint is registered
+	 */
+	boolean contains(IBreakpoint breakpoint) {
+		return fRegistrations.containsKey(getKey(breakpoint));
+	}
+
+	/**
+	 * Returns whether no breakpoint is registered.
+	 *
+	 * @return whether no breakpoint is registered
+	 */
+	boolean isEmpty() {
+		return fRegistrations.isEmpty();
+	}
+
+	/**
+	 * Returns the number of registered breakpoints.
+	 *
+	 * @return the number of registered breakpoints
+	 */
+	int size() {
+		return fRegistrations.size();
+	}
+
+	/**
+	 * Returns the registered breakpoint of the given marker.
+	 *
+	 * @param marker marker
+	 * @return the breakpoint, or <code>null</code> if none
+	 */
+	IBreakpoint getBreakpoint(IMarker marker) {
+		Registration registration = fRegistrations.get(marker);
+		if (registration == null) {
+			return null;
+		}
+		return getBreakpoint(registration);
+	}
+
+	/**
+	 * Returns the registered breakpoints, in the order they were registered.
+	 * The array is not shared and may be modified by the caller.
+	 *
+	 * @return the registered breakpoints
+	 */
+	IBreakpoint[] getBreakpoints() {
+		IBreakpoint[] snapshot = fSnapshot;
+		if (snapshot == null) {
+			Registration[] registrations;
+			int modificationCount;
+			synchronized (this) {
+				registrations = fOrdered.toArray(new Registration[fOrdered.size()]);
+				modificationCount = fModificationCount;
+			}
+			snapshot = getBreakpoints(registrations);
+			synchronized (this) {
+				if (modificationCount == fModificationCount) {
+					fSnapshot = snapshot;
+				}
+			}
+		}
+		return snapshot.clone();
+	}
+
+	/**
+	 * Returns the registered breakpoints with the given model identifier.
+	 * The array is not shared and may be modified by the caller.
+	 *
+	 * @param modelIdentifier model identifier
+	 * @return the breakpoints of the model
+	 */
+	IBreakpoint[] getBreakpoints(String modelIdentifier) {
+		if (modelIdentifier == null) {
+			return EMPTY;
+		}
+		IBreakpoint[] snapshot = fModelSnapshots.get(modelIdentifier);
+		if (snapshot == null) {
+			Registration[] registrations;
+			int modificationCount;
+			synchronized (this) {
+				registrations = toArray(fModels.get(modelIdentifier));
+				modificationCount = fModificationCount;
+			}
+			snapshot = getBreakpoints(registrations);
+			if (hasOtherModel(snapshot, modelIdentifier)) {
+				// restored breakpoints created with another model identifier
+				// than their marker's have been indexed by their own
+				List<IBreakpoint> breakpoints = new ArrayList<IBreakpoint>(snapshot.length);
+				for (IBreakpoint breakpoint : snapshot) {
+					if (modelIdentifier.equals(breakpoint.getModelIdentifier())) {
+						breakpoints.add(breakpoint);
+					}
+				}
+				snapshot = breakpoints.toArray(new IBreakpoint[breakpoints.size()]);
+			}
+			synchronized (this) {
+				if (modificationCount == fModificationCount) {
+					fModelSnapshots.put(modelIdentifier, snapshot);
+				}
+			}
+		}
+		return snapshot.clone();
+	}
+
+	/**
+	 * Returns the registered breakpoints whose marker is on the given
+	 * resource.
+	 *
+	 * @param resource resource
+	 * @return the breakpoints of the resource
+	 */
+	IBreakpoint[] getBreakpoints(IResource resource) {
+		Registration[] registrations;
+		synchronized (this) {
+			registrations = toArray(fResources.get(resource));
+		}
+		return getBreakpoints(registrations);
+	}
+
+	/**
+	 * Returns the registered breakpoints whose marker is on a resource of the
+	 * given project.
+	 *
+	 * @param project project
+	 * @return the breakpoints of the project
+	 */
+	IBreakpoint[] getBreakpoints(IProject project) {
+		List<Registration> registrations = new ArrayList<Registration>();
+		synchronized (this) {
+			for (Entry<IResource, Set<Registration>> entry : fResources.entrySet()) {
+				if (project.equals(entry.getKey().getProject())) {
+					registrations.addAll(entry.getValue());
+				}
+			}
+		}
+		return getBreakpoints(toArray(registrations));
+	}
+
+	/**
+	 * Returns the registered line breakpoints on the given line of the given
+	 * resource.
+	 *
+	 * @param resource resource
+	 * @param line line number
+	 * @return the line breakpoints on the line
+	 */
+	IBreakpoint[] getLineBreakpoints(IResource resource, int line) {
+		Registration[] registrations;
+		synchronized (this) {
+			Map<Integer, Set<Registration>> lines = fLines.get(resource);
+			if (lines == null) {
+				return EMPTY;
+			}
+			registrations = toArray(lines.get(Integer.valueOf(line)));
+		}
+		List<IBreakpoint> breakpoints = new ArrayList<IBreakpoint>(registrations.length);
+		for (Registration registration : registrations) {
+			IBreakpoint breakpoint = getBreakpoint(registration);
+			if (breakpoint instanceof ILineBreakpoint) {
+				breakpoints.add(breakpoint);
+			}
+		}
+		return breakpoints.toArray(new IBreakpoint[breakpoints.size()]);
+	}
+
+	/**
+	 * Returns the breakpoint of a registration, creating the breakpoint of a
+	 * restored marker. A breakpoint that cannot be created is unregistered,
+	 * as is a breakpoint whose marker no longer exists. The breakpoint is
+	 * created without locking the registry, as creating it may activate the
+	 * plug-in of its debug model.
+	 *
+	 * @param registration registration
+	 * @return the breakpoint, or <code>null</code> if it could not be created
+	 */
+	private IBreakpoint getBreakpoint(Registration registration) {
+		IBreakpoint breakpoint = registration.fBreakpoint;
+		if (breakpoint != null) {
+			return breakpoint;
+		}
+		// the marker may be deleted before the removal is processed
+		if (registration.fMarker.exists()) {
+			try {
+				breakpoint = fManager.newBreakpoint(registration.fMarker);
+			} catch (DebugException e) {
+				DebugPlugin.log(e);
+			}
+		}
+		synchronized (this) {
+			if (registration.fBreakpoint != null) {
+				// created concurrently, breakpoints of the same marker are equal
+				return registration.fBreakpoint;
+			}
+			if (breakpoint == null) {
+				if (fRegistrations.get(registration.getKey()) == registration) {
+					remove(registration);
+				}
+				return null;
+			}
+			registration.fBreakpoint = breakpoint;
+			String modelIdentifier = breakpoint.getModelIdentifier();
+			if (modelIdentifier == null ? registration.fModelIdentifier != null : !modelIdentifier.equals(registration.fModelIdentifier)) {
+				setModelIdentifier(registration, modelIdentifier);
+			}
+			return breakpoint;
+		}
+	}
+
+	/**
+	 * Indexes a registration by the model identifier of its breakpoint, which
+	 * differs from the model identifier of its marker. The registration is
+	 * ordered last among the breakpoints of the model identifier.
+	 */
+	private void setModelIdentifier(Registration registration, String modelIdentifier) {
+		if (fRegistrations.get(registration.getKey()) != registration) {
+			// unregistered while the breakpoint was created
+			registration.fModelIdentifier = modelIdentifier;
+			return;
+		}
+		if (registration.fModelIdentifier != null) {
+			removeFrom(fModels, registration.fModelIdentifier, registration);
+			fModelSnapshots.remove(registration.fModelIdentifier);
+		}
+		registration.fModelIdentifier = modelIdentifier;
+		if (modelIdentifier != null) {
+			addTo(fModels, modelIdentifier, registration);
+			fModelSnapshots.remove(modelIdentifier);
+		}
+		fModificationCount++;
+	}
+
+	private static boolean hasOtherModel(IBreakpoint[] breakpoints, String modelIdentifier) {
+		for (IBreakpoint breakpoint : breakpoints) {
+			if (!modelIdentifier.equals(breakpoint.getModelIdentifier())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private IBreakpoint[] getBreakpoints(Registration[] registrations) {
+		List<IBreakpoint> breakpoints = new ArrayList<IBreakpoint>(registrations.length);
+		for (Registration registration : registrations) {
+			IBreakpoint breakpoint = getBreakpoint(registration);
+			if (breakpoint != null) {
+				breakpoints.add(breakpoint);
+			}
+		}
+		return breakpoints.toArray(new IBreakpoint[breakpoints.size()]);
+	}
+
+	private void add(Registration registration) {
+		fRegistrations.put(registration.getKey(), registration);
+		fOrdered.add(registration);
+		if (registration.fModelIdentifier != null) {
+			addTo(fModels, registration.fModelIdentifier, registration);
+			fModelSnapshots.remove(registration.fModelIdentifier);
+		}
+		if (registration.fResource != null) {
+			addTo(fResources, registration.fResource, registration);
+			addLine(registration);
+		}
+		fModificationCount++;
+		fSnapshot = null;
+	}
+
+	private void remove(Registration registration) {
+		fRegistrations.remove(registration.getKey());
+		fOrdered.remove(registration);
+		if (registration.fModelIdentifier != null) {
+			removeFrom(fModels, registration.fModelIdentifier, registration);
+			fModelSnapshots.remove(registration.fModelIdentifier);
+		}
+		if (registration.fResource != null) {
+			removeFrom(fResources, registration.fResource, registration);
+			removeLine(registration);
+		}
+		fModificationCount++;
+		fSnapshot = null;
+	}
+
+	private void addLine(Registration registration) {
+		if (registration.fLine < 0) {
+			return;
+		}
+		Map<Integer, Set<Registration>> lines = fLines.get(registration.fResource);
+		if (lines == null) {
+			lines = new HashMap<Integer, Set<Registration>>();
+			fLines.put(registration.fResource, lines);
+		}
+		addTo(lines, Integer.valueOf(registration.fLine), registration);
+	}
+
+	private void removeLine(Registration registration) {
+		if (registration.fLine < 0) {
+			return;
+		}
+		Map<Integer, Set<Registration>> lines = fLines.get(registration.fResource);
+		if (lines != null) {
+			removeFrom(lines, Integer.valueOf(registration.fLine), registration);
+			if (lines.isEmpty()) {
+				fLines.remove(registration.fResource);
+			}
+		}
+	}
+
+	private static Object getKey(IBreakpoint breakpoint) {
+		IMarker marker = breakpoint.getMarker();
+		return marker != null ? marker : breakpoint;
+	}
+
+	private static int getLine(IBreakpoint breakpoint, IMarker marker) {
+		if (breakpoint instanceof ILineBreakpoint && marker != null) {
+			return marker.getAttribute(IMarker.LINE_NUMBER, -1);
+		}
+		return -1;
+	}
+
+	private static <K> void addTo(Map<K, Set<Registration>> index, K key, Registration registration) {
+		Set<Registration> registrations = index.get(key);
+		if (registrations == null) {
+			registrations = new LinkedHashSet<Registration>(4);
+			index.put(key, registrations);
+		}
+		registrations.add(registration);
+	}
+
+	private static <K> void removeFrom(Map<K, Set<Registration>> index, K key, Registration registration) {
+		Set<Registration> registrations = index.get(key);
+		if (registrations != null) {
+			registrations.remove(registration);
+			if (registrations.isEmpty()) {
+				index.remove(key);
+			}
+		}
+	}
+
+	private static Registration[] toArray(Collection<Registration> registrations) {
+		if (registrations == null || registrations.isEmpty()) {
+			return new Registration[0];
+		}
+		return registrations.toArray(new Registration[registrations.size()]);
+	}
+}
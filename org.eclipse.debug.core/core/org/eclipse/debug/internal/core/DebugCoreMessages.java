@@ -19,6 +19,7 @@ public class DebugCoreMessages extends NLS {
 	public static String Breakpoint_no_associated_marker;
 	public static String BreakpointManager_Missing_breakpoint_definition;
 	public static String BreakpointManager_Missing_model_identifier;
+	public static String BreakpointManager_Restorer;
 	public static String DebugEvent_illegal_detail;
 	public static String DebugEvent_illegal_kind;
 	public static String DebugPlugin_0;
@@ -34,6 +35,7 @@ public class DebugCoreMessages extends NLS {
 	public static String EnvironmentVariableResolver_0;
 	public static String GroupLaunchConfigurationDelegate_Delay;
 	public static String GroupLaunchConfigurationDelegate_Delaying;
+	public static String GroupLaunchConfigurationDelegate_Launcher;
 	public static String GroupLaunchConfigurationDelegate_Launching;
 	public static String GroupLaunchConfigurationDelegate_mode_debug;
 
@@ -44,7 +46,9 @@ public class DebugCoreMessages extends NLS {
 	public static String GroupLaunchConfigurationDelegate_mode_run;
 
 	public static String GroupLaunchConfigurationDelegate_None;
+	public static String GroupLaunchConfigurationDelegate_Wait_for_output;
 	public static String GroupLaunchConfigurationDelegate_Wait_until_terminated;
+	public static String GroupLaunchConfigurationDelegate_Waiting_for_output;
 	public static String GroupLaunchConfigurationDelegate_Waiting_for_termination;
 	public static String LaunchConfiguration_0;
 	public static String LaunchConfiguration_11;
@@ -78,6 +82,7 @@ public class DebugCoreMessages extends NLS {
 	public static String LaunchManager_28;
 	public static String LaunchManager_29;
 	public static String LaunchManager_31;
+	public static String LaunchManager_32;
 	public static String LaunchMode_1;
 	public static String LogicalStructureProvider_0;
 	public static String LogicalStructureProvider_1;
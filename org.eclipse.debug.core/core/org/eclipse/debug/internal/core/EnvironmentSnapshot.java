@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Immutable snapshot of environment variables, holding the
+ * <code>name=value</code> strings passed to processes. Environments that
+ * differ from the snapshot in a few variables are built with an
+ * {@link Overlay}, which only copies the strings when a variable of the
+ * snapshot is changed.
+ */
+final class EnvironmentSnapshot {
+
+	private final String[] fNames;
+
+	/**
+	 * <code>name=value</code> of each variable
+	 */
+	private final String[] fEntries;
+
+	/**
+	 * Indices of the variables keyed by {@link #getKey(String)}
+	 */
+	private final Map<String, Integer> fIndices;
+
+	/**
+	 * Whether variable names are case insensitive, as on Windows
+	 */
+	private final boolean fIgnoreCase;
+
+	/**
+	 * Creates a snapshot of the given variables.
+	 *
+	 * @param variables variable names and values
+	 * @param ignoreCase whether variable names are case insensitive
+	 */
+	EnvironmentSnapshot(Map<String, String> variables, boolean ignoreCase) {
+		fIgnoreCase = ignoreCase;
+		fNames = new String[variables.size()];
+		fEntries = new String[variables.size()];
+		fIndices = new HashMap<String, Integer>(variables.size() * 4 / 3 + 1);
+		int i = 0;
+		for (Entry<String, String> entry : variables.entrySet()) {
+			fNames[i] = entry.getKey();
+			fEntries[i] = entry.getKey() + '=' + entry.getValue();
+			fIndices.put(getKey(entry.getKey()), Integer.valueOf(i));
+			i++;
+		}
+	}
+
+	/**
+	 * Returns a new overlay of this snapshot.
+	 *
+	 * @return a new overlay
+	 */
+	Overlay newOverlay() {
+		return new Overlay();
+	}
+
+	/**
+	 * Returns the key of a variable in the index. Case insensitive names are
+	 * compared in upper case.
+	 *
+	 * @param name variable name
+	 * @return the key of the variable
+	 */
+	String getKey(String name) {
+		return fIgnoreCase ? name.toUpperCase(Locale.ENGLISH) : name;
+	}
+
+	/**
+	 * An environment that differs from the snapshot in some variables.
+	 */
+	class Overlay {
+
+		/**
+		 * The strings of the snapshot, copied on the first change
+		 */
+		private String[] fOverlayEntries = fEntries;
+
+		private final List<String> fAddedNames = new ArrayList<String>(4);
+
+		private final List<String> fAddedEntries = new ArrayList<String>(4);
+
+		/**
+		 * Indices of the added variables keyed by {@link #getKey(String)}
+		 */
+		private final Map<String, Integer> fAddedIndices = new HashMap<String, Integer>(4);
+
+		/**
+		 * Sets a variable. Setting a variable that exists under a name
+		 * differing in case, where names are case insensitive, keeps the
+		 * existing name.
+		 *
+		 * @param name variable name
+		 * @param value variable value
+		 */
+		void set(String name, String value) {
+			String key = getKey(name);
+			Integer index = fIndices.get(key);
+			if (index != null) {
+				int i = index.intValue();
+				if (fOverlayEntries == fEntries) {
+					fOverlayEntries = fEntries.clone();
+				}
+				fOverlayEntries[i] = fNames[i] + '=' + value;
+				return;
+			}
+			index = fAddedIndices.get(key);
+			if (index != null) {
+				int i = index.intValue();
+				fAddedEntries.set(i, fAddedNames.get(i) + '=' + value);
+				return;
+			}
+			fAddedIndices.put(key, Integer.valueOf(fAddedNames.size()));
+			fAddedNames.add(name);
+			fAddedEntries.add(name + '=' + value);
+		}
+
+		/**
+		 * Returns the <code>name=value</code> strings of the environment.
+		 *
+		 * @return the environment
+		 */
+		String[] toArray() {
+			String[] entries = new String[fOverlayEntries.length + fAddedEntries.size()];
+			System.arraycopy(fOverlayEntries, 0, entries, 0, fOverlayEntries.length);
+			for (int i = 0; i < fAddedEntries.size(); i++) {
+				entries[fOverlayEntries.length + i] = fAddedEntries.get(i);
+			}
+			return entries;
+		}
+	}
+}
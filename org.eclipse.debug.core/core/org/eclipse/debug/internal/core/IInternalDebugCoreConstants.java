@@ -41,4 +41,26 @@ public interface IInternalDebugCoreConstants {
 	 */
 	public static final String PREF_BREAKPOINT_MANAGER_ENABLED_STATE =  DebugPlugin.getUniqueIdentifier() + ".PREF_BREAKPOINT_MANAGER_ENABLED_STATE"; //$NON-NLS-1$
 
+	/**
+	 * Boolean preference controlling whether the streams of processes are
+	 * monitored on a small pool of shared threads rather than on dedicated
+	 * threads. Default value is <code>false</code>. The system property
+	 * <code>org.eclipse.debug.core.sharedStreamMonitors</code> overrides it.
+	 *
+	 * @since 3.11
+	 */
+	public static final String PREF_SHARED_STREAM_MONITORS = DebugPlugin.getUniqueIdentifier() + ".PREF_SHARED_STREAM_MONITORS"; //$NON-NLS-1$
+
+	/**
+	 * Boolean preference controlling whether the attributes of launch
+	 * configurations are read from their files only when first accessed,
+	 * rather than when the configuration is first used. Default value is
+	 * <code>false</code>. The system property
+	 * <code>org.eclipse.debug.core.lazyLaunchConfigurationAttributes</code>
+	 * overrides it.
+	 *
+	 * @since 3.11
+	 */
+	public static final String PREF_LAZY_LAUNCH_CONFIGURATION_ATTRIBUTES = DebugPlugin.getUniqueIdentifier() + ".PREF_LAZY_LAUNCH_CONFIGURATION_ATTRIBUTES"; //$NON-NLS-1$
+
 }
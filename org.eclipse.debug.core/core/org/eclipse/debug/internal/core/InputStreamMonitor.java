@@ -14,6 +14,7 @@ package org.eclipse.debug.internal.core;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Vector;
+import java.util.concurrent.Executor;
 
 import org.eclipse.debug.core.DebugPlugin;
 
@@ -53,6 +54,24 @@ public class InputStreamMonitor {
 	 */
 	private String fEncoding;
 
+	/**
+	 * The executor writing queued text when no dedicated thread is used, or
+	 * <code>null</code>.
+	 */
+	private Executor fExecutor;
+
+	/**
+	 * Whether a task writing queued text has been submitted to the executor.
+	 * Guarded by <code>fLock</code>.
+	 */
+	private boolean fWriting = false;
+
+	/**
+	 * Whether the monitor has been closed while using an executor. Guarded by
+	 * <code>fLock</code>.
+	 */
+	private boolean fShutdown = false;
+
 	/**
 	 * Creates an input stream monitor which writes to system in via the given output stream.
 	 *
@@ -86,6 +105,9 @@ public class InputStreamMonitor {
 		synchronized(fLock) {
 			fQueue.add(text);
 			fLock.notifyAll();
+			if (fExecutor != null) {
+				scheduleWrite();
+			}
 		}
 	}
 
@@ -105,6 +127,20 @@ public class InputStreamMonitor {
 		}
 	}
 
+	/**
+	 * Starts writing the stream on the given executor. Instead of a dedicated
+	 * thread waiting for input, a task is submitted whenever text is queued.
+	 *
+	 * @param executor the executor to write on
+	 */
+	public void startMonitoring(Executor executor) {
+		if (fThread == null) {
+			synchronized (fLock) {
+				fExecutor = executor;
+			}
+		}
+	}
+
 	/**
 	 * Close all communications between this
 	 * monitor and the underlying stream.
@@ -115,6 +151,53 @@ public class InputStreamMonitor {
 			fThread= null;
 			thread.interrupt();
 		}
+		synchronized (fLock) {
+			if (fExecutor != null && !fShutdown) {
+				fShutdown = true;
+				scheduleWrite();
+			}
+		}
+	}
+
+	/**
+	 * Submits a task writing the queued text to the executor, unless one is
+	 * already pending. Must be called holding <code>fLock</code>.
+	 */
+	private void scheduleWrite() {
+		if (!fWriting) {
+			fWriting = true;
+			fExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					writeQueued();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Writes the queued text to the stream, and closes the stream once the
+	 * monitor has been closed.
+	 */
+	private void writeQueued() {
+		while (true) {
+			String text;
+			synchronized (fLock) {
+				if (fQueue.isEmpty() || fClosed) {
+					fWriting = false;
+					if (fShutdown && !fClosed) {
+						try {
+							fStream.close();
+						} catch (IOException e) {
+							DebugPlugin.log(e);
+						}
+					}
+					return;
+				}
+				text = fQueue.remove(0);
+			}
+			writeText(text);
+		}
 	}
 
 	/**
@@ -140,16 +223,7 @@ public class InputStreamMonitor {
 		while (!fQueue.isEmpty() && !fClosed) {
 			String text = fQueue.firstElement();
 			fQueue.removeElementAt(0);
-			try {
-				if (fEncoding != null) {
-					fStream.write(text.getBytes(fEncoding));
-				} else {
-					fStream.write(text.getBytes());
-				}
-				fStream.flush();
-			} catch (IOException e) {
-				DebugPlugin.log(e);
-			}
+			writeText(text);
 		}
 		try {
 			synchronized(fLock) {
@@ -159,6 +233,24 @@ public class InputStreamMonitor {
 		}
 	}
 
+	/**
+	 * Writes the given text to the stream.
+	 *
+	 * @param text text to write
+	 */
+	private void writeText(String text) {
+		try {
+			if (fEncoding != null) {
+				fStream.write(text.getBytes(fEncoding));
+			} else {
+				fStream.write(text.getBytes());
+			}
+			fStream.flush();
+		} catch (IOException e) {
+			DebugPlugin.log(e);
+		}
+	}
+
     /**
      * Closes the output stream attached to the standard input stream of this
      * monitor's process.
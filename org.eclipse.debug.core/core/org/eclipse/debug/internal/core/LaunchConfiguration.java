@@ -44,6 +44,8 @@ import org.eclipse.core.runtime.PlatformObject;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.variables.ISubstitutionSession;
+import org.eclipse.core.variables.VariablesPlugin;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunch;
@@ -51,6 +53,7 @@ import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationType;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.debug.core.ILaunchDelegate;
+import org.eclipse.debug.core.ILaunchTimeline;
 import org.eclipse.debug.core.IStatusHandler;
 import org.eclipse.debug.core.Launch;
 import org.eclipse.debug.core.model.ILaunchConfigurationDelegate;
@@ -527,9 +530,26 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 		if (paths == null || paths.size() == 0) {
 			return null;
 		}
-		List<String> types = getAttribute(ATTR_MAPPED_RESOURCE_TYPES, (List<String>) null);
+		return getMappedResources(paths, getAttribute(ATTR_MAPPED_RESOURCE_TYPES, (List<String>) null));
+	}
+
+	/**
+	 * Returns the resources described by the values of the
+	 * {@link #ATTR_MAPPED_RESOURCE_PATHS} and
+	 * {@link #ATTR_MAPPED_RESOURCE_TYPES} attributes.
+	 *
+	 * @param paths mapped resource paths or <code>null</code>
+	 * @param types mapped resource types or <code>null</code>
+	 * @return the mapped resources or <code>null</code> if none
+	 * @throws CoreException if the attribute values are invalid
+	 * @since 3.11
+	 */
+	static IResource[] getMappedResources(List<String> paths, List<String> types) throws CoreException {
+		if (paths == null || paths.size() == 0) {
+			return null;
+		}
 		if (types == null || types.size() != paths.size()) {
-			throw new CoreException(newStatus(DebugCoreMessages.LaunchConfiguration_0, DebugPlugin.ERROR, null));
+			throw new CoreException(newMappingStatus(null));
 		}
 		ArrayList<IResource> list = new ArrayList<IResource>();
 		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
@@ -540,7 +560,7 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 			try {
 				type = Integer.decode(typeStr).intValue();
 			} catch (NumberFormatException e) {
-				throw new CoreException(newStatus(DebugCoreMessages.LaunchConfiguration_0, DebugPlugin.ERROR, e));
+				throw new CoreException(newMappingStatus(e));
 			}
 			IPath path = Path.fromPortableString(pathStr);
 			IResource res = null;
@@ -561,7 +581,7 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 					res = root;
 					break;
 				default:
-					throw new CoreException(newStatus(DebugCoreMessages.LaunchConfiguration_0, DebugPlugin.ERROR, null));
+					throw new CoreException(newMappingStatus(null));
 			}
 			if(res != null) {
 				list.add(res);
@@ -573,6 +593,16 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 		return list.toArray(new IResource[list.size()]);
 	}
 
+	/**
+	 * Returns the error status of invalid mapped resource attributes.
+	 *
+	 * @param e exception or <code>null</code>
+	 * @return status
+	 */
+	private static IStatus newMappingStatus(Throwable e) {
+		return new Status(IStatus.ERROR, DebugPlugin.getUniqueIdentifier(), DebugPlugin.ERROR, DebugCoreMessages.LaunchConfiguration_0, e);
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.core.ILaunchConfiguration#getMemento()
 	 */
@@ -744,6 +774,23 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
      */
     @Override
 	public ILaunch launch(String mode, IProgressMonitor monitor, boolean build, boolean register) throws CoreException {
+		// resolve each stable dynamic variable only once while launching
+		try (ISubstitutionSession session = VariablesPlugin.getDefault().getStringVariableManager().openSubstitutionSession()) {
+			return doLaunch(mode, monitor, build, register);
+		}
+	}
+
+	/**
+	 * Launches this configuration in the given mode.
+	 *
+	 * @param mode the mode to launch in
+	 * @param monitor progress monitor or <code>null</code>
+	 * @param build whether to build before launching
+	 * @param register whether to register the launch with the launch manager
+	 * @return the resulting launch
+	 * @throws CoreException if launching fails
+	 */
+	private ILaunch doLaunch(String mode, IProgressMonitor monitor, boolean build, boolean register) throws CoreException {
     	/* Setup progress monitor
     	 * - Prepare delegate (0)
     	 * - Pre-launch check (1)
@@ -753,7 +800,10 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
     	 * - Initialize source locator (1)
     	 * - Launch delegate (10) */
 		SubMonitor lmonitor = SubMonitor.convert(monitor, DebugCoreMessages.LaunchConfiguration_9, build ? 23 : 13);
+		LaunchTimeline timeline = new LaunchTimeline(this, mode);
+		boolean completed = false;
     	try {
+			timeline.begin(ILaunchTimeline.PHASE_DELEGATE);
 			// bug 28245 - force the delegate to load in case it is interested in launch notifications
 			Set<String> modes = getModes();
 	    	modes.add(mode);
@@ -761,6 +811,7 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 	    	ILaunchConfigurationDelegate delegate = null;
 	    	if (delegates.length == 1) {
 	    		delegate = delegates[0].getDelegate();
+				timeline.setDelegateId(delegates[0].getId());
 	    	} else if (delegates.length == 0) {
 	    		IStatusHandler handler = DebugPlugin.getDefault().getStatusHandler(promptStatus);
 	    		if (handler != null) {
@@ -786,6 +837,7 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 						}
 						if(del != null) {
 							delegate = del.getDelegate();
+							timeline.setDelegateId(del.getId());
 						}
 						else {
 							status = new Status(IStatus.CANCEL, DebugPlugin.getUniqueIdentifier(), DebugPlugin.ERROR, DebugCoreMessages.LaunchConfiguration_13, null);
@@ -799,9 +851,11 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 	    		}
 	    		else {
 	    			delegate = del.getDelegate();
+					timeline.setDelegateId(del.getId());
 	    		}
 	    	}
 
+			timeline.begin(ILaunchTimeline.PHASE_CREATE_LAUNCH);
 			ILaunchConfigurationDelegate2 delegate2 = null;
 			if (delegate instanceof ILaunchConfigurationDelegate2) {
 				delegate2 = (ILaunchConfigurationDelegate2) delegate;
@@ -822,6 +876,7 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 					throw new CoreException(status);
 				}
 			}
+			timeline.setLaunch(launch);
 			launch.setAttribute(DebugPlugin.ATTR_LAUNCH_TIMESTAMP, Long.toString(System.currentTimeMillis()));
 			boolean captureOutput = getAttribute(DebugPlugin.ATTR_CAPTURE_OUTPUT, true);
 			if(!captureOutput) {
@@ -836,7 +891,9 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 		// perform initial pre-launch sanity checks
 			lmonitor.subTask(DebugCoreMessages.LaunchConfiguration_8);
 
+			timeline.end();
 			if (delegate2 != null) {
+				timeline.begin(ILaunchTimeline.PHASE_PRE_LAUNCH_CHECK);
 				if (!(delegate2.preLaunchCheck(this, mode, new SubProgressMonitor(lmonitor, 1)))) {
 					getLaunchManager().removeLaunch(launch);
 					return launch;
@@ -852,10 +909,13 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 				buildMonitor.subTask(DebugCoreMessages.LaunchConfiguration_6);
 				boolean tempbuild = build;
 				if (delegate2 != null) {
+					timeline.begin(ILaunchTimeline.PHASE_BUILD_FOR_LAUNCH);
 					tempbuild = delegate2.buildForLaunch(this, mode, new SubProgressMonitor(buildMonitor, 7));
 				}
 				if (tempbuild) {
 					buildMonitor.subTask(DebugCoreMessages.LaunchConfiguration_5);
+					timeline.begin(ILaunchTimeline.PHASE_BUILD);
+					timeline.setBuildPerformed(true);
 					ResourcesPlugin.getWorkspace().build(IncrementalProjectBuilder.INCREMENTAL_BUILD, new SubProgressMonitor(buildMonitor, 3));
 				}
 				else {
@@ -864,7 +924,9 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 			}
 		// final validation
 			lmonitor.subTask(DebugCoreMessages.LaunchConfiguration_4);
+			timeline.end();
 			if (delegate2 != null) {
+				timeline.begin(ILaunchTimeline.PHASE_FINAL_LAUNCH_CHECK);
 				if (!(delegate2.finalLaunchCheck(this, mode, new SubProgressMonitor(lmonitor, 1)))) {
 					getLaunchManager().removeLaunch(launch);
 					return launch;
@@ -877,12 +939,15 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 			try {
 				//initialize the source locator
 				lmonitor.subTask(DebugCoreMessages.LaunchConfiguration_3);
+				timeline.begin(ILaunchTimeline.PHASE_SOURCE_LOCATOR);
 				initializeSourceLocator(launch);
 				lmonitor.worked(1);
 
 				/* Launch the delegate */
 				lmonitor.subTask(DebugCoreMessages.LaunchConfiguration_2);
+				timeline.begin(ILaunchTimeline.PHASE_LAUNCH);
 				delegate.launch(this, mode, launch, new SubProgressMonitor(lmonitor, 10));
+				timeline.end();
 			} catch (CoreException e) {
 				// if there was an exception, and the launch is empty, remove it
 				if (!launch.hasChildren()) {
@@ -898,11 +963,15 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 			}
 			if (lmonitor.isCanceled()) {
 				getLaunchManager().removeLaunch(launch);
+			} else {
+				completed = true;
 			}
 			return launch;
     	}
     	finally {
 			lmonitor.done();
+			timeline.done(completed);
+			getLaunchManager().fireLaunchTimed(timeline);
     	}
     }
 
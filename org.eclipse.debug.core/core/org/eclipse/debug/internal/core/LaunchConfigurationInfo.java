@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,9 @@
 package org.eclipse.debug.internal.core;
 
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -20,11 +22,13 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.TransformerException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
@@ -32,10 +36,10 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunchConfigurationType;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import com.ibm.icu.text.MessageFormat;
 
@@ -61,6 +65,27 @@ public class LaunchConfigurationInfo {
 	private static final String STRING_ATTRIBUTE = "stringAttribute"; //$NON-NLS-1$
 	private static final String TYPE = "type"; //$NON-NLS-1$
 
+	/**
+	 * Line separator used in the XML, as the XML serializer used to
+	 */
+	private static final String LINE_SEPARATOR = System.getProperty("line.separator"); //$NON-NLS-1$
+
+	/**
+	 * Factory for the parsers reading launch configuration XML
+	 */
+	private static final SAXParserFactory fgParserFactory = SAXParserFactory.newInstance();
+
+	/**
+	 * Parser of each thread, reused as creating a parser is more expensive
+	 * than parsing a typical launch configuration
+	 */
+	private static final ThreadLocal<SAXParser> fgParser = new ThreadLocal<SAXParser>();
+
+	/**
+	 * Thrown to stop parsing once the type has been read
+	 */
+	private static final SAXException STOP_PARSING = new SAXException("stop"); //$NON-NLS-1$
+
 	/**
 	 * This configurations attribute table. Keys are <code>String</code>s and
 	 * values are one of <code>String</code>, <code>Integer</code>,
@@ -75,6 +100,19 @@ public class LaunchConfigurationInfo {
 	 */
 	private ILaunchConfigurationType fType;
 
+	/**
+	 * XML to read the attributes from when first accessed, or
+	 * <code>null</code> if the attribute table is up to date
+	 */
+	private volatile byte[] fContent;
+
+	/**
+	 * Why the attributes could not be read from the XML content, or
+	 * <code>null</code>. Rethrown when the attributes are accessed, so that
+	 * a corrupt configuration is not mistaken for an empty one.
+	 */
+	private volatile CoreException fLoadException;
+
 	/**
 	 * Whether running on Sun 1.4 VM - see bug 110215
 	 */
@@ -103,9 +141,28 @@ public class LaunchConfigurationInfo {
 	 * @return attribute table
 	 */
 	private TreeMap<String, Object> getAttributeTable() {
+		if (fContent != null) {
+			loadAttributes();
+		}
 		return fAttributes;
 	}
 
+	/**
+	 * Returns this configuration's attribute table, failing if the
+	 * attributes could not be read from the XML content.
+	 *
+	 * @return attribute table
+	 * @throws CoreException if the attributes could not be read
+	 */
+	private TreeMap<String, Object> getLoadedAttributeTable() throws CoreException {
+		TreeMap<String, Object> table = getAttributeTable();
+		CoreException exception = fLoadException;
+		if (exception != null) {
+			throw exception;
+		}
+		return table;
+	}
+
 	/**
 	 * Sets this configuration's attribute table.
 	 *
@@ -114,6 +171,8 @@ public class LaunchConfigurationInfo {
 	 */
 	private void setAttributeTable(TreeMap<String, Object> table) {
 		fAttributes = table;
+		fContent = null;
+		fLoadException = null;
 	}
 
 	/**
@@ -141,7 +200,7 @@ public class LaunchConfigurationInfo {
 	 *             <code>String</code>
 	 */
 	protected String getStringAttribute(String key, String defaultValue) throws CoreException {
-		Object attr = getAttributeTable().get(key);
+		Object attr = getLoadedAttributeTable().get(key);
 		if (attr != null) {
 			if (attr instanceof String) {
 				return (String)attr;
@@ -168,7 +227,7 @@ public class LaunchConfigurationInfo {
 	 *             <code>int</code>
 	 */
 	protected int getIntAttribute(String key, int defaultValue) throws CoreException {
-		Object attr = getAttributeTable().get(key);
+		Object attr = getLoadedAttributeTable().get(key);
 		if (attr != null) {
 			if (attr instanceof Integer) {
 				return ((Integer)attr).intValue();
@@ -195,7 +254,7 @@ public class LaunchConfigurationInfo {
 	 *             <code>boolean</code>
 	 */
 	protected boolean getBooleanAttribute(String key, boolean defaultValue) throws CoreException {
-		Object attr = getAttributeTable().get(key);
+		Object attr = getLoadedAttributeTable().get(key);
 		if (attr != null) {
 			if (attr instanceof Boolean) {
 				return ((Boolean)attr).booleanValue();
@@ -223,7 +282,7 @@ public class LaunchConfigurationInfo {
 	 */
 	@SuppressWarnings("unchecked")
 	protected List<String> getListAttribute(String key, List<String> defaultValue) throws CoreException {
-		Object attr = getAttributeTable().get(key);
+		Object attr = getLoadedAttributeTable().get(key);
 		if (attr != null) {
 			if (attr instanceof List) {
 				return (List<String>) attr;
@@ -254,7 +313,7 @@ public class LaunchConfigurationInfo {
 	 */
 	@SuppressWarnings("unchecked")
 	protected Set<String> getSetAttribute(String key, Set<String> defaultValue) throws CoreException {
-		Object attr = getAttributeTable().get(key);
+		Object attr = getLoadedAttributeTable().get(key);
 		if (attr != null) {
 			if (attr instanceof Set) {
 				return (Set<String>) attr;
@@ -282,7 +341,7 @@ public class LaunchConfigurationInfo {
 	 */
 	@SuppressWarnings("unchecked")
 	protected Map<String, String> getMapAttribute(String key, Map<String, String> defaultValue) throws CoreException {
-		Object attr = getAttributeTable().get(key);
+		Object attr = getLoadedAttributeTable().get(key);
 		if (attr != null) {
 			if (attr instanceof Map) {
 				return (Map<String, String>) attr;
@@ -321,8 +380,9 @@ public class LaunchConfigurationInfo {
 	 * Returns a copy of this info object
 	 *
 	 * @return copy of this info
+	 * @throws CoreException if the attributes could not be read
 	 */
-	protected LaunchConfigurationInfo getCopy() {
+	protected LaunchConfigurationInfo getCopy() throws CoreException {
 		LaunchConfigurationInfo copy = new LaunchConfigurationInfo();
 		copy.setType(getType());
 		copy.setAttributeTable(getAttributes());
@@ -333,9 +393,10 @@ public class LaunchConfigurationInfo {
 	 * Returns a copy of this info's attribute map.
 	 *
 	 * @return a copy of this info's attribute map
+	 * @throws CoreException if the attributes could not be read
 	 */
-	protected TreeMap<String, Object> getAttributes() {
-		return new TreeMap<String, Object>(getAttributeTable());
+	protected TreeMap<String, Object> getAttributes() throws CoreException {
+		return new TreeMap<String, Object>(getLoadedAttributeTable());
 	}
 
 	/**
@@ -361,22 +422,16 @@ public class LaunchConfigurationInfo {
 	 * @return the content of this info as XML
 	 * @throws CoreException
 	 *             if a attribute has been set with a null key
-	 * @throws IOException
-	 *             if an exception occurs creating the XML
-	 * @throws ParserConfigurationException
-	 *             if an exception occurs creating the XML
-	 * @throws TransformerException
-	 *             if an exception occurs creating the XML
 	 */
 	@SuppressWarnings("unchecked")
-	protected String getAsXML() throws CoreException, IOException, ParserConfigurationException, TransformerException {
-		Document doc = LaunchManager.getDocument();
-		Element configRootElement = doc.createElement(LAUNCH_CONFIGURATION);
-		doc.appendChild(configRootElement);
-
-		configRootElement.setAttribute(TYPE, getType().getIdentifier());
-
-		for (String key : getAttributeTable().keySet()) {
+	protected String getAsXML() throws CoreException {
+		StringBuilder xml = new StringBuilder(1024);
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>").append(LINE_SEPARATOR); //$NON-NLS-1$
+		xml.append('<').append(LAUNCH_CONFIGURATION);
+		appendAttribute(xml, TYPE, getType().getIdentifier());
+		boolean empty = true;
+		for (Entry<String, Object> entry : getLoadedAttributeTable().entrySet()) {
+			String key = entry.getKey();
 			if (key == null) {
 				throw new DebugException(
 					new Status(
@@ -385,314 +440,386 @@ public class LaunchConfigurationInfo {
 					)
 				);
 			}
-			Object value = getAttributeTable().get(key);
+			Object value = entry.getValue();
 			if (value == null) {
 				continue;
 			}
-			Element element = null;
-			String valueString = null;
+			if (empty) {
+				xml.append('>').append(LINE_SEPARATOR);
+				empty = false;
+			}
 			if (value instanceof String) {
-				valueString = (String)value;
-				element = createKeyValueElement(doc, STRING_ATTRIBUTE, key, valueString);
+				appendKeyValueElement(xml, STRING_ATTRIBUTE, key, (String) value);
 			} else if (value instanceof Integer) {
-				valueString = ((Integer)value).toString();
-				element = createKeyValueElement(doc, INT_ATTRIBUTE, key, valueString);
+				appendKeyValueElement(xml, INT_ATTRIBUTE, key, ((Integer) value).toString());
 			} else if (value instanceof Boolean) {
-				valueString = ((Boolean)value).toString();
-				element = createKeyValueElement(doc, BOOLEAN_ATTRIBUTE, key, valueString);
+				appendKeyValueElement(xml, BOOLEAN_ATTRIBUTE, key, ((Boolean) value).toString());
 			} else if (value instanceof List) {
-				element = createListElement(doc, LIST_ATTRIBUTE, key, (List<String>) value);
+				appendEntries(xml, LIST_ATTRIBUTE, LIST_ENTRY, key, (List<String>) value);
 			} else if (value instanceof Map) {
-				element = createMapElement(doc, MAP_ATTRIBUTE, key, (Map<String, String>) value);
-			} else if(value instanceof Set) {
-				element = createSetElement(doc, SET_ATTRIBUTE, key, (Set<String>) value);
+				appendMapElement(xml, MAP_ATTRIBUTE, key, (Map<String, String>) value);
+			} else if (value instanceof Set) {
+				// persist in sorted order
+				List<String> list = new ArrayList<String>((Set<String>) value);
+				Collections.sort(list);
+				appendEntries(xml, SET_ATTRIBUTE, SET_ENTRY, key, list);
 			}
-			configRootElement.appendChild(element);
 		}
-		return LaunchManager.serializeDocument(doc);
-	}
-
-	/**
-	 * Helper method that creates a 'key value' element of the specified type
-	 * with the specified attribute values.
-	 * @param doc the {@link Document}
-	 * @param elementType the {@link Element} type to create
-	 * @param key the {@link Element} key
-	 * @param value the {@link Element} value
-	 * @return the new {@link Element}
-	 */
-	protected Element createKeyValueElement(Document doc, String elementType, String key, String value) {
-		Element element = doc.createElement(elementType);
-		element.setAttribute(KEY, key);
-		element.setAttribute(VALUE, value);
-		return element;
+		if (empty) {
+			xml.append("/>").append(LINE_SEPARATOR); //$NON-NLS-1$
+		} else {
+			xml.append("</").append(LAUNCH_CONFIGURATION).append('>').append(LINE_SEPARATOR); //$NON-NLS-1$
+		}
+		return xml.toString();
 	}
 
 	/**
-	 * Creates a new <code>Element</code> for the specified
-	 * <code>java.util.List</code>
+	 * Appends an element of the specified type with the specified key and
+	 * value.
 	 *
-	 * @param doc the doc to add the element to
-	 * @param elementType the type of the element
-	 * @param listKey the key for the element
-	 * @param list the list to fill the new element with
-	 * @return the new element
+	 * @param xml the buffer to append to
+	 * @param elementType the element type
+	 * @param key the element key
+	 * @param value the element value
 	 */
-	protected Element createListElement(Document doc, String elementType, String listKey, List<String> list) {
-		Element listElement = doc.createElement(elementType);
-		listElement.setAttribute(KEY, listKey);
-		for (String value : list) {
-			Element element = doc.createElement(LIST_ENTRY);
-			element.setAttribute(VALUE, value);
-			listElement.appendChild(element);
-		}
-		return listElement;
+	private void appendKeyValueElement(StringBuilder xml, String elementType, String key, String value) {
+		xml.append('<').append(elementType);
+		appendAttribute(xml, KEY, key);
+		appendAttribute(xml, VALUE, value);
+		xml.append("/>").append(LINE_SEPARATOR); //$NON-NLS-1$
 	}
 
 	/**
-	 * Creates a new <code>Element</code> for the specified
-	 * <code>java.util.Set</code>
+	 * Appends an element of the specified type with an entry element for each
+	 * of the given values.
 	 *
-	 * @param doc the doc to add the element to
-	 * @param elementType the type of the element
-	 * @param setKey the key for the element
-	 * @param set the set to fill the new element with
-	 * @return the new element
-	 *
-	 * @since 3.3
-	 */
-	protected Element createSetElement(Document doc, String elementType, String setKey, Set<String> set) {
-		Element setElement = doc.createElement(elementType);
-		setElement.setAttribute(KEY, setKey);
-		// persist in sorted order
-		List<String> list = new ArrayList<String>(set);
-		Collections.sort(list);
-		Element element = null;
-		for (String str : list) {
-			element = doc.createElement(SET_ENTRY);
-			element.setAttribute(VALUE, str);
-			setElement.appendChild(element);
+	 * @param xml the buffer to append to
+	 * @param elementType the element type
+	 * @param entryType the type of the entry elements
+	 * @param key the element key
+	 * @param values the values of the entries
+	 */
+	private void appendEntries(StringBuilder xml, String elementType, String entryType, String key, List<String> values) {
+		xml.append('<').append(elementType);
+		appendAttribute(xml, KEY, key);
+		if (values.isEmpty()) {
+			xml.append("/>").append(LINE_SEPARATOR); //$NON-NLS-1$
+			return;
+		}
+		xml.append('>').append(LINE_SEPARATOR);
+		for (String value : values) {
+			xml.append('<').append(entryType);
+			appendAttribute(xml, VALUE, value);
+			xml.append("/>").append(LINE_SEPARATOR); //$NON-NLS-1$
 		}
-		return setElement;
+		xml.append("</").append(elementType).append('>').append(LINE_SEPARATOR); //$NON-NLS-1$
 	}
 
 	/**
-	 * Creates a new <code>Element</code> for the specified
-	 * <code>java.util.Map</code>
-	 *
-	 * @param doc the doc to add the element to
-	 * @param elementType the type of the element
-	 * @param mapKey the key for the element
-	 * @param map the map to fill the new element with
-	 * @return the new element
+	 * Appends an element of the specified type with an entry element for each
+	 * mapping of the given map, sorted by key.
 	 *
-	 */
-	protected Element createMapElement(Document doc, String elementType, String mapKey, Map<String, String> map) {
-		Element mapElement = doc.createElement(elementType);
-		mapElement.setAttribute(KEY, mapKey);
+	 * @param xml the buffer to append to
+	 * @param elementType the element type
+	 * @param mapKey the element key
+	 * @param map the map to persist
+	 */
+	private void appendMapElement(StringBuilder xml, String elementType, String mapKey, Map<String, String> map) {
+		xml.append('<').append(elementType);
+		appendAttribute(xml, KEY, mapKey);
+		if (map.isEmpty()) {
+			xml.append("/>").append(LINE_SEPARATOR); //$NON-NLS-1$
+			return;
+		}
+		xml.append('>').append(LINE_SEPARATOR);
 		// persist in sorted order based on keys
 		List<String> keys = new ArrayList<String>(map.keySet());
 		Collections.sort(keys);
 		for (String key : keys) {
-			String value = map.get(key);
-			Element element = doc.createElement(MAP_ENTRY);
-			element.setAttribute(KEY, key);
-			element.setAttribute(VALUE, value);
-			mapElement.appendChild(element);
+			appendKeyValueElement(xml, MAP_ENTRY, key, map.get(key));
 		}
-		return mapElement;
+		xml.append("</").append(elementType).append('>').append(LINE_SEPARATOR); //$NON-NLS-1$
 	}
 
 	/**
-	 * Initializes the mapping of attributes from the XML file
-	 * @param root the root node from the XML document
-	 * @throws CoreException if a problem is encountered
-	 */
-	protected void initializeFromXML(Element root) throws CoreException {
-		if (!root.getNodeName().equalsIgnoreCase(LAUNCH_CONFIGURATION)) {
-			throw getInvalidFormatDebugException();
-		}
-
-		// read type
-		String id = root.getAttribute(TYPE);
-		if (id == null) {
-			throw getInvalidFormatDebugException();
-		}
-
-		ILaunchConfigurationType type = DebugPlugin.getDefault().getLaunchManager().getLaunchConfigurationType(id);
-		if (type == null) {
-			String message= MessageFormat.format(DebugCoreMessages.LaunchConfigurationInfo_missing_type, new Object[]{id});
-			throw new DebugException(
-					new Status(
-					 IStatus.ERROR, DebugPlugin.getUniqueIdentifier(),
-					 DebugException.MISSING_LAUNCH_CONFIGURATION_TYPE, message, null)
-				);
-		}
-		setType(type);
-
-		NodeList list = root.getChildNodes();
-		Node node = null;
-		Element element = null;
-		String nodeName = null;
-		for (int i = 0; i < list.getLength(); ++i) {
-			node = list.item(i);
-			short nodeType = node.getNodeType();
-			if (nodeType == Node.ELEMENT_NODE) {
-				element = (Element) node;
-				nodeName = element.getNodeName();
-				if (nodeName.equalsIgnoreCase(STRING_ATTRIBUTE)) {
-					setStringAttribute(element);
-				} else if (nodeName.equalsIgnoreCase(INT_ATTRIBUTE)) {
-					setIntegerAttribute(element);
-				} else if (nodeName.equalsIgnoreCase(BOOLEAN_ATTRIBUTE))  {
-					setBooleanAttribute(element);
-				} else if (nodeName.equalsIgnoreCase(LIST_ATTRIBUTE)) {
-					setListAttribute(element);
-				} else if (nodeName.equalsIgnoreCase(MAP_ATTRIBUTE)) {
-					setMapAttribute(element);
-				} else if(nodeName.equalsIgnoreCase(SET_ATTRIBUTE)) {
-					setSetAttribute(element);
+	 * Appends an XML attribute, escaping its value the way the XML
+	 * serializer used to.
+	 *
+	 * @param xml the buffer to append to
+	 * @param name the attribute name
+	 * @param value the attribute value, <code>null</code> is written as empty
+	 */
+	private static void appendAttribute(StringBuilder xml, String name, String value) {
+		xml.append(' ').append(name).append("=\""); //$NON-NLS-1$
+		if (value != null) {
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				switch (c) {
+					case '&':
+						xml.append("&amp;"); //$NON-NLS-1$
+						break;
+					case '<':
+						xml.append("&lt;"); //$NON-NLS-1$
+						break;
+					case '>':
+						xml.append("&gt;"); //$NON-NLS-1$
+						break;
+					case '"':
+						xml.append("&quot;"); //$NON-NLS-1$
+						break;
+					default:
+						if (c < 0x20) {
+							// keep line delimiters and tabs from being normalized
+							xml.append("&#").append((int) c).append(';'); //$NON-NLS-1$
+						} else {
+							xml.append(c);
+						}
+						break;
 				}
 			}
 		}
+		xml.append('"');
 	}
 
 	/**
-	 * Loads a <code>String</code> from the specified element into the local attribute mapping
-	 * @param element the element to load from
-	 * @throws CoreException if a problem is encountered
+	 * Initializes the type and attributes of this info from the XML in the
+	 * given stream.
+	 *
+	 * @param stream the stream to read from
+	 * @throws CoreException if the XML does not describe a valid launch
+	 *             configuration
+	 * @throws ParserConfigurationException if a parser cannot be created
+	 * @throws IOException if reading the stream fails
+	 * @throws SAXException if the stream does not contain valid XML
 	 */
-	protected void setStringAttribute(Element element) throws CoreException {
-		setAttribute(getKeyAttribute(element), getValueAttribute(element));
+	protected void initializeFromXML(InputStream stream) throws CoreException, ParserConfigurationException, IOException, SAXException {
+		setAttributeTable(parse(new InputSource(stream), false));
 	}
 
 	/**
-	 * Loads an <code>Integer</code> from the specified element into the local attribute mapping
-	 * @param element the element to load from
-	 * @throws CoreException if a problem is encountered
+	 * Initializes the type of this info from the given XML. The attributes
+	 * are only read from the XML when first accessed.
+	 *
+	 * @param content the XML content
+	 * @throws CoreException if the XML does not describe a valid launch
+	 *             configuration
+	 * @throws ParserConfigurationException if a parser cannot be created
+	 * @throws IOException if reading the content fails
+	 * @throws SAXException if the content does not start with valid XML
 	 */
-	protected void setIntegerAttribute(Element element) throws CoreException {
-		setAttribute(getKeyAttribute(element), Integer.valueOf(getValueAttribute(element)));
+	protected void initializeTypeFromXML(byte[] content) throws CoreException, ParserConfigurationException, IOException, SAXException {
+		parse(new InputSource(new ByteArrayInputStream(content)), true);
+		fContent = content;
 	}
 
 	/**
-	 * Loads a <code>Boolean</code> from the specified element into the local attribute mapping
-	 * @param element the element to load from
-	 * @throws CoreException if a problem is encountered
+	 * Reads the attributes from the XML content kept by
+	 * {@link #initializeTypeFromXML(byte[])}, if not done yet. A failure
+	 * leaves the attribute table empty and is remembered, to be thrown when
+	 * the attributes are accessed.
 	 */
-	protected void setBooleanAttribute(Element element) throws CoreException {
-		setAttribute(getKeyAttribute(element), Boolean.valueOf(getValueAttribute(element)));
+	private synchronized void loadAttributes() {
+		byte[] content = fContent;
+		if (content == null) {
+			return;
+		}
+		try {
+			fAttributes = parse(new InputSource(new ByteArrayInputStream(content)), false);
+		} catch (CoreException e) {
+			fLoadException = e;
+		} catch (ParserConfigurationException e) {
+			fLoadException = createLoadException(e);
+		} catch (IOException e) {
+			fLoadException = createLoadException(e);
+		} catch (SAXException e) {
+			fLoadException = createLoadException(e);
+		} finally {
+			fContent = null;
+		}
+	}
+
+	private static CoreException createLoadException(Exception e) {
+		return new DebugException(new Status(IStatus.ERROR, DebugPlugin.getUniqueIdentifier(), DebugException.REQUEST_FAILED, DebugCoreMessages.LaunchConfigurationInfo_Invalid_launch_configuration_XML__10, e));
 	}
 
 	/**
-	 * Reads a <code>List</code> attribute from the specified XML node and
-	 * loads it into the mapping of attributes
+	 * Parses launch configuration XML into this info.
 	 *
-	 * @param element the element to read the list attribute from
-	 * @throws CoreException if the element has an invalid format
-	 */
-	protected void setListAttribute(Element element) throws CoreException {
-		String listKey = element.getAttribute(KEY);
-		NodeList nodeList = element.getChildNodes();
-		int entryCount = nodeList.getLength();
-		List<String> list = new ArrayList<String>(entryCount);
-		Node node = null;
-		Element selement = null;
-		for (int i = 0; i < entryCount; i++) {
-			node = nodeList.item(i);
-			if (node.getNodeType() == Node.ELEMENT_NODE) {
-				selement = (Element) node;
-				if (!selement.getNodeName().equalsIgnoreCase(LIST_ENTRY)) {
-					throw getInvalidFormatDebugException();
-				}
-				list.add(getValueAttribute(selement));
+	 * @param source the XML to parse
+	 * @param typeOnly whether to stop after reading the type
+	 * @return the attribute table read, or <code>null</code> when only the
+	 *         type is read
+	 * @throws CoreException if the XML does not describe a valid launch
+	 *             configuration
+	 * @throws ParserConfigurationException if a parser cannot be created
+	 * @throws IOException if reading the XML fails
+	 * @throws SAXException if the XML is not valid
+	 */
+	private TreeMap<String, Object> parse(InputSource source, boolean typeOnly) throws CoreException, ParserConfigurationException, IOException, SAXException {
+		// take the parser while in use, in case parsing is re-entered
+		SAXParser parser = fgParser.get();
+		if (parser == null) {
+			synchronized (fgParserFactory) {
+				parser = fgParserFactory.newSAXParser();
 			}
+		} else {
+			fgParser.set(null);
 		}
-		setAttribute(listKey, list);
+		XMLHandler handler = new XMLHandler(typeOnly);
+		try {
+			parser.parse(source, handler);
+		} catch (SAXException e) {
+			if (e == STOP_PARSING) {
+				return null;
+			}
+			Exception cause = e.getException();
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw e;
+		} finally {
+			parser.reset();
+			fgParser.set(parser);
+		}
+		return handler.fTable;
 	}
 
 	/**
-	 * Reads a <code>Set</code> attribute from the specified XML node and
-	 * loads it into the mapping of attributes
-	 *
-	 * @param element the element to read the set attribute from
-	 * @throws CoreException if the element has an invalid format
-	 *
-	 * @since 3.3
+	 * Reads the type and attributes of a launch configuration from SAX
+	 * events. Child elements of unknown attribute elements are ignored.
 	 */
-	protected void setSetAttribute(Element element) throws CoreException {
-		String setKey = element.getAttribute(KEY);
-		NodeList nodeList = element.getChildNodes();
-		int entryCount = nodeList.getLength();
-		Set<String> set = new HashSet<String>(entryCount);
-		Node node = null;
-		Element selement = null;
-		for(int i = 0; i < entryCount; i++) {
-			node = nodeList.item(i);
-			if(node.getNodeType() == Node.ELEMENT_NODE) {
-				selement = (Element)node;
-				if(!selement.getNodeName().equalsIgnoreCase(SET_ENTRY)) {
-					throw getInvalidFormatDebugException();
+	private class XMLHandler extends DefaultHandler {
+
+		private final boolean fTypeOnly;
+
+		/**
+		 * The attributes read
+		 */
+		final TreeMap<String, Object> fTable = new TreeMap<String, Object>();
+
+		/**
+		 * Depth of the current element, the root element being at depth 1
+		 */
+		private int fDepth = 0;
+
+		/**
+		 * Name and key of the collection attribute being read, or
+		 * <code>null</code>
+		 */
+		private String fCollectionType;
+		private String fCollectionKey;
+
+		private List<String> fList;
+		private Set<String> fSet;
+		private Map<String, String> fMap;
+
+		XMLHandler(boolean typeOnly) {
+			fTypeOnly = typeOnly;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+			fDepth++;
+			try {
+				if (fDepth == 1) {
+					startConfiguration(qName, attributes);
+				} else if (fDepth == 2) {
+					startAttribute(qName, attributes);
+				} else if (fDepth == 3 && fCollectionType != null) {
+					startEntry(qName, attributes);
 				}
-				set.add(getValueAttribute(selement));
+			} catch (CoreException e) {
+				throw new SAXException(e);
+			} catch (RuntimeException e) {
+				throw new SAXException(e);
 			}
 		}
-		setAttribute(setKey, set);
-	}
 
-	/**
-	 * Reads a <code>Map</code> attribute from the specified XML node and
-	 * loads it into the mapping of attributes
-	 *
-	 * @param element the element to read the map attribute from
-	 * @throws CoreException if the element has an invalid format
-	 */
-	protected void setMapAttribute(Element element) throws CoreException {
-		String mapKey = element.getAttribute(KEY);
-		NodeList nodeList = element.getChildNodes();
-		int entryCount = nodeList.getLength();
-		Map<String, String> map = new HashMap<String, String>(entryCount);
-		Node node = null;
-		Element selement = null;
-		for (int i = 0; i < entryCount; i++) {
-			node = nodeList.item(i);
-			if (node.getNodeType() == Node.ELEMENT_NODE) {
-				selement = (Element) node;
-				if (!selement.getNodeName().equalsIgnoreCase(MAP_ENTRY)) {
-					throw getInvalidFormatDebugException();
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			if (fDepth == 2 && fCollectionType != null) {
+				if (fList != null) {
+					fTable.put(fCollectionKey, fList);
+				} else if (fSet != null) {
+					fTable.put(fCollectionKey, fSet);
+				} else {
+					fTable.put(fCollectionKey, fMap);
 				}
-				map.put(getKeyAttribute(selement), getValueAttribute(selement));
+				fCollectionType = null;
+				fList = null;
+				fSet = null;
+				fMap = null;
 			}
+			fDepth--;
 		}
-		setAttribute(mapKey, map);
-	}
 
-	/**
-	 * Returns the <code>String</code> representation of the 'key' attribute from the specified element
-	 * @param element the element to read from
-	 * @return the value
-	 * @throws CoreException if a problem is encountered
-	 */
-	protected String getKeyAttribute(Element element) throws CoreException {
-		String key = element.getAttribute(KEY);
-		if (key == null) {
-			throw getInvalidFormatDebugException();
+		private void startConfiguration(String name, Attributes attributes) throws CoreException, SAXException {
+			if (!name.equalsIgnoreCase(LAUNCH_CONFIGURATION)) {
+				throw getInvalidFormatDebugException();
+			}
+			// read type
+			String id = getAttribute(attributes, TYPE);
+			ILaunchConfigurationType type = DebugPlugin.getDefault().getLaunchManager().getLaunchConfigurationType(id);
+			if (type == null) {
+				String message= MessageFormat.format(DebugCoreMessages.LaunchConfigurationInfo_missing_type, new Object[]{id});
+				throw new DebugException(
+						new Status(
+						 IStatus.ERROR, DebugPlugin.getUniqueIdentifier(),
+						 DebugException.MISSING_LAUNCH_CONFIGURATION_TYPE, message, null)
+					);
+			}
+			setType(type);
+			if (fTypeOnly) {
+				throw STOP_PARSING;
+			}
 		}
-		return key;
-	}
 
-	/**
-	 * Returns the <code>String</code> representation of the 'value' attribute from the specified element
-	 * @param element the element to read from
-	 * @return the value
-	 * @throws CoreException if a problem is encountered
-	 */
-	protected String getValueAttribute(Element element) throws CoreException {
-		String value = element.getAttribute(VALUE);
-		if (value == null) {
-			throw getInvalidFormatDebugException();
+		private void startAttribute(String name, Attributes attributes) {
+			String key = getAttribute(attributes, KEY);
+			if (name.equalsIgnoreCase(STRING_ATTRIBUTE)) {
+				fTable.put(key, getAttribute(attributes, VALUE));
+			} else if (name.equalsIgnoreCase(INT_ATTRIBUTE)) {
+				fTable.put(key, Integer.valueOf(getAttribute(attributes, VALUE)));
+			} else if (name.equalsIgnoreCase(BOOLEAN_ATTRIBUTE)) {
+				fTable.put(key, Boolean.valueOf(getAttribute(attributes, VALUE)));
+			} else if (name.equalsIgnoreCase(LIST_ATTRIBUTE)) {
+				fCollectionType = LIST_ENTRY;
+				fList = new ArrayList<String>();
+			} else if (name.equalsIgnoreCase(MAP_ATTRIBUTE)) {
+				fCollectionType = MAP_ENTRY;
+				fMap = new HashMap<String, String>();
+			} else if (name.equalsIgnoreCase(SET_ATTRIBUTE)) {
+				fCollectionType = SET_ENTRY;
+				fSet = new HashSet<String>();
+			}
+			fCollectionKey = key;
+		}
+
+		private void startEntry(String name, Attributes attributes) throws CoreException {
+			if (!name.equalsIgnoreCase(fCollectionType)) {
+				throw getInvalidFormatDebugException();
+			}
+			String value = getAttribute(attributes, VALUE);
+			if (fList != null) {
+				fList.add(value);
+			} else if (fSet != null) {
+				fSet.add(value);
+			} else {
+				fMap.put(getAttribute(attributes, KEY), value);
+			}
+		}
+
+		/**
+		 * Returns the value of the given attribute, or an empty string if not
+		 * specified.
+		 */
+		private String getAttribute(Attributes attributes, String name) {
+			String value = attributes.getValue(name);
+			return value == null ? IInternalDebugCoreConstants.EMPTY_STRING : value;
 		}
-		return value;
 	}
 
 	/**
@@ -731,7 +858,7 @@ public class LaunchConfigurationInfo {
 		}
 
 		// Make sure the attributes are the same
-		return compareAttributes(fAttributes, other.getAttributeTable());
+		return compareAttributes(getAttributeTable(), other.getAttributeTable());
 	}
 
 	/**
@@ -786,18 +913,19 @@ public class LaunchConfigurationInfo {
 	 */
 	@Override
 	public int hashCode() {
-		return fType.hashCode() + fAttributes.size();
+		return fType.hashCode() + getAttributeTable().size();
 	}
 
 	/**
 	 * Returns if the attribute map contains the specified key
 	 * @param attributeName the name of the attribute to check for
 	 * @return true if the attribute map contains the specified key, false otherwise
+	 * @throws CoreException if the attributes could not be read
 	 *
 	 * @since 3.4.0
 	 */
-	protected boolean hasAttribute(String attributeName) {
-		return fAttributes.containsKey(attributeName);
+	protected boolean hasAttribute(String attributeName) throws CoreException {
+		return getLoadedAttributeTable().containsKey(attributeName);
 	}
 
 	/**
@@ -811,7 +939,7 @@ public class LaunchConfigurationInfo {
 	 */
 	protected Object removeAttribute(String attributeName) {
 		if(attributeName != null) {
-			return fAttributes.remove(attributeName);
+			return getAttributeTable().remove(attributeName);
 		}
 		return null;
 	}
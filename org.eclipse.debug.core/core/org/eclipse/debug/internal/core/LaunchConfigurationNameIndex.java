@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.eclipse.debug.core.ILaunchConfiguration;
+
+/**
+ * Index of the names of launch configurations, used to generate unique
+ * names. Names of the form <code>base (n)</code> are also indexed by base
+ * name, as runs of consecutive numbers, so that the first free number of a
+ * base name is found without probing each name.
+ * <p>
+ * This class is not thread safe, the launch manager synchronizes access.
+ * </p>
+ */
+class LaunchConfigurationNameIndex {
+
+	/**
+	 * Number of configurations with each name. A local and a shared
+	 * configuration, or shared configurations in different folders, may have
+	 * the same name.
+	 */
+	private final Map<String, Integer> fCounts = new HashMap<String, Integer>();
+
+	/**
+	 * Numbers used with each base name, as runs of consecutive numbers keyed
+	 * by the first number of the run, with the last number of the run as
+	 * value. Adjacent runs are merged.
+	 */
+	private final Map<String, TreeMap<Integer, Integer>> fNumbers = new HashMap<String, TreeMap<Integer, Integer>>();
+
+	/**
+	 * Creates an index of the names of the given configurations.
+	 *
+	 * @param configs all launch configurations
+	 */
+	LaunchConfigurationNameIndex(Collection<ILaunchConfiguration> configs) {
+		for (ILaunchConfiguration config : configs) {
+			add(config.getName());
+		}
+	}
+
+	/**
+	 * Adds the name of a configuration that was added.
+	 *
+	 * @param name configuration name
+	 */
+	void add(String name) {
+		Integer count = fCounts.get(name);
+		if (count != null) {
+			fCounts.put(name, Integer.valueOf(count.intValue() + 1));
+			return;
+		}
+		fCounts.put(name, Integer.valueOf(1));
+		int copyIndex = getCopyIndex(name);
+		if (copyIndex > -1) {
+			addNumber(name.substring(0, copyIndex), Integer.parseInt(name.substring(copyIndex + 2, name.length() - 1)));
+		}
+	}
+
+	/**
+	 * Removes the name of a configuration that was deleted.
+	 *
+	 * @param name configuration name
+	 */
+	void remove(String name) {
+		Integer count = fCounts.get(name);
+		if (count == null) {
+			return;
+		}
+		if (count.intValue() > 1) {
+			fCounts.put(name, Integer.valueOf(count.intValue() - 1));
+			return;
+		}
+		fCounts.remove(name);
+		int copyIndex = getCopyIndex(name);
+		if (copyIndex > -1) {
+			removeNumber(name.substring(0, copyIndex), Integer.parseInt(name.substring(copyIndex + 2, name.length() - 1)));
+		}
+	}
+
+	/**
+	 * Returns whether a configuration has the given name.
+	 *
+	 * @param name configuration name
+	 * @return whether the name is used
+	 */
+	boolean contains(String name) {
+		return fCounts.containsKey(name);
+	}
+
+	/**
+	 * Returns the names of the configurations, sorted, with a name repeated
+	 * for each configuration that has it.
+	 *
+	 * @return the sorted configuration names
+	 */
+	String[] getSortedNames() {
+		List<String> names = new ArrayList<String>();
+		for (Entry<String, Integer> entry : fCounts.entrySet()) {
+			for (int i = 0; i < entry.getValue().intValue(); i++) {
+				names.add(entry.getKey());
+			}
+		}
+		String[] sorted = names.toArray(new String[names.size()]);
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	/**
+	 * Returns the first number, not less than the given number, for which no
+	 * configuration is named <code>base (number)</code>.
+	 *
+	 * @param base base name
+	 * @param from the first number to consider
+	 * @return the first free number
+	 */
+	int getFreeNumber(String base, int from) {
+		TreeMap<Integer, Integer> runs = fNumbers.get(base);
+		if (runs == null) {
+			return from;
+		}
+		Entry<Integer, Integer> run = runs.floorEntry(Integer.valueOf(from));
+		if (run != null && run.getValue().intValue() >= from) {
+			// runs are merged, so the number after the run is free
+			return run.getValue().intValue() + 1;
+		}
+		return from;
+	}
+
+	private void addNumber(String base, int number) {
+		TreeMap<Integer, Integer> runs = fNumbers.get(base);
+		if (runs == null) {
+			runs = new TreeMap<Integer, Integer>();
+			fNumbers.put(base, runs);
+		}
+		Entry<Integer, Integer> before = runs.floorEntry(Integer.valueOf(number));
+		boolean joinBefore = before != null && before.getValue().intValue() == number - 1;
+		Integer after = runs.remove(Integer.valueOf(number + 1));
+		int first = joinBefore ? before.getKey().intValue() : number;
+		int last = after != null ? after.intValue() : number;
+		runs.put(Integer.valueOf(first), Integer.valueOf(last));
+	}
+
+	private void removeNumber(String base, int number) {
+		TreeMap<Integer, Integer> runs = fNumbers.get(base);
+		if (runs == null) {
+			return;
+		}
+		Entry<Integer, Integer> run = runs.floorEntry(Integer.valueOf(number));
+		if (run == null || run.getValue().intValue() < number) {
+			return;
+		}
+		int first = run.getKey().intValue();
+		int last = run.getValue().intValue();
+		runs.remove(run.getKey());
+		if (first < number) {
+			runs.put(Integer.valueOf(first), Integer.valueOf(number - 1));
+		}
+		if (number < last) {
+			runs.put(Integer.valueOf(number + 1), Integer.valueOf(last));
+		}
+		if (runs.isEmpty()) {
+			fNumbers.remove(base);
+		}
+	}
+
+	/**
+	 * Returns the index of <code>" ("</code> in a name of the form
+	 * <code>base (n)</code>, where <code>n</code> is a number without
+	 * leading zeros, or -1 if the name is not of that form.
+	 *
+	 * @param name configuration name
+	 * @return index of the number suffix, or -1
+	 */
+	static int getCopyIndex(String name) {
+		int length = name.length();
+		int copyIndex = name.lastIndexOf(" ("); //$NON-NLS-1$
+		if (copyIndex < 0 || length < copyIndex + 4 || name.charAt(length - 1) != ')') {
+			return -1;
+		}
+		// at most 9 digits, so that the number and its successor are ints
+		int digits = length - copyIndex - 3;
+		if (digits > 9 || (digits > 1 && name.charAt(copyIndex + 2) == '0')) {
+			return -1;
+		}
+		for (int i = copyIndex + 2; i < length - 1; i++) {
+			char c = name.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+		}
+		return copyIndex;
+	}
+}
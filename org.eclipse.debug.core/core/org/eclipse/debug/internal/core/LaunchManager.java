@@ -34,6 +34,8 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -63,6 +65,8 @@ import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.IResourceProxy;
 import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -79,6 +83,8 @@ import org.eclipse.core.runtime.PlatformObject;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.variables.IStringVariableManager;
+import org.eclipse.core.variables.ISubstitutionSession;
 import org.eclipse.core.variables.VariablesPlugin;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
@@ -86,10 +92,14 @@ import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationListener;
 import org.eclipse.debug.core.ILaunchConfigurationType;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.debug.core.ILaunchConfigurationsListener;
 import org.eclipse.debug.core.ILaunchDelegate;
 import org.eclipse.debug.core.ILaunchListener;
 import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.debug.core.ILaunchMode;
+import org.eclipse.debug.core.ILaunchTimeline;
+import org.eclipse.debug.core.ILaunchTimelineListener;
 import org.eclipse.debug.core.ILaunchesListener;
 import org.eclipse.debug.core.ILaunchesListener2;
 import org.eclipse.debug.core.model.IDebugTarget;
@@ -106,9 +116,7 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
 
 import com.ibm.icu.text.MessageFormat;
 
@@ -231,6 +239,121 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		}
 	}
 
+	/**
+	 * Notifies a launch configuration listener (multiple configurations) in a
+	 * safe runnable to handle exceptions.
+	 */
+	class ConfigurationsNotifier implements ISafeRunnable {
+
+		private ILaunchConfigurationsListener fListener;
+		private int fType;
+		private ILaunchConfiguration[] fConfigurations;
+
+		/**
+		 * @see org.eclipse.core.runtime.ISafeRunnable#handleException(java.lang.Throwable)
+		 */
+		@Override
+		public void handleException(Throwable exception) {
+			IStatus status = new Status(IStatus.ERROR, DebugPlugin.getUniqueIdentifier(), DebugPlugin.INTERNAL_ERROR, "An exception occurred during launch configuration change notification.", exception);  //$NON-NLS-1$
+			DebugPlugin.log(status);
+		}
+
+		/**
+		 * Notifies the given listener of the adds/changes/removes
+		 *
+		 * @param configurations the configurations that have changed
+		 * @param update the type of change
+		 */
+		public void notify(ILaunchConfiguration[] configurations, int update) {
+			fConfigurations = configurations;
+			fType = update;
+			for (ILaunchConfigurationsListener iLaunchConfigurationsListener : fLaunchConfigurationsListeners) {
+				fListener = iLaunchConfigurationsListener;
+				SafeRunner.run(this);
+			}
+			fConfigurations = null;
+			fListener = null;
+		}
+
+		/**
+		 * @see org.eclipse.core.runtime.ISafeRunnable#run()
+		 */
+		@Override
+		public void run() throws Exception {
+			switch (fType) {
+				case ADDED:
+					fListener.launchConfigurationsAdded(fConfigurations);
+					break;
+				case REMOVED:
+					fListener.launchConfigurationsRemoved(fConfigurations);
+					break;
+				case CHANGED:
+					fListener.launchConfigurationsChanged(fConfigurations);
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Launch configuration notifications deferred while a thread saves
+	 * launch configurations with
+	 * {@link LaunchManager#saveLaunchConfigurations(ILaunchConfigurationWorkingCopy[], IProgressMonitor)},
+	 * at most one for each launch configuration.
+	 */
+	static class ConfigurationBatch {
+
+		/**
+		 * Type of change of each configuration, in the order the
+		 * configurations were first changed
+		 */
+		private final Map<ILaunchConfiguration, Integer> fUpdates = new LinkedHashMap<ILaunchConfiguration, Integer>();
+
+		/**
+		 * The handles of moved configurations keyed by their new handles
+		 */
+		private final Map<ILaunchConfiguration, ILaunchConfiguration> fMovedFrom = new HashMap<ILaunchConfiguration, ILaunchConfiguration>();
+
+		/**
+		 * Whether the deferred notifications are being sent
+		 */
+		private boolean fFlushing = false;
+
+		/**
+		 * Records a change, merged with an earlier change of the same
+		 * configuration.
+		 *
+		 * @param config the configuration that has changed
+		 * @param update the type of change
+		 */
+		void add(ILaunchConfiguration config, int update) {
+			Integer previous = fUpdates.get(config);
+			if (previous == null) {
+				fUpdates.put(config, Integer.valueOf(update));
+				return;
+			}
+			switch (previous.intValue()) {
+				case ADDED:
+					// changes of an added configuration are part of the addition
+					if (update == REMOVED) {
+						fUpdates.remove(config);
+					}
+					break;
+				case REMOVED:
+					if (update == ADDED) {
+						fUpdates.put(config, Integer.valueOf(CHANGED));
+					}
+					break;
+				default:
+					if (update == REMOVED) {
+						fUpdates.put(config, Integer.valueOf(REMOVED));
+					}
+					break;
+			}
+		}
+	}
+
 	/**
 	 * Notifies a launch listener (multiple launches) in a safe runnable to
 	 * handle exceptions.
@@ -428,6 +551,10 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		public void notify(ILaunch launch, int update) {
 			fLaunch = launch;
 			fType = update;
+			for (ILaunchListener iLaunchListener : fEarlyListeners) {
+				fListener = iLaunchListener;
+				SafeRunner.run(this);
+			}
 			for (ILaunchListener iLaunchListener : fListeners) {
 				fListener = iLaunchListener;
                 SafeRunner.run(this);
@@ -528,6 +655,7 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 */
 	private static HashMap<String, String> fgNativeEnv = null;
 	private static HashMap<String, String> fgNativeEnvCasePreserved = null;
+	private static EnvironmentSnapshot fgNativeEnvSnapshot = null;
 
 	/**
 	 * Path to the local directory where local launch configurations
@@ -569,6 +697,12 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		return s.toString("UTF8"); //$NON-NLS-1$
 	}
 
+	/**
+	 * System property overriding the preference to read launch configuration
+	 * attributes when first accessed
+	 */
+	private static final String LAZY_ATTRIBUTES_PROPERTY = "org.eclipse.debug.core.lazyLaunchConfigurationAttributes"; //$NON-NLS-1$
+
 	/**
 	 * Collection of defined launch configuration type
 	 * extensions.
@@ -581,17 +715,31 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 */
 	private Map<ILaunchConfiguration, LaunchConfigurationInfo> fLaunchConfigurations = new HashMap<ILaunchConfiguration, LaunchConfigurationInfo>(10);
 
-	/**
-	 * A cache of launch configuration names currently in the workspace.
-	 */
-	private volatile String[] fSortedConfigNames = null;
-
 	/**
 	 * Collection of all launch configurations in the workspace.
 	 * <code>List</code> of <code>ILaunchConfiguration</code>.
 	 */
 	private List<ILaunchConfiguration> fLaunchConfigurationIndex = null;
 
+	/**
+	 * Index of the launch configurations saved with the workspace. Used to
+	 * restore the collection of all launch configurations, if possible, and
+	 * then kept to be saved again.
+	 */
+	private SavedLaunchConfigurationIndex fSavedIndex = null;
+
+	/**
+	 * Index of launch configurations by mapped resource, or <code>null</code>
+	 * if not yet created
+	 */
+	private MappedResourceIndex fMappedResourceIndex = null;
+
+	/**
+	 * Index of the names of launch configurations, or <code>null</code> if
+	 * not yet created
+	 */
+	private LaunchConfigurationNameIndex fNameIndex = null;
+
 	/**
 	 * Launch configuration comparator extensions,
 	 * keyed by attribute name.
@@ -632,12 +780,25 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 */
 	private ListenerList<ILaunchListener> fListeners = new ListenerList<>();
 
+	/**
+	 * Launch listeners notified before the other launch listeners, so that
+	 * they see the processes of a launch before the process consoles are
+	 * connected to their streams
+	 */
+	private ListenerList<ILaunchListener> fEarlyListeners = new ListenerList<>();
+
 	/**
 	 * Collection of "plural" listeners.
 	 * @since 2.1
 	 */
 	private ListenerList<ILaunchesListener> fLaunchesListeners = new ListenerList<>();
 
+	/**
+	 * Collection of launch timeline listeners.
+	 * @since 3.11
+	 */
+	private ListenerList<ILaunchTimelineListener> fLaunchTimelineListeners = new ListenerList<>();
+
 	/**
 	 * Visitor used to process resource deltas,
 	 * to update launch configuration index.
@@ -663,6 +824,18 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 */
 	private ListenerList<ILaunchConfigurationListener> fLaunchConfigurationListeners = new ListenerList<>();
 
+	/**
+	 * "Plural" launch configuration listeners
+	 * @since 3.11
+	 */
+	private ListenerList<ILaunchConfigurationsListener> fLaunchConfigurationsListeners = new ListenerList<>();
+
+	/**
+	 * Notifications deferred by the thread saving launch configurations with
+	 * {@link #saveLaunchConfigurations(ILaunchConfigurationWorkingCopy[], IProgressMonitor)}
+	 */
+	private final ThreadLocal<ConfigurationBatch> fConfigurationBatch = new ThreadLocal<ConfigurationBatch>();
+
 	/**
 	 * Table of source locator extensions. Keys
 	 * are identifiers, and values are associated
@@ -694,6 +867,29 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 */
 	private Set<String> fActiveModes;
 
+	/**
+	 * Constructs a launch manager that searches the workspace for launch
+	 * configurations.
+	 */
+	public LaunchManager() {
+		this(null);
+	}
+
+	/**
+	 * Constructs a launch manager that restores the launch configurations in
+	 * the workspace from the given saved index, if it can be restored.
+	 *
+	 * @param savedIndex the index saved with the workspace or
+	 *            <code>null</code>
+	 */
+	public LaunchManager(SavedLaunchConfigurationIndex savedIndex) {
+		fSavedIndex = savedIndex;
+		String trace = System.getProperty(LaunchTimelineTrace.LAUNCH_TIMELINE_TRACE_PROPERTY);
+		if (trace != null) {
+			addLaunchTimelineListener(new LaunchTimelineTrace(new File(trace)));
+		}
+	}
+
 	/**
 	 * @see ILaunchManager#addLaunch(ILaunch)
 	 */
@@ -713,6 +909,14 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		fLaunchConfigurationListeners.add(listener);
 	}
 
+	/**
+	 * @see ILaunchManager#addLaunchConfigurationListener(ILaunchConfigurationsListener)
+	 */
+	@Override
+	public void addLaunchConfigurationListener(ILaunchConfigurationsListener listener) {
+		fLaunchConfigurationsListeners.add(listener);
+	}
+
 	/**
 	 * @see org.eclipse.debug.core.ILaunchManager#addLaunches(org.eclipse.debug.core.ILaunch[])
 	 */
@@ -749,6 +953,69 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		fListeners.add(listener);
 	}
 
+	/**
+	 * Adds a launch listener that is notified before the launch listeners
+	 * added with {@link #addLaunchListener(ILaunchListener)}. A process
+	 * console takes the output buffered by the streams of a process when it
+	 * is notified of the process, so a listener that needs all of the output
+	 * of a process must be notified first.
+	 *
+	 * @param listener launch listener
+	 */
+	public void addEarlyLaunchListener(ILaunchListener listener) {
+		fEarlyListeners.add(listener);
+	}
+
+	/**
+	 * Removes a launch listener added with
+	 * {@link #addEarlyLaunchListener(ILaunchListener)}.
+	 *
+	 * @param listener launch listener
+	 */
+	public void removeEarlyLaunchListener(ILaunchListener listener) {
+		fEarlyListeners.remove(listener);
+	}
+
+	/**
+	 * @see ILaunchManager#addLaunchTimelineListener(ILaunchTimelineListener)
+	 */
+	@Override
+	public void addLaunchTimelineListener(ILaunchTimelineListener listener) {
+		fLaunchTimelineListeners.add(listener);
+	}
+
+	/**
+	 * @see ILaunchManager#removeLaunchTimelineListener(ILaunchTimelineListener)
+	 */
+	@Override
+	public void removeLaunchTimelineListener(ILaunchTimelineListener listener) {
+		fLaunchTimelineListeners.remove(listener);
+	}
+
+	/**
+	 * Notifies the launch timeline listeners that a configuration has been
+	 * launched.
+	 *
+	 * @param timeline the phases of launching the configuration
+	 * @since 3.11
+	 */
+	void fireLaunchTimed(final ILaunchTimeline timeline) {
+		for (final ILaunchTimelineListener listener : fLaunchTimelineListeners) {
+			SafeRunner.run(new ISafeRunnable() {
+				@Override
+				public void handleException(Throwable exception) {
+					IStatus status = new Status(IStatus.ERROR, DebugPlugin.getUniqueIdentifier(), DebugPlugin.INTERNAL_ERROR, "An exception occurred during launch timeline notification.", exception); //$NON-NLS-1$
+					DebugPlugin.log(status);
+				}
+
+				@Override
+				public void run() throws Exception {
+					listener.launchTimed(timeline);
+				}
+			});
+		}
+	}
+
 	/**
 	 * Computes and caches the native system environment variables as a map of
 	 * variable names and values (Strings) in the given map.
@@ -879,9 +1146,9 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		if (fLaunchConfigurationTypes != null) {
 			fLaunchConfigurationTypes.clear();
 		}
-		if (fLaunchConfigurationIndex != null) {
-			fLaunchConfigurationIndex.clear();
-		}
+		fLaunchConfigurationIndex = null;
+		fMappedResourceIndex = null;
+		fNameIndex = null;
 	}
 
 	/* (non-Javadoc)
@@ -908,13 +1175,6 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		return encoding;
 	}
 
-	/**
-	 * The launch config name cache is cleared when a config is added, deleted or changed.
-	 */
-	protected synchronized void clearConfigNameCache() {
-		fSortedConfigNames = null;
-	}
-
 	/**
 	 * Return an instance of DebugException containing the specified message and Throwable.
 	 * @param message the message for the new {@link DebugException}
@@ -947,15 +1207,38 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 																			 ParserConfigurationException,
 																			 IOException,
 																			 SAXException {
-		Element root = null;
-		DocumentBuilder parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-		parser.setErrorHandler(new DefaultHandler());
-		root = parser.parse(new InputSource(stream)).getDocumentElement();
 		LaunchConfigurationInfo info = new LaunchConfigurationInfo();
-		info.initializeFromXML(root);
+		if (isLazyAttributes()) {
+			ByteArrayOutputStream content = new ByteArrayOutputStream(4096);
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = stream.read(buffer)) >= 0) {
+				content.write(buffer, 0, read);
+			}
+			info.initializeTypeFromXML(content.toByteArray());
+		} else {
+			info.initializeFromXML(stream);
+		}
 		return info;
 	}
 
+	/**
+	 * Returns whether the attributes of launch configurations are read from
+	 * their files only when first accessed. Controlled by the system property
+	 * <code>org.eclipse.debug.core.lazyLaunchConfigurationAttributes</code>
+	 * or, if unset, the preference
+	 * {@link IInternalDebugCoreConstants#PREF_LAZY_LAUNCH_CONFIGURATION_ATTRIBUTES}.
+	 *
+	 * @return whether attributes are read when first accessed
+	 */
+	private static boolean isLazyAttributes() {
+		String property = System.getProperty(LAZY_ATTRIBUTES_PROPERTY);
+		if (property != null) {
+			return Boolean.parseBoolean(property);
+		}
+		return Platform.getPreferencesService().getBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_LAZY_LAUNCH_CONFIGURATION_ATTRIBUTES, false, null);
+	}
+
 	/**
 	 * Finds and returns all launch configurations in the given
 	 * container (and sub-containers)
@@ -1058,7 +1341,7 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 * @see org.eclipse.debug.core.ILaunchManager#generateUniqueLaunchConfigurationNameFrom(java.lang.String)
 	 */
 	@Override
-	public String generateUniqueLaunchConfigurationNameFrom(String baseName) {
+	public synchronized String generateUniqueLaunchConfigurationNameFrom(String baseName) {
 		int index = 1;
 		int length = baseName.length();
 		int copyIndex = baseName.lastIndexOf(" ("); //$NON-NLS-1$
@@ -1074,10 +1357,17 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 			}
 		}
 		String newName = base;
-		while (isExistingLaunchConfigurationName(newName)) {
+		LaunchConfigurationNameIndex names = getNameIndex();
+		if (names.contains(newName)) {
+			index = names.getFreeNumber(base, index);
 			newName = MessageFormat.format(DebugCoreMessages.LaunchManager_31, new Object[] {
 					base, Integer.toString(index) });
-			index++;
+			// only indexed names are known to be free, names in a translated format are probed
+			while (names.contains(newName)) {
+				index++;
+				newName = MessageFormat.format(DebugCoreMessages.LaunchManager_31, new Object[] {
+						base, Integer.toString(index) });
+			}
 		}
 		return newName;
 	}
@@ -1100,7 +1390,7 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 * @param reservednames a set of strings that is further used to constrain what names can be generated
 	 * @since 3.3
 	 */
-	public String generateUniqueLaunchConfigurationNameFrom(String basename, Set<String> reservednames) {
+	public synchronized String generateUniqueLaunchConfigurationNameFrom(String basename, Set<String> reservednames) {
 		if(reservednames == null) {
 			return generateUniqueLaunchConfigurationNameFrom(basename);
 		}
@@ -1119,8 +1409,10 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 			}
 		}
 		String newname = base;
+		LaunchConfigurationNameIndex names = getNameIndex();
 		StringBuffer buffer = null;
-		while (isExistingLaunchConfigurationName(newname) || reservednames.contains(newname)) {
+		while (names.contains(newname) || reservednames.contains(newname)) {
+			index = names.getFreeNumber(base, index);
 			buffer = new StringBuffer(base);
 			buffer.append(" ("); //$NON-NLS-1$
 			buffer.append(String.valueOf(index));
@@ -1141,10 +1433,13 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		if (fLaunchConfigurationIndex == null) {
 			try {
 				fLaunchConfigurationIndex = new ArrayList<ILaunchConfiguration>(20);
-				List<ILaunchConfiguration> configs = findLocalLaunchConfigurations();
-				verifyConfigurations(configs, fLaunchConfigurationIndex);
-				configs = findLaunchConfigurations(ResourcesPlugin.getWorkspace().getRoot());
-				verifyConfigurations(configs, fLaunchConfigurationIndex);
+				if (!restoreLaunchConfigurations(fLaunchConfigurationIndex)) {
+					fSavedIndex = new SavedLaunchConfigurationIndex();
+					List<ILaunchConfiguration> configs = findLocalLaunchConfigurations();
+					verifyConfigurations(configs, fLaunchConfigurationIndex);
+					configs = findLaunchConfigurations(ResourcesPlugin.getWorkspace().getRoot());
+					verifyConfigurations(configs, fLaunchConfigurationIndex);
+				}
 			} finally {
 				hookResourceChangeListener();
 			}
@@ -1152,22 +1447,140 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		return fLaunchConfigurationIndex;
 	}
 
+	/**
+	 * Restores the launch configurations in the workspace from the index saved
+	 * with the workspace, reading only the configurations that changed since.
+	 *
+	 * @param valid the list to place valid configurations in
+	 * @return whether the configurations were restored, or have to be
+	 *         searched for
+	 */
+	private boolean restoreLaunchConfigurations(List<ILaunchConfiguration> valid) {
+		SavedLaunchConfigurationIndex index = fSavedIndex;
+		if (index == null) {
+			return false;
+		}
+		// changes from now on are processed by this manager
+		hookResourceChangeListener();
+		index.stopListening();
+		if (!index.isRestored() || !index.getTypeIds().equals(getLaunchConfigurationTypeIds())) {
+			return false;
+		}
+		Set<ILaunchConfiguration> found = new LinkedHashSet<ILaunchConfiguration>();
+		for (ILaunchConfiguration config : findLocalLaunchConfigurations()) {
+			if (index.isCurrent(config) || isValid(config)) {
+				found.add(config);
+			}
+		}
+		for (ILaunchConfiguration config : index.getConfigurations()) {
+			if (config.isLocal()) {
+				continue;
+			}
+			if (config.getFile().isAccessible() && (index.isCurrent(config) || isValid(config))) {
+				found.add(config);
+			} else {
+				index.remove(config);
+			}
+		}
+		for (IFile file : index.getChangedFiles()) {
+			ILaunchConfiguration config = new LaunchConfiguration(file);
+			if (!found.contains(config) && file.isAccessible() && isValid(config)) {
+				found.add(config);
+			}
+		}
+		for (IProject project : index.getOpenedProjects()) {
+			for (ILaunchConfiguration config : findLaunchConfigurations(project)) {
+				if (!found.contains(config) && (index.isCurrent(config) || isValid(config))) {
+					found.add(config);
+				}
+			}
+		}
+		index.clearChanges();
+		valid.addAll(found);
+		return true;
+	}
+
+	/**
+	 * Saves the index of all launch configurations with the workspace, so
+	 * that they do not have to be searched for at the next startup. The
+	 * index is only saved if all configurations are known, otherwise an
+	 * index saved before is deleted.
+	 *
+	 * @param context the context of the workspace save
+	 * @since 3.11
+	 */
+	public void saveLaunchConfigurationIndex(ISaveContext context) {
+		List<ILaunchConfiguration> configs;
+		SavedLaunchConfigurationIndex index;
+		synchronized (this) {
+			if (fLaunchConfigurationIndex == null) {
+				SavedLaunchConfigurationIndex.delete();
+				return;
+			}
+			configs = new ArrayList<ILaunchConfiguration>(fLaunchConfigurationIndex);
+			index = fSavedIndex;
+		}
+		try {
+			index.save(configs, getLaunchConfigurationTypeIds(), context.getSaveNumber());
+			// the index is only valid with the delta since this save
+			context.needSaveNumber();
+			context.needDelta();
+		} catch (IOException e) {
+			DebugPlugin.log(e);
+			SavedLaunchConfigurationIndex.delete();
+		}
+	}
+
+	/**
+	 * Returns the identifiers of all launch configuration types.
+	 *
+	 * @return launch configuration type identifiers
+	 */
+	private Set<String> getLaunchConfigurationTypeIds() {
+		Set<String> ids = new HashSet<String>();
+		for (ILaunchConfigurationType type : getLaunchConfigurationTypes()) {
+			ids.add(type.getIdentifier());
+		}
+		return ids;
+	}
+
+	/**
+	 * Returns the index of the names of all launch configurations in the
+	 * workspace, creating it if required. The index is updated as
+	 * configurations are added and deleted.
+	 *
+	 * @return the index of launch configuration names
+	 */
+	private synchronized LaunchConfigurationNameIndex getNameIndex() {
+		if (fNameIndex == null) {
+			fNameIndex = new LaunchConfigurationNameIndex(getAllLaunchConfigurations());
+		}
+		return fNameIndex;
+	}
+
+	/**
+	 * The launch config name cache is cleared when a config is added, deleted or changed.
+	 *
+	 * @deprecated the names of launch configurations are indexed as
+	 *             configurations are added and deleted, the index does not
+	 *             need to be cleared
+	 */
+	@Deprecated
+	protected synchronized void clearConfigNameCache() {
+		fNameIndex = null;
+	}
+
 	/**
 	 * Return a sorted array of the names of all <code>ILaunchConfiguration</code>s in
-	 * the workspace.  These are cached, and cache is cleared when a new config is added,
-	 * deleted or changed.
+	 * the workspace.
+	 *
 	 * @return the sorted array of {@link ILaunchConfiguration} names
+	 * @deprecated use {@link #isExistingLaunchConfigurationName(String)} or
+	 *             {@link #generateUniqueLaunchConfigurationNameFrom(String)}
 	 */
+	@Deprecated
 	protected synchronized String[] getAllSortedConfigNames() {
-		if (fSortedConfigNames == null) {
-			ILaunchConfiguration[] configs = getLaunchConfigurations();
-			fSortedConfigNames = new String[configs.length];
-			for (int i = 0; i < configs.length; i++) {
-				fSortedConfigNames[i] = configs[i].getName();
-			}
-			Arrays.sort(fSortedConfigNames);
-		}
-		return fSortedConfigNames;
+		return getNameIndex().getSortedNames();
 	}
 
 	/**
@@ -1293,59 +1706,34 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		if (configEnv == null) {
 			return null;
 		}
-		Map<String, String> env = new HashMap<String, String>();
-		// build base environment
-		boolean append = configuration.getAttribute(ATTR_APPEND_ENVIRONMENT_VARIABLES, true);
-		if (append) {
-			env.putAll(getNativeEnvironmentCasePreserved());
-		}
-
-		// Add variables from config
-		boolean win32= Platform.getOS().equals(Constants.OS_WIN32);
-		String key = null;
-		String value = null;
-		Object nativeValue = null;
-		String nativeKey = null;
-		for (Entry<String, String> entry : configEnv.entrySet()) {
-			key = entry.getKey();
-            value = entry.getValue();
-            // translate any string substitution variables
-            if (value != null) {
-                value = VariablesPlugin.getDefault().getStringVariableManager().performStringSubstitution(value);
-            }
-            boolean added= false;
-			if (win32) {
-                // First, check if the key is an exact match for an existing key.
-				nativeValue = env.get(key);
-                if (nativeValue != null) {
-                    // If an exact match is found, just replace the value
-                    env.put(key, value);
-                } else {
-                    // Win32 variables are case-insensitive. If an exact match isn't found, iterate to
-                    // check for a case-insensitive match. We maintain the key's case (see bug 86725),
-                    // but do a case-insensitive comparison (for example, "pAtH" will still override "PATH").
-					for (Entry<String, String> nativeEntry : env.entrySet()) {
-						nativeKey = (nativeEntry).getKey();
-                        if (nativeKey.equalsIgnoreCase(key)) {
-                            nativeEntry.setValue(value);
-                            added = true;
-                            break;
-                        }
-                    }
-                }
+		// build base environment, the native environment is only copied when a
+		// native variable is overridden
+		boolean win32 = Platform.getOS().equals(Constants.OS_WIN32);
+		EnvironmentSnapshot base;
+		if (configuration.getAttribute(ATTR_APPEND_ENVIRONMENT_VARIABLES, true)) {
+			base = getNativeEnvironmentSnapshot();
+		} else {
+			base = new EnvironmentSnapshot(Collections.<String, String> emptyMap(), win32);
+		}
+		EnvironmentSnapshot.Overlay env = base.newOverlay();
+
+		// Add variables from config. Win32 variables are case-insensitive: we
+		// maintain the existing key's case (see bug 86725), but do a
+		// case-insensitive comparison (for example, "pAtH" will still override
+		// "PATH").
+		// resolve each stable dynamic variable only once for all entries
+		IStringVariableManager manager = VariablesPlugin.getDefault().getStringVariableManager();
+		try (ISubstitutionSession session = manager.openSubstitutionSession()) {
+			for (Entry<String, String> entry : configEnv.entrySet()) {
+				String value = entry.getValue();
+				// translate any string substitution variables
+				if (value != null) {
+					value = manager.performStringSubstitution(value);
+				}
+				env.set(entry.getKey(), value);
 			}
-            if (!added) {
-                env.put(key, value);
-            }
 		}
-		List<String> strings = new ArrayList<String>(env.size());
-		StringBuffer buffer = null;
-		for (Entry<String, String> entry : env.entrySet()) {
-			buffer = new StringBuffer(entry.getKey());
-			buffer.append('=').append(entry.getValue());
-			strings.add(buffer.toString());
-		}
-		return strings.toArray(new String[strings.size()]);
+		return env.toArray();
 	}
 
 	/**
@@ -1436,7 +1824,9 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	public synchronized ILaunchConfiguration[] getLaunchConfigurations(ILaunchConfigurationType type) throws CoreException {
 		List<ILaunchConfiguration> configs = new ArrayList<ILaunchConfiguration>();
 		for (ILaunchConfiguration config : getAllLaunchConfigurations()) {
-			if (config.getType().equals(type)) {
+			// the type is known from the saved index without reading the file
+			String id = fSavedIndex.getTypeId(config);
+			if (id != null ? id.equals(type.getIdentifier()) : config.getType().equals(type)) {
 				configs.add(config);
 			}
 		}
@@ -1736,31 +2126,25 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 * @return a list of launch configurations if found or an empty list, never null
 	 * @since 3.2
 	 */
-	public ILaunchConfiguration[] getMappedConfigurations(IResource resource) {
-		List<ILaunchConfiguration> configurations = new ArrayList<ILaunchConfiguration>();
-		for (ILaunchConfiguration config : getAllLaunchConfigurations()) {
-			try {
-				IResource[] resources = config.getMappedResources();
-				if(resources != null) {
-					for(int j = 0; j < resources.length; j++) {
-						if(resources[j].equals(resource)) {
-							configurations.add(config);
-							break;
-						} else if (resource.getType() == IResource.PROJECT && resources[j].getType() == IResource.FILE){
-							if (resources[j].getProject().equals(resource)) {
-								configurations.add(config);
-								break;
-							}
-						}
-					}
-				}
-			} catch (CoreException ce) {
-				DebugPlugin.log(ce);
-			}
-		}
+	public synchronized ILaunchConfiguration[] getMappedConfigurations(IResource resource) {
+		List<ILaunchConfiguration> configurations = getMappedResourceIndex().getConfigurations(resource);
 		return configurations.toArray(new ILaunchConfiguration[configurations.size()]);
 	}
 
+	/**
+	 * Returns the index of launch configurations by mapped resource, creating
+	 * it if required.
+	 *
+	 * @return the index of launch configurations by mapped resource
+	 */
+	private synchronized MappedResourceIndex getMappedResourceIndex() {
+		if (fMappedResourceIndex == null) {
+			List<ILaunchConfiguration> configs = getAllLaunchConfigurations();
+			fMappedResourceIndex = new MappedResourceIndex(configs, fSavedIndex);
+		}
+		return fMappedResourceIndex;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.core.ILaunchManager#getMigrationCandidates()
 	 */
@@ -1783,6 +2167,10 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		if (addedConfiguration.equals(fTo)) {
 			return fFrom;
 		}
+		ConfigurationBatch batch = fConfigurationBatch.get();
+		if (batch != null) {
+			return batch.fMovedFrom.get(addedConfiguration);
+		}
 		return null;
 	}
 
@@ -1794,6 +2182,14 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		if (removedConfiguration.equals(fFrom)) {
 			return fTo;
 		}
+		ConfigurationBatch batch = fConfigurationBatch.get();
+		if (batch != null) {
+			for (Entry<ILaunchConfiguration, ILaunchConfiguration> entry : batch.fMovedFrom.entrySet()) {
+				if (removedConfiguration.equals(entry.getValue())) {
+					return entry.getKey();
+				}
+			}
+		}
 		return null;
 	}
 
@@ -1828,6 +2224,23 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		return new HashMap<String, String>(fgNativeEnvCasePreserved);
 	}
 
+	/**
+	 * Returns the snapshot of the native environment launch environments are
+	 * built from.
+	 *
+	 * @return the native environment
+	 */
+	private synchronized EnvironmentSnapshot getNativeEnvironmentSnapshot() {
+		if (fgNativeEnvSnapshot == null) {
+			if (fgNativeEnvCasePreserved == null) {
+				fgNativeEnvCasePreserved = new HashMap<String, String>();
+				cacheNativeEnvironment(fgNativeEnvCasePreserved);
+			}
+			fgNativeEnvSnapshot = new EnvironmentSnapshot(fgNativeEnvCasePreserved, Platform.getOS().equals(Constants.OS_WIN32));
+		}
+		return fgNativeEnvSnapshot;
+	}
+
 	/**
 	 * @see ILaunchManager#getProcesses()
 	 */
@@ -2047,13 +2460,8 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 * @see ILaunchManager#isExistingLaunchConfigurationName(String)
 	 */
 	@Override
-	public boolean isExistingLaunchConfigurationName(String name) {
-		String[] sortedConfigNames = getAllSortedConfigNames();
-		int index = Arrays.binarySearch(sortedConfigNames, name);
-		if (index < 0) {
-			return false;
-		}
-		return true;
+	public synchronized boolean isExistingLaunchConfigurationName(String name) {
+		return getNameIndex().contains(name);
 	}
 
 	/**
@@ -2133,11 +2541,16 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 				if (!allConfigs.contains(config)) {
 					allConfigs.add(config);
 					added = true;
+					if (fMappedResourceIndex != null) {
+						fMappedResourceIndex.add(config);
+					}
+					if (fNameIndex != null) {
+						fNameIndex.add(config.getName());
+					}
 				}
 			}
 			if (added) {
-				getConfigurationNotifier().notify(config, ADDED);
-				clearConfigNameCache();
+				fireConfigurationUpdate(config, ADDED);
 			}
 		} else {
 			launchConfigurationDeleted(config);
@@ -2156,14 +2569,19 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	protected void launchConfigurationChanged(ILaunchConfiguration config) {
 		synchronized(this) {
 			fLaunchConfigurations.remove(config);
+			if (fSavedIndex != null) {
+				fSavedIndex.remove(config);
+			}
+			if (fMappedResourceIndex != null) {
+				fMappedResourceIndex.add(config);
+			}
 		}
-		clearConfigNameCache();
 		if (isValid(config)) {
 			// in case the config has been refreshed and it was removed from the
 			// index due to 'out of synch with local file system' (see bug 36147),
 			// add it back (will only add if required)
 			launchConfigurationAdded(config);
-			getConfigurationNotifier().notify(config, CHANGED);
+			fireConfigurationUpdate(config, CHANGED);
 		} else {
 			launchConfigurationDeleted(config);
 		}
@@ -2182,11 +2600,84 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		synchronized (this) {
 			Object key = fLaunchConfigurations.remove(config);
 			removed = key != null;
-			getAllLaunchConfigurations().remove(config);
+			if (getAllLaunchConfigurations().remove(config) && fNameIndex != null) {
+				fNameIndex.remove(config.getName());
+			}
+			fSavedIndex.remove(config);
+			if (fMappedResourceIndex != null) {
+				fMappedResourceIndex.remove(config);
+			}
 		}
 		if (removed) {
-			getConfigurationNotifier().notify(config, REMOVED);
-			clearConfigNameCache();
+			fireConfigurationUpdate(config, REMOVED);
+		}
+	}
+
+	/**
+	 * Notifies launch configuration listeners of an add/change/remove, or
+	 * defers the notification while the calling thread saves launch
+	 * configurations with
+	 * {@link #saveLaunchConfigurations(ILaunchConfigurationWorkingCopy[], IProgressMonitor)}.
+	 *
+	 * @param config the configuration that has changed
+	 * @param update the type of change
+	 */
+	private void fireConfigurationUpdate(ILaunchConfiguration config, int update) {
+		ConfigurationBatch batch = fConfigurationBatch.get();
+		if (batch != null && !batch.fFlushing) {
+			batch.add(config, update);
+			return;
+		}
+		getConfigurationNotifier().notify(config, update);
+		if (!fLaunchConfigurationsListeners.isEmpty()) {
+			new ConfigurationsNotifier().notify(new ILaunchConfiguration[] { config }, update);
+		}
+	}
+
+	/**
+	 * Sends the notifications deferred while saving launch configurations.
+	 * Listeners of single configurations are notified in the order the
+	 * configurations were changed, followed by one notification of the
+	 * "plural" listeners for each type of change.
+	 *
+	 * @param batch the deferred notifications
+	 */
+	private void flushConfigurationBatch(ConfigurationBatch batch) {
+		batch.fFlushing = true;
+		if (batch.fUpdates.isEmpty()) {
+			return;
+		}
+		List<ILaunchConfiguration> added = new ArrayList<ILaunchConfiguration>();
+		List<ILaunchConfiguration> changed = new ArrayList<ILaunchConfiguration>();
+		List<ILaunchConfiguration> removed = new ArrayList<ILaunchConfiguration>();
+		ConfigurationNotifier notifier = getConfigurationNotifier();
+		for (Entry<ILaunchConfiguration, Integer> entry : batch.fUpdates.entrySet()) {
+			int update = entry.getValue().intValue();
+			notifier.notify(entry.getKey(), update);
+			switch (update) {
+				case ADDED:
+					added.add(entry.getKey());
+					break;
+				case REMOVED:
+					removed.add(entry.getKey());
+					break;
+				default:
+					changed.add(entry.getKey());
+					break;
+			}
+		}
+		if (fLaunchConfigurationsListeners.isEmpty()) {
+			return;
+		}
+		ConfigurationsNotifier configurationsNotifier = new ConfigurationsNotifier();
+		if (!added.isEmpty()) {
+			configurationsNotifier.notify(added.toArray(new ILaunchConfiguration[added.size()]), ADDED);
+		}
+		if (!changed.isEmpty()) {
+			configurationsNotifier.notify(changed.toArray(new ILaunchConfiguration[changed.size()]), CHANGED);
+		}
+		if (!removed.isEmpty()) {
+			configurationsNotifier.notify(removed.toArray(new ILaunchConfiguration[removed.size()]), REMOVED);
 		}
 	}
 
@@ -2254,6 +2745,14 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		fLaunchConfigurationListeners.remove(listener);
 	}
 
+	/**
+	 * @see ILaunchManager#removeLaunchConfigurationListener(ILaunchConfigurationsListener)
+	 */
+	@Override
+	public void removeLaunchConfigurationListener(ILaunchConfigurationsListener listener) {
+		fLaunchConfigurationsListeners.remove(listener);
+	}
+
 	/**
 	 * @see org.eclipse.debug.core.ILaunchManager#removeLaunches(org.eclipse.debug.core.ILaunch[])
 	 */
@@ -2323,29 +2822,55 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 * @param resource the resource to collect launch configurations for
 	 * @return the list of associated launch configurations
 	 */
-	private ArrayList<ILaunchConfiguration> collectAssociatedLaunches(IResource resource) {
+	private synchronized ArrayList<ILaunchConfiguration> collectAssociatedLaunches(IResource resource) {
 		ArrayList<ILaunchConfiguration> list = new ArrayList<ILaunchConfiguration>();
+		for (ILaunchConfiguration config : getMappedResourceIndex().getConfigurationsBelow(resource)) {
+			if (config.isLocal()) {
+				list.add(config);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * @see ILaunchManager#saveLaunchConfigurations(ILaunchConfigurationWorkingCopy[], IProgressMonitor)
+	 */
+	@Override
+	public ILaunchConfiguration[] saveLaunchConfigurations(final ILaunchConfigurationWorkingCopy[] workingCopies, IProgressMonitor monitor) throws CoreException {
+		final ILaunchConfiguration[] saved = new ILaunchConfiguration[workingCopies.length];
+		ConfigurationBatch outer = fConfigurationBatch.get();
+		// working copies saved by a listener of an outer batch get a batch of their own
+		boolean nested = outer != null && !outer.fFlushing;
+		if (!nested) {
+			fConfigurationBatch.set(new ConfigurationBatch());
+		}
 		try {
-			ILaunchConfiguration[] configs = DebugPlugin.getDefault().getLaunchManager().getLaunchConfigurations();
-			IResource[] resources = null;
-			for(int i = 0; i < configs.length; i++) {
-				if(configs[i].isLocal()) {
-					resources = configs[i].getMappedResources();
-					if(resources != null) {
-						for(int j = 0; j < resources.length; j++){
-							if(resource.equals(resources[j]) ||
-									resource.getFullPath().isPrefixOf(resources[j].getFullPath())) {
-								list.add(configs[i]);
-								break;
-							}
+			IWorkspaceRunnable runnable = new IWorkspaceRunnable() {
+				@Override
+				public void run(IProgressMonitor pm) throws CoreException {
+					SubMonitor lmonitor = SubMonitor.convert(pm, DebugCoreMessages.LaunchManager_32, workingCopies.length);
+					for (int i = 0; i < workingCopies.length; i++) {
+						if (workingCopies[i] instanceof LaunchConfigurationWorkingCopy) {
+							saved[i] = ((LaunchConfigurationWorkingCopy) workingCopies[i]).doSave(lmonitor.newChild(1));
+						} else {
+							saved[i] = workingCopies[i].doSave();
+							lmonitor.worked(1);
 						}
 					}
 				}
+			};
+			// resource changes of shared configurations are broadcast once, at the end of the operation
+			ResourcesPlugin.getWorkspace().run(runnable, null, 0, monitor);
+		} finally {
+			if (!nested) {
+				try {
+					flushConfigurationBatch(fConfigurationBatch.get());
+				} finally {
+					fConfigurationBatch.set(outer);
+				}
 			}
-		} catch (CoreException e) {
-		    DebugPlugin.log(e);
-        }
-		return list;
+		}
+		return saved;
 	}
 
 	/**
@@ -2360,6 +2885,12 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	protected void setMovedFromTo(ILaunchConfiguration from, ILaunchConfiguration to) {
 		fFrom = from;
 		fTo = to;
+		if (from != null && to != null) {
+			ConfigurationBatch batch = fConfigurationBatch.get();
+			if (batch != null && !batch.fFlushing) {
+				batch.fMovedFrom.put(to, from);
+			}
+		}
 	}
 	/**
 	 * Terminates/Disconnects any active debug targets/processes.
@@ -2367,8 +2898,10 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 */
 	public void shutdown() {
 		fListeners = new ListenerList<>();
+		fEarlyListeners = new ListenerList<>();
 		fLaunchesListeners = new ListenerList<>();
 		fLaunchConfigurationListeners = new ListenerList<>();
+		fLaunchConfigurationsListeners = new ListenerList<>();
 		ILaunch[] launches = getLaunches();
 		ILaunch launch = null;
 		for (int i= 0; i < launches.length; i++) {
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchTimeline;
+
+/**
+ * Records the phases of launching a launch configuration. Only the launching
+ * thread records phases, listeners are notified once launching is done.
+ */
+class LaunchTimeline implements ILaunchTimeline {
+
+	private final ILaunchConfiguration fConfiguration;
+	private final String fMode;
+	private final long fStartTime;
+	private final long fStart;
+	private long fEnd;
+
+	private ILaunch fLaunch;
+	private String fDelegateId;
+	private boolean fBuildPerformed;
+	private boolean fCompleted;
+
+	/**
+	 * Phases performed so far, and their durations
+	 */
+	private final List<String> fPhases = new ArrayList<String>(8);
+	private final List<Long> fDurations = new ArrayList<Long>(8);
+
+	/**
+	 * The current phase or <code>null</code>, and the time it started
+	 */
+	private String fPhase;
+	private long fPhaseStart;
+
+	/**
+	 * Starts recording the launch of a configuration.
+	 *
+	 * @param configuration the launched configuration
+	 * @param mode the launch mode
+	 */
+	LaunchTimeline(ILaunchConfiguration configuration, String mode) {
+		fConfiguration = configuration;
+		fMode = mode;
+		fStartTime = System.currentTimeMillis();
+		fStart = System.nanoTime();
+	}
+
+	/**
+	 * Ends the current phase, if any, and starts the given phase.
+	 *
+	 * @param phase one of the <code>PHASE_*</code> constants
+	 */
+	void begin(String phase) {
+		end();
+		fPhase = phase;
+		fPhaseStart = System.nanoTime();
+	}
+
+	/**
+	 * Ends the current phase, if any.
+	 */
+	void end() {
+		if (fPhase != null) {
+			fPhases.add(fPhase);
+			fDurations.add(Long.valueOf(System.nanoTime() - fPhaseStart));
+			fPhase = null;
+		}
+	}
+
+	/**
+	 * Ends the current phase and launching.
+	 *
+	 * @param completed whether the delegate launched the configuration
+	 */
+	void done(boolean completed) {
+		end();
+		fEnd = System.nanoTime();
+		fCompleted = completed;
+	}
+
+	void setLaunch(ILaunch launch) {
+		fLaunch = launch;
+	}
+
+	void setDelegateId(String id) {
+		fDelegateId = id;
+	}
+
+	void setBuildPerformed(boolean performed) {
+		fBuildPerformed = performed;
+	}
+
+	@Override
+	public ILaunchConfiguration getLaunchConfiguration() {
+		return fConfiguration;
+	}
+
+	@Override
+	public String getLaunchMode() {
+		return fMode;
+	}
+
+	@Override
+	public ILaunch getLaunch() {
+		return fLaunch;
+	}
+
+	@Override
+	public String getDelegateId() {
+		return fDelegateId;
+	}
+
+	@Override
+	public long getStartTime() {
+		return fStartTime;
+	}
+
+	@Override
+	public String[] getPhases() {
+		return fPhases.toArray(new String[fPhases.size()]);
+	}
+
+	@Override
+	public long getDuration(String phase) {
+		int index = fPhases.indexOf(phase);
+		return index < 0 ? -1 : fDurations.get(index).longValue();
+	}
+
+	@Override
+	public long getTotalDuration() {
+		return fEnd - fStart;
+	}
+
+	@Override
+	public boolean isBuildPerformed() {
+		return fBuildPerformed;
+	}
+
+	@Override
+	public boolean isCompleted() {
+		return fCompleted;
+	}
+}
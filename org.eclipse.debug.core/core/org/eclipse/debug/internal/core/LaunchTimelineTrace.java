@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchTimeline;
+import org.eclipse.debug.core.ILaunchTimelineListener;
+
+/**
+ * Appends the timeline of each launch to a file, as one JSON object per
+ * line. Durations are in milliseconds. For example:
+ *
+ * <pre>
+ * {"start":1466000000000,"configuration":"Server","type":"org.eclipse.jdt.launching.localJavaApplication","mode":"debug",
+ *  "delegate":"org.eclipse.jdt.launching.localJavaApplication","build":true,"completed":true,"total":812.402,
+ *  "phases":{"delegate":3.101,"createLaunch":1.870,"preLaunchCheck":0.215,"buildForLaunch":402.009,"build":5.306,...}}
+ * </pre>
+ * <p>
+ * The trace is written when the system property
+ * <code>org.eclipse.debug.core.launchTimelineTrace</code> specifies the path
+ * of the file.
+ * </p>
+ */
+class LaunchTimelineTrace implements ILaunchTimelineListener {
+
+	/**
+	 * System property specifying the trace file
+	 */
+	static final String LAUNCH_TIMELINE_TRACE_PROPERTY = "org.eclipse.debug.core.launchTimelineTrace"; //$NON-NLS-1$
+
+	private final File fFile;
+
+	/**
+	 * Creates a trace appending to the given file.
+	 *
+	 * @param file the trace file
+	 */
+	LaunchTimelineTrace(File file) {
+		fFile = file;
+	}
+
+	@Override
+	public void launchTimed(ILaunchTimeline timeline) {
+		String typeId = null;
+		try {
+			typeId = timeline.getLaunchConfiguration().getType().getIdentifier();
+		} catch (CoreException e) {
+			// the type is not available
+		}
+		StringBuilder line = new StringBuilder(512);
+		line.append("{\"start\":").append(timeline.getStartTime()); //$NON-NLS-1$
+		appendString(line.append(",\"configuration\":"), timeline.getLaunchConfiguration().getName()); //$NON-NLS-1$
+		appendString(line.append(",\"type\":"), typeId); //$NON-NLS-1$
+		appendString(line.append(",\"mode\":"), timeline.getLaunchMode()); //$NON-NLS-1$
+		appendString(line.append(",\"delegate\":"), timeline.getDelegateId()); //$NON-NLS-1$
+		line.append(",\"build\":").append(timeline.isBuildPerformed()); //$NON-NLS-1$
+		line.append(",\"completed\":").append(timeline.isCompleted()); //$NON-NLS-1$
+		appendDuration(line.append(",\"total\":"), timeline.getTotalDuration()); //$NON-NLS-1$
+		line.append(",\"phases\":{"); //$NON-NLS-1$
+		String[] phases = timeline.getPhases();
+		for (int i = 0; i < phases.length; i++) {
+			if (i > 0) {
+				line.append(',');
+			}
+			appendString(line, phases[i]);
+			appendDuration(line.append(':'), timeline.getDuration(phases[i]));
+		}
+		line.append("}}\n"); //$NON-NLS-1$
+		write(line.toString());
+	}
+
+	private synchronized void write(String line) {
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(fFile, true), StandardCharsets.UTF_8)) {
+			writer.write(line);
+		} catch (IOException e) {
+			DebugPlugin.log(e);
+		}
+	}
+
+	private static void appendDuration(StringBuilder line, long nanos) {
+		line.append(String.format(Locale.ENGLISH, "%.3f", Double.valueOf(nanos / 1000000.0))); //$NON-NLS-1$
+	}
+
+	/**
+	 * Appends a JSON string, or <code>null</code>.
+	 */
+	private static void appendString(StringBuilder line, String value) {
+		if (value == null) {
+			line.append("null"); //$NON-NLS-1$
+			return;
+		}
+		line.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+				case '\\':
+					line.append('\\').append(c);
+					break;
+				case '\n':
+					line.append("\\n"); //$NON-NLS-1$
+					break;
+				case '\r':
+					line.append("\\r"); //$NON-NLS-1$
+					break;
+				case '\t':
+					line.append("\\t"); //$NON-NLS-1$
+					break;
+				default:
+					if (c < 0x20) {
+						line.append(String.format("\\u%04x", Integer.valueOf(c))); //$NON-NLS-1$
+					} else {
+						line.append(c);
+					}
+			}
+		}
+		line.append('"');
+	}
+}
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchConfiguration;
+
+/**
+ * Index of the launch configurations mapped to each resource. The mapped
+ * resources of added or changed configurations are read when the index is
+ * next queried.
+ * <p>
+ * This class is not thread safe, the launch manager synchronizes access.
+ * </p>
+ */
+class MappedResourceIndex {
+
+	/**
+	 * Mapped resources of the indexed configurations
+	 */
+	private final Map<ILaunchConfiguration, IResource[]> fResources = new HashMap<ILaunchConfiguration, IResource[]>();
+
+	/**
+	 * Configurations keyed by the full paths of their mapped resources.
+	 * Sorted, so that the paths below a path are adjacent.
+	 */
+	private final TreeMap<String, List<ILaunchConfiguration>> fConfigs = new TreeMap<String, List<ILaunchConfiguration>>();
+
+	/**
+	 * Configurations whose mapped resources are yet to be read
+	 */
+	private final Set<ILaunchConfiguration> fPending = new LinkedHashSet<ILaunchConfiguration>();
+
+	/**
+	 * Used to read mapped resources without reading unchanged configurations
+	 */
+	private final SavedLaunchConfigurationIndex fSavedIndex;
+
+	/**
+	 * Creates an index of the given configurations.
+	 *
+	 * @param configs all launch configurations
+	 * @param savedIndex the index saved with the workspace
+	 */
+	MappedResourceIndex(Collection<ILaunchConfiguration> configs, SavedLaunchConfigurationIndex savedIndex) {
+		fPending.addAll(configs);
+		fSavedIndex = savedIndex;
+	}
+
+	/**
+	 * Adds a configuration that was added or changed.
+	 *
+	 * @param config launch configuration
+	 */
+	void add(ILaunchConfiguration config) {
+		remove(config);
+		fPending.add(config);
+	}
+
+	/**
+	 * Removes a configuration that was changed or deleted.
+	 *
+	 * @param config launch configuration
+	 */
+	void remove(ILaunchConfiguration config) {
+		fPending.remove(config);
+		IResource[] resources = fResources.remove(config);
+		if (resources != null) {
+			for (IResource resource : resources) {
+				String key = getKey(resource);
+				List<ILaunchConfiguration> configs = fConfigs.get(key);
+				if (configs != null) {
+					configs.remove(config);
+					if (configs.isEmpty()) {
+						fConfigs.remove(key);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the configurations mapped to the given resource. For a project,
+	 * configurations mapped to a file in the project are returned as well.
+	 *
+	 * @param resource resource
+	 * @return the mapped configurations
+	 */
+	List<ILaunchConfiguration> getConfigurations(IResource resource) {
+		update();
+		Set<ILaunchConfiguration> result = new LinkedHashSet<ILaunchConfiguration>();
+		String key = getKey(resource);
+		List<ILaunchConfiguration> configs = fConfigs.get(key);
+		if (configs != null) {
+			for (ILaunchConfiguration config : configs) {
+				for (IResource mapped : fResources.get(config)) {
+					if (mapped.equals(resource)) {
+						result.add(config);
+						break;
+					}
+				}
+			}
+		}
+		if (resource.getType() == IResource.PROJECT) {
+			for (List<ILaunchConfiguration> below : getBelow(key)) {
+				for (ILaunchConfiguration config : below) {
+					for (IResource mapped : fResources.get(config)) {
+						if (mapped.getType() == IResource.FILE && resource.equals(mapped.getProject())) {
+							result.add(config);
+							break;
+						}
+					}
+				}
+			}
+		}
+		return new ArrayList<ILaunchConfiguration>(result);
+	}
+
+	/**
+	 * Returns the configurations mapped to the given resource or to a
+	 * resource below it.
+	 *
+	 * @param resource resource
+	 * @return the mapped configurations
+	 */
+	List<ILaunchConfiguration> getConfigurationsBelow(IResource resource) {
+		update();
+		Collection<List<ILaunchConfiguration>> lists;
+		if (resource.getType() == IResource.ROOT) {
+			lists = fConfigs.values();
+		} else {
+			String key = getKey(resource);
+			lists = new ArrayList<List<ILaunchConfiguration>>();
+			List<ILaunchConfiguration> configs = fConfigs.get(key);
+			if (configs != null) {
+				lists.add(configs);
+			}
+			lists.addAll(getBelow(key));
+		}
+		Set<ILaunchConfiguration> result = new LinkedHashSet<ILaunchConfiguration>();
+		for (List<ILaunchConfiguration> configs : lists) {
+			result.addAll(configs);
+		}
+		return new ArrayList<ILaunchConfiguration>(result);
+	}
+
+	/**
+	 * Reads the mapped resources of added and changed configurations.
+	 */
+	private void update() {
+		if (fPending.isEmpty()) {
+			return;
+		}
+		for (ILaunchConfiguration config : fPending) {
+			IResource[] resources = null;
+			try {
+				resources = fSavedIndex.getMappedResources(config);
+			} catch (CoreException e) {
+				DebugPlugin.log(e);
+			}
+			if (resources == null) {
+				continue;
+			}
+			fResources.put(config, resources);
+			for (IResource resource : resources) {
+				String key = getKey(resource);
+				List<ILaunchConfiguration> configs = fConfigs.get(key);
+				if (configs == null) {
+					configs = new ArrayList<ILaunchConfiguration>(1);
+					fConfigs.put(key, configs);
+				}
+				if (!configs.contains(config)) {
+					configs.add(config);
+				}
+			}
+		}
+		fPending.clear();
+	}
+
+	/**
+	 * Returns the configurations mapped to resources below the given path.
+	 *
+	 * @param key full path of a resource
+	 * @return lists of configurations
+	 */
+	private Collection<List<ILaunchConfiguration>> getBelow(String key) {
+		// '0' is the character following '/'
+		return fConfigs.subMap(key + '/', key + '0').values();
+	}
+
+	private static String getKey(IResource resource) {
+		return resource.getFullPath().toString();
+	}
+}
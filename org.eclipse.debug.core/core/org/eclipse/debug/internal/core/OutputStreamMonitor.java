@@ -14,6 +14,13 @@ package org.eclipse.debug.internal.core;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.CountDownLatch;
 
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.ListenerList;
@@ -21,6 +28,7 @@ import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IStreamListener;
 import org.eclipse.debug.core.model.IFlushableStreamMonitor;
+import org.eclipse.debug.core.model.IFlushableStreamMonitor2;
 
 /**
  * Monitors the output stream of a system process and notifies
@@ -29,7 +37,7 @@ import org.eclipse.debug.core.model.IFlushableStreamMonitor;
  * The output stream monitor reads system out (or err) via
  * and input stream.
  */
-public class OutputStreamMonitor implements IFlushableStreamMonitor {
+public class OutputStreamMonitor implements IFlushableStreamMonitor2 {
 	/**
 	 * The stream being monitored (connected system out or err).
 	 */
@@ -48,7 +56,7 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	/**
 	 * The local copy of the stream contents
 	 */
-	private StringBuffer fContents;
+	private StreamContentsBuffer fContents;
 
 	/**
 	 * The thread which reads from the stream
@@ -60,6 +68,19 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	 */
 	private static final int BUFFER_SIZE= 8192;
 
+	/**
+	 * The minimum and maximum number of characters collected before listeners
+	 * are notified while the process keeps writing output.
+	 */
+	private static final int MIN_BATCH_SIZE = BUFFER_SIZE;
+	private static final int MAX_BATCH_SIZE = 32 * BUFFER_SIZE;
+
+	/**
+	 * The maximum time in milliseconds appended text is held back before
+	 * listeners are notified.
+	 */
+	private static final long MAX_BATCH_DELAY = 50;
+
 	/**
 	 * Whether or not this monitor has been killed.
 	 * When the monitor is killed, it stops reading
@@ -67,9 +88,42 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	 */
 	private boolean fKilled= false;
 
-    private long lastSleep;
+	/**
+	 * Decoder used to convert the bytes read from the stream into text. The
+	 * decoder keeps incomplete multi-byte sequences between two reads.
+	 */
+	private CharsetDecoder fDecoder;
+
+	/**
+	 * Bytes read from the stream but not yet decoded
+	 */
+	private ByteBuffer fByteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+	/**
+	 * The number of characters collected before listeners are notified
+	 */
+	private int fBatchSize = MIN_BATCH_SIZE;
 
-	private String fEncoding;
+	/**
+	 * The time the first character of the current batch was read
+	 */
+	private long fBatchStart;
+
+	/**
+	 * Whether reading from the stream has been started
+	 */
+	private volatile boolean fMonitoring = false;
+
+	/**
+	 * Released once reading from the stream is finished
+	 */
+	private final CountDownLatch fDone = new CountDownLatch(1);
+
+	/**
+	 * Text decoded but not yet appended to the contents and reported to the
+	 * listeners, reused for every batch. Only accessed by the reading thread.
+	 */
+	private CharBuffer fCharBuffer;
 
 	/**
 	 * Creates an output stream monitor on the
@@ -80,8 +134,28 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	 */
 	public OutputStreamMonitor(InputStream stream, String encoding) {
         fStream = new BufferedInputStream(stream, 8192);
-        fEncoding = encoding;
-		fContents= new StringBuffer();
+		fDecoder = getCharset(encoding).newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		fCharBuffer = CharBuffer.allocate(BUFFER_SIZE);
+		fContents= new StreamContentsBuffer();
+	}
+
+	/**
+	 * Returns the charset for the given encoding, or the system default charset
+	 * if the encoding is <code>null</code> or not supported.
+	 *
+	 * @param encoding stream encoding or <code>null</code> for system default
+	 * @return the charset to decode the stream with
+	 */
+	private static Charset getCharset(String encoding) {
+		if (encoding != null) {
+			try {
+				return Charset.forName(encoding);
+			} catch (IllegalArgumentException e) {
+				// illegal or unsupported charset name
+				DebugPlugin.log(e);
+			}
+		}
+		return Charset.defaultCharset();
 	}
 
 	/* (non-Javadoc)
@@ -95,14 +169,14 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	/**
 	 * Causes the monitor to close all
 	 * communications between it and the
-	 * underlying stream by waiting for the thread to terminate.
+	 * underlying stream by waiting for reading to terminate.
 	 */
 	protected void close() {
-		if (fThread != null) {
-			Thread thread= fThread;
-			fThread= null;
+		if (fMonitoring) {
+			fMonitoring = false;
+			fThread = null;
 			try {
-				thread.join();
+				fDone.await();
 			} catch (InterruptedException ie) {
 			}
 			fListeners = new ListenerList<>();
@@ -135,53 +209,114 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	 * exposing a <code>run</code> method.
 	 */
 	private void read() {
-        lastSleep = System.currentTimeMillis();
-        long currentTime = lastSleep;
-		byte[] bytes= new byte[BUFFER_SIZE];
-		int read = 0;
-		while (read >= 0) {
-			try {
-				if (fKilled) {
-					break;
+		try {
+			while (readNext()) {
+				// read until the end of the stream
+			}
+		} finally {
+			fDone.countDown();
+		}
+	}
+
+	/**
+	 * Reads from the stream as long as this does not block.
+	 *
+	 * @return the number of reads performed, or <code>-1</code> when reading
+	 *         is finished
+	 */
+	int readAvailable() {
+		int reads = 0;
+		boolean reading = true;
+		try {
+			while (reading && !fKilled && fStream.available() > 0) {
+				reading = readNext();
+				reads++;
+			}
+			if (reading && fKilled) {
+				reading = readNext();
+			}
+		} catch (IOException ioe) {
+			if (!fKilled) {
+				DebugPlugin.log(ioe);
+			}
+			fireBatch();
+			reading = false;
+		} finally {
+			if (!reading) {
+				fDone.countDown();
+			}
+		}
+		return reading ? reads : -1;
+	}
+
+	/**
+	 * Reads and processes the next chunk of the stream, blocking until it is
+	 * available.
+	 *
+	 * @return whether there is more to read from the stream
+	 */
+	private boolean readNext() {
+		try {
+			if (fKilled) {
+				finishReading();
+				return false;
+			}
+			// bytes of an incomplete character from the previous read are
+			// kept at the start of the buffer
+			int read = fStream.read(fByteBuffer.array(), fByteBuffer.position(), fByteBuffer.remaining());
+			if (read > 0) {
+				if (fCharBuffer.position() == 0) {
+					fBatchStart = System.currentTimeMillis();
 				}
-				read= fStream.read(bytes);
-				if (read > 0) {
-					String text;
-					if (fEncoding != null) {
-						text = new String(bytes, 0, read, fEncoding);
-					} else {
-						text = new String(bytes, 0, read);
-					}
-					synchronized (this) {
-						if (isBuffered()) {
-							fContents.append(text);
-						}
-						fireStreamAppended(text);
+				fByteBuffer.position(fByteBuffer.position() + read);
+				fByteBuffer.flip();
+				decode(fByteBuffer, false);
+				fByteBuffer.compact();
+				// Coalesce appended text while the process keeps writing.
+				// The batch grows with the output rate and shrinks again
+				// once the process pauses, so listeners get few large
+				// notifications for heavy output and immediate ones for
+				// interactive output.
+				if (fStream.available() == 0) {
+					fireBatch();
+					fBatchSize = Math.max(MIN_BATCH_SIZE, fBatchSize / 2);
+					if (fCharBuffer.capacity() > fBatchSize) {
+						// don't keep a large buffer for an idle stream
+						fCharBuffer = CharBuffer.allocate(fBatchSize);
 					}
+				} else if (fCharBuffer.position() >= fBatchSize || System.currentTimeMillis() - fBatchStart >= MAX_BATCH_DELAY) {
+					fireBatch();
+					fBatchSize = Math.min(MAX_BATCH_SIZE, fBatchSize * 2);
 				}
-			} catch (IOException ioe) {
-				if (!fKilled) {
-					DebugPlugin.log(ioe);
-				}
-				return;
-			} catch (NullPointerException e) {
-				// killing the stream monitor while reading can cause an NPE
-				// when reading from the stream
-				if (!fKilled && fThread != null) {
-					DebugPlugin.log(e);
-				}
-				return;
+			} else if (read < 0) {
+				fByteBuffer.flip();
+				decode(fByteBuffer, true);
+				finishReading();
+				return false;
 			}
-
-            currentTime = System.currentTimeMillis();
-            if (currentTime - lastSleep > 1000) {
-                lastSleep = currentTime;
-                try {
-                    Thread.sleep(1); // just give up CPU to maintain UI responsiveness.
-                } catch (InterruptedException e) {
-                }
-            }
+			return true;
+		} catch (IOException ioe) {
+			if (!fKilled) {
+				DebugPlugin.log(ioe);
+			}
+			fireBatch();
+			return false;
+		} catch (NullPointerException e) {
+			// killing the stream monitor while reading can cause an NPE
+			// when reading from the stream
+			if (!fKilled && fThread != null) {
+				DebugPlugin.log(e);
+			}
+			fireBatch();
+			return false;
 		}
+	}
+
+	/**
+	 * Reports the remaining text and closes the stream.
+	 */
+	private void finishReading() {
+		fireBatch();
 		try {
 			fStream.close();
 		} catch (IOException e) {
@@ -189,6 +324,63 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 		}
 	}
 
+	/**
+	 * Decodes the given bytes and adds the resulting text to the current batch.
+	 * Bytes forming an incomplete character are left in the buffer unless
+	 * <code>endOfInput</code> is <code>true</code>.
+	 *
+	 * @param bytes the bytes to decode, ready for reading
+	 * @param endOfInput whether no more bytes will follow
+	 */
+	private void decode(ByteBuffer bytes, boolean endOfInput) {
+		CoderResult result;
+		do {
+			result = fDecoder.decode(bytes, fCharBuffer, endOfInput);
+			if (result.isOverflow()) {
+				growBatch();
+			}
+		} while (result.isOverflow());
+		if (endOfInput) {
+			do {
+				result = fDecoder.flush(fCharBuffer);
+				if (result.isOverflow()) {
+					growBatch();
+				}
+			} while (result.isOverflow());
+		}
+	}
+
+	/**
+	 * Makes room for more decoded text, by growing the batch buffer up to the
+	 * maximum batch size and by notifying listeners once it is reached.
+	 */
+	private void growBatch() {
+		if (fCharBuffer.capacity() < MAX_BATCH_SIZE) {
+			CharBuffer buffer = CharBuffer.allocate(Math.min(MAX_BATCH_SIZE, fCharBuffer.capacity() * 2));
+			fCharBuffer.flip();
+			buffer.put(fCharBuffer);
+			fCharBuffer = buffer;
+		} else {
+			fireBatch();
+		}
+	}
+
+	/**
+	 * Appends the current batch to the contents and notifies listeners.
+	 */
+	private void fireBatch() {
+		if (fCharBuffer.position() > 0) {
+			String text = new String(fCharBuffer.array(), 0, fCharBuffer.position());
+			fCharBuffer.clear();
+			synchronized (this) {
+				if (isBuffered()) {
+					fContents.append(text);
+				}
+				fireStreamAppended(text);
+			}
+		}
+	}
+
 	protected void kill() {
 		fKilled= true;
 	}
@@ -205,6 +397,29 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	 * Starts a thread which reads from the stream
 	 */
 	protected void startMonitoring() {
+		if (!fMonitoring) {
+			fMonitoring = true;
+			startReadingThread();
+		}
+	}
+
+	/**
+	 * Starts reading from the stream on the threads of the given pool.
+	 *
+	 * @param pool the pool to read the stream on
+	 * @param process the process writing to the stream
+	 */
+	protected void startMonitoring(StreamMonitorPool pool, Process process) {
+		if (!fMonitoring) {
+			fMonitoring = true;
+			pool.startReading(this, process);
+		}
+	}
+
+	/**
+	 * Starts a thread which reads from the stream until it ends.
+	 */
+	void startReadingThread() {
 		if (fThread == null) {
 			fThread= new Thread(new Runnable() {
 				@Override
@@ -231,7 +446,47 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	 */
 	@Override
 	public synchronized void flushContents() {
-		fContents.setLength(0);
+		fContents.clear();
+	}
+
+	/**
+	 * @see IFlushableStreamMonitor2#setBufferLimit(int, int)
+	 */
+	@Override
+	public synchronized void setBufferLimit(int limit, int kind) {
+		fContents.setLimit(limit, kind);
+	}
+
+	/**
+	 * @see IFlushableStreamMonitor2#getBufferLimit()
+	 */
+	@Override
+	public synchronized int getBufferLimit() {
+		return fContents.getLimit();
+	}
+
+	/**
+	 * @see IFlushableStreamMonitor2#getBufferLimitKind()
+	 */
+	@Override
+	public synchronized int getBufferLimitKind() {
+		return fContents.getLimitKind();
+	}
+
+	/**
+	 * @see IFlushableStreamMonitor2#getContentsLength()
+	 */
+	@Override
+	public synchronized int getContentsLength() {
+		return fContents.length();
+	}
+
+	/**
+	 * @see IFlushableStreamMonitor2#getContents(int, int)
+	 */
+	@Override
+	public synchronized String getContents(int start, int end) {
+		return fContents.substring(start, end);
 	}
 
 	/**
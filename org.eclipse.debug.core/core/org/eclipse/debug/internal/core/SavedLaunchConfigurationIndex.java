@@ -0,0 +1,512 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ISavedState;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchConfiguration;
+
+/**
+ * Index of the launch configurations in the workspace, saved with the
+ * workspace so that the configurations can be found at startup without
+ * searching the workspace for launch configuration files.
+ * <p>
+ * The index remembers the type, the mapped resources and the time stamp of
+ * the file of each configuration. When the index is restored, configurations
+ * with unchanged files are taken from the index and changed files are read
+ * again. Files added to the workspace since the index was saved are found
+ * from the resource delta since the save, which is collected in the
+ * background after startup.
+ * </p>
+ */
+public class SavedLaunchConfigurationIndex implements IResourceChangeListener, IResourceDeltaVisitor {
+
+	/**
+	 * Version of the file format
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Name of the index file in the state location of the plug-in
+	 */
+	private static final String FILE_NAME = "launchConfigurationIndex"; //$NON-NLS-1$
+
+	/**
+	 * What is known about a configuration whose file has the time stamp of
+	 * the entry.
+	 */
+	static class Entry {
+
+		final long fStamp;
+
+		/**
+		 * Type identifier or <code>null</code> if the configuration has to
+		 * be read again
+		 */
+		final String fTypeId;
+
+		final List<String> fMappedPaths;
+
+		final List<String> fMappedTypes;
+
+		Entry(long stamp, String typeId, List<String> mappedPaths, List<String> mappedTypes) {
+			fStamp = stamp;
+			fTypeId = typeId;
+			fMappedPaths = mappedPaths;
+			fMappedTypes = mappedTypes;
+		}
+	}
+
+	/**
+	 * Entries of configurations whose files have not changed since the index
+	 * was restored or saved
+	 */
+	private final Map<ILaunchConfiguration, Entry> fEntries = new HashMap<ILaunchConfiguration, Entry>();
+
+	/**
+	 * Launch configuration type identifiers when the index was saved
+	 */
+	private final Set<String> fTypeIds = new HashSet<String>();
+
+	/**
+	 * Launch configuration files added or changed since the index was saved
+	 */
+	private final Set<IFile> fChangedFiles = new HashSet<IFile>();
+
+	/**
+	 * Projects opened since the index was saved
+	 */
+	private final Set<IProject> fOpenedProjects = new HashSet<IProject>();
+
+	/**
+	 * Whether the saved index was read and all changes since it was saved
+	 * are known
+	 */
+	private volatile boolean fRestored = false;
+
+	private boolean fListening = false;
+
+	/**
+	 * Starts collecting changes to launch configuration files. To not miss
+	 * changes, this has to be called before the saved state of the workspace
+	 * is obtained.
+	 */
+	public synchronized void startListening() {
+		if (!fListening) {
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+			fListening = true;
+		}
+	}
+
+	/**
+	 * Stops collecting changes to launch configuration files.
+	 */
+	public synchronized void stopListening() {
+		if (fListening) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+			fListening = false;
+		}
+	}
+
+	/**
+	 * Reads the saved index and collects the changes since the given saved
+	 * state of the workspace in a background job, which belongs to the
+	 * family of this index.
+	 *
+	 * @param state the saved state of the workspace or <code>null</code> if
+	 *            the workspace was not saved before, in which case the index
+	 *            cannot be restored
+	 */
+	public void restore(final ISavedState state) {
+		if (state == null) {
+			stopListening();
+			return;
+		}
+		Job job = new Job("Restore launch configuration index") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				if (read(getFile(), state.getSaveNumber())) {
+					state.processResourceChangeEvents(SavedLaunchConfigurationIndex.this);
+					fRestored = true;
+				} else {
+					stopListening();
+				}
+				return Status.OK_STATUS;
+			}
+
+			@Override
+			public boolean belongsTo(Object family) {
+				return family == SavedLaunchConfigurationIndex.this;
+			}
+		};
+		job.setSystem(true);
+		job.schedule();
+	}
+
+	/**
+	 * Returns whether the saved index was read and all changes since it was
+	 * saved are known.
+	 *
+	 * @return whether the index was restored
+	 */
+	public boolean isRestored() {
+		return fRestored;
+	}
+
+	@Override
+	public synchronized void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta != null) {
+			try {
+				delta.accept(this);
+			} catch (CoreException e) {
+				DebugPlugin.log(e);
+			}
+		}
+	}
+
+	@Override
+	public boolean visit(IResourceDelta delta) {
+		IResource resource = delta.getResource();
+		if (0 != (delta.getFlags() & IResourceDelta.OPEN)) {
+			if (resource instanceof IProject && ((IProject) resource).isOpen()) {
+				fOpenedProjects.add((IProject) resource);
+			}
+			return false;
+		}
+		if (resource instanceof IFile) {
+			if (ILaunchConfiguration.LAUNCH_CONFIGURATION_FILE_EXTENSION.equals(resource.getFileExtension()) && delta.getKind() != IResourceDelta.REMOVED) {
+				fChangedFiles.add((IFile) resource);
+			}
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the launch configuration type identifiers when the index was
+	 * saved.
+	 *
+	 * @return type identifiers
+	 */
+	synchronized Set<String> getTypeIds() {
+		return new HashSet<String>(fTypeIds);
+	}
+
+	/**
+	 * Returns the configurations in the index.
+	 *
+	 * @return configurations in the index
+	 */
+	synchronized List<ILaunchConfiguration> getConfigurations() {
+		return new ArrayList<ILaunchConfiguration>(fEntries.keySet());
+	}
+
+	/**
+	 * Returns the launch configuration files added or changed since the
+	 * index was saved.
+	 *
+	 * @return added or changed files
+	 */
+	synchronized List<IFile> getChangedFiles() {
+		return new ArrayList<IFile>(fChangedFiles);
+	}
+
+	/**
+	 * Returns the projects opened since the index was saved.
+	 *
+	 * @return opened projects
+	 */
+	synchronized List<IProject> getOpenedProjects() {
+		return new ArrayList<IProject>(fOpenedProjects);
+	}
+
+	/**
+	 * Forgets the changes since the index was saved, once they were applied.
+	 */
+	synchronized void clearChanges() {
+		fChangedFiles.clear();
+		fOpenedProjects.clear();
+	}
+
+	/**
+	 * Returns whether the index has a valid entry for the given configuration
+	 * and its file has not changed. Otherwise the entry is removed.
+	 *
+	 * @param config launch configuration
+	 * @return whether the configuration is valid according to the index
+	 */
+	synchronized boolean isCurrent(ILaunchConfiguration config) {
+		Entry entry = fEntries.get(config);
+		if (entry != null && entry.fTypeId != null && entry.fStamp == getStamp(config)) {
+			return true;
+		}
+		fEntries.remove(config);
+		return false;
+	}
+
+	/**
+	 * Returns the type identifier of the given configuration, or
+	 * <code>null</code> if it is not in the index.
+	 *
+	 * @param config launch configuration
+	 * @return type identifier or <code>null</code>
+	 */
+	synchronized String getTypeId(ILaunchConfiguration config) {
+		Entry entry = fEntries.get(config);
+		return entry == null ? null : entry.fTypeId;
+	}
+
+	/**
+	 * Returns the mapped resources of the given configuration as saved in the
+	 * index, or read from the configuration if it is not in the index.
+	 *
+	 * @param config launch configuration
+	 * @return the mapped resources or <code>null</code> if none
+	 * @throws CoreException if the mapped resources are invalid or the
+	 *             configuration cannot be read
+	 */
+	IResource[] getMappedResources(ILaunchConfiguration config) throws CoreException {
+		Entry entry;
+		synchronized (this) {
+			entry = fEntries.get(config);
+		}
+		if (entry == null || entry.fTypeId == null) {
+			return config.getMappedResources();
+		}
+		return LaunchConfiguration.getMappedResources(entry.fMappedPaths, entry.fMappedTypes);
+	}
+
+	/**
+	 * Removes the entry of the given configuration, because the
+	 * configuration changed or was deleted.
+	 *
+	 * @param config launch configuration
+	 */
+	synchronized void remove(ILaunchConfiguration config) {
+		fEntries.remove(config);
+	}
+
+	/**
+	 * Writes the index of the given configurations.
+	 *
+	 * @param configs the configurations in the workspace
+	 * @param typeIds the launch configuration type identifiers
+	 * @param saveNumber the number of the workspace save
+	 * @throws IOException if the index cannot be written
+	 */
+	void save(Collection<ILaunchConfiguration> configs, Set<String> typeIds, int saveNumber) throws IOException {
+		Map<ILaunchConfiguration, Entry> entries = new LinkedHashMap<ILaunchConfiguration, Entry>(configs.size());
+		for (ILaunchConfiguration config : configs) {
+			Entry entry;
+			synchronized (this) {
+				entry = fEntries.get(config);
+			}
+			if (entry == null) {
+				entry = createEntry(config);
+				synchronized (this) {
+					// keep the entry for the next save, unless the
+					// configuration changed meanwhile
+					if (entry.fStamp == getStamp(config) && !fEntries.containsKey(config)) {
+						fEntries.put(config, entry);
+					}
+				}
+			}
+			entries.put(config, entry);
+		}
+		synchronized (this) {
+			fEntries.keySet().retainAll(entries.keySet());
+		}
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getFile())));
+		try {
+			out.writeInt(VERSION);
+			out.writeInt(saveNumber);
+			out.writeInt(typeIds.size());
+			for (String id : typeIds) {
+				out.writeUTF(id);
+			}
+			out.writeInt(entries.size());
+			for (Map.Entry<ILaunchConfiguration, Entry> element : entries.entrySet()) {
+				ILaunchConfiguration config = element.getKey();
+				Entry entry = element.getValue();
+				out.writeBoolean(config.isLocal());
+				out.writeUTF(config.isLocal() ? config.getName() : config.getFile().getFullPath().toPortableString());
+				out.writeLong(entry.fStamp);
+				writeString(out, entry.fTypeId);
+				writeList(out, entry.fMappedPaths);
+				writeList(out, entry.fMappedTypes);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Deletes the saved index, because it cannot be kept up to date.
+	 */
+	public static void delete() {
+		File file = getFile();
+		if (file.exists()) {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Reads the saved index, if it was saved with the given workspace save.
+	 *
+	 * @param file the index file
+	 * @param saveNumber the number of the last workspace save
+	 * @return whether the index was read
+	 */
+	private synchronized boolean read(File file, int saveNumber) {
+		if (!file.exists()) {
+			return false;
+		}
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (in.readInt() != VERSION || in.readInt() != saveNumber) {
+				return false;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				fTypeIds.add(in.readUTF());
+			}
+			count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				boolean local = in.readBoolean();
+				String path = in.readUTF();
+				Entry entry = new Entry(in.readLong(), readString(in), readList(in), readList(in));
+				LaunchConfiguration config;
+				if (local) {
+					config = new LaunchConfiguration(path, null);
+				} else {
+					config = new LaunchConfiguration(root.getFile(Path.fromPortableString(path)));
+				}
+				fEntries.put(config, entry);
+			}
+			return true;
+		} catch (IOException e) {
+			// written incompletely, the configurations are searched for instead
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		fTypeIds.clear();
+		fEntries.clear();
+		return false;
+	}
+
+	/**
+	 * Creates the entry of a configuration that is not in the index.
+	 *
+	 * @param config launch configuration
+	 * @return the entry
+	 */
+	private Entry createEntry(ILaunchConfiguration config) {
+		long stamp = getStamp(config);
+		try {
+			return new Entry(stamp, config.getType().getIdentifier(), config.getAttribute(LaunchConfiguration.ATTR_MAPPED_RESOURCE_PATHS, (List<String>) null), config.getAttribute(LaunchConfiguration.ATTR_MAPPED_RESOURCE_TYPES, (List<String>) null));
+		} catch (CoreException e) {
+			// read again when the index is restored
+			return new Entry(stamp, null, null, null);
+		}
+	}
+
+	/**
+	 * Returns the time stamp of the file of the given configuration.
+	 *
+	 * @param config launch configuration
+	 * @return modification stamp of a shared configuration, or last
+	 *         modification time of a local configuration
+	 */
+	private static long getStamp(ILaunchConfiguration config) {
+		if (config.isLocal()) {
+			return LaunchManager.LOCAL_LAUNCH_CONFIGURATION_CONTAINER_PATH.append(((LaunchConfiguration) config).getFileName()).toFile().lastModified();
+		}
+		return config.getFile().getModificationStamp();
+	}
+
+	private static File getFile() {
+		return DebugPlugin.getDefault().getStateLocation().append(FILE_NAME).toFile();
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void writeList(DataOutputStream out, List<String> list) throws IOException {
+		if (list == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(list.size());
+		for (String value : list) {
+			writeString(out, value);
+		}
+	}
+
+	private static List<String> readList(DataInputStream in) throws IOException {
+		int size = in.readInt();
+		if (size < 0) {
+			return null;
+		}
+		List<String> list = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(readString(in));
+		}
+		return list;
+	}
+}
@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import org.eclipse.debug.core.model.IFlushableStreamMonitor2;
+
+/**
+ * Ring buffer holding the contents of a stream monitor. The buffer is either
+ * unlimited, or retains only the most recent characters or lines of the
+ * stream.
+ * <p>
+ * This class is not thread safe, clients must synchronize access.
+ * </p>
+ *
+ * @see IFlushableStreamMonitor2
+ */
+class StreamContentsBuffer {
+
+	/**
+	 * The initial size of the character storage
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * The character storage, used as a ring
+	 */
+	private char[] fChars = new char[INITIAL_CAPACITY];
+
+	/**
+	 * Index of the oldest retained character in the storage
+	 */
+	private int fHead = 0;
+
+	/**
+	 * Number of retained characters
+	 */
+	private int fLength = 0;
+
+	/**
+	 * Number of characters discarded from the front of the buffer. Together
+	 * with the buffer offset it gives the stream offset of a character.
+	 */
+	private long fDiscarded = 0;
+
+	/**
+	 * Stream offsets of the retained line delimiters, used as a ring. Only
+	 * maintained when the limit is a number of lines.
+	 */
+	private long[] fLineEnds = new long[16];
+
+	/**
+	 * Index of the oldest line delimiter in <code>fLineEnds</code>
+	 */
+	private int fLineHead = 0;
+
+	/**
+	 * Number of retained line delimiters
+	 */
+	private int fLineCount = 0;
+
+	private int fLimit = IFlushableStreamMonitor2.UNLIMITED;
+
+	private int fKind = IFlushableStreamMonitor2.LIMIT_CHARACTERS;
+
+	/**
+	 * Appends the given text, discarding the oldest contents if the limit is
+	 * exceeded.
+	 *
+	 * @param text the text to append
+	 */
+	public void append(String text) {
+		int offset = 0;
+		int length = text.length();
+		if (fLimit != IFlushableStreamMonitor2.UNLIMITED && fKind == IFlushableStreamMonitor2.LIMIT_CHARACTERS) {
+			if (length > fLimit) {
+				offset = length - fLimit;
+				fDiscarded += offset;
+				length = fLimit;
+			}
+			if (fLength + length > fLimit) {
+				discard(fLength + length - fLimit);
+			}
+		}
+		if (length == 0) {
+			return;
+		}
+		ensureCapacity(fLength + length);
+		int tail = (fHead + fLength) % fChars.length;
+		int first = Math.min(length, fChars.length - tail);
+		text.getChars(offset, offset + first, fChars, tail);
+		text.getChars(offset + first, offset + length, fChars, 0);
+		long streamOffset = fDiscarded + fLength;
+		fLength += length;
+		if (isLineLimited()) {
+			for (int i = offset; i < offset + length; i++) {
+				if (text.charAt(i) == '\n') {
+					addLineEnd(streamOffset + i - offset);
+				}
+			}
+			trimLines();
+		}
+	}
+
+	/**
+	 * Sets the limit of this buffer and trims the retained contents to it.
+	 *
+	 * @param limit the maximum number of characters or lines to retain, or
+	 *            {@link IFlushableStreamMonitor2#UNLIMITED}
+	 * @param kind the kind of the limit
+	 */
+	public void setLimit(int limit, int kind) {
+		if (limit < 0 && limit != IFlushableStreamMonitor2.UNLIMITED) {
+			throw new IllegalArgumentException("Illegal limit: " + limit); //$NON-NLS-1$
+		}
+		if (kind != IFlushableStreamMonitor2.LIMIT_CHARACTERS && kind != IFlushableStreamMonitor2.LIMIT_LINES) {
+			throw new IllegalArgumentException("Illegal limit kind: " + kind); //$NON-NLS-1$
+		}
+		fLimit = limit;
+		fKind = kind;
+		fLineHead = 0;
+		fLineCount = 0;
+		if (isLineLimited()) {
+			for (int i = 0; i < fLength; i++) {
+				if (fChars[(fHead + i) % fChars.length] == '\n') {
+					addLineEnd(fDiscarded + i);
+				}
+			}
+			trimLines();
+		} else if (fLimit != IFlushableStreamMonitor2.UNLIMITED && fLength > fLimit) {
+			discard(fLength - fLimit);
+		}
+	}
+
+	/**
+	 * @return the maximum number of characters or lines retained
+	 */
+	public int getLimit() {
+		return fLimit;
+	}
+
+	/**
+	 * @return the kind of the limit
+	 */
+	public int getLimitKind() {
+		return fKind;
+	}
+
+	/**
+	 * @return the number of retained characters
+	 */
+	public int length() {
+		return fLength;
+	}
+
+	/**
+	 * Returns a range of the retained contents.
+	 *
+	 * @param start the offset of the first character, inclusive
+	 * @param end the offset of the last character, exclusive
+	 * @return the contents in the given range
+	 */
+	public String substring(int start, int end) {
+		if (start < 0 || end > fLength || start > end) {
+			throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + fLength); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		int length = end - start;
+		char[] chars = new char[length];
+		int from = (fHead + start) % fChars.length;
+		int first = Math.min(length, fChars.length - from);
+		System.arraycopy(fChars, from, chars, 0, first);
+		System.arraycopy(fChars, 0, chars, first, length - first);
+		return new String(chars);
+	}
+
+	/**
+	 * Discards all contents and releases the storage.
+	 */
+	public void clear() {
+		fDiscarded += fLength;
+		fHead = 0;
+		fLength = 0;
+		fLineHead = 0;
+		fLineCount = 0;
+		if (fChars.length > INITIAL_CAPACITY) {
+			fChars = new char[INITIAL_CAPACITY];
+		}
+	}
+
+	@Override
+	public String toString() {
+		return substring(0, fLength);
+	}
+
+	private boolean isLineLimited() {
+		return fLimit != IFlushableStreamMonitor2.UNLIMITED && fKind == IFlushableStreamMonitor2.LIMIT_LINES;
+	}
+
+	/**
+	 * Discards the given number of characters from the front of the buffer.
+	 *
+	 * @param count number of characters to discard
+	 */
+	private void discard(int count) {
+		fHead = (fHead + count) % fChars.length;
+		fLength -= count;
+		fDiscarded += count;
+		if (fLength == 0) {
+			fHead = 0;
+		}
+	}
+
+	/**
+	 * Discards the oldest lines until at most the limit of line delimiters is
+	 * retained.
+	 */
+	private void trimLines() {
+		while (fLineCount > fLimit) {
+			long lineEnd = fLineEnds[fLineHead];
+			fLineHead = (fLineHead + 1) % fLineEnds.length;
+			fLineCount--;
+			discard((int) (lineEnd + 1 - fDiscarded));
+		}
+	}
+
+	private void addLineEnd(long streamOffset) {
+		if (fLineCount == fLineEnds.length) {
+			long[] lineEnds = new long[fLineEnds.length * 2];
+			int first = fLineEnds.length - fLineHead;
+			System.arraycopy(fLineEnds, fLineHead, lineEnds, 0, first);
+			System.arraycopy(fLineEnds, 0, lineEnds, first, fLineHead);
+			fLineEnds = lineEnds;
+			fLineHead = 0;
+		}
+		fLineEnds[(fLineHead + fLineCount) % fLineEnds.length] = streamOffset;
+		fLineCount++;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= fChars.length) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, fChars.length * 2);
+		if (newCapacity < 0) {
+			// overflow
+			newCapacity = Integer.MAX_VALUE;
+		}
+		char[] chars = new char[newCapacity];
+		int first = Math.min(fLength, fChars.length - fHead);
+		System.arraycopy(fChars, fHead, chars, 0, first);
+		System.arraycopy(fChars, 0, chars, first, fLength - first);
+		fChars = chars;
+		fHead = 0;
+	}
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.debug.core.DebugPlugin;
+
+/**
+ * Shares a small number of threads between the stream monitors of all
+ * processes, instead of dedicating three threads to every process.
+ * <p>
+ * Process streams cannot be multiplexed with a selector, so output streams
+ * are polled: a shared thread reads whatever is available without blocking
+ * and checks again after a delay that grows while the stream is idle. Once
+ * the process has terminated, the remaining output is drained on a dedicated
+ * thread, as the stream may be kept open by child processes. Input is written
+ * by tasks submitted only when text is queued.
+ * </p>
+ * <p>
+ * The pool is used when the system property
+ * <code>org.eclipse.debug.core.sharedStreamMonitors</code> or, if unset, the
+ * preference {@link IInternalDebugCoreConstants#PREF_SHARED_STREAM_MONITORS}
+ * is <code>true</code>.
+ * </p>
+ *
+ * @see StreamsProxy
+ */
+public class StreamMonitorPool {
+
+	/**
+	 * System property overriding the preference
+	 */
+	private static final String SHARED_STREAM_MONITORS_PROPERTY = "org.eclipse.debug.core.sharedStreamMonitors"; //$NON-NLS-1$
+
+	/**
+	 * Minimum and maximum delay in milliseconds between two polls of an
+	 * output stream.
+	 */
+	private static final long MIN_POLL_DELAY = 1;
+	private static final long MAX_POLL_DELAY = 50;
+
+	/**
+	 * The number of threads polling output streams
+	 */
+	private static final int POLLING_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+	private static StreamMonitorPool fgDefault;
+
+	private final ScheduledExecutorService fPollingExecutor;
+
+	private final ExecutorService fWritingExecutor;
+
+	/**
+	 * Returns the shared pool, creating it if needed.
+	 *
+	 * @return the shared pool
+	 */
+	public static synchronized StreamMonitorPool getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new StreamMonitorPool();
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Shuts down the shared pool, if it was created.
+	 */
+	public static synchronized void shutdown() {
+		if (fgDefault != null) {
+			fgDefault.fPollingExecutor.shutdownNow();
+			fgDefault.fWritingExecutor.shutdownNow();
+			fgDefault = null;
+		}
+	}
+
+	/**
+	 * Returns whether streams of new processes should be monitored using the
+	 * shared pool rather than dedicated threads.
+	 *
+	 * @return whether to use the shared pool
+	 */
+	public static boolean isEnabled() {
+		String property = System.getProperty(SHARED_STREAM_MONITORS_PROPERTY);
+		if (property != null) {
+			return Boolean.parseBoolean(property);
+		}
+		return Platform.getPreferencesService().getBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_SHARED_STREAM_MONITORS, false, null);
+	}
+
+	private StreamMonitorPool() {
+		fPollingExecutor = Executors.newScheduledThreadPool(POLLING_THREADS, new DaemonThreadFactory(DebugCoreMessages.OutputStreamMonitor_label, Thread.MIN_PRIORITY));
+		fWritingExecutor = Executors.newCachedThreadPool(new DaemonThreadFactory(DebugCoreMessages.InputStreamMonitor_label, Thread.NORM_PRIORITY));
+	}
+
+	/**
+	 * Returns the executor to write the input streams of processes on.
+	 *
+	 * @return the executor for input streams
+	 */
+	public Executor getWritingExecutor() {
+		return fWritingExecutor;
+	}
+
+	/**
+	 * Starts polling the given output stream monitor.
+	 *
+	 * @param monitor the monitor to read the stream of
+	 * @param process the process writing to the stream
+	 */
+	void startReading(OutputStreamMonitor monitor, Process process) {
+		fPollingExecutor.execute(new PollingTask(monitor, process));
+	}
+
+	/**
+	 * Reads the available output of a stream and schedules itself again.
+	 */
+	class PollingTask implements Runnable {
+
+		private final OutputStreamMonitor fMonitor;
+		private final Process fProcess;
+		private long fDelay = MIN_POLL_DELAY;
+
+		PollingTask(OutputStreamMonitor monitor, Process process) {
+			fMonitor = monitor;
+			fProcess = process;
+		}
+
+		@Override
+		public void run() {
+			int reads = fMonitor.readAvailable();
+			if (reads < 0) {
+				return;
+			}
+			if (reads > 0) {
+				fDelay = MIN_POLL_DELAY;
+			} else if (!fProcess.isAlive()) {
+				fMonitor.startReadingThread();
+				return;
+			} else {
+				fDelay = Math.min(MAX_POLL_DELAY, fDelay * 2);
+			}
+			try {
+				fPollingExecutor.schedule(this, fDelay, TimeUnit.MILLISECONDS);
+			} catch (RuntimeException e) {
+				// the pool has been shut down
+				fMonitor.startReadingThread();
+			}
+		}
+	}
+
+	/**
+	 * Creates named daemon threads.
+	 */
+	public static class DaemonThreadFactory implements ThreadFactory {
+
+		private final String fName;
+		private final int fPriority;
+		private final AtomicInteger fCount = new AtomicInteger();
+
+		public DaemonThreadFactory(String name, int priority) {
+			fName = name;
+			fPriority = priority;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, fName + " " + fCount.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			thread.setPriority(fPriority);
+			return thread;
+		}
+	}
+}
@@ -54,9 +54,16 @@ public class StreamsProxy implements IStreamsProxy, IStreamsProxy2 {
 		fOutputMonitor= new OutputStreamMonitor(process.getInputStream(), encoding);
 		fErrorMonitor= new OutputStreamMonitor(process.getErrorStream(), encoding);
 		fInputMonitor= new InputStreamMonitor(process.getOutputStream(), encoding);
-		fOutputMonitor.startMonitoring();
-		fErrorMonitor.startMonitoring();
-		fInputMonitor.startMonitoring();
+		if (StreamMonitorPool.isEnabled()) {
+			StreamMonitorPool pool = StreamMonitorPool.getDefault();
+			fOutputMonitor.startMonitoring(pool, process);
+			fErrorMonitor.startMonitoring(pool, process);
+			fInputMonitor.startMonitoring(pool.getWritingExecutor());
+		} else {
+			fOutputMonitor.startMonitoring();
+			fErrorMonitor.startMonitoring();
+			fInputMonitor.startMonitoring();
+		}
 	}
 
 	/**
@@ -13,8 +13,8 @@
 package org.eclipse.debug.internal.core.groups;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
@@ -38,18 +38,19 @@ public class GroupLaunch extends Launch implements ILaunchesListener2 {
 	/**
 	 * Whether this process has been terminated
 	 */
-	private boolean fTerminated;
+	private volatile boolean fTerminated;
 
 	/**
 	 * Keeps track of whether launching has been finished
 	 */
-	private boolean fLaunched = false;
+	private volatile boolean fLaunched = false;
 
 	/**
 	 * A map of all our sub-launches and the current processes that belong
-	 * to each one.
+	 * to each one. Sub-launches are added concurrently when the group
+	 * launches its elements in parallel.
 	 */
-	private Map<ILaunch, IProcess[]> subLaunches = new HashMap<ILaunch, IProcess[]>();
+	private Map<ILaunch, IProcess[]> subLaunches = new ConcurrentHashMap<ILaunch, IProcess[]>();
 
 	public GroupLaunch(ILaunchConfiguration launchConfiguration, String mode) {
 		super(launchConfiguration, mode, null);
@@ -180,7 +181,7 @@ public class GroupLaunch extends Launch implements ILaunchesListener2 {
 	}
 
 	@Override
-	public void launchChanged(ILaunch launch) {
+	public synchronized void launchChanged(ILaunch launch) {
 		if (this == launch) {
 			return;
 		}
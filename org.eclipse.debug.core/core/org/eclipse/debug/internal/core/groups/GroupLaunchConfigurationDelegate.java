@@ -13,26 +13,46 @@
 package org.eclipse.debug.internal.core.groups;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.debug.core.ILaunchListener;
 import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.debug.core.IStatusHandler;
+import org.eclipse.debug.core.IStreamListener;
 import org.eclipse.debug.core.model.ILaunchConfigurationDelegate2;
+import org.eclipse.debug.core.model.IProcess;
+import org.eclipse.debug.core.model.IStreamMonitor;
+import org.eclipse.debug.core.model.IStreamsProxy;
 import org.eclipse.debug.core.model.LaunchConfigurationDelegate;
 import org.eclipse.debug.internal.core.DebugCoreMessages;
 import org.eclipse.debug.internal.core.IInternalDebugCoreConstants;
+import org.eclipse.debug.internal.core.LaunchManager;
+import org.eclipse.debug.internal.core.StreamMonitorPool.DaemonThreadFactory;
 import org.eclipse.debug.internal.core.groups.GroupLaunchElement.GroupElementPostLaunchAction;
 import org.eclipse.osgi.util.NLS;
 
@@ -45,11 +65,26 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 	public static final int CODE_GROUP_LAUNCH_START = 233;
 	public static final int CODE_GROUP_LAUNCH_DONE = 234;
 
+	/**
+	 * Launch configuration attribute of a group specifying whether its
+	 * elements are launched in parallel (value <code>Boolean</code>). When
+	 * <code>true</code>, only the elements following an element with a
+	 * post-launch action wait for that element. Default value is
+	 * <code>false</code>, launching the elements one after another.
+	 */
+	public static final String ATTR_PARALLEL = "org.eclipse.debug.core.groupLaunchParallel"; //$NON-NLS-1$
+
 	private static final String NAME_PROP = "name"; //$NON-NLS-1$
 	private static final String ENABLED_PROP = "enabled"; //$NON-NLS-1$
 	private static final String MODE_PROP = "mode"; //$NON-NLS-1$
 	private static final String ACTION_PROP = "action"; //$NON-NLS-1$
 	private static final String ACTION_PARAM_PROP = "actionParam"; //$NON-NLS-1$
+
+	/**
+	 * The maximum number of elements launched at the same time
+	 */
+	private static final int MAX_PARALLEL_LAUNCHES = Math.max(2, Runtime.getRuntime().availableProcessors());
+
 	private static final String MULTI_LAUNCH_CONSTANTS_PREFIX = "org.eclipse.debug.core.launchGroup"; //$NON-NLS-1$
 
 	private static final String DEBUG_CORE = "org.eclipse.debug.core"; //$NON-NLS-1$
@@ -81,49 +116,49 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 			SubMonitor progress = SubMonitor.convert(monitor, NLS.bind(DebugCoreMessages.GroupLaunchConfigurationDelegate_Launching, groupConfig.getName()), 1000);
 
 			List<GroupLaunchElement> launches = createLaunchElements(groupConfig);
-			for (int i = 0; i < launches.size(); ++i) {
-				GroupLaunchElement le = launches.get(i);
+			if (groupConfig.getAttribute(ATTR_PARALLEL, false)) {
+				launchParallel(progress, group, groupConfig, launches, mode);
+			} else {
+				for (int i = 0; i < launches.size(); ++i) {
+					GroupLaunchElement le = launches.get(i);
+
+					if (le == null || !le.enabled) {
+						continue;
+					}
 
-				if (!le.enabled) {
-					continue;
-				}
+					final String localMode = getLocalMode(le, mode);
+					final ILaunchConfiguration conf = findChild(groupConfig, le, localMode);
+					if (conf == null) {
+						continue;
+					}
 
-				// find launch; if not found, skip (error?)
-				final ILaunchConfiguration conf = findLaunch(le.name);
-				if (conf == null) {
-					continue;
-				}
+					SubMonitor childMonitor = progress.newChild(1000 / launches.size());
+					OutputWatcher watcher = watchOutput(le, conf);
+					try {
+						ILaunch subLaunch = launchChild(childMonitor, group, conf, localMode);
 
-				// determine mode for each launch
-				final String localMode;
-				if (!le.mode.equals(GroupLaunchElement.MODE_INHERIT)) {
-					localMode = le.mode;
-				} else {
-					localMode = mode;
-				}
-				if (!conf.supportsMode(localMode)) {
-					IStatusHandler handler = DebugPlugin.getDefault().getStatusHandler(UNSUPPORTED_MODE);
-					handler.handleStatus(UNSUPPORTED_MODE, new String[] {
-							conf.getName(), localMode });
-					continue;
-				}
+						// if this is the last child, mark the group as
+						// "launching finished", so that from now on the last
+						// terminating child will also terminate the group.
+						if (i == launches.size() - 1) {
+							group.markLaunched();
+						}
 
-				if (groupConfig.getName().equals(conf.getName())) {
-					// loop detected. report as appropriate and die.
-					IStatusHandler cycleHandler = DebugPlugin.getDefault().getStatusHandler(GROUP_CYCLE);
-					cycleHandler.handleStatus(GROUP_CYCLE, conf.getName());
-				} else {
-					launchChild(progress.newChild(1000 / launches.size()), group, le, conf, localMode, (i == launches.size() - 1));
-				}
+						postLaunchAction(subLaunch, le, watcher, childMonitor);
+					} finally {
+						if (watcher != null) {
+							watcher.dispose();
+						}
+					}
 
-				// in case the group has been terminated while waiting in the
-				// post launch action.
-				if (group.isTerminated()) {
-					break;
+					// in case the group has been terminated while waiting in
+					// the post launch action.
+					if (group.isTerminated()) {
+						break;
+					}
 				}
 			}
 
-
 			if (!group.hasChildren()) {
 				DebugPlugin.getDefault().getLaunchManager().removeLaunch(group);
 			}
@@ -135,7 +170,134 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 		}
 	}
 
-	private void launchChild(SubMonitor monitor, final GroupLaunch group, GroupLaunchElement le, final ILaunchConfiguration child, final String localMode, boolean lastConfig) throws CoreException {
+	/**
+	 * Launches the elements of a group concurrently, on at most
+	 * {@link #MAX_PARALLEL_LAUNCHES} threads. An element with a post-launch
+	 * action is a dependency of the elements following it: they are launched
+	 * once it has been launched and its action is complete. Elements without
+	 * a post-launch action do not delay the elements following them.
+	 */
+	private void launchParallel(SubMonitor progress, GroupLaunch group, ILaunchConfiguration groupConfig, List<GroupLaunchElement> launches, String mode) throws CoreException {
+		// resolve the children up front, as the status handlers may prompt
+		List<ChildLaunch> children = new ArrayList<>();
+		AtomicInteger remaining = new AtomicInteger();
+		for (GroupLaunchElement le : launches) {
+			if (le == null || !le.enabled) {
+				continue;
+			}
+			String localMode = getLocalMode(le, mode);
+			ILaunchConfiguration conf = findChild(groupConfig, le, localMode);
+			if (conf != null) {
+				children.add(new ChildLaunch(progress, group, le, conf, localMode, remaining));
+			}
+		}
+		if (children.isEmpty()) {
+			return;
+		}
+		remaining.set(children.size());
+		progress.setWorkRemaining(children.size());
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(children.size(), MAX_PARALLEL_LAUNCHES), new DaemonThreadFactory(DebugCoreMessages.GroupLaunchConfigurationDelegate_Launcher, Thread.NORM_PRIORITY));
+		List<Future<?>> submitted = new ArrayList<>(children.size());
+		try {
+			boolean stop = false;
+			for (ChildLaunch child : children) {
+				if (stop || progress.isCanceled() || group.isTerminated()) {
+					break;
+				}
+				Future<?> future = executor.submit(child);
+				submitted.add(future);
+				if (child.isDependency()) {
+					// the following elements wait for this one
+					while (!future.isDone() && !progress.isCanceled()) {
+						try {
+							future.get(100, TimeUnit.MILLISECONDS);
+						} catch (TimeoutException e) {
+							// check for cancellation
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							stop = true;
+							break;
+						} catch (ExecutionException e) {
+							// reported below, the following elements are not
+							// launched, as when launching one after another
+							stop = true;
+						}
+					}
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// wait for all children to be launched, so that they are part of the
+		// group before it is marked as launched. Waiting children observe
+		// the cancellation of the group launch.
+		CoreException failure = null;
+		for (Future<?> future : submitted) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof CoreException) {
+					if (failure == null) {
+						failure = (CoreException) cause;
+					}
+				} else if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+			}
+			progress.worked(1);
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Returns the mode to launch an element in.
+	 */
+	private static String getLocalMode(GroupLaunchElement le, String mode) {
+		if (!le.mode.equals(GroupLaunchElement.MODE_INHERIT)) {
+			return le.mode;
+		}
+		return mode;
+	}
+
+	/**
+	 * Returns the configuration to launch for an element, or <code>null</code>
+	 * if it cannot be found or cannot be launched. Problems are reported to
+	 * the status handlers.
+	 */
+	private static ILaunchConfiguration findChild(ILaunchConfiguration groupConfig, GroupLaunchElement le, String localMode) throws CoreException {
+		// find launch; if not found, skip (error?)
+		final ILaunchConfiguration conf = findLaunch(le.name);
+		if (conf == null) {
+			return null;
+		}
+
+		if (!conf.supportsMode(localMode)) {
+			IStatusHandler handler = DebugPlugin.getDefault().getStatusHandler(UNSUPPORTED_MODE);
+			handler.handleStatus(UNSUPPORTED_MODE, new String[] {
+					conf.getName(), localMode });
+			return null;
+		}
+
+		if (groupConfig.getName().equals(conf.getName())) {
+			// loop detected. report as appropriate and die.
+			IStatusHandler cycleHandler = DebugPlugin.getDefault().getStatusHandler(GROUP_CYCLE);
+			cycleHandler.handleStatus(GROUP_CYCLE, conf.getName());
+			return null;
+		}
+		return conf;
+	}
+
+	private ILaunch launchChild(IProgressMonitor monitor, final GroupLaunch group, final ILaunchConfiguration child, final String localMode) throws CoreException {
 		ILaunch subLaunch = child.launch(localMode, monitor);
 		group.addSubLaunch(subLaunch);
 
@@ -150,18 +312,34 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 		IStatusHandler postLaunchHandler = DebugPlugin.getDefault().getStatusHandler(GROUP_ELEMENT_STARTED);
 		postLaunchHandler.handleStatus(GROUP_ELEMENT_STARTED, new ILaunch[] {
 				group, subLaunch });
+		return subLaunch;
+	}
 
-		// if this is the last child, mark the group as "launching finished", so
-		// that from now on the last terminating child will also terminate the
-		// group.
-		if (lastConfig) {
-			group.markLaunched();
+	/**
+	 * Starts watching the output of the launches of the configuration of an
+	 * element that waits for output, before the element is launched, so that
+	 * no output is missed.
+	 *
+	 * @return the watcher, or <code>null</code> if the element does not wait
+	 *         for output
+	 */
+	private static OutputWatcher watchOutput(GroupLaunchElement le, ILaunchConfiguration conf) {
+		if (le.action != GroupElementPostLaunchAction.OUTPUT_REGEXP || le.actionParam == null) {
+			return null;
 		}
-
-		postLaunchAction(subLaunch, le, monitor);
+		Pattern pattern;
+		try {
+			pattern = Pattern.compile((String) le.actionParam);
+		} catch (PatternSyntaxException e) {
+			DebugPlugin.log(e);
+			return null;
+		}
+		OutputWatcher watcher = new OutputWatcher(conf, pattern);
+		((LaunchManager) DebugPlugin.getDefault().getLaunchManager()).addEarlyLaunchListener(watcher);
+		return watcher;
 	}
 
-	private void postLaunchAction(ILaunch subLaunch, GroupLaunchElement le, IProgressMonitor monitor) {
+	private void postLaunchAction(ILaunch subLaunch, GroupLaunchElement le, OutputWatcher watcher, IProgressMonitor monitor) {
 		switch (le.action) {
 			case NONE:
 				return;
@@ -187,12 +365,311 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 					}
 				}
 				break;
+			case OUTPUT_REGEXP:
+				// no watcher if the expression is invalid
+				if (watcher != null) {
+					monitor.subTask(NLS.bind(DebugCoreMessages.GroupLaunchConfigurationDelegate_Waiting_for_output, subLaunch.getLaunchConfiguration().getName(), le.actionParam));
+					waitForOutput(subLaunch, watcher, monitor);
+					monitor.subTask(""); //$NON-NLS-1$
+				}
+				break;
 
 			default:
 				assert false : "new post launch action type is missing logic"; //$NON-NLS-1$
 		}
 	}
 
+	/**
+	 * Waits until a line written by a process of the given launch to its
+	 * output or error stream matches the pattern of the watcher, or until the
+	 * launch has terminated.
+	 */
+	private void waitForOutput(ILaunch launch, OutputWatcher watcher, IProgressMonitor monitor) {
+		OutputMatcher matcher = watcher.getMatcher(launch);
+		try {
+			while (!monitor.isCanceled()) {
+				boolean terminated = launch.isTerminated();
+				// processes of a launch that is not registered are not
+				// reported to the watcher
+				matcher.watch(launch);
+				if (terminated || matcher.await(1000)) {
+					return;
+				}
+			}
+		} catch (InterruptedException e) {
+			// stop waiting
+		}
+	}
+
+	/**
+	 * Watches the output of the processes of the launches of a configuration
+	 * from the moment the processes are added to their launch. The watcher is
+	 * added before the configuration is launched, when its launch is not yet
+	 * known, so the output of any launch of the configuration is watched until
+	 * the launch to wait for is known.
+	 */
+	private static class OutputWatcher implements ILaunchListener {
+
+		private final ILaunchConfiguration fConfig;
+
+		private final Pattern fPattern;
+
+		/**
+		 * The output of the launches of the configuration
+		 */
+		private final Map<ILaunch, OutputMatcher> fMatchers = new HashMap<>();
+
+		/**
+		 * The launch to wait for, or <code>null</code> while not known
+		 */
+		private ILaunch fLaunch;
+
+		OutputWatcher(ILaunchConfiguration config, Pattern pattern) {
+			fConfig = config;
+			fPattern = pattern;
+		}
+
+		@Override
+		public void launchAdded(ILaunch launch) {
+			synchronized (this) {
+				if (fLaunch == null && fConfig.equals(launch.getLaunchConfiguration())) {
+					fMatchers.put(launch, new OutputMatcher(fPattern));
+				}
+			}
+			// processes may have been added before the launch was registered
+			launchChanged(launch);
+		}
+
+		@Override
+		public void launchChanged(ILaunch launch) {
+			OutputMatcher matcher;
+			synchronized (this) {
+				matcher = fMatchers.get(launch);
+			}
+			if (matcher != null) {
+				matcher.watch(launch);
+			}
+		}
+
+		@Override
+		public void launchRemoved(ILaunch launch) {
+			OutputMatcher matcher;
+			synchronized (this) {
+				matcher = fMatchers.remove(launch);
+			}
+			if (matcher != null) {
+				matcher.dispose();
+			}
+		}
+
+		/**
+		 * Returns the output of the given launch, and stops watching the
+		 * other launches of the configuration.
+		 *
+		 * @param launch the launch of the configuration to wait for
+		 * @return the output of the launch
+		 */
+		OutputMatcher getMatcher(ILaunch launch) {
+			List<OutputMatcher> others = new ArrayList<>();
+			OutputMatcher matcher;
+			synchronized (this) {
+				fLaunch = launch;
+				matcher = fMatchers.remove(launch);
+				if (matcher == null) {
+					matcher = new OutputMatcher(fPattern);
+				}
+				others.addAll(fMatchers.values());
+				fMatchers.clear();
+				fMatchers.put(launch, matcher);
+			}
+			for (OutputMatcher other : others) {
+				other.dispose();
+			}
+			return matcher;
+		}
+
+		void dispose() {
+			((LaunchManager) DebugPlugin.getDefault().getLaunchManager()).removeEarlyLaunchListener(this);
+			List<OutputMatcher> matchers;
+			synchronized (this) {
+				matchers = new ArrayList<>(fMatchers.values());
+				fMatchers.clear();
+			}
+			for (OutputMatcher matcher : matchers) {
+				matcher.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Matches the lines appended to streams against a pattern.
+	 */
+	private static class OutputMatcher implements IStreamListener {
+
+		private final Pattern fPattern;
+
+		/**
+		 * The incomplete last line of each watched stream
+		 */
+		private final Map<IStreamMonitor, String> fLines = new HashMap<>();
+
+		private final CountDownLatch fMatched = new CountDownLatch(1);
+
+		OutputMatcher(Pattern pattern) {
+			fPattern = pattern;
+		}
+
+		/**
+		 * Starts matching the contents of the streams of the processes of
+		 * the given launch that are not yet watched.
+		 */
+		void watch(ILaunch launch) {
+			for (IProcess process : launch.getProcesses()) {
+				IStreamsProxy proxy = process.getStreamsProxy();
+				if (proxy != null) {
+					watch(proxy.getOutputStreamMonitor());
+					watch(proxy.getErrorStreamMonitor());
+				}
+			}
+		}
+
+		/**
+		 * Starts matching the contents of the given stream, if not yet
+		 * watched.
+		 */
+		void watch(IStreamMonitor stream) {
+			if (stream == null) {
+				return;
+			}
+			synchronized (this) {
+				if (fLines.containsKey(stream)) {
+					return;
+				}
+				fLines.put(stream, IInternalDebugCoreConstants.EMPTY_STRING);
+			}
+			// the output stream monitor appends text while holding its lock
+			synchronized (stream) {
+				stream.addListener(this);
+				streamAppended(stream.getContents(), stream);
+			}
+		}
+
+		@Override
+		public synchronized void streamAppended(String text, IStreamMonitor monitor) {
+			String lines = fLines.get(monitor) + text;
+			int start = 0;
+			int end;
+			while ((end = lines.indexOf('\n', start)) >= 0) {
+				matchLine(lines.substring(start, end));
+				start = end + 1;
+			}
+			String tail = lines.substring(start);
+			// match the incomplete line as well, it may be a prompt
+			matchLine(tail);
+			fLines.put(monitor, tail);
+		}
+
+		private void matchLine(String line) {
+			if (fPattern.matcher(line).find()) {
+				fMatched.countDown();
+			}
+		}
+
+		/**
+		 * Waits for a line to match.
+		 *
+		 * @return whether a line matched
+		 */
+		boolean await(long millis) throws InterruptedException {
+			return fMatched.await(millis, TimeUnit.MILLISECONDS);
+		}
+
+		void dispose() {
+			IStreamMonitor[] streams;
+			synchronized (this) {
+				streams = fLines.keySet().toArray(new IStreamMonitor[fLines.size()]);
+			}
+			for (IStreamMonitor stream : streams) {
+				stream.removeListener(this);
+			}
+		}
+	}
+
+	/**
+	 * Launches an element of a group launched in parallel, and performs its
+	 * post-launch action.
+	 */
+	private class ChildLaunch implements Callable<Object> {
+
+		private final GroupLaunch fGroup;
+		private final GroupLaunchElement fElement;
+		private final ILaunchConfiguration fConfig;
+		private final String fMode;
+
+		/**
+		 * Number of elements of the group not yet launched
+		 */
+		private final AtomicInteger fRemaining;
+
+		/**
+		 * The progress monitor of the element, canceled with the group launch
+		 */
+		private final IProgressMonitor fMonitor;
+
+		ChildLaunch(final IProgressMonitor groupMonitor, GroupLaunch group, GroupLaunchElement element, ILaunchConfiguration config, String mode, AtomicInteger remaining) {
+			fGroup = group;
+			fElement = element;
+			fConfig = config;
+			fMode = mode;
+			fRemaining = remaining;
+			// progress monitors are not thread safe, so only the state of
+			// cancellation is shared with the group launch
+			fMonitor = new NullProgressMonitor() {
+				@Override
+				public boolean isCanceled() {
+					return super.isCanceled() || groupMonitor.isCanceled();
+				}
+			};
+		}
+
+		/**
+		 * Returns whether the elements following this one wait for it.
+		 *
+		 * @return whether this element has a post-launch action
+		 */
+		boolean isDependency() {
+			return fElement.action != GroupElementPostLaunchAction.NONE;
+		}
+
+		@Override
+		public Object call() throws CoreException {
+			ILaunch subLaunch = null;
+			OutputWatcher watcher = null;
+			try {
+				try {
+					if (!fMonitor.isCanceled() && !fGroup.isTerminated()) {
+						watcher = watchOutput(fElement, fConfig);
+						subLaunch = launchChild(fMonitor, fGroup, fConfig, fMode);
+					}
+				} finally {
+					// once all children have been launched, the last
+					// terminating child terminates the group.
+					if (fRemaining.decrementAndGet() == 0) {
+						fGroup.markLaunched();
+					}
+				}
+				if (subLaunch != null) {
+					postLaunchAction(subLaunch, fElement, watcher, fMonitor);
+				}
+			} finally {
+				if (watcher != null) {
+					watcher.dispose();
+				}
+			}
+			return null;
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -273,6 +750,8 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 								} catch (NumberFormatException exc) {
 									DebugPlugin.log(exc);
 								}
+							} else if (action == GroupElementPostLaunchAction.OUTPUT_REGEXP) {
+								actionParam = attrs.get(getProp(index, ACTION_PARAM_PROP));
 							}
 							el.action = action;
 							el.actionParam = actionParam;
@@ -29,12 +29,19 @@ public class GroupLaunchElement {
 	 * <p>
 	 * These actions get performed after the associated
 	 * {@link GroupLaunchElement} has been launched, before the next one is
-	 * launched (or launching is finished).
+	 * launched (or launching is finished). When the group launches its
+	 * elements in parallel, only the elements following an element with a
+	 * post-launch action wait for the action to complete.
 	 */
 	public static enum GroupElementPostLaunchAction {
 		NONE(DebugCoreMessages.GroupLaunchConfigurationDelegate_None), //
 		WAIT_FOR_TERMINATION(DebugCoreMessages.GroupLaunchConfigurationDelegate_Wait_until_terminated), //
-		DELAY(DebugCoreMessages.GroupLaunchConfigurationDelegate_Delay);
+		DELAY(DebugCoreMessages.GroupLaunchConfigurationDelegate_Delay), //
+		/**
+		 * Waits until a line of output of the launch matches the regular
+		 * expression given as action parameter
+		 */
+		OUTPUT_REGEXP(DebugCoreMessages.GroupLaunchConfigurationDelegate_Wait_for_output);
 
 		private final String description;
 
@@ -15,16 +15,28 @@ package org.eclipse.debug.tests;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.debug.tests.breakpoint.BreakpointBatchTests;
+import org.eclipse.debug.tests.breakpoint.BreakpointImportExportTests;
 import org.eclipse.debug.tests.breakpoint.BreakpointOrderingTests;
+import org.eclipse.debug.tests.breakpoint.BreakpointRegistryTests;
+import org.eclipse.debug.tests.breakpoint.BreakpointRestoreTests;
+import org.eclipse.debug.tests.console.ConsoleFileWriterTests;
 import org.eclipse.debug.tests.console.ConsoleManagerTests;
+import org.eclipse.debug.tests.console.ConsolePatternMatcherTests;
+import org.eclipse.debug.tests.console.DiskBackedTextStoreTests;
+import org.eclipse.debug.tests.console.StreamsProxyTests;
 import org.eclipse.debug.tests.launching.AcceleratorSubstitutionTests;
 import org.eclipse.debug.tests.launching.ArgumentParsingTests;
 import org.eclipse.debug.tests.launching.LaunchConfigurationTests;
 import org.eclipse.debug.tests.launching.LaunchFavoriteTests;
+import org.eclipse.debug.tests.launching.LaunchGroupTests;
 import org.eclipse.debug.tests.launching.LaunchHistoryTests;
 import org.eclipse.debug.tests.launching.LaunchManagerTests;
 import org.eclipse.debug.tests.launching.LaunchTests;
 import org.eclipse.debug.tests.launching.RefreshTabTests;
+import org.eclipse.debug.tests.launching.SavedLaunchConfigurationIndexTests;
+import org.eclipse.debug.tests.launching.StringSubstitutionEngineTests;
+import org.eclipse.debug.tests.launching.SubstitutionSessionTests;
 import org.eclipse.debug.tests.sourcelookup.SourceLookupFacilityTests;
 import org.eclipse.debug.tests.statushandlers.StatusHandlerTests;
 import org.eclipse.debug.tests.stepfilters.StepFiltersTests;
@@ -64,6 +76,10 @@ public class AutomatedSuite extends TestSuite {
 		addTest(new TestSuite(SourceLookupFacilityTests.class));
 		// BP tests
 		addTest(new TestSuite(BreakpointOrderingTests.class));
+		addTest(new TestSuite(BreakpointRegistryTests.class));
+		addTest(new TestSuite(BreakpointRestoreTests.class));
+		addTest(new TestSuite(BreakpointImportExportTests.class));
+		addTest(new TestSuite(BreakpointBatchTests.class));
 	    // Note: jface viewer tests were moved out of nightly tests
 	    // due to frequent problems on nightly build machines.
 	    // (Bug 343308).
@@ -91,9 +107,13 @@ public class AutomatedSuite extends TestSuite {
 		addTest(new TestSuite(LaunchHistoryTests.class));
 		addTest(new TestSuite(LaunchFavoriteTests.class));
 		addTest(new TestSuite(LaunchManagerTests.class));
+		addTest(new TestSuite(SavedLaunchConfigurationIndexTests.class));
 		addTest(new TestSuite(RefreshTabTests.class));
 		addTest(new TestSuite(ArgumentParsingTests.class));
 		addTest(new TestSuite(LaunchTests.class));
+		addTest(new TestSuite(LaunchGroupTests.class));
+		addTest(new TestSuite(SubstitutionSessionTests.class));
+		addTest(new TestSuite(StringSubstitutionEngineTests.class));
 
 		// Status handlers
 		addTest(new TestSuite(StatusHandlerTests.class));
@@ -103,5 +123,9 @@ public class AutomatedSuite extends TestSuite {
 
 		// Console view
 		addTest(new TestSuite(ConsoleManagerTests.class));
+		addTest(new TestSuite(ConsolePatternMatcherTests.class));
+		addTest(new TestSuite(StreamsProxyTests.class));
+		addTest(new TestSuite(ConsoleFileWriterTests.class));
+		addTest(new TestSuite(DiskBackedTextStoreTests.class));
 	}
 }
@@ -13,6 +13,9 @@ package org.eclipse.debug.tests;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.debug.tests.breakpoint.BreakpointImportPerformanceTests;
+import org.eclipse.debug.tests.console.IOConsolePerformanceTests;
+import org.eclipse.debug.tests.launching.LaunchConfigurationPerformanceTests;
 import org.eclipse.debug.tests.viewer.model.JFaceViewerPerformanceTests;
 import org.eclipse.debug.tests.viewer.model.VirtualViewerPerformanceTests;
 
@@ -41,6 +44,15 @@ public class PerformanceSuite extends TestSuite {
         
         // Virtual viewer tests
         addTest(new TestSuite(VirtualViewerPerformanceTests.class));
+
+        // Console tests
+        addTest(new TestSuite(IOConsolePerformanceTests.class));
+
+        // Launch configuration tests
+        addTest(new TestSuite(LaunchConfigurationPerformanceTests.class));
+
+        // Breakpoint import and export tests
+        addTest(new TestSuite(BreakpointImportPerformanceTests.class));
     }
 
 }
@@ -0,0 +1,341 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IBreakpointListener;
+import org.eclipse.debug.core.IBreakpointManager;
+import org.eclipse.debug.core.IBreakpointsListener;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.tests.TestsPlugin;
+
+/**
+ * Tests that the breakpoint changes made in a batch are reported once the
+ * batch has run, with the changes of each breakpoint merged into one.
+ */
+public class BreakpointBatchTests extends TestCase {
+
+	/**
+	 * Records the notifications of "single" and "plural" breakpoint
+	 * listeners.
+	 */
+	static class Recorder implements IBreakpointListener, IBreakpointsListener {
+
+		final List<IBreakpoint> fAdded = new ArrayList<IBreakpoint>();
+		final List<IBreakpoint> fChanged = new ArrayList<IBreakpoint>();
+		final List<IBreakpoint> fRemoved = new ArrayList<IBreakpoint>();
+		final List<IBreakpoint[]> fAddedBatches = new ArrayList<IBreakpoint[]>();
+		final List<IBreakpoint[]> fChangedBatches = new ArrayList<IBreakpoint[]>();
+		final List<IBreakpoint[]> fRemovedBatches = new ArrayList<IBreakpoint[]>();
+
+		@Override
+		public void breakpointAdded(IBreakpoint breakpoint) {
+			fAdded.add(breakpoint);
+		}
+
+		@Override
+		public void breakpointRemoved(IBreakpoint breakpoint, IMarkerDelta delta) {
+			fRemoved.add(breakpoint);
+		}
+
+		@Override
+		public void breakpointChanged(IBreakpoint breakpoint, IMarkerDelta delta) {
+			fChanged.add(breakpoint);
+		}
+
+		@Override
+		public void breakpointsAdded(IBreakpoint[] breakpoints) {
+			fAddedBatches.add(breakpoints);
+		}
+
+		@Override
+		public void breakpointsRemoved(IBreakpoint[] breakpoints, IMarkerDelta[] deltas) {
+			fRemovedBatches.add(breakpoints);
+		}
+
+		@Override
+		public void breakpointsChanged(IBreakpoint[] breakpoints, IMarkerDelta[] deltas) {
+			fChangedBatches.add(breakpoints);
+		}
+
+		void clear() {
+			fAdded.clear();
+			fChanged.clear();
+			fRemoved.clear();
+			fAddedBatches.clear();
+			fChangedBatches.clear();
+			fRemovedBatches.clear();
+		}
+	}
+
+	private IProject fProject;
+
+	private IFile fFile;
+
+	private final Recorder fRecorder = new Recorder();
+
+	public BreakpointBatchTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject = TestsPlugin.createProject("BreakpointBatchTests"); //$NON-NLS-1$
+		fFile = fProject.getFile("File.txt"); //$NON-NLS-1$
+		fFile.create(new ByteArrayInputStream(new byte[0]), true, null);
+		getBreakpointManager().addBreakpointListener((IBreakpointListener) fRecorder);
+		getBreakpointManager().addBreakpointListener((IBreakpointsListener) fRecorder);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		getBreakpointManager().removeBreakpointListener((IBreakpointListener) fRecorder);
+		getBreakpointManager().removeBreakpointListener((IBreakpointsListener) fRecorder);
+		getBreakpointManager().removeBreakpoints(getBreakpointManager().getBreakpoints(TestLineBreakpoint.MODEL_ID), true);
+		fProject.delete(true, null);
+		super.tearDown();
+	}
+
+	/**
+	 * Tests that breakpoints added in a batch are reported to "plural"
+	 * listeners in one notification.
+	 *
+	 * @throws Exception
+	 */
+	public void testAdd() throws Exception {
+		final IBreakpoint[] breakpoints = new IBreakpoint[3];
+		runBatch(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				for (int i = 0; i < breakpoints.length; i++) {
+					breakpoints[i] = new TestLineBreakpoint(fFile, i + 1);
+					getBreakpointManager().addBreakpoint(breakpoints[i]);
+				}
+				assertTrue("Listeners notified during the batch", fRecorder.fAdded.isEmpty()); //$NON-NLS-1$
+			}
+		});
+		assertEquals("Wrong added breakpoints", Arrays.asList(breakpoints), fRecorder.fAdded); //$NON-NLS-1$
+		assertEquals("Should be one added notification", 1, fRecorder.fAddedBatches.size()); //$NON-NLS-1$
+		assertEquals("Wrong added breakpoints", Arrays.asList(breakpoints), Arrays.asList(fRecorder.fAddedBatches.get(0))); //$NON-NLS-1$
+		assertNoChanges();
+	}
+
+	/**
+	 * Tests that changes of a breakpoint added in the same batch are part of
+	 * the addition.
+	 *
+	 * @throws Exception
+	 */
+	public void testAddAndChange() throws Exception {
+		final IBreakpoint[] breakpoint = new IBreakpoint[1];
+		runBatch(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				breakpoint[0] = new TestLineBreakpoint(fFile, 1);
+				getBreakpointManager().addBreakpoint(breakpoint[0]);
+				breakpoint[0].setEnabled(false);
+			}
+		});
+		waitForBuild();
+		assertEquals("Wrong added breakpoints", Arrays.asList(breakpoint), fRecorder.fAdded); //$NON-NLS-1$
+		assertEquals("Should be one added notification", 1, fRecorder.fAddedBatches.size()); //$NON-NLS-1$
+		assertNoChanges();
+		assertTrue("Should be no removed notification", fRecorder.fRemoved.isEmpty()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a breakpoint added and removed in the same batch is not
+	 * reported.
+	 *
+	 * @throws Exception
+	 */
+	public void testAddAndRemove() throws Exception {
+		runBatch(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				IBreakpoint breakpoint = new TestLineBreakpoint(fFile, 1);
+				getBreakpointManager().addBreakpoint(breakpoint);
+				breakpoint.setEnabled(false);
+				getBreakpointManager().removeBreakpoint(breakpoint, true);
+			}
+		});
+		waitForBuild();
+		assertTrue("Should be no added notification", fRecorder.fAdded.isEmpty()); //$NON-NLS-1$
+		assertTrue("Should be no added notification", fRecorder.fAddedBatches.isEmpty()); //$NON-NLS-1$
+		assertNoChanges();
+		assertTrue("Should be no removed notification", fRecorder.fRemoved.isEmpty()); //$NON-NLS-1$
+		assertTrue("Should be no removed notification", fRecorder.fRemovedBatches.isEmpty()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that several changes of existing breakpoints are reported as one
+	 * change of each breakpoint.
+	 *
+	 * @throws Exception
+	 */
+	public void testChange() throws Exception {
+		final IBreakpoint[] breakpoints = createBreakpoints(3);
+		runBatch(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				for (IBreakpoint breakpoint : breakpoints) {
+					breakpoint.setEnabled(false);
+				}
+				for (IBreakpoint breakpoint : breakpoints) {
+					breakpoint.setEnabled(true);
+					breakpoint.getMarker().setAttribute("org.eclipse.debug.tests.changed", true); //$NON-NLS-1$
+				}
+			}
+		});
+		waitForBuild();
+		assertSameBreakpoints("Wrong changed breakpoints", breakpoints, fRecorder.fChanged); //$NON-NLS-1$
+		assertEquals("Should be one changed notification", 1, fRecorder.fChangedBatches.size()); //$NON-NLS-1$
+		assertSameBreakpoints("Wrong changed breakpoints", breakpoints, Arrays.asList(fRecorder.fChangedBatches.get(0))); //$NON-NLS-1$
+		assertTrue("Should be no added notification", fRecorder.fAdded.isEmpty()); //$NON-NLS-1$
+		assertTrue("Should be no removed notification", fRecorder.fRemoved.isEmpty()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a breakpoint changed and then removed in a batch is only
+	 * reported as removed.
+	 *
+	 * @throws Exception
+	 */
+	public void testChangeAndRemove() throws Exception {
+		final IBreakpoint[] breakpoints = createBreakpoints(2);
+		runBatch(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				breakpoints[0].setEnabled(false);
+				breakpoints[1].setEnabled(false);
+				getBreakpointManager().removeBreakpoint(breakpoints[0], true);
+			}
+		});
+		waitForBuild();
+		assertEquals("Wrong removed breakpoints", Arrays.asList(breakpoints[0]), fRecorder.fRemoved); //$NON-NLS-1$
+		assertEquals("Should be one removed notification", 1, fRecorder.fRemovedBatches.size()); //$NON-NLS-1$
+		assertEquals("Wrong changed breakpoints", Arrays.asList(breakpoints[1]), fRecorder.fChanged); //$NON-NLS-1$
+		assertEquals("Should be one changed notification", 1, fRecorder.fChangedBatches.size()); //$NON-NLS-1$
+		assertEquals("Wrong changed breakpoints", Arrays.asList(breakpoints[1]), Arrays.asList(fRecorder.fChangedBatches.get(0))); //$NON-NLS-1$
+		assertTrue("Should be no added notification", fRecorder.fAdded.isEmpty()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a breakpoint removed and added again in a batch is reported
+	 * as changed.
+	 *
+	 * @throws Exception
+	 */
+	public void testRemoveAndAdd() throws Exception {
+		final IBreakpoint[] breakpoints = createBreakpoints(1);
+		runBatch(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				getBreakpointManager().removeBreakpoint(breakpoints[0], false);
+				getBreakpointManager().addBreakpoint(breakpoints[0]);
+			}
+		});
+		assertTrue("Breakpoint not registered", getBreakpointManager().isRegistered(breakpoints[0])); //$NON-NLS-1$
+		assertEquals("Wrong changed breakpoints", Arrays.asList(breakpoints), fRecorder.fChanged); //$NON-NLS-1$
+		assertEquals("Should be one changed notification", 1, fRecorder.fChangedBatches.size()); //$NON-NLS-1$
+		assertTrue("Should be no added notification", fRecorder.fAdded.isEmpty()); //$NON-NLS-1$
+		assertTrue("Should be no removed notification", fRecorder.fRemoved.isEmpty()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the changes of a nested batch are reported with the changes
+	 * of the outer batch.
+	 *
+	 * @throws Exception
+	 */
+	public void testNestedBatch() throws Exception {
+		final IBreakpoint[] breakpoints = new IBreakpoint[2];
+		runBatch(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				breakpoints[0] = new TestLineBreakpoint(fFile, 1);
+				getBreakpointManager().addBreakpoint(breakpoints[0]);
+				runBatch(new IWorkspaceRunnable() {
+					@Override
+					public void run(IProgressMonitor pm) throws CoreException {
+						breakpoints[1] = new TestLineBreakpoint(fFile, 2);
+						getBreakpointManager().addBreakpoint(breakpoints[1]);
+					}
+				});
+				assertTrue("Listeners notified at the end of a nested batch", fRecorder.fAdded.isEmpty()); //$NON-NLS-1$
+			}
+		});
+		assertEquals("Should be one added notification", 1, fRecorder.fAddedBatches.size()); //$NON-NLS-1$
+		assertEquals("Wrong added breakpoints", Arrays.asList(breakpoints), Arrays.asList(fRecorder.fAddedBatches.get(0))); //$NON-NLS-1$
+	}
+
+	/**
+	 * Creates and registers breakpoints outside a batch, and clears the
+	 * notifications of their addition and of the changes of their markers.
+	 */
+	private IBreakpoint[] createBreakpoints(int count) throws Exception {
+		IBreakpoint[] breakpoints = new IBreakpoint[count];
+		for (int i = 0; i < count; i++) {
+			breakpoints[i] = new TestLineBreakpoint(fFile, i + 1);
+		}
+		getBreakpointManager().addBreakpoints(breakpoints);
+		waitForBuild();
+		fRecorder.clear();
+		return breakpoints;
+	}
+
+	private void runBatch(IWorkspaceRunnable runnable) throws CoreException {
+		getBreakpointManager().runBatch(runnable, null);
+	}
+
+	/**
+	 * Waits for the automatic build after a batch, which reports the
+	 * breakpoints whose markers have changed.
+	 */
+	private void waitForBuild() throws InterruptedException {
+		Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+	}
+
+	/**
+	 * Asserts that the given breakpoints were each reported once, in any
+	 * order, as the order of marker changes is not defined.
+	 */
+	private void assertSameBreakpoints(String message, IBreakpoint[] expected, List<IBreakpoint> actual) {
+		assertEquals(message, expected.length, actual.size());
+		assertEquals(message, new HashSet<IBreakpoint>(Arrays.asList(expected)), new HashSet<IBreakpoint>(actual));
+	}
+
+	private void assertNoChanges() {
+		assertTrue("Should be no changed notification", fRecorder.fChanged.isEmpty()); //$NON-NLS-1$
+		assertTrue("Should be no changed notification", fRecorder.fChangedBatches.isEmpty()); //$NON-NLS-1$
+	}
+
+	private IBreakpointManager getBreakpointManager() {
+		return DebugPlugin.getDefault().getBreakpointManager();
+	}
+}
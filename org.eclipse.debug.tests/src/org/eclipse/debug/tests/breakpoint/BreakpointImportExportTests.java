@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationTargetException;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IBreakpointManager;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.core.model.ILineBreakpoint;
+import org.eclipse.debug.tests.TestsPlugin;
+import org.eclipse.debug.ui.actions.ExportBreakpointsOperation;
+import org.eclipse.debug.ui.actions.ImportBreakpointsOperation;
+
+/**
+ * Tests exporting breakpoints and importing them back, matching imported
+ * breakpoints with existing ones and importing a malformed file.
+ */
+public class BreakpointImportExportTests extends TestCase {
+
+	private static final int BREAKPOINT_COUNT = 5;
+
+	private IProject fProject;
+
+	private IFile fFile;
+
+	public BreakpointImportExportTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject = TestsPlugin.createProject("BreakpointImportExportTests"); //$NON-NLS-1$
+		fFile = fProject.getFile("File.txt"); //$NON-NLS-1$
+		fFile.create(new ByteArrayInputStream(new byte[0]), true, null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		getBreakpointManager().removeBreakpoints(getBreakpoints(), true);
+		fProject.delete(true, null);
+		super.tearDown();
+	}
+
+	/**
+	 * Tests importing exported breakpoints into a workspace without the
+	 * breakpoints.
+	 *
+	 * @throws Exception
+	 */
+	public void testExportImport() throws Exception {
+		StringBuffer buffer = exportBreakpoints(createBreakpoints());
+		getBreakpointManager().removeBreakpoints(getBreakpoints(), true);
+		ImportBreakpointsOperation operation = new ImportBreakpointsOperation(buffer, false, false);
+		operation.run(null);
+		IBreakpoint[] breakpoints = getBreakpoints();
+		assertEquals("Wrong number of breakpoints", BREAKPOINT_COUNT, breakpoints.length); //$NON-NLS-1$
+		assertEquals("Wrong number of imported breakpoints", BREAKPOINT_COUNT, operation.getImportedBreakpoints().length); //$NON-NLS-1$
+		for (int i = 1; i <= BREAKPOINT_COUNT; i++) {
+			ILineBreakpoint breakpoint = getBreakpointManager().getLineBreakpoint(fFile, i);
+			assertNotNull("Breakpoint not imported", breakpoint); //$NON-NLS-1$
+			assertTrue("Breakpoint not enabled", breakpoint.isEnabled()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that breakpoints imported into a workspace that already has them
+	 * match the existing breakpoints.
+	 *
+	 * @throws Exception
+	 */
+	public void testReimport() throws Exception {
+		IBreakpoint[] breakpoints = createBreakpoints();
+		StringBuffer buffer = exportBreakpoints(breakpoints);
+		new ImportBreakpointsOperation(buffer, false, false).run(null);
+		assertEquals("Breakpoints imported twice", BREAKPOINT_COUNT, getBreakpoints().length); //$NON-NLS-1$
+		for (IBreakpoint breakpoint : breakpoints) {
+			assertTrue("Existing breakpoint removed", getBreakpointManager().isRegistered(breakpoint)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that the import participant of a marker type decides whether an
+	 * imported breakpoint matches an existing one, even when the line of the
+	 * existing breakpoint has changed since it was exported.
+	 *
+	 * @throws Exception
+	 */
+	public void testReimportMovedBreakpoint() throws Exception {
+		IBreakpoint[] breakpoints = createBreakpoints(TestLineBreakpoint.MESSAGE_MARKER_TYPE);
+		StringBuffer buffer = exportBreakpoints(breakpoints);
+		IMarker marker = breakpoints[0].getMarker();
+		marker.setAttribute(IMarker.LINE_NUMBER, BREAKPOINT_COUNT + 10);
+		new ImportBreakpointsOperation(buffer, false, false).run(null);
+		assertEquals("Moved breakpoint imported twice", BREAKPOINT_COUNT, getBreakpoints().length); //$NON-NLS-1$
+		assertNull("Moved breakpoint imported twice", getBreakpointManager().getLineBreakpoint(fFile, 1)); //$NON-NLS-1$
+		assertSame("Moved breakpoint not matched", breakpoints[0], getBreakpointManager().getLineBreakpoint(fFile, BREAKPOINT_COUNT + 10)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that with the default import participant, which compares marker
+	 * types and lines, a breakpoint whose line has changed since it was
+	 * exported does not match the imported breakpoint.
+	 *
+	 * @throws Exception
+	 */
+	public void testReimportMovedBreakpointByLine() throws Exception {
+		IBreakpoint[] breakpoints = createBreakpoints();
+		StringBuffer buffer = exportBreakpoints(breakpoints);
+		IMarker marker = breakpoints[0].getMarker();
+		marker.setAttribute(IMarker.LINE_NUMBER, BREAKPOINT_COUNT + 10);
+		new ImportBreakpointsOperation(buffer, false, false).run(null);
+		assertEquals("Moved breakpoint not imported again", BREAKPOINT_COUNT + 1, getBreakpoints().length); //$NON-NLS-1$
+		assertNotNull("Moved breakpoint not imported again", getBreakpointManager().getLineBreakpoint(fFile, 1)); //$NON-NLS-1$
+		assertSame("Moved breakpoint replaced", breakpoints[0], getBreakpointManager().getLineBreakpoint(fFile, BREAKPOINT_COUNT + 10)); //$NON-NLS-1$
+		for (int i = 1; i < BREAKPOINT_COUNT; i++) {
+			assertSame("Existing breakpoint not matched", breakpoints[i], getBreakpointManager().getLineBreakpoint(fFile, i + 1)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that the breakpoints read from a truncated file before the
+	 * problem are registered.
+	 *
+	 * @throws Exception
+	 */
+	public void testImportTruncatedFile() throws Exception {
+		StringBuffer buffer = exportBreakpoints(createBreakpoints());
+		getBreakpointManager().removeBreakpoints(getBreakpoints(), true);
+		// cut the file in the middle of the third breakpoint
+		int index = -1;
+		for (int i = 0; i < 3; i++) {
+			index = buffer.indexOf("<breakpoint ", index + 1); //$NON-NLS-1$
+			assertTrue("Breakpoint not exported", index >= 0); //$NON-NLS-1$
+		}
+		buffer.setLength(index + 20);
+		ImportBreakpointsOperation operation = new ImportBreakpointsOperation(buffer, false, false);
+		try {
+			operation.run(null);
+			fail("Truncated file imported"); //$NON-NLS-1$
+		} catch (InvocationTargetException e) {
+			// expected
+		}
+		IBreakpoint[] breakpoints = getBreakpoints();
+		assertEquals("Breakpoints read before the problem not imported", 2, breakpoints.length); //$NON-NLS-1$
+		for (IBreakpoint breakpoint : breakpoints) {
+			assertTrue("Imported breakpoint not registered", getBreakpointManager().isRegistered(breakpoint)); //$NON-NLS-1$
+		}
+		assertNotNull("Breakpoint not imported", getBreakpointManager().getLineBreakpoint(fFile, 1)); //$NON-NLS-1$
+		assertNotNull("Breakpoint not imported", getBreakpointManager().getLineBreakpoint(fFile, 2)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Creates and registers breakpoints on the first lines of the test file,
+	 * imported by the default import participant.
+	 */
+	private IBreakpoint[] createBreakpoints() throws CoreException {
+		return createBreakpoints(TestLineBreakpoint.MARKER_TYPE);
+	}
+
+	/**
+	 * Creates and registers breakpoints with markers of the given type on the
+	 * first lines of the test file.
+	 */
+	private IBreakpoint[] createBreakpoints(final String markerType) throws CoreException {
+		final IBreakpoint[] breakpoints = new IBreakpoint[BREAKPOINT_COUNT];
+		IWorkspaceRunnable runnable = new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				for (int i = 0; i < BREAKPOINT_COUNT; i++) {
+					breakpoints[i] = new TestLineBreakpoint(fFile, i + 1, markerType);
+				}
+				getBreakpointManager().addBreakpoints(breakpoints);
+			}
+		};
+		ResourcesPlugin.getWorkspace().run(runnable, null);
+		return breakpoints;
+	}
+
+	private StringBuffer exportBreakpoints(IBreakpoint[] breakpoints) throws Exception {
+		ExportBreakpointsOperation operation = new ExportBreakpointsOperation(breakpoints);
+		operation.run(null);
+		return operation.getBuffer();
+	}
+
+	private IBreakpoint[] getBreakpoints() {
+		return getBreakpointManager().getBreakpoints(TestLineBreakpoint.MODEL_ID);
+	}
+
+	private IBreakpointManager getBreakpointManager() {
+		return DebugPlugin.getDefault().getBreakpointManager();
+	}
+}
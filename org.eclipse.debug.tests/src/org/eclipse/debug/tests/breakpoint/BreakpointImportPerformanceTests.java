@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IBreakpointManager;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.tests.TestsPlugin;
+import org.eclipse.debug.ui.actions.ExportBreakpointsOperation;
+import org.eclipse.debug.ui.actions.ImportBreakpointsOperation;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+
+/**
+ * Measures exporting breakpoints to a file and importing them back, into a
+ * workspace without the breakpoints and into a workspace that already has
+ * them.
+ */
+public class BreakpointImportPerformanceTests extends TestCase {
+
+	/**
+	 * Number of breakpoints exported and imported per iteration
+	 */
+	private static final int BREAKPOINT_COUNT = 50000;
+
+	/**
+	 * Number of files the breakpoints are set in
+	 */
+	private static final int FILE_COUNT = 100;
+
+	private static final int ITERATIONS = 5;
+
+	private IProject fProject;
+
+	private String fFileName;
+
+	public BreakpointImportPerformanceTests() {
+		super("Breakpoint Import Performance Tests"); //$NON-NLS-1$
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject = TestsPlugin.createProject("BreakpointImportPerformanceTests"); //$NON-NLS-1$
+		fFileName = new File(fProject.getLocation().toFile(), "breakpoints.bkpt").getAbsolutePath(); //$NON-NLS-1$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		removeBreakpoints();
+		fProject.delete(true, null);
+		super.tearDown();
+	}
+
+	/**
+	 * Exports breakpoints to a file.
+	 *
+	 * @throws Exception
+	 */
+	public void testExportBreakpoints() throws Exception {
+		IBreakpoint[] breakpoints = createBreakpoints(BREAKPOINT_COUNT);
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(perf.getDefaultScenarioId(this));
+		try {
+			for (int i = 0; i < ITERATIONS; i++) {
+				meter.start();
+				new ExportBreakpointsOperation(breakpoints, fFileName).run(null);
+				meter.stop();
+				assertTrue("Breakpoints not exported", new File(fFileName).isFile()); //$NON-NLS-1$
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+
+	/**
+	 * Imports breakpoints into a workspace without breakpoints.
+	 *
+	 * @throws Exception
+	 */
+	public void testImportBreakpoints() throws Exception {
+		new ExportBreakpointsOperation(createBreakpoints(BREAKPOINT_COUNT), fFileName).run(null);
+		removeBreakpoints();
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(perf.getDefaultScenarioId(this));
+		try {
+			for (int i = 0; i < ITERATIONS; i++) {
+				meter.start();
+				new ImportBreakpointsOperation(fFileName, false, false).run(null);
+				meter.stop();
+				assertEquals("Wrong number of breakpoints", BREAKPOINT_COUNT, getBreakpoints().length); //$NON-NLS-1$
+				removeBreakpoints();
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+
+	/**
+	 * Imports breakpoints into a workspace that already has the breakpoints,
+	 * so that each imported breakpoint is matched with an existing one.
+	 *
+	 * @throws Exception
+	 */
+	public void testReimportBreakpoints() throws Exception {
+		new ExportBreakpointsOperation(createBreakpoints(BREAKPOINT_COUNT), fFileName).run(null);
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(perf.getDefaultScenarioId(this));
+		try {
+			for (int i = 0; i < ITERATIONS; i++) {
+				meter.start();
+				new ImportBreakpointsOperation(fFileName, false, false).run(null);
+				meter.stop();
+				assertEquals("Wrong number of breakpoints", BREAKPOINT_COUNT, getBreakpoints().length); //$NON-NLS-1$
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+
+	/**
+	 * Creates and registers breakpoints on the lines of files of the test
+	 * project.
+	 *
+	 * @param count the number of breakpoints
+	 */
+	private IBreakpoint[] createBreakpoints(int count) throws CoreException {
+		final IBreakpoint[] breakpoints = new IBreakpoint[count];
+		IWorkspaceRunnable runnable = new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				IFile[] files = new IFile[FILE_COUNT];
+				for (int i = 0; i < FILE_COUNT; i++) {
+					files[i] = fProject.getFile("File" + i + ".txt"); //$NON-NLS-1$ //$NON-NLS-2$
+					if (!files[i].exists()) {
+						files[i].create(new ByteArrayInputStream(new byte[0]), true, null);
+					}
+				}
+				for (int i = 0; i < breakpoints.length; i++) {
+					breakpoints[i] = new TestLineBreakpoint(files[i % FILE_COUNT], i / FILE_COUNT + 1);
+				}
+				getBreakpointManager().addBreakpoints(breakpoints);
+			}
+		};
+		ResourcesPlugin.getWorkspace().run(runnable, null);
+		return breakpoints;
+	}
+
+	private void removeBreakpoints() throws CoreException {
+		getBreakpointManager().removeBreakpoints(getBreakpoints(), true);
+	}
+
+	private IBreakpoint[] getBreakpoints() {
+		return getBreakpointManager().getBreakpoints(TestLineBreakpoint.MODEL_ID);
+	}
+
+	private IBreakpointManager getBreakpointManager() {
+		return DebugPlugin.getDefault().getBreakpointManager();
+	}
+}
@@ -0,0 +1,399 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.internal.core.BreakpointManager;
+import org.eclipse.debug.tests.TestsPlugin;
+
+/**
+ * Tests that the breakpoints registered with a breakpoint manager are
+ * returned consistently by each of its lookups as breakpoints are added and
+ * removed, and as the lines of line breakpoints change.
+ */
+public class BreakpointRegistryTests extends TestCase {
+
+	/**
+	 * Breakpoint manager that can replace its breakpoints
+	 */
+	static class TestBreakpointManager extends BreakpointManager {
+
+		void replaceBreakpoints(Vector<IBreakpoint> breakpoints) {
+			setBreakpoints(breakpoints);
+		}
+	}
+
+	private static final int BREAKPOINT_COUNT = 20;
+
+	private IProject fProject;
+
+	private IFile[] fFiles;
+
+	/**
+	 * Manager the test breakpoints are registered with, which is not the
+	 * breakpoint manager of the debug plug-in
+	 */
+	private TestBreakpointManager fManager;
+
+	/**
+	 * The breakpoints expected to be registered, in the order they were
+	 * registered
+	 */
+	private final List<IBreakpoint> fRegistered = new ArrayList<IBreakpoint>();
+
+	public BreakpointRegistryTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject = TestsPlugin.createProject("BreakpointRegistryTests"); //$NON-NLS-1$
+		fFiles = new IFile[] { fProject.getFile("File1.txt"), fProject.getFile("File2.txt") }; //$NON-NLS-1$ //$NON-NLS-2$
+		for (IFile file : fFiles) {
+			file.create(new ByteArrayInputStream(new byte[0]), true, null);
+		}
+		fManager = new TestBreakpointManager();
+		fManager.ensureInitialized();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fManager.shutdown();
+		fProject.delete(true, null);
+		super.tearDown();
+	}
+
+	/**
+	 * Tests the lookups of breakpoints as they are added and removed.
+	 *
+	 * @throws Exception
+	 */
+	public void testAddRemove() throws Exception {
+		assertRegistered();
+		IBreakpoint[] breakpoints = createBreakpoints();
+		for (int i = 0; i < breakpoints.length; i += 2) {
+			add(breakpoints[i]);
+		}
+		assertRegistered();
+		fManager.addBreakpoints(new IBreakpoint[] { breakpoints[1], breakpoints[3] });
+		fRegistered.add(breakpoints[1]);
+		fRegistered.add(breakpoints[3]);
+		assertRegistered();
+		for (int i = 0; i < breakpoints.length; i += 4) {
+			remove(breakpoints[i]);
+		}
+		assertRegistered();
+		fManager.removeBreakpoints(new IBreakpoint[] { breakpoints[1], breakpoints[3] }, false);
+		fRegistered.remove(breakpoints[1]);
+		fRegistered.remove(breakpoints[3]);
+		assertRegistered();
+		// breakpoints added again are returned after the others
+		add(breakpoints[0]);
+		add(breakpoints[1]);
+		assertRegistered();
+		for (IBreakpoint breakpoint : new ArrayList<IBreakpoint>(fRegistered)) {
+			remove(breakpoint);
+		}
+		assertRegistered();
+	}
+
+	/**
+	 * Tests that a breakpoint added twice is registered once.
+	 *
+	 * @throws Exception
+	 */
+	public void testAddTwice() throws Exception {
+		IBreakpoint[] breakpoints = createBreakpoints();
+		add(breakpoints[0]);
+		fManager.addBreakpoint(breakpoints[0]);
+		fManager.addBreakpoints(new IBreakpoint[] { breakpoints[0] });
+		assertRegistered();
+	}
+
+	/**
+	 * Tests that removing a breakpoint that is not registered changes
+	 * nothing.
+	 *
+	 * @throws Exception
+	 */
+	public void testRemoveUnregistered() throws Exception {
+		IBreakpoint[] breakpoints = createBreakpoints();
+		add(breakpoints[0]);
+		fManager.removeBreakpoint(breakpoints[1], false);
+		assertRegistered();
+		assertFalse("Breakpoint registered", fManager.isRegistered(breakpoints[1])); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests replacing the registered breakpoints.
+	 *
+	 * @throws Exception
+	 */
+	public void testSetBreakpoints() throws Exception {
+		IBreakpoint[] breakpoints = createBreakpoints();
+		add(breakpoints[0]);
+		add(breakpoints[1]);
+		Vector<IBreakpoint> replaced = new Vector<IBreakpoint>(Arrays.asList(breakpoints).subList(5, 10));
+		fManager.replaceBreakpoints(replaced);
+		fRegistered.clear();
+		fRegistered.addAll(replaced);
+		assertRegistered();
+		assertFalse("Replaced breakpoint registered", fManager.isRegistered(breakpoints[0])); //$NON-NLS-1$
+		remove(breakpoints[7]);
+		add(breakpoints[0]);
+		assertRegistered();
+	}
+
+	/**
+	 * Tests that breakpoints looked up while other threads add and remove
+	 * breakpoints are registered breakpoints, and that the lookups are
+	 * consistent once the changes are done.
+	 *
+	 * @throws Exception
+	 */
+	public void testConcurrentLookups() throws Exception {
+		final IBreakpoint[] breakpoints = createBreakpoints();
+		final List<Throwable> errors = new Vector<Throwable>();
+		final boolean[] done = new boolean[1];
+		Thread reader = new Thread() {
+			@Override
+			public void run() {
+				while (!done[0]) {
+					try {
+						for (IBreakpoint breakpoint : fManager.getBreakpoints(TestLineBreakpoint.MODEL_ID)) {
+							assertTrue("Unknown breakpoint returned", Arrays.asList(breakpoints).contains(breakpoint)); //$NON-NLS-1$
+						}
+						fManager.getBreakpoints(fFiles[0]);
+						fManager.getBreakpoint(breakpoints[0].getMarker());
+					} catch (Throwable e) {
+						errors.add(e);
+						return;
+					}
+				}
+			}
+		};
+		reader.start();
+		try {
+			for (int round = 0; round < 20; round++) {
+				for (IBreakpoint breakpoint : breakpoints) {
+					fManager.addBreakpoint(breakpoint);
+				}
+				fManager.removeBreakpoints(breakpoints, false);
+			}
+		} finally {
+			done[0] = true;
+			reader.join(10000);
+		}
+		if (!errors.isEmpty()) {
+			throw new AssertionError(errors.get(0));
+		}
+		assertRegistered();
+		for (IBreakpoint breakpoint : breakpoints) {
+			add(breakpoint);
+		}
+		assertRegistered();
+	}
+
+	/**
+	 * Tests looking up the breakpoints on a resource.
+	 *
+	 * @throws Exception
+	 */
+	public void testGetBreakpointsOfResource() throws Exception {
+		IBreakpoint[] breakpoints = createBreakpoints();
+		for (IBreakpoint breakpoint : breakpoints) {
+			add(breakpoint);
+		}
+		assertResourceBreakpoints();
+		assertEquals("Breakpoints of members returned", 0, fManager.getBreakpoints(fProject).length); //$NON-NLS-1$
+		assertEquals("Breakpoints of another resource returned", 0, fManager.getBreakpoints(fProject.getFile("Other.txt")).length); //$NON-NLS-1$ //$NON-NLS-2$
+		for (int i = 0; i < breakpoints.length; i += 3) {
+			remove(breakpoints[i]);
+		}
+		assertResourceBreakpoints();
+		add(breakpoints[0]);
+		assertResourceBreakpoints();
+	}
+
+	/**
+	 * Tests looking up the line breakpoints on the lines of a resource.
+	 *
+	 * @throws Exception
+	 */
+	public void testGetLineBreakpoint() throws Exception {
+		IBreakpoint[] breakpoints = createBreakpoints();
+		for (IBreakpoint breakpoint : breakpoints) {
+			add(breakpoint);
+		}
+		for (int i = 0; i < breakpoints.length; i++) {
+			assertSame("Wrong line breakpoint", breakpoints[i], fManager.getLineBreakpoint(fFiles[i % fFiles.length], i + 1)); //$NON-NLS-1$
+			assertNull("Breakpoint on the wrong resource", fManager.getLineBreakpoint(fFiles[(i + 1) % fFiles.length], i + 1)); //$NON-NLS-1$
+		}
+		assertNull("Breakpoint on a line without breakpoint", fManager.getLineBreakpoint(fFiles[0], BREAKPOINT_COUNT + 1)); //$NON-NLS-1$
+		remove(breakpoints[0]);
+		assertNull("Removed breakpoint returned", fManager.getLineBreakpoint(fFiles[0], 1)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the breakpoint registered first is returned for a line with
+	 * several breakpoints.
+	 *
+	 * @throws Exception
+	 */
+	public void testGetLineBreakpointOfSharedLine() throws Exception {
+		IBreakpoint first = new TestLineBreakpoint(fFiles[0], 5);
+		IBreakpoint second = new TestLineBreakpoint(fFiles[0], 5);
+		add(first);
+		add(second);
+		assertSame("Wrong line breakpoint", first, fManager.getLineBreakpoint(fFiles[0], 5)); //$NON-NLS-1$
+		remove(first);
+		assertSame("Wrong line breakpoint", second, fManager.getLineBreakpoint(fFiles[0], 5)); //$NON-NLS-1$
+		remove(second);
+		assertNull("Removed breakpoint returned", fManager.getLineBreakpoint(fFiles[0], 5)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a line breakpoint is found on its new line when the line
+	 * number of its marker changes.
+	 *
+	 * @throws Exception
+	 */
+	public void testLineChange() throws Exception {
+		IBreakpoint[] breakpoints = createBreakpoints();
+		for (IBreakpoint breakpoint : breakpoints) {
+			add(breakpoint);
+		}
+		breakpoints[0].getMarker().setAttribute(IMarker.LINE_NUMBER, 100);
+		waitForBuild();
+		assertNull("Breakpoint found on its old line", fManager.getLineBreakpoint(fFiles[0], 1)); //$NON-NLS-1$
+		assertSame("Breakpoint not found on its new line", breakpoints[0], fManager.getLineBreakpoint(fFiles[0], 100)); //$NON-NLS-1$
+		assertRegistered();
+		assertResourceBreakpoints();
+
+		// moved to the line of another breakpoint, which is still returned
+		breakpoints[0].getMarker().setAttribute(IMarker.LINE_NUMBER, 3);
+		waitForBuild();
+		assertNull("Breakpoint found on its old line", fManager.getLineBreakpoint(fFiles[0], 100)); //$NON-NLS-1$
+		assertSame("Wrong line breakpoint", breakpoints[2], fManager.getLineBreakpoint(fFiles[0], 3)); //$NON-NLS-1$
+		remove(breakpoints[2]);
+		assertSame("Moved breakpoint not found", breakpoints[0], fManager.getLineBreakpoint(fFiles[0], 3)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that line changes made in a workspace operation are seen once the
+	 * operation is complete.
+	 *
+	 * @throws Exception
+	 */
+	public void testLineChangeInOperation() throws Exception {
+		final IBreakpoint[] breakpoints = createBreakpoints();
+		for (IBreakpoint breakpoint : breakpoints) {
+			add(breakpoint);
+		}
+		ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				for (int i = 0; i < breakpoints.length; i++) {
+					breakpoints[i].getMarker().setAttribute(IMarker.LINE_NUMBER, i + 101);
+				}
+				assertSame("Line changed during the operation", breakpoints[0], fManager.getLineBreakpoint(fFiles[0], 1)); //$NON-NLS-1$
+			}
+		}, null);
+		waitForBuild();
+		for (int i = 0; i < breakpoints.length; i++) {
+			assertNull("Breakpoint found on its old line", fManager.getLineBreakpoint(fFiles[i % fFiles.length], i + 1)); //$NON-NLS-1$
+			assertSame("Breakpoint not found on its new line", breakpoints[i], fManager.getLineBreakpoint(fFiles[i % fFiles.length], i + 101)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Waits for the automatic build after a marker change, as the breakpoint
+	 * manager updates the line index from the resource changes reported
+	 * after the build.
+	 */
+	private void waitForBuild() throws InterruptedException {
+		Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+	}
+
+	/**
+	 * Creates breakpoints alternating between the test files, which are not
+	 * registered.
+	 */
+	private IBreakpoint[] createBreakpoints() throws CoreException {
+		IBreakpoint[] breakpoints = new IBreakpoint[BREAKPOINT_COUNT];
+		for (int i = 0; i < BREAKPOINT_COUNT; i++) {
+			breakpoints[i] = new TestLineBreakpoint(fFiles[i % fFiles.length], i + 1);
+		}
+		return breakpoints;
+	}
+
+	private void add(IBreakpoint breakpoint) throws CoreException {
+		fManager.addBreakpoint(breakpoint);
+		fRegistered.add(breakpoint);
+	}
+
+	private void remove(IBreakpoint breakpoint) throws CoreException {
+		fManager.removeBreakpoint(breakpoint, false);
+		fRegistered.remove(breakpoint);
+	}
+
+	/**
+	 * Asserts that the breakpoints of each test file are the breakpoints
+	 * expected to be registered on the file, in the order they were
+	 * registered.
+	 */
+	private void assertResourceBreakpoints() {
+		for (IFile file : fFiles) {
+			List<IBreakpoint> expected = new ArrayList<IBreakpoint>();
+			for (IBreakpoint breakpoint : fRegistered) {
+				if (file.equals(breakpoint.getMarker().getResource())) {
+					expected.add(breakpoint);
+				}
+			}
+			assertEquals("Wrong breakpoints of " + file, expected, Arrays.asList(fManager.getBreakpoints(file))); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Asserts that the lookups of the manager return the breakpoints
+	 * expected to be registered.
+	 */
+	private void assertRegistered() throws CoreException {
+		assertEquals("Wrong breakpoints", fRegistered, Arrays.asList(fManager.getBreakpoints())); //$NON-NLS-1$
+		assertEquals("Wrong breakpoints of the model", fRegistered, Arrays.asList(fManager.getBreakpoints(TestLineBreakpoint.MODEL_ID))); //$NON-NLS-1$
+		assertEquals("Wrong breakpoints of another model", 0, fManager.getBreakpoints("org.eclipse.debug.tests.other").length); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Wrong state", !fRegistered.isEmpty(), fManager.hasBreakpoints()); //$NON-NLS-1$
+		for (IBreakpoint breakpoint : fRegistered) {
+			assertTrue("Breakpoint not registered", fManager.isRegistered(breakpoint)); //$NON-NLS-1$
+			assertSame("Wrong breakpoint of marker", breakpoint, fManager.getBreakpoint(breakpoint.getMarker())); //$NON-NLS-1$
+		}
+		for (IBreakpoint breakpoint : fManager.getBreakpoints()) {
+			assertTrue("Unexpected breakpoint registered", fRegistered.contains(breakpoint)); //$NON-NLS-1$
+		}
+	}
+}
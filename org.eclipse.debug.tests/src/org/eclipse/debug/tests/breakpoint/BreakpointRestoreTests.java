@@ -0,0 +1,268 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.ILogListener;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.IBreakpointListener;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.core.model.ILineBreakpoint;
+import org.eclipse.debug.internal.core.BreakpointManager;
+import org.eclipse.debug.tests.TestsPlugin;
+
+/**
+ * Tests restoring breakpoints from the markers of the workspace, when the
+ * breakpoints are only created when first returned, and removing restored
+ * breakpoints when their markers are deleted or their project is closed.
+ */
+public class BreakpointRestoreTests extends TestCase {
+
+	private static final int BREAKPOINT_COUNT = 10;
+
+	private IProject fProject;
+
+	private IFile fFile;
+
+	/**
+	 * Manager restoring the breakpoints of the test markers, which are not
+	 * registered with the breakpoint manager of the debug plug-in
+	 */
+	private BreakpointManager fManager;
+
+	private final List<IBreakpoint> fRemoved = new ArrayList<IBreakpoint>();
+
+	private final List<IStatus> fErrors = new ArrayList<IStatus>();
+
+	private final IBreakpointListener fListener = new IBreakpointListener() {
+		@Override
+		public void breakpointAdded(IBreakpoint breakpoint) {
+		}
+
+		@Override
+		public void breakpointRemoved(IBreakpoint breakpoint, IMarkerDelta delta) {
+			fRemoved.add(breakpoint);
+		}
+
+		@Override
+		public void breakpointChanged(IBreakpoint breakpoint, IMarkerDelta delta) {
+		}
+	};
+
+	private final ILogListener fLogListener = new ILogListener() {
+		@Override
+		public void logging(IStatus status, String plugin) {
+			if (status.matches(IStatus.ERROR)) {
+				fErrors.add(status);
+			}
+		}
+	};
+
+	public BreakpointRestoreTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject = TestsPlugin.createProject("BreakpointRestoreTests"); //$NON-NLS-1$
+		fFile = fProject.getFile("File.txt"); //$NON-NLS-1$
+		IWorkspaceRunnable runnable = new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				fFile.create(new ByteArrayInputStream(new byte[0]), true, null);
+				for (int i = 1; i <= BREAKPOINT_COUNT; i++) {
+					new TestLineBreakpoint(fFile, i);
+				}
+			}
+		};
+		ResourcesPlugin.getWorkspace().run(runnable, null);
+		fManager = new BreakpointManager();
+		Platform.addLogListener(fLogListener);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Platform.removeLogListener(fLogListener);
+		fManager.shutdown();
+		fProject.delete(true, null);
+		super.tearDown();
+	}
+
+	/**
+	 * Tests that restored breakpoints are created when first returned.
+	 *
+	 * @throws Exception
+	 */
+	public void testCreateWhenReturned() throws Exception {
+		int restored = TestLineBreakpoint.getRestoredCount();
+		assertTrue("Breakpoints not restored", fManager.hasBreakpoints()); //$NON-NLS-1$
+		assertEquals("Breakpoints created when restored", restored, TestLineBreakpoint.getRestoredCount()); //$NON-NLS-1$
+		ILineBreakpoint breakpoint = fManager.getLineBreakpoint(fFile, 3);
+		assertNotNull("Breakpoint not restored", breakpoint); //$NON-NLS-1$
+		assertEquals("Wrong line", 3, breakpoint.getLineNumber()); //$NON-NLS-1$
+		assertTrue("Breakpoint not registered", fManager.isRegistered(breakpoint)); //$NON-NLS-1$
+		assertEquals("Wrong number of breakpoints created", restored + 1, TestLineBreakpoint.getRestoredCount()); //$NON-NLS-1$
+		IBreakpoint[] breakpoints = fManager.getBreakpoints(TestLineBreakpoint.MODEL_ID);
+		assertEquals("Wrong number of breakpoints", BREAKPOINT_COUNT, breakpoints.length); //$NON-NLS-1$
+		assertEquals("Wrong number of breakpoints created", restored + BREAKPOINT_COUNT, TestLineBreakpoint.getRestoredCount()); //$NON-NLS-1$
+		assertSame("Breakpoint created again", breakpoint, fManager.getBreakpoint(breakpoint.getMarker())); //$NON-NLS-1$
+		assertNoErrors();
+	}
+
+	/**
+	 * Tests deleting the markers of restored breakpoints that were not
+	 * created.
+	 *
+	 * @throws Exception
+	 */
+	public void testDeleteUncreated() throws Exception {
+		fManager.ensureInitialized();
+		fManager.addBreakpointListener(fListener);
+		int restored = TestLineBreakpoint.getRestoredCount();
+		fFile.delete(true, null);
+		waitForBuild();
+		assertEquals("Breakpoints created", restored, TestLineBreakpoint.getRestoredCount()); //$NON-NLS-1$
+		assertTrue("Breakpoints that were not created removed", fRemoved.isEmpty()); //$NON-NLS-1$
+		assertFalse("Breakpoints not removed", fManager.hasBreakpoints()); //$NON-NLS-1$
+		assertNoErrors();
+	}
+
+	/**
+	 * Tests deleting the markers of restored breakpoints that were created.
+	 *
+	 * @throws Exception
+	 */
+	public void testDeleteCreated() throws Exception {
+		IBreakpoint[] breakpoints = fManager.getBreakpoints(TestLineBreakpoint.MODEL_ID);
+		fManager.addBreakpointListener(fListener);
+		fFile.delete(true, null);
+		waitForBuild();
+		assertEquals("Wrong number of breakpoints removed", BREAKPOINT_COUNT, fRemoved.size()); //$NON-NLS-1$
+		for (IBreakpoint breakpoint : breakpoints) {
+			assertTrue("Breakpoint not removed", fRemoved.contains(breakpoint)); //$NON-NLS-1$
+		}
+		assertFalse("Breakpoints not removed", fManager.hasBreakpoints()); //$NON-NLS-1$
+		assertNoErrors();
+	}
+
+	/**
+	 * Tests closing and opening the project of restored breakpoints that were
+	 * not created.
+	 *
+	 * @throws Exception
+	 */
+	public void testCloseProjectUncreated() throws Exception {
+		fManager.ensureInitialized();
+		fManager.addBreakpointListener(fListener);
+		fProject.close(null);
+		waitForBuild();
+		assertTrue("Breakpoints that were not created removed", fRemoved.isEmpty()); //$NON-NLS-1$
+		assertFalse("Breakpoints not removed", fManager.hasBreakpoints()); //$NON-NLS-1$
+		assertEquals("Breakpoints returned", 0, fManager.getBreakpoints().length); //$NON-NLS-1$
+		fProject.open(null);
+		waitForBuild();
+		assertEquals("Breakpoints not restored", BREAKPOINT_COUNT, fManager.getBreakpoints(TestLineBreakpoint.MODEL_ID).length); //$NON-NLS-1$
+		assertNoErrors();
+	}
+
+	/**
+	 * Tests closing the project of restored breakpoints that were created.
+	 *
+	 * @throws Exception
+	 */
+	public void testCloseProjectCreated() throws Exception {
+		IBreakpoint[] breakpoints = fManager.getBreakpoints(TestLineBreakpoint.MODEL_ID);
+		fManager.addBreakpointListener(fListener);
+		fProject.close(null);
+		waitForBuild();
+		assertEquals("Wrong number of breakpoints removed", BREAKPOINT_COUNT, fRemoved.size()); //$NON-NLS-1$
+		for (IBreakpoint breakpoint : breakpoints) {
+			assertTrue("Breakpoint not removed", fRemoved.contains(breakpoint)); //$NON-NLS-1$
+		}
+		assertFalse("Breakpoints not removed", fManager.hasBreakpoints()); //$NON-NLS-1$
+		assertNoErrors();
+	}
+
+	/**
+	 * Tests that a restored breakpoint whose marker has no model identifier
+	 * is found by the model identifier of the breakpoint.
+	 *
+	 * @throws Exception
+	 */
+	public void testMarkerWithoutModelIdentifier() throws Exception {
+		getMarker(1).setAttribute(IBreakpoint.ID, null);
+		IBreakpoint[] breakpoints = fManager.getBreakpoints(TestLineBreakpoint.MODEL_ID);
+		assertEquals("Wrong number of breakpoints", BREAKPOINT_COUNT, breakpoints.length); //$NON-NLS-1$
+		assertTrue("Breakpoint not found by its model identifier", Arrays.asList(breakpoints).contains(fManager.getLineBreakpoint(fFile, 1))); //$NON-NLS-1$
+		assertNoErrors();
+	}
+
+	/**
+	 * Tests that a restored breakpoint whose marker has another model
+	 * identifier than the breakpoint is found by the model identifier of the
+	 * breakpoint once created.
+	 *
+	 * @throws Exception
+	 */
+	public void testMarkerWithOtherModelIdentifier() throws Exception {
+		getMarker(2).setAttribute(IBreakpoint.ID, "org.eclipse.debug.tests.other"); //$NON-NLS-1$
+		assertEquals("Breakpoint found by the model identifier of its marker", 0, fManager.getBreakpoints("org.eclipse.debug.tests.other").length); //$NON-NLS-1$ //$NON-NLS-2$
+		IBreakpoint[] breakpoints = fManager.getBreakpoints(TestLineBreakpoint.MODEL_ID);
+		assertEquals("Wrong number of breakpoints", BREAKPOINT_COUNT, breakpoints.length); //$NON-NLS-1$
+		assertTrue("Breakpoint not found by its model identifier", Arrays.asList(breakpoints).contains(fManager.getLineBreakpoint(fFile, 2))); //$NON-NLS-1$
+		assertEquals("Breakpoint found by the model identifier of its marker", 0, fManager.getBreakpoints("org.eclipse.debug.tests.other").length); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNoErrors();
+	}
+
+	/**
+	 * Waits for the automatic build after a resource change, as the
+	 * breakpoint manager removes the breakpoints of deleted markers when the
+	 * resource changes are reported after the build.
+	 */
+	private void waitForBuild() throws InterruptedException {
+		Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+	}
+
+	/**
+	 * Returns the test breakpoint marker on the given line of the test file.
+	 */
+	private IMarker getMarker(int line) throws CoreException {
+		for (IMarker marker : fFile.findMarkers(TestLineBreakpoint.MARKER_TYPE, false, IResource.DEPTH_ZERO)) {
+			if (marker.getAttribute(IMarker.LINE_NUMBER, -1) == line) {
+				return marker;
+			}
+		}
+		fail("No marker on line " + line); //$NON-NLS-1$
+		return null;
+	}
+
+	private void assertNoErrors() {
+		assertTrue("Errors logged: " + fErrors, fErrors.isEmpty()); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import java.util.Map;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.core.model.IBreakpointImportParticipant2;
+
+/**
+ * Import participant of test line breakpoints with a message marker, which
+ * matches breakpoints by their message rather than by their line, so that a
+ * breakpoint whose line has moved since it was exported still matches.
+ */
+public class TestImportParticipant implements IBreakpointImportParticipant2 {
+
+	@Override
+	public boolean matchesByLine() {
+		return false;
+	}
+
+	@Override
+	public boolean matches(Map<String, Object> attributes, IBreakpoint breakpoint) throws CoreException {
+		Object message = attributes.get(IMarker.MESSAGE);
+		return message != null && message.equals(breakpoint.getMarker().getAttribute(IMarker.MESSAGE));
+	}
+
+	@Override
+	public void verify(IBreakpoint breakpoint) throws CoreException {
+	}
+}
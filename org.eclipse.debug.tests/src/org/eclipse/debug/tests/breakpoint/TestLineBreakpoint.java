@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.core.model.LineBreakpoint;
+
+/**
+ * Line breakpoint of the test debug model, created from the test breakpoint
+ * marker.
+ */
+public class TestLineBreakpoint extends LineBreakpoint {
+
+	/**
+	 * Identifier of the test debug model
+	 */
+	public static final String MODEL_ID = "org.eclipse.debug.tests"; //$NON-NLS-1$
+
+	/**
+	 * Type of the markers of test line breakpoints
+	 */
+	public static final String MARKER_TYPE = "org.eclipse.debug.tests.testBreakpointMarker"; //$NON-NLS-1$
+
+	/**
+	 * Type of the markers of test line breakpoints that are imported by
+	 * {@link TestImportParticipant}, matching them by their message
+	 */
+	public static final String MESSAGE_MARKER_TYPE = "org.eclipse.debug.tests.testMessageBreakpointMarker"; //$NON-NLS-1$
+
+	/**
+	 * Number of breakpoints constructed to be restored from their marker
+	 */
+	private static final AtomicInteger fgRestored = new AtomicInteger();
+
+	/**
+	 * Constructs a breakpoint to be restored from its marker.
+	 */
+	public TestLineBreakpoint() {
+		fgRestored.incrementAndGet();
+	}
+
+	/**
+	 * Constructs a breakpoint on the given line of a resource. The breakpoint
+	 * is not added to the breakpoint manager.
+	 *
+	 * @param resource the resource of the breakpoint
+	 * @param lineNumber the line of the breakpoint
+	 * @throws CoreException if the marker cannot be created
+	 */
+	public TestLineBreakpoint(IResource resource, int lineNumber) throws CoreException {
+		this(resource, lineNumber, MARKER_TYPE);
+	}
+
+	/**
+	 * Constructs a breakpoint with a marker of the given type on the given
+	 * line of a resource. The breakpoint is not added to the breakpoint
+	 * manager.
+	 *
+	 * @param resource the resource of the breakpoint
+	 * @param lineNumber the line of the breakpoint
+	 * @param markerType {@link #MARKER_TYPE} or {@link #MESSAGE_MARKER_TYPE}
+	 * @throws CoreException if the marker cannot be created
+	 */
+	public TestLineBreakpoint(IResource resource, int lineNumber, String markerType) throws CoreException {
+		IMarker marker = resource.createMarker(markerType);
+		marker.setAttributes(new String[] {
+				IBreakpoint.ID, IBreakpoint.ENABLED, IMarker.LINE_NUMBER,
+				IMarker.MESSAGE }, new Object[] { MODEL_ID, Boolean.TRUE,
+				Integer.valueOf(lineNumber),
+				"Line breakpoint: " + resource.getName() + " [line: " + lineNumber + "]" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		setMarker(marker);
+	}
+
+	/**
+	 * Returns the number of breakpoints constructed to be restored from their
+	 * marker, so that tests can tell when breakpoints are created.
+	 *
+	 * @return the number of restored breakpoints
+	 */
+	public static int getRestoredCount() {
+		return fgRestored.get();
+	}
+
+	@Override
+	public String getModelIdentifier() {
+		return MODEL_ID;
+	}
+}
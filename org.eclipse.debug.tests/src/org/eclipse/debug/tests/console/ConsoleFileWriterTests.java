@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.console;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.debug.internal.ui.views.console.ConsoleFileWriter;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests writing console output to a file, with encoding across queued texts,
+ * rotation and compression of rotated files.
+ */
+public class ConsoleFileWriterTests extends TestCase {
+
+	private static final String UTF_8 = "UTF-8"; //$NON-NLS-1$
+
+	/**
+	 * Stateful encoding that ends with an escape sequence when the encoder is
+	 * flushed
+	 */
+	private static final String ISO_2022_JP = "ISO-2022-JP"; //$NON-NLS-1$
+
+	private File fDirectory;
+
+	private File fFile;
+
+	public ConsoleFileWriterTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fDirectory = Files.createTempDirectory("ConsoleFileWriterTests").toFile(); //$NON-NLS-1$
+		fFile = new File(fDirectory, "console.log"); //$NON-NLS-1$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		File[] files = fDirectory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		fDirectory.delete();
+		super.tearDown();
+	}
+
+	/**
+	 * Tests that queued text is written when the writer is closed.
+	 *
+	 * @throws Exception
+	 */
+	public void testWrite() throws Exception {
+		ConsoleFileWriter writer = new ConsoleFileWriter(fFile, false, UTF_8, 0, false);
+		writer.write("Hello "); //$NON-NLS-1$
+		writer.write("World"); //$NON-NLS-1$
+		writer.close();
+		assertEquals("Wrong file contents", "Hello World", read(fFile, UTF_8)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that a surrogate pair split between two texts is written.
+	 *
+	 * @throws Exception
+	 */
+	public void testSplitSurrogatePair() throws Exception {
+		ConsoleFileWriter writer = new ConsoleFileWriter(fFile, false, UTF_8, 0, false);
+		writer.write("a\uD83D"); //$NON-NLS-1$
+		writer.write("\uDE00b"); //$NON-NLS-1$
+		writer.close();
+		assertEquals("Surrogate pair not written", "a😀b", read(fFile, UTF_8)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that a high surrogate at the end of the output is replaced rather
+	 * than dropped when the writer is closed.
+	 *
+	 * @throws Exception
+	 */
+	public void testHighSurrogateAtEnd() throws Exception {
+		ConsoleFileWriter writer = new ConsoleFileWriter(fFile, false, UTF_8, 0, false);
+		writer.write("a\uD83D"); //$NON-NLS-1$
+		writer.close();
+		assertEquals("Unpaired surrogate not replaced", "a?", read(fFile, UTF_8)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that the encoder is flushed when the writer is closed, so that a
+	 * stateful encoding returns to its initial state at the end of the file.
+	 *
+	 * @throws Exception
+	 */
+	public void testFlushOnClose() throws Exception {
+		if (!Charset.isSupported(ISO_2022_JP)) {
+			return;
+		}
+		String text = "aあ"; //$NON-NLS-1$
+		ConsoleFileWriter writer = new ConsoleFileWriter(fFile, false, ISO_2022_JP, 0, false);
+		writer.write(text);
+		writer.close();
+		byte[] bytes = Files.readAllBytes(fFile.toPath());
+		assertTrue("Encoder not flushed", endsInAscii(bytes)); //$NON-NLS-1$
+		assertEquals("Wrong file contents", text, new String(bytes, ISO_2022_JP)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that files are rotated at a limit smaller than the buffer of the
+	 * writer, each file staying within the limit.
+	 *
+	 * @throws Exception
+	 */
+	public void testRotate() throws Exception {
+		String text = createText(3000);
+		ConsoleFileWriter writer = new ConsoleFileWriter(fFile, false, UTF_8, 1000, false);
+		for (int i = 0; i < text.length(); i += 300) {
+			writer.write(text.substring(i, i + 300));
+		}
+		writer.close();
+		File[] files = new File[] { rotated(2, ""), rotated(1, ""), fFile }; //$NON-NLS-1$ //$NON-NLS-2$
+		StringBuilder contents = new StringBuilder();
+		for (File file : files) {
+			assertTrue("File not rotated: " + file, file.isFile()); //$NON-NLS-1$
+			assertEquals("Wrong file size: " + file, 1000, file.length()); //$NON-NLS-1$
+			contents.append(read(file, UTF_8));
+		}
+		assertFalse("Too many files", rotated(3, "").exists()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Wrong file contents", text, contents.toString()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that only the most recent rotated files are kept.
+	 *
+	 * @throws Exception
+	 */
+	public void testRotateKeepsFiveFiles() throws Exception {
+		String text = createText(1000);
+		ConsoleFileWriter writer = new ConsoleFileWriter(fFile, false, UTF_8, 100, false);
+		writer.write(text);
+		writer.close();
+		StringBuilder contents = new StringBuilder();
+		for (int i = 5; i > 0; i--) {
+			contents.append(read(rotated(i, ""), UTF_8)); //$NON-NLS-1$
+		}
+		contents.append(read(fFile, UTF_8));
+		assertFalse("Too many files", rotated(6, "").exists()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Wrong file contents", text.substring(400), contents.toString()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that rotated files are compressed, and that the current file is
+	 * not.
+	 *
+	 * @throws Exception
+	 */
+	public void testRotateCompressed() throws Exception {
+		String text = createText(3000);
+		ConsoleFileWriter writer = new ConsoleFileWriter(fFile, false, UTF_8, 1000, true);
+		writer.write(text);
+		writer.close();
+		assertFalse("Rotated file not compressed", rotated(1, "").exists()); //$NON-NLS-1$ //$NON-NLS-2$
+		StringBuilder contents = new StringBuilder();
+		contents.append(readCompressed(rotated(2, ".gz"), UTF_8)); //$NON-NLS-1$
+		contents.append(readCompressed(rotated(1, ".gz"), UTF_8)); //$NON-NLS-1$
+		contents.append(read(fFile, UTF_8));
+		assertEquals("Wrong file contents", text, contents.toString()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the encoder is flushed at the end of each rotated file, so
+	 * that each file can be read on its own in a stateful encoding.
+	 *
+	 * @throws Exception
+	 */
+	public void testRotateFlushesEncoder() throws Exception {
+		if (!Charset.isSupported(ISO_2022_JP)) {
+			return;
+		}
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			text.append("aあ"); //$NON-NLS-1$
+		}
+		ConsoleFileWriter writer = new ConsoleFileWriter(fFile, false, ISO_2022_JP, 300, false);
+		writer.write(text.toString());
+		writer.close();
+		StringBuilder contents = new StringBuilder();
+		for (int i = 5; i > 0; i--) {
+			File file = rotated(i, ""); //$NON-NLS-1$
+			if (file.exists()) {
+				byte[] bytes = Files.readAllBytes(file.toPath());
+				assertTrue("Encoder not flushed: " + file, endsInAscii(bytes)); //$NON-NLS-1$
+				contents.append(new String(bytes, ISO_2022_JP));
+			}
+		}
+		contents.append(read(fFile, ISO_2022_JP));
+		assertTrue("Files not rotated", rotated(1, "").exists()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue("Wrong file contents", text.toString().endsWith(contents.toString())); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns text of the given length made of lines of digits.
+	 */
+	private String createText(int length) {
+		StringBuilder text = new StringBuilder(length);
+		while (text.length() < length) {
+			text.append(text.length() % 10 == 9 ? '\n' : (char) ('0' + text.length() % 10));
+		}
+		return text.toString();
+	}
+
+	private File rotated(int index, String suffix) {
+		return new File(fFile.getPath() + '.' + index + suffix);
+	}
+
+	/**
+	 * Returns whether the given ISO-2022-JP bytes end in ASCII, that is
+	 * whether their last escape sequence, if any, returns to ASCII.
+	 */
+	private boolean endsInAscii(byte[] bytes) {
+		for (int i = bytes.length - 1; i >= 0; i--) {
+			if (bytes[i] == 0x1B) {
+				return i + 2 < bytes.length && bytes[i + 1] == '(' && bytes[i + 2] == 'B';
+			}
+		}
+		return true;
+	}
+
+	private String read(File file, String encoding) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), encoding);
+	}
+
+	private String readCompressed(File file, String encoding) throws IOException {
+		try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				out.write(buffer, 0, read);
+			}
+			return new String(out.toByteArray(), encoding);
+		}
+	}
+}
@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.console;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.ui.console.IConsoleDocumentPartitioner;
+import org.eclipse.ui.console.IPatternMatchListener;
+import org.eclipse.ui.console.PatternMatchEvent;
+import org.eclipse.ui.console.TextConsole;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that pattern match listeners of a console are notified of each match
+ * exactly once as output is appended, in particular when the text searched
+ * for a listener starts in the middle of a line, after a match on the last
+ * line searched before.
+ */
+public class ConsolePatternMatcherTests extends TestCase {
+
+	/**
+	 * Console without a partitioner, as the tests only use its document
+	 */
+	static class TestConsole extends TextConsole {
+
+		TestConsole() {
+			super("ConsolePatternMatcherTests", null, null, false); //$NON-NLS-1$
+		}
+
+		@Override
+		protected IConsoleDocumentPartitioner getPartitioner() {
+			return null;
+		}
+	}
+
+	/**
+	 * Listener that records the regions of the matches it is notified of
+	 */
+	static class RecordingListener implements IPatternMatchListener {
+
+		private final String fPattern;
+
+		private final String fQualifier;
+
+		final List<String> fMatches = Collections.synchronizedList(new ArrayList<String>());
+
+		RecordingListener(String pattern, String qualifier) {
+			fPattern = pattern;
+			fQualifier = qualifier;
+		}
+
+		@Override
+		public String getPattern() {
+			return fPattern;
+		}
+
+		@Override
+		public int getCompilerFlags() {
+			return 0;
+		}
+
+		@Override
+		public String getLineQualifier() {
+			return fQualifier;
+		}
+
+		@Override
+		public void connect(TextConsole console) {
+		}
+
+		@Override
+		public void disconnect() {
+		}
+
+		@Override
+		public void matchFound(PatternMatchEvent event) {
+			fMatches.add(event.getOffset() + ":" + event.getLength()); //$NON-NLS-1$
+		}
+	}
+
+	private TestConsole fConsole;
+
+	private final List<RecordingListener> fListeners = new ArrayList<RecordingListener>();
+
+	public ConsolePatternMatcherTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fConsole = new TestConsole();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (RecordingListener listener : fListeners) {
+			fConsole.removePatternMatchListener(listener);
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Tests that the rest of a line after a match is searched again once the
+	 * line is complete, without reporting the match again.
+	 *
+	 * @throws Exception
+	 */
+	public void testRestOfLineAfterMatch() throws Exception {
+		RecordingListener listener = addListener("bar\\d", "bar"); //$NON-NLS-1$ //$NON-NLS-2$
+		append("bar1 "); //$NON-NLS-1$
+		append("baz bar2"); //$NON-NLS-1$
+		append(" bar3\nbar4\n"); //$NON-NLS-1$
+		assertMatches(listener);
+	}
+
+	/**
+	 * Tests that a line qualified by text before the cursor of a listener is
+	 * searched from the cursor only.
+	 *
+	 * @throws Exception
+	 */
+	public void testQualifierBeforeCursor() throws Exception {
+		RecordingListener listener = addListener("bar\\d", "bar"); //$NON-NLS-1$ //$NON-NLS-2$
+		append("bar1 x"); //$NON-NLS-1$
+		append("yz\nfoo\nbar2\n"); //$NON-NLS-1$
+		assertMatches(listener);
+	}
+
+	/**
+	 * Tests that the rest of a line after the cursor of a listener is only
+	 * searched if it matches the qualifier, even if the text shared with
+	 * another listener includes qualified text before the cursor.
+	 *
+	 * @throws Exception
+	 */
+	public void testQualifierOnlyBeforeCursor() throws Exception {
+		RecordingListener digits = addListener("\\d", "bar"); //$NON-NLS-1$ //$NON-NLS-2$
+		// never matches, so its cursor stays at the start of the last line
+		addListener("zzz", null); //$NON-NLS-1$
+		append("bar1 x"); //$NON-NLS-1$
+		append("2\n"); //$NON-NLS-1$
+		assertEquals("Wrong matches", Collections.singletonList("3:1"), digits.fMatches); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests listeners whose cursors are on the same line, so that the text
+	 * searched for the listener with the later cursor starts in the middle of
+	 * a line of the shared text.
+	 *
+	 * @throws Exception
+	 */
+	public void testCursorsOnSameLine() throws Exception {
+		RecordingListener foo = addListener("foo\\d", "foo"); //$NON-NLS-1$ //$NON-NLS-2$
+		RecordingListener bar = addListener("bar\\d", "bar"); //$NON-NLS-1$ //$NON-NLS-2$
+		RecordingListener fooBar = addListener("(foo|bar)\\d", "foo|bar"); //$NON-NLS-1$ //$NON-NLS-2$
+		RecordingListener any = addListener("\\w+\\d", null); //$NON-NLS-1$
+		append("foo1 bar1"); //$NON-NLS-1$
+		append(" bar2 foo2"); //$NON-NLS-1$
+		append(" baz\n"); //$NON-NLS-1$
+		append("foo3 bar3 foo4\r\nbar4"); //$NON-NLS-1$
+		append("\rfoo5\n"); //$NON-NLS-1$
+		assertMatches(foo);
+		assertMatches(bar);
+		assertMatches(fooBar);
+		assertMatches(any);
+	}
+
+	/**
+	 * Tests listeners sharing a qualifier whose cursors differ.
+	 *
+	 * @throws Exception
+	 */
+	public void testSharedQualifier() throws Exception {
+		RecordingListener first = addListener("at \\w+\\d", "at "); //$NON-NLS-1$ //$NON-NLS-2$
+		append("at a1 at b2"); //$NON-NLS-1$
+		RecordingListener second = addListener("at \\w+", "at "); //$NON-NLS-1$ //$NON-NLS-2$
+		append(" at c3\n"); //$NON-NLS-1$
+		append("at d4 "); //$NON-NLS-1$
+		append("x\n"); //$NON-NLS-1$
+		assertMatches(first);
+		assertMatches(second);
+	}
+
+	/**
+	 * Tests many listeners with output appended in pieces that end at
+	 * arbitrary positions of the lines, some of them sharing a qualifier.
+	 *
+	 * @throws Exception
+	 */
+	public void testManyListeners() throws Exception {
+		List<RecordingListener> listeners = new ArrayList<RecordingListener>();
+		for (int i = 0; i < 10; i++) {
+			// matches end with a space, so they are not reported before
+			// the text appended in pieces is complete
+			listeners.add(addListener("k" + i + "=\\d+ ", i % 3 == 0 ? "k" + i : "k\\d")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+		StringBuilder output = new StringBuilder();
+		for (int line = 0; line < 200; line++) {
+			for (int i = 0; i < 10; i++) {
+				if ((line + i) % 4 != 0) {
+					output.append('k').append((line * 7 + i) % 10).append('=').append(line).append(' ');
+				}
+			}
+			output.append(line % 5 == 0 ? "\r\n" : "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		int step = 37;
+		for (int offset = 0; offset < output.length(); offset += step) {
+			append(output.substring(offset, Math.min(output.length(), offset + step)));
+		}
+		for (RecordingListener listener : listeners) {
+			assertMatches(listener);
+		}
+	}
+
+	private RecordingListener addListener(String pattern, String qualifier) {
+		RecordingListener listener = new RecordingListener(pattern, qualifier);
+		fListeners.add(listener);
+		fConsole.addPatternMatchListener(listener);
+		return listener;
+	}
+
+	/**
+	 * Appends the given text to the document and waits for the matching to
+	 * complete, so that each piece of text is searched by itself. Matches on
+	 * the last line are reported as soon as they are found, so the pieces
+	 * must not end within a match.
+	 */
+	private void append(String text) throws Exception {
+		IDocument document = fConsole.getDocument();
+		document.replace(document.getLength(), 0, text);
+		Job.getJobManager().join(fConsole, null);
+	}
+
+	/**
+	 * Asserts that the given listener was notified of the matches of its
+	 * pattern in the whole document, each once and in order.
+	 */
+	private void assertMatches(RecordingListener listener) {
+		List<String> expected = new ArrayList<String>();
+		Matcher matcher = Pattern.compile(listener.getPattern()).matcher(fConsole.getDocument().get());
+		while (matcher.find()) {
+			expected.add(matcher.start() + ":" + (matcher.end() - matcher.start())); //$NON-NLS-1$
+		}
+		assertEquals("Wrong matches of " + listener.getPattern(), expected, listener.fMatches); //$NON-NLS-1$
+	}
+}
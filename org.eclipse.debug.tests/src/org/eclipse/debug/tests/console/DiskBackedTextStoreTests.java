@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.console;
+
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.ui.internal.console.ConsoleDocument;
+import org.eclipse.ui.internal.console.DiskBackedTextStore;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the console text store that moves older text to a memory-mapped
+ * file, comparing its text with the text appended and trimmed.
+ */
+public class DiskBackedTextStoreTests extends TestCase {
+
+	/**
+	 * Number of characters kept in memory
+	 */
+	private static final int WINDOW = 100;
+
+	/**
+	 * Number of characters in a mapped region of the file
+	 */
+	private static final int CHUNK_SIZE = 1000;
+
+	private DiskBackedTextStore fStore;
+
+	private final StringBuilder fText = new StringBuilder();
+
+	public DiskBackedTextStoreTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fStore = new DiskBackedTextStore(WINDOW, CHUNK_SIZE);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fStore.dispose();
+		super.tearDown();
+	}
+
+	/**
+	 * Tests reading text appended across several regions of the file.
+	 *
+	 * @throws Exception
+	 */
+	public void testAppend() throws Exception {
+		append(5 * CHUNK_SIZE);
+		assertTrue("Text not moved to the file", fStore.getFileSize() > 0); //$NON-NLS-1$
+		assertText();
+	}
+
+	/**
+	 * Tests that trimming the text releases the file as the text in the file
+	 * is trimmed, and that the text is still read correctly.
+	 *
+	 * @throws Exception
+	 */
+	public void testTrim() throws Exception {
+		append(10 * CHUNK_SIZE);
+		long size = fStore.getFileSize();
+		trim(8 * CHUNK_SIZE);
+		assertText();
+		assertTrue("File not shrunk", fStore.getFileSize() < size); //$NON-NLS-1$
+		assertTrue("File larger than its text", fStore.getFileSize() <= 4L * CHUNK_SIZE * 2); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the file stays bounded while a console is appended to and
+	 * trimmed repeatedly.
+	 *
+	 * @throws Exception
+	 */
+	public void testAppendAndTrim() throws Exception {
+		for (int i = 0; i < 50; i++) {
+			append(CHUNK_SIZE + 17);
+			if (fText.length() > 3 * CHUNK_SIZE) {
+				trim(fText.length() - 2 * CHUNK_SIZE);
+			}
+			assertText();
+		}
+		assertTrue("File not shrunk", fStore.getFileSize() <= 6L * CHUNK_SIZE * 2); //$NON-NLS-1$
+		append(CHUNK_SIZE);
+		assertText();
+	}
+
+	/**
+	 * Tests that the file is emptied when all text is trimmed.
+	 *
+	 * @throws Exception
+	 */
+	public void testTrimAll() throws Exception {
+		append(3 * CHUNK_SIZE);
+		trim(fText.length());
+		assertEquals("Text not trimmed", 0, fStore.getLength()); //$NON-NLS-1$
+		assertEquals("File not emptied", 0, fStore.getFileSize()); //$NON-NLS-1$
+		append(3 * CHUNK_SIZE);
+		assertText();
+	}
+
+	/**
+	 * Tests replacing text that was moved to the file.
+	 *
+	 * @throws Exception
+	 */
+	public void testReplaceInFile() throws Exception {
+		append(3 * CHUNK_SIZE);
+		trim(CHUNK_SIZE / 2);
+		fStore.replace(CHUNK_SIZE, 10, "replaced"); //$NON-NLS-1$
+		fText.replace(CHUNK_SIZE, CHUNK_SIZE + 10, "replaced"); //$NON-NLS-1$
+		assertText();
+		append(3 * CHUNK_SIZE);
+		assertText();
+	}
+
+	/**
+	 * Tests setting the text of a store with text in the file.
+	 *
+	 * @throws Exception
+	 */
+	public void testSet() throws Exception {
+		append(3 * CHUNK_SIZE);
+		fStore.set("text"); //$NON-NLS-1$
+		fText.setLength(0);
+		fText.append("text"); //$NON-NLS-1$
+		assertText();
+		assertEquals("File not emptied", 0, fStore.getFileSize()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that disposing a disk backed console document clears it without
+	 * notifying its listeners.
+	 *
+	 * @throws Exception
+	 */
+	public void testDisposeDocument() throws Exception {
+		ConsoleDocument document = new ConsoleDocument();
+		document.setDiskBacked(true);
+		document.set("line\nline\n"); //$NON-NLS-1$
+		final int[] events = new int[1];
+		document.addDocumentListener(new IDocumentListener() {
+			@Override
+			public void documentAboutToBeChanged(DocumentEvent event) {
+				events[0]++;
+			}
+
+			@Override
+			public void documentChanged(DocumentEvent event) {
+				events[0]++;
+			}
+		});
+		document.dispose();
+		assertEquals("Listeners notified", 0, events[0]); //$NON-NLS-1$
+		assertEquals("Text not cleared", 0, document.getLength()); //$NON-NLS-1$
+		assertEquals("Lines not cleared", 1, document.getNumberOfLines()); //$NON-NLS-1$
+		assertFalse("Document still disk backed", document.isDiskBacked()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the text of a console document is kept when older text is
+	 * moved to a file and when it is moved back into memory.
+	 *
+	 * @throws Exception
+	 */
+	public void testSwitchDiskBacked() throws Exception {
+		ConsoleDocument document = new ConsoleDocument();
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 3 * DiskBackedTextStore.DEFAULT_WINDOW; i++) {
+			text.append(i % 50 == 49 ? '\n' : (char) ('a' + i % 26));
+		}
+		document.set(text.toString());
+		document.setDiskBacked(true);
+		assertTrue("Document not disk backed", document.isDiskBacked()); //$NON-NLS-1$
+		assertEquals("Wrong text when disk backed", text.toString(), document.get()); //$NON-NLS-1$
+		document.setDiskBacked(false);
+		assertFalse("Document still disk backed", document.isDiskBacked()); //$NON-NLS-1$
+		assertEquals("Wrong text in memory", text.toString(), document.get()); //$NON-NLS-1$
+		assertEquals("Wrong number of lines", 3 * DiskBackedTextStore.DEFAULT_WINDOW / 50 + 1, document.getNumberOfLines()); //$NON-NLS-1$
+		document.dispose();
+	}
+
+	/**
+	 * Appends lines of the given total length in pieces.
+	 */
+	private void append(int length) {
+		StringBuilder text = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			int index = fText.length() + i;
+			text.append(index % 50 == 49 ? '\n' : (char) ('a' + index % 26));
+		}
+		for (int i = 0; i < length; i += 37) {
+			String piece = text.substring(i, Math.min(length, i + 37));
+			fStore.replace(fStore.getLength(), 0, piece);
+			fText.append(piece);
+		}
+	}
+
+	/**
+	 * Trims the given number of characters from the start, in pieces.
+	 */
+	private void trim(int length) {
+		while (length > 0) {
+			int count = Math.min(length, 300);
+			fStore.replace(0, count, ""); //$NON-NLS-1$
+			fText.delete(0, count);
+			length -= count;
+		}
+	}
+
+	private void assertText() {
+		assertEquals("Wrong length", fText.length(), fStore.getLength()); //$NON-NLS-1$
+		assertEquals("Wrong text", fText.toString(), fStore.get(0, fStore.getLength())); //$NON-NLS-1$
+		for (int i = 0; i < fText.length(); i += 7) {
+			assertEquals("Wrong character at " + i, fText.charAt(i), fStore.get(i)); //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.console;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.console.ConsolePlugin;
+import org.eclipse.ui.console.IConsole;
+import org.eclipse.ui.console.IConsoleConstants;
+import org.eclipse.ui.console.IConsoleView;
+import org.eclipse.ui.console.MessageConsole;
+import org.eclipse.ui.console.MessageConsoleStream;
+
+import junit.framework.TestCase;
+
+/**
+ * Measures the time until output written to a visible console has been
+ * appended to its document by the UI thread.
+ */
+public class IOConsolePerformanceTests extends TestCase {
+
+	/**
+	 * Number of characters written per iteration
+	 */
+	private static final int OUTPUT_LENGTH = 8 * 1024 * 1024;
+
+	/**
+	 * Time in milliseconds after which the output of an iteration must have
+	 * been appended
+	 */
+	private static final long TIMEOUT = 120000;
+
+	private MessageConsole fConsole;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		assertNotNull("Must run in UI thread", Display.getCurrent()); //$NON-NLS-1$
+		fConsole = new MessageConsole("IOConsolePerformanceTests", null); //$NON-NLS-1$
+		ConsolePlugin.getDefault().getConsoleManager().addConsoles(new IConsole[] { fConsole });
+		IWorkbenchPage page = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage();
+		IConsoleView view = (IConsoleView) page.showView(IConsoleConstants.ID_CONSOLE_VIEW);
+		view.display(fConsole);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		ConsolePlugin.getDefault().getConsoleManager().removeConsoles(new IConsole[] { fConsole });
+		super.tearDown();
+	}
+
+	/**
+	 * Writes output from a background thread and measures the time until it
+	 * has been appended to the document.
+	 *
+	 * @throws Exception
+	 */
+	public void testAppendOutput() throws Exception {
+		final MessageConsoleStream stream = fConsole.newMessageStream();
+		final StringBuilder buffer = new StringBuilder();
+		while (buffer.length() < 8192) {
+			buffer.append("Some output of a build or server log, written line by line\n"); //$NON-NLS-1$
+		}
+		final String chunk = buffer.toString();
+		Display display = Display.getCurrent();
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(perf.getDefaultScenarioId(this));
+		try {
+			for (int i = 0; i < 5; i++) {
+				fConsole.clearConsole();
+				long length = fConsole.getUpdatedOutputLength();
+				final long target = length + OUTPUT_LENGTH / chunk.length() * chunk.length();
+				final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+				meter.start();
+				Thread writer = new Thread("IOConsolePerformanceTests writer") { //$NON-NLS-1$
+					@Override
+					public void run() {
+						try {
+							for (int written = 0; written + chunk.length() <= OUTPUT_LENGTH; written += chunk.length()) {
+								stream.print(chunk);
+							}
+						} catch (Throwable e) {
+							failure.set(e);
+						}
+					}
+				};
+				writer.start();
+				long deadline = System.currentTimeMillis() + TIMEOUT;
+				while (fConsole.getUpdatedOutputLength() < target) {
+					rethrow(failure.get());
+					if (System.currentTimeMillis() > deadline) {
+						writer.interrupt();
+						fail("Output not appended after " + TIMEOUT + " ms, appended " + (fConsole.getUpdatedOutputLength() - length) + " characters"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					}
+					if (!display.readAndDispatch()) {
+						Thread.sleep(0);
+					}
+				}
+				meter.stop();
+				writer.join();
+				rethrow(failure.get());
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+			try {
+				stream.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	/**
+	 * Rethrows the given failure of the writer thread, if any. The writer
+	 * only fails with unchecked exceptions.
+	 */
+	private static void rethrow(Throwable failure) {
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+	}
+}
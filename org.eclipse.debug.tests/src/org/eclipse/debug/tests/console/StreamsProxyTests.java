@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.console;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.eclipse.debug.core.model.IFlushableStreamMonitor2;
+import org.eclipse.debug.internal.core.StreamsProxy;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the streams proxy and its stream monitors
+ */
+public class StreamsProxyTests extends TestCase {
+
+	/**
+	 * Process mock providing fixed contents on its output and error streams.
+	 */
+	static class ProcessMock extends Process {
+
+		private final byte[] fOutput;
+		private final byte[] fError;
+
+		ProcessMock(byte[] output, byte[] error) {
+			fOutput = output;
+			fError = error;
+		}
+
+		@Override
+		public OutputStream getOutputStream() {
+			return new ByteArrayOutputStream();
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new ByteArrayInputStream(fOutput);
+		}
+
+		@Override
+		public InputStream getErrorStream() {
+			return new ByteArrayInputStream(fError);
+		}
+
+		@Override
+		public int waitFor() throws InterruptedException {
+			return 0;
+		}
+
+		@Override
+		public int exitValue() {
+			return 0;
+		}
+
+		@Override
+		public void destroy() {
+		}
+	}
+
+	/**
+	 * Tests that multi-byte characters are decoded correctly, including those
+	 * crossing the boundary of the read buffer.
+	 *
+	 * @throws Exception
+	 */
+	public void testMultiByteCharacters() throws Exception {
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			// 1, 2, 3 and 4 byte UTF-8 sequences
+			buffer.append("a\u00e9\u20ac\ud83d\ude00"); //$NON-NLS-1$
+		}
+		String text = buffer.toString();
+		StreamsProxy proxy = new StreamsProxy(new ProcessMock(text.getBytes("UTF-8"), new byte[0]), "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$
+		proxy.close();
+		assertEquals("Wrong decoded output", text, proxy.getOutputStreamMonitor().getContents()); //$NON-NLS-1$
+		assertEquals("Wrong decoded error output", "", proxy.getErrorStreamMonitor().getContents()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that an incomplete character at the end of the stream is not lost.
+	 *
+	 * @throws Exception
+	 */
+	public void testIncompleteCharacterAtEnd() throws Exception {
+		byte[] bytes = new byte[] { 'a', (byte) 0xc3 };
+		StreamsProxy proxy = new StreamsProxy(new ProcessMock(bytes, bytes), "UTF-8"); //$NON-NLS-1$
+		proxy.close();
+		assertEquals("Wrong decoded output", "a\ufffd", proxy.getOutputStreamMonitor().getContents()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that the buffered contents are trimmed to the character limit.
+	 *
+	 * @throws Exception
+	 */
+	public void testCharacterLimit() throws Exception {
+		StreamsProxy proxy = new StreamsProxy(new ProcessMock("0123456789".getBytes("UTF-8"), new byte[0]), "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		proxy.close();
+		IFlushableStreamMonitor2 monitor = (IFlushableStreamMonitor2) proxy.getOutputStreamMonitor();
+		monitor.setBufferLimit(4, IFlushableStreamMonitor2.LIMIT_CHARACTERS);
+		assertEquals("Wrong retained contents", "6789", monitor.getContents()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Wrong contents length", 4, monitor.getContentsLength()); //$NON-NLS-1$
+		assertEquals("Wrong contents range", "78", monitor.getContents(1, 3)); //$NON-NLS-1$ //$NON-NLS-2$
+		monitor.flushContents();
+		assertEquals("Contents not flushed", 0, monitor.getContentsLength()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the buffered contents are trimmed to the line limit.
+	 *
+	 * @throws Exception
+	 */
+	public void testLineLimit() throws Exception {
+		StreamsProxy proxy = new StreamsProxy(new ProcessMock("one\ntwo\nthree\nfour".getBytes("UTF-8"), new byte[0]), "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		proxy.close();
+		IFlushableStreamMonitor2 monitor = (IFlushableStreamMonitor2) proxy.getOutputStreamMonitor();
+		monitor.setBufferLimit(2, IFlushableStreamMonitor2.LIMIT_LINES);
+		assertEquals("Wrong retained contents", "two\nthree\nfour", monitor.getContents()); //$NON-NLS-1$ //$NON-NLS-2$
+		monitor.setBufferLimit(IFlushableStreamMonitor2.UNLIMITED, IFlushableStreamMonitor2.LIMIT_LINES);
+		assertEquals("Wrong limit", IFlushableStreamMonitor2.UNLIMITED, monitor.getBufferLimit()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that output is read completely when the streams are monitored on
+	 * the shared pool.
+	 *
+	 * @throws Exception
+	 */
+	public void testSharedStreamMonitors() throws Exception {
+		System.setProperty("org.eclipse.debug.core.sharedStreamMonitors", Boolean.TRUE.toString()); //$NON-NLS-1$
+		try {
+			StringBuilder buffer = new StringBuilder();
+			for (int i = 0; i < 10000; i++) {
+				buffer.append("line ").append(i).append('\n'); //$NON-NLS-1$
+			}
+			String text = buffer.toString();
+			StreamsProxy proxy = new StreamsProxy(new ProcessMock(text.getBytes("UTF-8"), "error".getBytes("UTF-8")), "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			proxy.close();
+			assertEquals("Wrong output", text, proxy.getOutputStreamMonitor().getContents()); //$NON-NLS-1$
+			assertEquals("Wrong error output", "error", proxy.getErrorStreamMonitor().getContents()); //$NON-NLS-1$ //$NON-NLS-2$
+		} finally {
+			System.clearProperty("org.eclipse.debug.core.sharedStreamMonitors"); //$NON-NLS-1$
+		}
+	}
+}
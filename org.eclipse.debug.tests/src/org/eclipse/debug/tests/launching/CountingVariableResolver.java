@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.variables.IDynamicVariable;
+import org.eclipse.core.variables.IDynamicVariableResolver;
+
+/**
+ * Resolves the test dynamic variables to their name and argument, counting
+ * the values resolved.
+ */
+public class CountingVariableResolver implements IDynamicVariableResolver {
+
+	/**
+	 * Number of values resolved
+	 */
+	private static final AtomicInteger fgResolved = new AtomicInteger();
+
+	@Override
+	public String resolveValue(IDynamicVariable variable, String argument) throws CoreException {
+		fgResolved.incrementAndGet();
+		return variable.getName() + ":" + argument; //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the number of values resolved by the test dynamic variables.
+	 *
+	 * @return the number of resolved values
+	 */
+	public static int getResolvedCount() {
+		return fgResolved.get();
+	}
+}
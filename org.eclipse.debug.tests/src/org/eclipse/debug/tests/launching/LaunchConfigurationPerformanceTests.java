@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationType;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.tests.TestsPlugin;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+
+/**
+ * Measures saving launch configurations and reading them back from their
+ * files.
+ */
+public class LaunchConfigurationPerformanceTests extends AbstractLaunchTest {
+
+	/**
+	 * Number of configurations saved and read per iteration
+	 */
+	private static final int CONFIGURATION_COUNT = 5000;
+
+	private static final int ITERATIONS = 5;
+
+	private IProject fProject;
+
+	public LaunchConfigurationPerformanceTests() {
+		super("Launch Configuration Performance Tests"); //$NON-NLS-1$
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject = TestsPlugin.createProject("LaunchConfigurationPerformanceTests"); //$NON-NLS-1$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fProject.delete(true, null);
+		super.tearDown();
+	}
+
+	/**
+	 * Saves shared configurations with typical attributes.
+	 *
+	 * @throws Exception
+	 */
+	public void testSaveConfigurations() throws Exception {
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(perf.getDefaultScenarioId(this));
+		try {
+			for (int i = 0; i < ITERATIONS; i++) {
+				IFolder folder = createFolder("save" + i); //$NON-NLS-1$
+				List<ILaunchConfigurationWorkingCopy> copies = newWorkingCopies(folder);
+				meter.start();
+				for (ILaunchConfigurationWorkingCopy copy : copies) {
+					copy.doSave();
+				}
+				meter.stop();
+				folder.delete(true, null);
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+
+	/**
+	 * Reads the attributes of configurations added to the workspace as files.
+	 *
+	 * @throws Exception
+	 */
+	public void testReadConfigurations() throws Exception {
+		IFolder saved = createFolder("saved"); //$NON-NLS-1$
+		for (ILaunchConfigurationWorkingCopy copy : newWorkingCopies(saved)) {
+			copy.doSave();
+		}
+		ILaunchManager manager = getLaunchManager();
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(perf.getDefaultScenarioId(this));
+		try {
+			for (int i = 0; i < ITERATIONS; i++) {
+				IFolder folder = fProject.getFolder("read" + i); //$NON-NLS-1$
+				copyFiles(saved, folder);
+				meter.start();
+				// adding the configurations reads their type
+				folder.refreshLocal(IResource.DEPTH_INFINITE, null);
+				IResource[] members = folder.members();
+				for (IResource member : members) {
+					ILaunchConfiguration config = manager.getLaunchConfiguration((IFile) member);
+					assertEquals("Wrong number of attributes", 9, config.getAttributes().size()); //$NON-NLS-1$
+				}
+				meter.stop();
+				assertEquals("Wrong number of configurations", CONFIGURATION_COUNT, members.length); //$NON-NLS-1$
+				folder.delete(true, null);
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+
+	private IFolder createFolder(String name) throws CoreException {
+		IFolder folder = fProject.getFolder(name);
+		folder.create(true, true, null);
+		return folder;
+	}
+
+	/**
+	 * Returns unsaved working copies in the given folder with typical
+	 * attributes.
+	 */
+	private List<ILaunchConfigurationWorkingCopy> newWorkingCopies(IFolder folder) throws CoreException {
+		ILaunchConfigurationType type = getLaunchManager().getLaunchConfigurationType(LaunchConfigurationTests.ID_TEST_LAUNCH_TYPE);
+		List<ILaunchConfigurationWorkingCopy> copies = new ArrayList<ILaunchConfigurationWorkingCopy>(CONFIGURATION_COUNT);
+		for (int i = 0; i < CONFIGURATION_COUNT; i++) {
+			ILaunchConfigurationWorkingCopy wc = type.newInstance(folder, "config" + i); //$NON-NLS-1$
+			wc.setAttribute("org.eclipse.debug.tests.project", "project" + (i % 50)); //$NON-NLS-1$ //$NON-NLS-2$
+			wc.setAttribute("org.eclipse.debug.tests.main", "org.eclipse.debug.tests.Main" + i); //$NON-NLS-1$ //$NON-NLS-2$
+			wc.setAttribute("org.eclipse.debug.tests.arguments", "-data ${workspace_loc}/data" + i + " -consoleLog"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			wc.setAttribute("org.eclipse.debug.tests.count", i); //$NON-NLS-1$
+			wc.setAttribute("org.eclipse.debug.tests.enabled", i % 2 == 0); //$NON-NLS-1$
+			List<String> list = new ArrayList<String>();
+			for (int j = 0; j < 10; j++) {
+				list.add("/project" + (i % 50) + "/lib/library" + j + ".jar"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			wc.setAttribute("org.eclipse.debug.tests.classpath", list); //$NON-NLS-1$
+			Map<String, String> map = new HashMap<String, String>();
+			for (int j = 0; j < 5; j++) {
+				map.put("VARIABLE" + j, "value " + j + " of config " + i); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			wc.setAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, map);
+			wc.setMappedResources(new IResource[] { fProject });
+			copies.add(wc);
+		}
+		return copies;
+	}
+
+	/**
+	 * Copies the files of one folder to a new folder, without refreshing the
+	 * new folder.
+	 */
+	private void copyFiles(IFolder from, IFolder to) throws IOException {
+		File target = to.getLocation().toFile();
+		assertTrue("Could not create folder", target.mkdirs()); //$NON-NLS-1$
+		for (File file : from.getLocation().toFile().listFiles()) {
+			Files.copy(file.toPath(), new File(target, file.getName()).toPath());
+		}
+	}
+}
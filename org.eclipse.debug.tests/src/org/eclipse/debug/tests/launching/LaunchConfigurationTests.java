@@ -23,6 +23,7 @@ import java.nio.charset.CodingErrorAction;
 import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -49,7 +50,10 @@ import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationListener;
 import org.eclipse.debug.core.ILaunchConfigurationType;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.debug.core.ILaunchConfigurationsListener;
 import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.ILaunchTimeline;
+import org.eclipse.debug.core.ILaunchTimelineListener;
 import org.eclipse.debug.core.Launch;
 import org.eclipse.debug.internal.core.LaunchConfiguration;
 import org.eclipse.debug.internal.core.LaunchManager;
@@ -1180,6 +1184,49 @@ public class LaunchConfigurationTests extends AbstractLaunchTest implements ILau
 		}
 	}
 
+	/**
+	 * Tests that launch timeline listeners are notified of the phases of a
+	 * launch.
+	 *
+	 * @throws CoreException
+	 */
+	public void testLaunchTimeline() throws CoreException {
+		final List<ILaunchTimeline> timelines = new ArrayList<ILaunchTimeline>();
+		ILaunchTimelineListener listener = new ILaunchTimelineListener() {
+			@Override
+			public void launchTimed(ILaunchTimeline timeline) {
+				timelines.add(timeline);
+			}
+		};
+		ILaunchConfigurationWorkingCopy workingCopy = newConfiguration(null, "test-timeline"); //$NON-NLS-1$
+		getLaunchManager().addLaunchTimelineListener(listener);
+		ILaunch launch = null;
+		try {
+			launch = workingCopy.launch(ILaunchManager.DEBUG_MODE, null, false);
+			assertEquals("Wrong number of timelines", 1, timelines.size()); //$NON-NLS-1$
+			ILaunchTimeline timeline = timelines.get(0);
+			assertEquals("Wrong configuration", workingCopy, timeline.getLaunchConfiguration()); //$NON-NLS-1$
+			assertEquals("Wrong mode", ILaunchManager.DEBUG_MODE, timeline.getLaunchMode()); //$NON-NLS-1$
+			assertSame("Wrong launch", launch, timeline.getLaunch()); //$NON-NLS-1$
+			assertNotNull("Missing delegate", timeline.getDelegateId()); //$NON-NLS-1$
+			assertTrue("Launch should be completed", timeline.isCompleted()); //$NON-NLS-1$
+			assertFalse("Build should not be performed", timeline.isBuildPerformed()); //$NON-NLS-1$
+			assertEquals("Build should not be timed", -1, timeline.getDuration(ILaunchTimeline.PHASE_BUILD)); //$NON-NLS-1$
+			long total = 0;
+			for (String phase : timeline.getPhases()) {
+				assertTrue("Negative duration", timeline.getDuration(phase) >= 0); //$NON-NLS-1$
+				total += timeline.getDuration(phase);
+			}
+			assertTrue("Launch should be timed", timeline.getDuration(ILaunchTimeline.PHASE_LAUNCH) >= 0); //$NON-NLS-1$
+			assertTrue("Phases should not exceed total", total <= timeline.getTotalDuration()); //$NON-NLS-1$
+		} finally {
+			getLaunchManager().removeLaunchTimelineListener(listener);
+			if (launch != null) {
+				getLaunchManager().removeLaunch(launch);
+			}
+		}
+	}
+
 	/**
 	 * Tests that attributes in a nested map are persisted in alphabetical order.
 	 *
@@ -1518,6 +1565,167 @@ public class LaunchConfigurationTests extends AbstractLaunchTest implements ILau
 		}
 	}
 
+	/**
+	 * Tests that configurations are found by their mapped resources, also
+	 * after their mappings changed.
+	 *
+	 * @throws Exception
+	 */
+	public void testGetMappedConfigurations() throws Exception {
+		IProject project = getProject();
+		IFolder folder = project.getFolder("src"); //$NON-NLS-1$
+		IFile file = folder.getFile("A.txt"); //$NON-NLS-1$
+		LaunchManager manager = (LaunchManager) getLaunchManager();
+		ILaunchConfigurationWorkingCopy wc = newConfiguration(null, "mapped.file"); //$NON-NLS-1$
+		wc.setMappedResources(new IResource[] { file });
+		ILaunchConfiguration fileConfig = wc.doSave();
+		wc = newConfiguration(null, "mapped.folder"); //$NON-NLS-1$
+		wc.setMappedResources(new IResource[] { folder });
+		ILaunchConfiguration folderConfig = wc.doSave();
+		wc = newConfiguration(null, "mapped.project"); //$NON-NLS-1$
+		wc.setMappedResources(new IResource[] { project });
+		ILaunchConfiguration projectConfig = wc.doSave();
+		try {
+			ILaunchConfiguration[] configs = manager.getMappedConfigurations(project);
+			assertTrue("Project should map to file configuration", existsIn(configs, fileConfig)); //$NON-NLS-1$
+			assertTrue("Project should map to project configuration", existsIn(configs, projectConfig)); //$NON-NLS-1$
+			assertFalse("Project should not map to folder configuration", existsIn(configs, folderConfig)); //$NON-NLS-1$
+			configs = manager.getMappedConfigurations(folder);
+			assertEquals("Folder should map to one configuration", 1, configs.length); //$NON-NLS-1$
+			assertEquals("Folder should map to folder configuration", folderConfig, configs[0]); //$NON-NLS-1$
+			configs = manager.getMappedConfigurations(file);
+			assertEquals("File should map to one configuration", 1, configs.length); //$NON-NLS-1$
+			assertEquals("File should map to file configuration", fileConfig, configs[0]); //$NON-NLS-1$
+
+			// change the mapping
+			wc = fileConfig.getWorkingCopy();
+			wc.setMappedResources(new IResource[] { folder });
+			fileConfig = wc.doSave();
+			assertEquals("File should not be mapped", 0, manager.getMappedConfigurations(file).length); //$NON-NLS-1$
+			configs = manager.getMappedConfigurations(folder);
+			assertEquals("Folder should map to two configurations", 2, configs.length); //$NON-NLS-1$
+			assertTrue("Folder should map to changed configuration", existsIn(configs, fileConfig)); //$NON-NLS-1$
+			assertFalse("Project should not map to changed configuration", existsIn(manager.getMappedConfigurations(project), fileConfig)); //$NON-NLS-1$
+
+			// delete
+			folderConfig.delete();
+			configs = manager.getMappedConfigurations(folder);
+			assertEquals("Folder should map to one configuration", 1, configs.length); //$NON-NLS-1$
+			assertEquals("Folder should map to changed configuration", fileConfig, configs[0]); //$NON-NLS-1$
+		} finally {
+			fileConfig.delete();
+			folderConfig.delete();
+			projectConfig.delete();
+		}
+	}
+
+	/**
+	 * Tests that configuration variables override native variables without
+	 * changing the native environment of later launches.
+	 *
+	 * @throws Exception
+	 */
+	public void testGetEnvironment() throws Exception {
+		ILaunchManager manager = getLaunchManager();
+		Map<String, String> nativeEnv = manager.getNativeEnvironmentCasePreserved();
+		assertFalse("Native environment should not be empty", nativeEnv.isEmpty()); //$NON-NLS-1$
+		String nativeName = nativeEnv.keySet().iterator().next();
+		ILaunchConfigurationWorkingCopy wc = newConfiguration(null, "environment"); //$NON-NLS-1$
+		Map<String, String> variables = new HashMap<String, String>();
+		variables.put(nativeName, "overridden"); //$NON-NLS-1$
+		variables.put("org.eclipse.debug.tests.added", "added"); //$NON-NLS-1$ //$NON-NLS-2$
+		wc.setAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, variables);
+
+		Set<String> env = new HashSet<String>(Arrays.asList(manager.getEnvironment(wc)));
+		assertEquals("Wrong number of variables", nativeEnv.size() + 1, env.size()); //$NON-NLS-1$
+		assertTrue("Native variable should be overridden", env.contains(nativeName + "=overridden")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue("Variable should be added", env.contains("org.eclipse.debug.tests.added=added")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		variables.remove(nativeName);
+		wc.setAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, variables);
+		env = new HashSet<String>(Arrays.asList(manager.getEnvironment(wc)));
+		assertTrue("Native variable should be restored", env.contains(nativeName + '=' + nativeEnv.get(nativeName))); //$NON-NLS-1$
+
+		wc.setAttribute(ILaunchManager.ATTR_APPEND_ENVIRONMENT_VARIABLES, false);
+		String[] replaced = manager.getEnvironment(wc);
+		assertEquals("Native environment should be replaced", 1, replaced.length); //$NON-NLS-1$
+		assertEquals("Wrong variable", "org.eclipse.debug.tests.added=added", replaced[0]); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that launch configurations saved together are reported to
+	 * "plural" listeners in one notification of each kind.
+	 *
+	 * @throws Exception
+	 */
+	public void testSaveLaunchConfigurations() throws Exception {
+		ILaunchManager manager = getLaunchManager();
+		final List<ILaunchConfiguration[]> added = new ArrayList<ILaunchConfiguration[]>();
+		final List<ILaunchConfiguration[]> changed = new ArrayList<ILaunchConfiguration[]>();
+		final List<ILaunchConfiguration[]> removed = new ArrayList<ILaunchConfiguration[]>();
+		ILaunchConfigurationsListener batchListener = new ILaunchConfigurationsListener() {
+			@Override
+			public void launchConfigurationsAdded(ILaunchConfiguration[] configurations) {
+				added.add(configurations);
+			}
+
+			@Override
+			public void launchConfigurationsChanged(ILaunchConfiguration[] configurations) {
+				changed.add(configurations);
+			}
+
+			@Override
+			public void launchConfigurationsRemoved(ILaunchConfiguration[] configurations) {
+				removed.add(configurations);
+			}
+		};
+		Listener listener = new Listener();
+		ILaunchConfiguration[] configs = null;
+		try {
+			manager.addLaunchConfigurationListener(batchListener);
+			manager.addLaunchConfigurationListener(listener);
+			ILaunchConfigurationWorkingCopy[] wcs = new ILaunchConfigurationWorkingCopy[] {
+					newConfiguration(null, "batch1"), //$NON-NLS-1$
+					newConfiguration(null, "batch2"), //$NON-NLS-1$
+					newConfiguration(getProject(), "batch3") }; //$NON-NLS-1$
+			configs = manager.saveLaunchConfigurations(wcs, null);
+			assertEquals("Wrong number of saved configurations", 3, configs.length); //$NON-NLS-1$
+			for (int i = 0; i < configs.length; i++) {
+				assertTrue("Configuration should exist", configs[i].exists()); //$NON-NLS-1$
+				assertEquals("Wrong configuration name", wcs[i].getName(), configs[i].getName()); //$NON-NLS-1$
+			}
+			assertEquals("Should be one added notification", 1, added.size()); //$NON-NLS-1$
+			assertEquals("Wrong added configurations", Arrays.asList(configs), Arrays.asList(added.get(0))); //$NON-NLS-1$
+			assertEquals("Each configuration should be added once", Arrays.asList(configs), listener.getAdded()); //$NON-NLS-1$
+			assertTrue("Should be no changed notification", changed.isEmpty()); //$NON-NLS-1$
+
+			added.clear();
+			ILaunchConfigurationWorkingCopy renamed = configs[0].getWorkingCopy();
+			renamed.rename("batch1-renamed"); //$NON-NLS-1$
+			ILaunchConfigurationWorkingCopy modified = configs[1].getWorkingCopy();
+			modified.setAttribute("batch", true); //$NON-NLS-1$
+			ILaunchConfiguration[] saved = manager.saveLaunchConfigurations(new ILaunchConfigurationWorkingCopy[] {
+					renamed, modified }, null);
+			assertFalse("Renamed configuration should not exist", configs[0].exists()); //$NON-NLS-1$
+			configs[0] = saved[0];
+			assertEquals("Should be one added notification", 1, added.size()); //$NON-NLS-1$
+			assertEquals("Wrong added configurations", Arrays.asList(saved[0]), Arrays.asList(added.get(0))); //$NON-NLS-1$
+			assertEquals("Should be one changed notification", 1, changed.size()); //$NON-NLS-1$
+			assertEquals("Wrong changed configurations", Arrays.asList(saved[1]), Arrays.asList(changed.get(0))); //$NON-NLS-1$
+			assertEquals("Should be one removed notification", 1, removed.size()); //$NON-NLS-1$
+			assertEquals("Wrong removed configurations", 1, removed.get(0).length); //$NON-NLS-1$
+			assertEquals("Wrong removed configuration", "batch1", removed.get(0)[0].getName()); //$NON-NLS-1$ //$NON-NLS-2$
+		} finally {
+			manager.removeLaunchConfigurationListener(batchListener);
+			manager.removeLaunchConfigurationListener(listener);
+			if (configs != null) {
+				for (ILaunchConfiguration config : configs) {
+					config.delete();
+				}
+			}
+		}
+	}
+
 	/**
 	 * Tests that a launch created without a backing
 	 * {@link ILaunchConfiguration} does not cause {@link NullPointerException}s
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationType;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.debug.core.ILaunchListener;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.internal.core.groups.GroupLaunchConfigurationDelegate;
+import org.eclipse.debug.internal.core.groups.GroupLaunchElement;
+import org.eclipse.debug.internal.core.groups.GroupLaunchElement.GroupElementPostLaunchAction;
+
+/**
+ * Tests launching the elements of launch groups, one after another and in
+ * parallel, and waiting for the output of an element.
+ */
+public class LaunchGroupTests extends AbstractLaunchTest {
+
+	private static final String GROUP_TYPE = "org.eclipse.debug.core.groups.GroupLaunchConfigurationType"; //$NON-NLS-1$
+
+	/**
+	 * Time to wait for a group launch to complete, in milliseconds
+	 */
+	private static final long TIMEOUT = 10000;
+
+	/**
+	 * Configurations created by the test
+	 */
+	private final List<ILaunchConfiguration> fConfigurations = new ArrayList<ILaunchConfiguration>();
+
+	/**
+	 * The time each configuration was launched, in milliseconds
+	 */
+	private final Map<ILaunchConfiguration, Long> fLaunched = Collections.synchronizedMap(new HashMap<ILaunchConfiguration, Long>());
+
+	private final ILaunchListener fListener = new ILaunchListener() {
+		@Override
+		public void launchAdded(ILaunch launch) {
+			fLaunched.put(launch.getLaunchConfiguration(), Long.valueOf(System.currentTimeMillis()));
+		}
+
+		@Override
+		public void launchChanged(ILaunch launch) {
+		}
+
+		@Override
+		public void launchRemoved(ILaunch launch) {
+		}
+	};
+
+	public LaunchGroupTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		getLaunchManager().addLaunchListener(fListener);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		getLaunchManager().removeLaunchListener(fListener);
+		ILaunchManager manager = getLaunchManager();
+		for (ILaunch launch : manager.getLaunches()) {
+			if (fConfigurations.contains(launch.getLaunchConfiguration())) {
+				if (launch.canTerminate()) {
+					launch.terminate();
+				}
+				manager.removeLaunch(launch);
+			}
+		}
+		for (ILaunchConfiguration config : fConfigurations) {
+			config.delete();
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Tests launching the elements of a group one after another.
+	 *
+	 * @throws Exception
+	 */
+	public void testLaunchSequential() throws Exception {
+		ILaunchConfiguration first = newChild("first", null); //$NON-NLS-1$
+		ILaunchConfiguration second = newChild("second", null); //$NON-NLS-1$
+		ILaunchConfiguration group = newGroup("sequential", false, newElement(first, GroupElementPostLaunchAction.NONE, null), newElement(second, GroupElementPostLaunchAction.NONE, null)); //$NON-NLS-1$
+		launch(group);
+		assertLaunched(first);
+		assertLaunched(second);
+		assertFalse("Launched out of order", getLaunchTime(second) < getLaunchTime(first)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests launching the elements of a group in parallel.
+	 *
+	 * @throws Exception
+	 */
+	public void testLaunchParallel() throws Exception {
+		ILaunchConfiguration[] children = new ILaunchConfiguration[5];
+		GroupLaunchElement[] elements = new GroupLaunchElement[children.length];
+		for (int i = 0; i < children.length; i++) {
+			children[i] = newChild("parallel" + i, null); //$NON-NLS-1$
+			elements[i] = newElement(children[i], GroupElementPostLaunchAction.NONE, null);
+		}
+		launch(newGroup("parallel", true, elements)); //$NON-NLS-1$
+		for (ILaunchConfiguration child : children) {
+			assertLaunched(child);
+		}
+	}
+
+	/**
+	 * Tests that in a group launched in parallel, the elements following an
+	 * element with a post-launch action wait for the action.
+	 *
+	 * @throws Exception
+	 */
+	public void testLaunchParallelDependency() throws Exception {
+		ILaunchConfiguration first = newChild("dependency", null); //$NON-NLS-1$
+		ILaunchConfiguration second = newChild("dependent", null); //$NON-NLS-1$
+		ILaunchConfiguration group = newGroup("parallelDependency", true, newElement(first, GroupElementPostLaunchAction.DELAY, Integer.valueOf(1)), newElement(second, GroupElementPostLaunchAction.NONE, null)); //$NON-NLS-1$
+		launch(group);
+		assertLaunched(first);
+		assertLaunched(second);
+		assertTrue("Did not wait for the delay", getLaunchTime(second) - getLaunchTime(first) >= 900); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests waiting for output of an element that is written before its
+	 * process is connected to a console.
+	 *
+	 * @throws Exception
+	 */
+	public void testWaitForOutput() throws Exception {
+		waitForOutput(false);
+	}
+
+	/**
+	 * Tests waiting for output of an element of a group launched in
+	 * parallel.
+	 *
+	 * @throws Exception
+	 */
+	public void testWaitForOutputParallel() throws Exception {
+		waitForOutput(true);
+	}
+
+	private void waitForOutput(boolean parallel) throws Exception {
+		ILaunchConfiguration server = newChild("server", "Starting\nServer started on port 8080\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		ILaunchConfiguration client = newChild("client", null); //$NON-NLS-1$
+		ILaunchConfiguration group = newGroup("waitForOutput", parallel, newElement(server, GroupElementPostLaunchAction.OUTPUT_REGEXP, "started on port \\d+"), newElement(client, GroupElementPostLaunchAction.NONE, null)); //$NON-NLS-1$ //$NON-NLS-2$
+		launch(group);
+		assertLaunched(server);
+		assertLaunched(client);
+		assertFalse("Launched out of order", getLaunchTime(client) < getLaunchTime(server)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Launches a group in run mode, failing if the launch does not complete
+	 * in time.
+	 */
+	private void launch(final ILaunchConfiguration group) throws Exception {
+		final CoreException[] failure = new CoreException[1];
+		Thread thread = new Thread("Launch " + group.getName()) { //$NON-NLS-1$
+			@Override
+			public void run() {
+				try {
+					group.launch(ILaunchManager.RUN_MODE, null);
+				} catch (CoreException e) {
+					failure[0] = e;
+				}
+			}
+		};
+		thread.setDaemon(true);
+		thread.start();
+		thread.join(TIMEOUT);
+		assertFalse("Group launch did not complete", thread.isAlive()); //$NON-NLS-1$
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+	}
+
+	private ILaunchConfiguration newChild(String name, String output) throws CoreException {
+		ILaunchConfigurationType type = getLaunchManager().getLaunchConfigurationType(LaunchConfigurationTests.ID_TEST_LAUNCH_TYPE);
+		ILaunchConfigurationWorkingCopy wc = type.newInstance(null, getLaunchManager().generateLaunchConfigurationName("LaunchGroupTests_" + name)); //$NON-NLS-1$
+		if (output != null) {
+			wc.setAttribute(TestLaunchDelegate.ATTR_OUTPUT, output);
+		}
+		ILaunchConfiguration config = wc.doSave();
+		fConfigurations.add(config);
+		return config;
+	}
+
+	private ILaunchConfiguration newGroup(String name, boolean parallel, GroupLaunchElement... elements) throws CoreException {
+		ILaunchConfigurationType type = getLaunchManager().getLaunchConfigurationType(GROUP_TYPE);
+		ILaunchConfigurationWorkingCopy wc = type.newInstance(null, getLaunchManager().generateLaunchConfigurationName("LaunchGroupTests_" + name)); //$NON-NLS-1$
+		List<GroupLaunchElement> list = new ArrayList<GroupLaunchElement>();
+		for (int i = 0; i < elements.length; i++) {
+			elements[i].index = i;
+			list.add(elements[i]);
+		}
+		GroupLaunchConfigurationDelegate.storeLaunchElements(wc, list);
+		wc.setAttribute(GroupLaunchConfigurationDelegate.ATTR_PARALLEL, parallel);
+		ILaunchConfiguration config = wc.doSave();
+		fConfigurations.add(config);
+		return config;
+	}
+
+	private GroupLaunchElement newElement(ILaunchConfiguration config, GroupElementPostLaunchAction action, Object actionParam) {
+		GroupLaunchElement element = new GroupLaunchElement();
+		element.name = config.getName();
+		element.data = config;
+		element.action = action;
+		element.actionParam = actionParam;
+		return element;
+	}
+
+	private void assertLaunched(ILaunchConfiguration config) {
+		assertTrue("Not launched: " + config.getName(), fLaunched.containsKey(config)); //$NON-NLS-1$
+	}
+
+	private long getLaunchTime(ILaunchConfiguration config) {
+		return fLaunched.get(config).longValue();
+	}
+}
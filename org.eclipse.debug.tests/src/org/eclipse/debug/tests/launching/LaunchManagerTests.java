@@ -175,6 +175,34 @@ public class LaunchManagerTests extends AbstractLaunchTest {
 		}
 	}
 
+	/**
+	 * Tests that generated configuration names use the first free '(N)'
+	 * counter as configurations are added and deleted
+	 */
+	public void testGenerateNameFreeCounter() throws Exception {
+		String configname = "x.y.z.counter"; //$NON-NLS-1$
+		ILaunchConfiguration[] configs = new ILaunchConfiguration[] {
+				getLaunchConfiguration(configname),
+				getLaunchConfiguration(configname + " (1)"), //$NON-NLS-1$
+				getLaunchConfiguration(configname + " (2)"), //$NON-NLS-1$
+				getLaunchConfiguration(configname + " (4)") }; //$NON-NLS-1$
+		try {
+			String name = getLaunchManager().generateLaunchConfigurationName(configname);
+			assertEquals("the configuration name should have been " + configname + " (3)", configname + " (3)", name); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			name = getLaunchManager().generateLaunchConfigurationName(configname + " (4)"); //$NON-NLS-1$
+			assertEquals("the configuration name should have been " + configname + " (5)", configname + " (5)", name); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			configs[1].delete();
+			name = getLaunchManager().generateLaunchConfigurationName(configname);
+			assertEquals("the configuration name should have been " + configname + " (1)", configname + " (1)", name); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		} finally {
+			for (int i = 0; i < configs.length; i++) {
+				if (configs[i].exists()) {
+					configs[i].delete();
+				}
+			}
+		}
+	}
+
 	/**
 	 * Tests that generating a configuration name when there exists a configuration with that name
 	 * already properly updates a '(N)' counter at the end
@@ -331,12 +359,11 @@ public class LaunchManagerTests extends AbstractLaunchTest {
 	 * increasing the number increases the runtime of the test substantially.
 	 */
 	public void testNPE_Bug484882() throws Exception {
-		// In this thread continuously creates configs so that
-		// org.eclipse.debug.internal.core.LaunchManager.clearConfigNameCache()
-		// is called repeatedly. We also want to make lots of configurations so
-		// the runtime of getAllSortedConfigNames (called by
-		// isExistingLaunchConfigurationName
-		// below) is long enough to hit the race condition.
+		// This thread continuously creates and deletes configs so that
+		// the LaunchConfigurationNameIndex of the launch manager is updated
+		// repeatedly while isExistingLaunchConfigurationName below looks up
+		// names in it. We also make lots of configurations so that the index
+		// is large while the names are looked up.
 		final boolean stop[] = new boolean[] { false };
 		final Throwable exception[] = new Throwable[] { null };
 		Thread thread = new Thread() {
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A system process that writes the given output at once and runs until it is
+ * destroyed.
+ */
+public class MockProcess extends Process {
+
+	private final InputStream fOutput;
+
+	private final CountDownLatch fDestroyed = new CountDownLatch(1);
+
+	/**
+	 * Constructs a process writing the given output to its standard output.
+	 *
+	 * @param output the output of the process
+	 */
+	public MockProcess(byte[] output) {
+		fOutput = new ByteArrayInputStream(output);
+	}
+
+	@Override
+	public OutputStream getOutputStream() {
+		return new ByteArrayOutputStream();
+	}
+
+	@Override
+	public InputStream getInputStream() {
+		return fOutput;
+	}
+
+	@Override
+	public InputStream getErrorStream() {
+		return new ByteArrayInputStream(new byte[0]);
+	}
+
+	@Override
+	public int waitFor() throws InterruptedException {
+		fDestroyed.await();
+		return 0;
+	}
+
+	@Override
+	public int exitValue() {
+		if (fDestroyed.getCount() > 0) {
+			throw new IllegalThreadStateException();
+		}
+		return 0;
+	}
+
+	@Override
+	public void destroy() {
+		fDestroyed.countDown();
+	}
+}
@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISavedState;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationType;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.debug.internal.core.LaunchManager;
+import org.eclipse.debug.internal.core.SavedLaunchConfigurationIndex;
+import org.eclipse.debug.tests.TestsPlugin;
+
+/**
+ * Tests saving the index of launch configurations, restoring the
+ * configurations from the index, and that configurations changed since the
+ * index was saved are read again.
+ */
+public class SavedLaunchConfigurationIndexTests extends AbstractLaunchTest {
+
+	/**
+	 * Saved state of the workspace with a save number, without resource
+	 * changes since the save. The changes made by the tests are collected by
+	 * the index as they happen.
+	 */
+	static class TestSavedState implements ISavedState {
+
+		private final int fSaveNumber;
+
+		boolean fProcessed = false;
+
+		TestSavedState(int saveNumber) {
+			fSaveNumber = saveNumber;
+		}
+
+		@Override
+		public IPath[] getFiles() {
+			return new IPath[0];
+		}
+
+		@Override
+		public int getSaveNumber() {
+			return fSaveNumber;
+		}
+
+		@Override
+		public IPath lookup(IPath file) {
+			return null;
+		}
+
+		@Override
+		public void processResourceChangeEvents(IResourceChangeListener listener) {
+			fProcessed = true;
+		}
+	}
+
+	/**
+	 * Context of a full workspace save with a save number
+	 */
+	static class TestSaveContext implements ISaveContext {
+
+		private final int fSaveNumber;
+
+		TestSaveContext(int saveNumber) {
+			fSaveNumber = saveNumber;
+		}
+
+		@Override
+		public IPath[] getFiles() {
+			return new IPath[0];
+		}
+
+		@Override
+		public int getKind() {
+			return FULL_SAVE;
+		}
+
+		@Override
+		public int getPreviousSaveNumber() {
+			return fSaveNumber - 1;
+		}
+
+		@Override
+		public IProject getProject() {
+			return null;
+		}
+
+		@Override
+		public int getSaveNumber() {
+			return fSaveNumber;
+		}
+
+		@Override
+		public IPath lookup(IPath file) {
+			return null;
+		}
+
+		@Override
+		public void map(IPath file, IPath location) {
+		}
+
+		@Override
+		public void needDelta() {
+		}
+
+		@Override
+		public void needSaveNumber() {
+		}
+	}
+
+	private IProject fProject;
+
+	private IFile fFile1;
+
+	private IFile fFile2;
+
+	private ILaunchConfiguration fLocal;
+
+	/**
+	 * Shared configuration mapped to the first file
+	 */
+	private ILaunchConfiguration fShared;
+
+	/**
+	 * Launch managers created by the test, which are shut down afterwards
+	 */
+	private final List<LaunchManager> fManagers = new ArrayList<LaunchManager>();
+
+	public SavedLaunchConfigurationIndexTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject = TestsPlugin.createProject("SavedLaunchConfigurationIndexTests"); //$NON-NLS-1$
+		fFile1 = fProject.getFile("File1.txt"); //$NON-NLS-1$
+		fFile1.create(new ByteArrayInputStream(new byte[0]), true, null);
+		fFile2 = fProject.getFile("File2.txt"); //$NON-NLS-1$
+		fFile2.create(new ByteArrayInputStream(new byte[0]), true, null);
+		fLocal = newConfiguration(null, "SavedIndexLocal", null); //$NON-NLS-1$
+		fShared = newConfiguration(fProject, "SavedIndexShared", fFile1); //$NON-NLS-1$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (LaunchManager manager : fManagers) {
+			manager.shutdown();
+		}
+		if (fLocal.exists()) {
+			fLocal.delete();
+		}
+		fProject.delete(true, null);
+		SavedLaunchConfigurationIndex.delete();
+		super.tearDown();
+	}
+
+	/**
+	 * Tests restoring the configurations from the saved index.
+	 *
+	 * @throws Exception
+	 */
+	public void testRestore() throws Exception {
+		LaunchManager saved = save(1);
+		SavedLaunchConfigurationIndex index = startListening();
+		TestSavedState state = restore(index, 1);
+		assertTrue("Index not restored", index.isRestored()); //$NON-NLS-1$
+		assertTrue("Changes since the save not processed", state.fProcessed); //$NON-NLS-1$
+		LaunchManager restored = newManager(index);
+		assertEquals("Wrong configurations", getConfigurations(saved), getConfigurations(restored)); //$NON-NLS-1$
+		assertTrue("Local configuration not restored", getConfigurations(restored).contains(fLocal)); //$NON-NLS-1$
+		assertTrue("Shared configuration not restored", getConfigurations(restored).contains(fShared)); //$NON-NLS-1$
+		assertMapped(restored, fShared, fFile1);
+	}
+
+	/**
+	 * Tests that an index saved with another workspace save is not restored,
+	 * and that the configurations are searched for instead.
+	 *
+	 * @throws Exception
+	 */
+	public void testRestoreOtherSave() throws Exception {
+		save(1);
+		SavedLaunchConfigurationIndex index = startListening();
+		TestSavedState state = restore(index, 2);
+		assertFalse("Index restored", index.isRestored()); //$NON-NLS-1$
+		assertFalse("Changes since the save processed", state.fProcessed); //$NON-NLS-1$
+		Set<ILaunchConfiguration> configs = getConfigurations(newManager(index));
+		assertTrue("Local configuration not found", configs.contains(fLocal)); //$NON-NLS-1$
+		assertTrue("Shared configuration not found", configs.contains(fShared)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the index is not restored without a saved state.
+	 *
+	 * @throws Exception
+	 */
+	public void testRestoreWithoutSavedState() throws Exception {
+		save(1);
+		SavedLaunchConfigurationIndex index = startListening();
+		index.restore(null);
+		assertFalse("Index restored", index.isRestored()); //$NON-NLS-1$
+		assertTrue("Shared configuration not found", getConfigurations(newManager(index)).contains(fShared)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that an index saved again by the same manager, with the entries
+	 * kept from the first save, is restored.
+	 *
+	 * @throws Exception
+	 */
+	public void testSaveAgain() throws Exception {
+		LaunchManager saved = save(1);
+		saved.saveLaunchConfigurationIndex(new TestSaveContext(2));
+		SavedLaunchConfigurationIndex index = startListening();
+		restore(index, 2);
+		assertTrue("Index not restored", index.isRestored()); //$NON-NLS-1$
+		LaunchManager restored = newManager(index);
+		assertEquals("Wrong configurations", getConfigurations(saved), getConfigurations(restored)); //$NON-NLS-1$
+		assertMapped(restored, fShared, fFile1);
+	}
+
+	/**
+	 * Tests that configurations added and deleted since the index was saved
+	 * are found and dropped.
+	 *
+	 * @throws Exception
+	 */
+	public void testAddedAndDeletedConfigurations() throws Exception {
+		ILaunchConfiguration deleted = newConfiguration(fProject, "SavedIndexDeleted", null); //$NON-NLS-1$
+		save(1);
+		SavedLaunchConfigurationIndex index = startListening();
+		ILaunchConfiguration added = newConfiguration(fProject, "SavedIndexAdded", fFile2); //$NON-NLS-1$
+		deleted.delete();
+		fLocal.delete();
+		restore(index, 1);
+		assertTrue("Index not restored", index.isRestored()); //$NON-NLS-1$
+		LaunchManager restored = newManager(index);
+		Set<ILaunchConfiguration> configs = getConfigurations(restored);
+		assertTrue("Added configuration not found", configs.contains(added)); //$NON-NLS-1$
+		assertTrue("Unchanged configuration not found", configs.contains(fShared)); //$NON-NLS-1$
+		assertFalse("Deleted configuration restored", configs.contains(deleted)); //$NON-NLS-1$
+		assertFalse("Deleted local configuration restored", configs.contains(fLocal)); //$NON-NLS-1$
+		assertMapped(restored, added, fFile2);
+	}
+
+	/**
+	 * Tests that a configuration changed since the index was saved is read
+	 * again rather than taken from the index.
+	 *
+	 * @throws Exception
+	 */
+	public void testChangedConfiguration() throws Exception {
+		save(1);
+		SavedLaunchConfigurationIndex index = startListening();
+		ILaunchConfigurationWorkingCopy wc = fShared.getWorkingCopy();
+		wc.setMappedResources(new IResource[] { fFile2 });
+		wc.doSave();
+		restore(index, 1);
+		assertTrue("Index not restored", index.isRestored()); //$NON-NLS-1$
+		LaunchManager restored = newManager(index);
+		assertTrue("Changed configuration not found", getConfigurations(restored).contains(fShared)); //$NON-NLS-1$
+		assertMapped(restored, fShared, fFile2);
+		assertFalse("Mapping from the index returned", Arrays.asList(restored.getMappedConfigurations(fFile1)).contains(fShared)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the configurations of a project opened since the index was
+	 * saved are found.
+	 *
+	 * @throws Exception
+	 */
+	public void testOpenedProject() throws Exception {
+		fProject.close(null);
+		LaunchManager saved = save(1);
+		assertFalse("Configuration of a closed project found", getConfigurations(saved).contains(fShared)); //$NON-NLS-1$
+		SavedLaunchConfigurationIndex index = startListening();
+		fProject.open(null);
+		restore(index, 1);
+		assertTrue("Index not restored", index.isRestored()); //$NON-NLS-1$
+		assertTrue("Configuration of an opened project not found", getConfigurations(newManager(index)).contains(fShared)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Saves the index of the configurations found by a new launch manager.
+	 *
+	 * @param saveNumber the number of the workspace save
+	 * @return the launch manager that saved the index
+	 * @throws CoreException
+	 */
+	private LaunchManager save(int saveNumber) throws CoreException {
+		LaunchManager manager = newManager(null);
+		manager.getLaunchConfigurations();
+		manager.saveLaunchConfigurationIndex(new TestSaveContext(saveNumber));
+		return manager;
+	}
+
+	/**
+	 * Returns a new index that collects the changes from now on.
+	 *
+	 * @return the index
+	 */
+	private SavedLaunchConfigurationIndex startListening() {
+		SavedLaunchConfigurationIndex index = new SavedLaunchConfigurationIndex();
+		index.startListening();
+		return index;
+	}
+
+	/**
+	 * Restores the given index from the index saved with the given workspace
+	 * save, and waits for it to be restored.
+	 *
+	 * @param index the index to restore
+	 * @param saveNumber the number of the last workspace save
+	 * @return the saved state the index was restored with
+	 * @throws InterruptedException
+	 */
+	private TestSavedState restore(SavedLaunchConfigurationIndex index, int saveNumber) throws InterruptedException {
+		TestSavedState state = new TestSavedState(saveNumber);
+		index.restore(state);
+		Job.getJobManager().join(index, null);
+		return state;
+	}
+
+	private LaunchManager newManager(SavedLaunchConfigurationIndex index) {
+		LaunchManager manager = new LaunchManager(index);
+		fManagers.add(manager);
+		return manager;
+	}
+
+	private ILaunchConfiguration newConfiguration(IContainer container, String name, IResource mapped) throws CoreException {
+		ILaunchConfigurationType type = getLaunchManager().getLaunchConfigurationType(LaunchConfigurationTests.ID_TEST_LAUNCH_TYPE);
+		ILaunchConfigurationWorkingCopy wc = type.newInstance(container, name);
+		if (mapped != null) {
+			wc.setMappedResources(new IResource[] { mapped });
+		}
+		return wc.doSave();
+	}
+
+	private Set<ILaunchConfiguration> getConfigurations(LaunchManager manager) throws CoreException {
+		return new HashSet<ILaunchConfiguration>(Arrays.asList(manager.getLaunchConfigurations()));
+	}
+
+	private void assertMapped(LaunchManager manager, ILaunchConfiguration config, IResource resource) {
+		assertTrue("Configuration not mapped to " + resource, Arrays.asList(manager.getMappedConfigurations(resource)).contains(config)); //$NON-NLS-1$
+	}
+}
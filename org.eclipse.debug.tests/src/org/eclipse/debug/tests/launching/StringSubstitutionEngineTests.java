@@ -0,0 +1,333 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.internal.variables.StringSubstitutionEngine;
+import org.eclipse.core.internal.variables.SubstitutionCache;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.variables.IDynamicVariable;
+import org.eclipse.core.variables.IStringVariable;
+import org.eclipse.core.variables.IStringVariableManager;
+import org.eclipse.core.variables.ISubstitutionSession;
+import org.eclipse.core.variables.IValueVariable;
+import org.eclipse.core.variables.IValueVariableListener;
+import org.eclipse.core.variables.VariablesPlugin;
+
+/**
+ * Tests that the string substitution engine, with and without its cache of
+ * parsed expressions and results, resolves random expressions exactly as the
+ * engine that scanned each expression on every substitution did.
+ */
+public class StringSubstitutionEngineTests extends TestCase {
+
+	/**
+	 * Value variables, which the tests change between substitutions
+	 */
+	private static final String[] VALUE_VARIABLES = { "v1", "v2", "v3" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	private static final String[] DYNAMIC_VARIABLES = { "d1", "d2" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Pieces random expressions are made of, including incomplete and nested
+	 * references, arguments and undefined variables
+	 */
+	private static final String[] TOKENS = { "${", "}", ":", "a", "v1", "v2", "v3", "d1", "d2", "x", " ", "${v1}", "${d1:q}", "${v2}" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$ //$NON-NLS-12$ //$NON-NLS-13$ //$NON-NLS-14$
+
+	private static final int ROUNDS = 100;
+
+	private static final int EXPRESSIONS_PER_ROUND = 200;
+
+	/**
+	 * Variable manager with value variables and dynamic variables whose
+	 * values are set by the test. A dynamic variable resolves to its value
+	 * followed by its argument in parentheses.
+	 */
+	class TestVariableManager implements IStringVariableManager {
+
+		@Override
+		public IStringVariable[] getVariables() {
+			return new IStringVariable[0];
+		}
+
+		@Override
+		public IValueVariable[] getValueVariables() {
+			return new IValueVariable[0];
+		}
+
+		@Override
+		public IValueVariable getValueVariable(final String name) {
+			if (!fValues.containsKey(name)) {
+				return null;
+			}
+			return new IValueVariable() {
+				@Override
+				public void setValue(String value) {
+				}
+
+				@Override
+				public String getValue() {
+					return fValues.get(name);
+				}
+
+				@Override
+				public boolean isContributed() {
+					return false;
+				}
+
+				@Override
+				public boolean isReadOnly() {
+					return true;
+				}
+
+				@Override
+				public void setDescription(String description) {
+				}
+
+				@Override
+				public String getName() {
+					return name;
+				}
+
+				@Override
+				public String getDescription() {
+					return null;
+				}
+			};
+		}
+
+		@Override
+		public IDynamicVariable[] getDynamicVariables() {
+			return new IDynamicVariable[0];
+		}
+
+		@Override
+		public IDynamicVariable getDynamicVariable(final String name) {
+			if (!fDynamicValues.containsKey(name)) {
+				return null;
+			}
+			return new IDynamicVariable() {
+				@Override
+				public String getValue(String argument) throws CoreException {
+					return fDynamicValues.get(name) + (argument == null ? "" : "(" + argument + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				}
+
+				@Override
+				public boolean supportsArgument() {
+					return true;
+				}
+
+				@Override
+				public String getName() {
+					return name;
+				}
+
+				@Override
+				public String getDescription() {
+					return null;
+				}
+			};
+		}
+
+		@Override
+		public String getContributingPluginId(IStringVariable variable) {
+			return null;
+		}
+
+		@Override
+		public String performStringSubstitution(String expression) throws CoreException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String performStringSubstitution(String expression, boolean reportUndefinedVariables) throws CoreException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void validateStringVariables(String expression) throws CoreException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IValueVariable newValueVariable(String name, String description) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IValueVariable newValueVariable(String name, String description, boolean readOnly, String value) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void addVariables(IValueVariable[] variables) throws CoreException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void removeVariables(IValueVariable[] variables) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void addValueVariableListener(IValueVariableListener listener) {
+		}
+
+		@Override
+		public void removeValueVariableListener(IValueVariableListener listener) {
+		}
+
+		@Override
+		public String generateVariableExpression(String varName, String arg) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ISubstitutionSession openSubstitutionSession() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private final Random fRandom = new Random(42);
+
+	/**
+	 * Values of the defined value variables, possibly <code>null</code>
+	 */
+	private final Map<String, String> fValues = new HashMap<String, String>();
+
+	/**
+	 * Values of the defined dynamic variables
+	 */
+	private final Map<String, String> fDynamicValues = new HashMap<String, String>();
+
+	private final TestVariableManager fManager = new TestVariableManager();
+
+	public StringSubstitutionEngineTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Tests that random expressions resolve to the same values and errors as
+	 * with the reference engine, resolving and only validating variables,
+	 * while the variables change between rounds. Expressions are repeated
+	 * within and across rounds, so that cached templates and results are
+	 * used.
+	 *
+	 * @throws Exception
+	 */
+	public void testEquivalence() throws Exception {
+		SubstitutionCache cache = new SubstitutionCache();
+		List<String> recent = new ArrayList<String>();
+		for (int round = 0; round < ROUNDS; round++) {
+			randomizeVariables();
+			// the manager notifies the cache of changed value variables
+			cache.variablesChanged(new IValueVariable[0]);
+			for (int i = 0; i < EXPRESSIONS_PER_ROUND; i++) {
+				String expression;
+				if (i % 3 == 0 && !recent.isEmpty()) {
+					expression = recent.get(fRandom.nextInt(recent.size()));
+				} else {
+					expression = randomText(12);
+				}
+				recent.add(expression);
+				if (recent.size() > 500) {
+					recent.remove(0);
+				}
+				boolean reportUndefined = fRandom.nextBoolean();
+				boolean resolve = fRandom.nextInt(4) > 0;
+				String expected = substitute(new ReferenceSubstitutionEngine(), expression, reportUndefined, resolve);
+				String context = "Expression \"" + expression + "\" with values " + fValues + " and dynamic values " + fDynamicValues + ", reporting undefined variables: " + reportUndefined + ", resolving: " + resolve; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+				assertEquals(context, expected, substitute(new StringSubstitutionEngine(cache), expression, reportUndefined, resolve));
+				assertEquals(context + ", without cache", expected, substitute(new StringSubstitutionEngine(), expression, reportUndefined, resolve)); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Tests that a cached result is not returned after the value of a
+	 * variable it depends on changed.
+	 *
+	 * @throws Exception
+	 */
+	public void testChangedValue() throws Exception {
+		SubstitutionCache cache = new SubstitutionCache();
+		fValues.put("v1", "one"); //$NON-NLS-1$ //$NON-NLS-2$
+		fValues.put("v2", "${v1}"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Wrong value", "OK:one-one", substitute(new StringSubstitutionEngine(cache), "${v1}-${v2}", true, true)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		fValues.put("v1", "two"); //$NON-NLS-1$ //$NON-NLS-2$
+		cache.variablesChanged(new IValueVariable[] { fManager.getValueVariable("v1") }); //$NON-NLS-1$
+		assertEquals("Stale value", "OK:two-two", substitute(new StringSubstitutionEngine(cache), "${v1}-${v2}", true, true)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Sets random values for a random subset of the variables. Values may
+	 * contain references to other variables, including cycles.
+	 */
+	private void randomizeVariables() {
+		fValues.clear();
+		fDynamicValues.clear();
+		for (String name : VALUE_VARIABLES) {
+			if (fRandom.nextInt(4) > 0) {
+				String value;
+				if (fRandom.nextInt(3) == 0) {
+					value = "${v" + (1 + fRandom.nextInt(3)) + "}"; //$NON-NLS-1$ //$NON-NLS-2$
+				} else if (fRandom.nextBoolean()) {
+					value = randomText(4).replace("${", "$"); //$NON-NLS-1$ //$NON-NLS-2$
+				} else {
+					value = null;
+				}
+				fValues.put(name, value);
+			}
+		}
+		for (String name : DYNAMIC_VARIABLES) {
+			if (fRandom.nextInt(4) > 0) {
+				fDynamicValues.put(name, fRandom.nextInt(3) == 0 ? "${v1}" : "D" + name); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	private String randomText(int maxTokens) {
+		StringBuilder text = new StringBuilder();
+		int count = fRandom.nextInt(maxTokens);
+		for (int i = 0; i < count; i++) {
+			text.append(TOKENS[fRandom.nextInt(TOKENS.length)]);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Performs the substitution with the given engine and describes the
+	 * outcome: the value, or the code and message of the error. The message
+	 * of a reference cycle is left out, as it lists the variables of the
+	 * cycle in no particular order.
+	 */
+	private String substitute(Object engine, String expression, boolean reportUndefined, boolean resolve) {
+		try {
+			String value;
+			if (engine instanceof ReferenceSubstitutionEngine) {
+				value = ((ReferenceSubstitutionEngine) engine).performStringSubstitution(expression, reportUndefined, resolve, fManager);
+			} else {
+				value = ((StringSubstitutionEngine) engine).performStringSubstitution(expression, reportUndefined, resolve, fManager);
+			}
+			return "OK:" + value; //$NON-NLS-1$
+		} catch (CoreException e) {
+			int code = e.getStatus().getCode();
+			return "ERROR:" + code + ":" + (code == VariablesPlugin.REFERENCE_CYCLE_ERROR ? "cycle" : e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.variables.IStringVariableManager;
+import org.eclipse.core.variables.ISubstitutionSession;
+import org.eclipse.core.variables.VariablesPlugin;
+import org.eclipse.debug.tests.TestsPlugin;
+
+/**
+ * Tests that dynamic variables declared as stable within a substitution
+ * session are resolved once for each argument while a session is open.
+ */
+public class SubstitutionSessionTests extends TestCase {
+
+	private static final String STABLE = "${org.eclipse.debug.tests.stable:a} ${org.eclipse.debug.tests.stable:b} ${org.eclipse.debug.tests.stable:a}"; //$NON-NLS-1$
+
+	private static final String UNSTABLE = "${org.eclipse.debug.tests.unstable:a} ${org.eclipse.debug.tests.unstable:a}"; //$NON-NLS-1$
+
+	public SubstitutionSessionTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Tests that a stable variable is resolved once for each argument in a
+	 * session, and that the values are the same as without a session.
+	 *
+	 * @throws Exception
+	 */
+	public void testStableVariable() throws Exception {
+		String expected = substitute(STABLE);
+		int resolved = CountingVariableResolver.getResolvedCount();
+		try (ISubstitutionSession session = getManager().openSubstitutionSession()) {
+			assertEquals("Wrong value", expected, substitute(STABLE)); //$NON-NLS-1$
+			assertEquals("Wrong number of values resolved", resolved + 2, CountingVariableResolver.getResolvedCount()); //$NON-NLS-1$
+			assertEquals("Wrong number of misses", 2, session.getMissCount()); //$NON-NLS-1$
+			assertEquals("Wrong number of hits", 1, session.getHitCount()); //$NON-NLS-1$
+			assertEquals("Wrong value", expected, substitute(STABLE)); //$NON-NLS-1$
+			assertEquals("Value resolved again", resolved + 2, CountingVariableResolver.getResolvedCount()); //$NON-NLS-1$
+			assertEquals("Wrong number of hits", 4, session.getHitCount()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that a variable that is not declared stable is resolved every
+	 * time in a session.
+	 *
+	 * @throws Exception
+	 */
+	public void testUnstableVariable() throws Exception {
+		int resolved = CountingVariableResolver.getResolvedCount();
+		try (ISubstitutionSession session = getManager().openSubstitutionSession()) {
+			substitute(UNSTABLE);
+			assertEquals("Wrong number of values resolved", resolved + 2, CountingVariableResolver.getResolvedCount()); //$NON-NLS-1$
+			assertEquals("Wrong number of misses", 0, session.getMissCount()); //$NON-NLS-1$
+			assertEquals("Wrong number of hits", 0, session.getHitCount()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that a stable variable is resolved every time without a session.
+	 *
+	 * @throws Exception
+	 */
+	public void testNoSession() throws Exception {
+		int resolved = CountingVariableResolver.getResolvedCount();
+		substitute(STABLE);
+		assertEquals("Wrong number of values resolved", resolved + 3, CountingVariableResolver.getResolvedCount()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a nested session shares the values of the outer session,
+	 * and that the values are discarded when the outer session is closed.
+	 *
+	 * @throws Exception
+	 */
+	public void testNestedSession() throws Exception {
+		int resolved = CountingVariableResolver.getResolvedCount();
+		try (ISubstitutionSession outer = getManager().openSubstitutionSession()) {
+			substitute(STABLE);
+			try (ISubstitutionSession inner = getManager().openSubstitutionSession()) {
+				substitute(STABLE);
+			}
+			substitute(STABLE);
+			assertEquals("Nested session did not share values", resolved + 2, CountingVariableResolver.getResolvedCount()); //$NON-NLS-1$
+		}
+		try (ISubstitutionSession session = getManager().openSubstitutionSession()) {
+			substitute(STABLE);
+			assertEquals("Values of a closed session reused", resolved + 4, CountingVariableResolver.getResolvedCount()); //$NON-NLS-1$
+			assertEquals("Values of a closed session reused", 2, session.getMissCount()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that a session only applies to the thread that opened it.
+	 *
+	 * @throws Exception
+	 */
+	public void testSessionConfinedToThread() throws Exception {
+		final CoreException[] error = new CoreException[1];
+		try (ISubstitutionSession session = getManager().openSubstitutionSession()) {
+			substitute(STABLE);
+			final int resolved = CountingVariableResolver.getResolvedCount();
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						substitute(STABLE);
+					} catch (CoreException e) {
+						error[0] = e;
+					}
+				}
+			};
+			thread.start();
+			thread.join(10000);
+			if (error[0] != null) {
+				throw error[0];
+			}
+			assertEquals("Session used by another thread", resolved + 3, CountingVariableResolver.getResolvedCount()); //$NON-NLS-1$
+			assertEquals("Wrong number of misses", 2, session.getMissCount()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that the project, resource and container variables, whose value
+	 * depends on the selection when they have no argument, are not reused in
+	 * a session.
+	 *
+	 * @throws Exception
+	 */
+	public void testResourceVariablesNotStable() throws Exception {
+		IProject project = TestsPlugin.createProject("SubstitutionSessionTests"); //$NON-NLS-1$
+		try {
+			String path = project.getFullPath().toString();
+			String expression = "${project_name:" + path + "} ${resource_name:" + path + "} ${container_name:" + path + "}"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			try (ISubstitutionSession session = getManager().openSubstitutionSession()) {
+				substitute(expression);
+				substitute(expression);
+				assertEquals("Resource variable reused", 0, session.getHitCount()); //$NON-NLS-1$
+				assertEquals("Resource variable cached", 0, session.getMissCount()); //$NON-NLS-1$
+			}
+		} finally {
+			project.delete(true, null);
+		}
+	}
+
+	private String substitute(String expression) throws CoreException {
+		return getManager().performStringSubstitution(expression);
+	}
+
+	private IStringVariableManager getManager() {
+		return VariablesPlugin.getDefault().getStringVariableManager();
+	}
+}
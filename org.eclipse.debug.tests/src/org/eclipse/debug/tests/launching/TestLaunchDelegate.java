@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2014 IBM Corporation and others.
+ * Copyright (c) 2009, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,19 +10,34 @@
  *******************************************************************************/
 package org.eclipse.debug.tests.launching;
 
+import java.nio.charset.StandardCharsets;
+
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.model.LaunchConfigurationDelegate;
 
 /**
- * An empty launch delegate
+ * An empty launch delegate, which starts a {@link MockProcess} when the
+ * configuration specifies its output
  */
 public class TestLaunchDelegate extends LaunchConfigurationDelegate {
 
+	/**
+	 * Launch configuration attribute specifying the output of a process
+	 * started by the launch (value <code>String</code>). No process is
+	 * started when not specified.
+	 */
+	public static final String ATTR_OUTPUT = "org.eclipse.debug.tests.output"; //$NON-NLS-1$
+
 	@Override
 	public void launch(ILaunchConfiguration configuration, String mode, ILaunch launch, IProgressMonitor monitor) throws CoreException {
-		// do nothing
+		String output = configuration.getAttribute(ATTR_OUTPUT, (String) null);
+		if (output != null) {
+			launch.setAttribute(DebugPlugin.ATTR_CONSOLE_ENCODING, StandardCharsets.UTF_8.name());
+			DebugPlugin.newProcess(launch, new MockProcess(output.getBytes(StandardCharsets.UTF_8)), configuration.getName());
+		}
 	}
 }
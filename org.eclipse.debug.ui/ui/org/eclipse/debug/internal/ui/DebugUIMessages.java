@@ -250,6 +250,8 @@ public class DebugUIMessages extends NLS {
 	public static String GroupLaunchConfigurationSelectionDialog_13;
 	public static String GroupLaunchConfigurationSelectionDialog_14;
 	public static String GroupLaunchConfigurationSelectionDialog_15;
+	public static String GroupLaunchConfigurationSelectionDialog_16;
+	public static String GroupLaunchConfigurationSelectionDialog_17;
 	public static String GroupLaunchConfigurationSelectionDialog_4;
 	public static String GroupLaunchConfigurationSelectionDialog_5;
 	public static String GroupLaunchConfigurationSelectionDialog_7;
@@ -262,6 +264,8 @@ public class DebugUIMessages extends NLS {
 	public static String GroupLaunchConfigurationTabGroup_14;
 	public static String GroupLaunchConfigurationTabGroup_15;
 	public static String GroupLaunchConfigurationTabGroup_16;
+	public static String GroupLaunchConfigurationTabGroup_17;
+	public static String GroupLaunchConfigurationTabGroup_18;
 	public static String GroupLaunchConfigurationTabGroup_2;
 	public static String GroupLaunchConfigurationTabGroup_3;
 	public static String GroupLaunchConfigurationTabGroup_4;
@@ -79,6 +79,7 @@ public class DebugUIPreferenceInitializer extends AbstractPreferenceInitializer
 		prefs.setDefault(IDebugPreferenceConstants.CONSOLE_LIMIT_CONSOLE_OUTPUT, true);
 		prefs.setDefault(IDebugPreferenceConstants.CONSOLE_LOW_WATER_MARK, 80000);
 		prefs.setDefault(IDebugPreferenceConstants.CONSOLE_HIGH_WATER_MARK, 100000);
+		prefs.setDefault(IDebugPreferenceConstants.CONSOLE_DISK_BACKED, false);
 		prefs.setDefault(IDebugPreferenceConstants.CONSOLE_TAB_WIDTH, 8);
 
 		// console colors
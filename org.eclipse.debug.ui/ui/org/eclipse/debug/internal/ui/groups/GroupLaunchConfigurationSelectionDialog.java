@@ -20,6 +20,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.debug.core.DebugPlugin;
@@ -82,6 +84,8 @@ class GroupLaunchConfigurationSelectionDialog extends TitleAreaDialog implements
 	private ComboControlledStackComposite fStackComposite;
 	private Label fDelayAmountLabel;
 	private Text fDelayAmountWidget; // in seconds
+	private Label fOutputRegexpLabel;
+	private Text fOutputRegexpWidget;
 	private boolean fForEditing; // true if dialog was opened to edit an entry,
 									// otherwise it was opened to add one
 	private ILaunchConfigurationType groupType;
@@ -216,7 +220,7 @@ class GroupLaunchConfigurationSelectionDialog extends TitleAreaDialog implements
 
 	private void createPostLaunchControl(Composite parent) {
 		Composite comp = new Composite(parent, SWT.NONE);
-		comp.setLayout(new GridLayout(4, false));
+		comp.setLayout(new GridLayout(6, false));
 		comp.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
 		Label label = new Label(comp, SWT.NONE);
 		label.setText(DebugUIMessages.GroupLaunchConfigurationSelectionDialog_8);
@@ -224,11 +228,21 @@ class GroupLaunchConfigurationSelectionDialog extends TitleAreaDialog implements
 		combo.add(GroupElementPostLaunchAction.NONE.getDescription());
 		combo.add(GroupElementPostLaunchAction.WAIT_FOR_TERMINATION.getDescription());
 		combo.add(GroupElementPostLaunchAction.DELAY.getDescription());
+		combo.add(GroupElementPostLaunchAction.OUTPUT_REGEXP.getDescription());
 		combo.addSelectionListener(new SelectionAdapter() {
 			@Override
 			public void widgetSelected(SelectionEvent e) {
 				final String actionStr = ((Combo) e.widget).getText();
 				action = GroupElementPostLaunchAction.valueOfDescription(actionStr);
+				if (action == GroupElementPostLaunchAction.OUTPUT_REGEXP) {
+					actionParam = fOutputRegexpWidget.getText();
+				} else if (action == GroupElementPostLaunchAction.DELAY && !(actionParam instanceof Integer)) {
+					try {
+						actionParam = Integer.valueOf(fDelayAmountWidget.getText());
+					} catch (NumberFormatException exc) {
+						actionParam = null;
+					}
+				}
 				showHideDelayAmountWidgets();
 				validate();
 			}
@@ -258,6 +272,24 @@ class GroupLaunchConfigurationSelectionDialog extends TitleAreaDialog implements
 			fDelayAmountWidget.setText(((Integer) actionParam).toString());
 		}
 
+		fOutputRegexpLabel = new Label(comp, SWT.NONE);
+		fOutputRegexpLabel.setText(DebugUIMessages.GroupLaunchConfigurationSelectionDialog_16);
+
+		fOutputRegexpWidget = new Text(comp, SWT.SINGLE | SWT.BORDER);
+		gridData = new GridData(GridData.FILL_HORIZONTAL);
+		gridData.widthHint = convertWidthInCharsToPixels(20);
+		fOutputRegexpWidget.setLayoutData(gridData);
+		if (action == GroupElementPostLaunchAction.OUTPUT_REGEXP && actionParam instanceof String) {
+			fOutputRegexpWidget.setText((String) actionParam);
+		}
+		fOutputRegexpWidget.addModifyListener(new ModifyListener() {
+			@Override
+			public void modifyText(ModifyEvent e) {
+				actionParam = ((Text) e.widget).getText();
+				validate();
+			}
+		});
+
 		showHideDelayAmountWidgets();
 	}
 
@@ -265,6 +297,9 @@ class GroupLaunchConfigurationSelectionDialog extends TitleAreaDialog implements
 		final boolean visible = action == GroupElementPostLaunchAction.DELAY;
 		fDelayAmountLabel.setVisible(visible);
 		fDelayAmountWidget.setVisible(visible);
+		final boolean regexpVisible = action == GroupElementPostLaunchAction.OUTPUT_REGEXP;
+		fOutputRegexpLabel.setVisible(regexpVisible);
+		fOutputRegexpWidget.setVisible(regexpVisible);
 	}
 
 	public ILaunchConfiguration[] getSelectedLaunchConfigurations() {
@@ -372,6 +407,16 @@ class GroupLaunchConfigurationSelectionDialog extends TitleAreaDialog implements
 			if (action == GroupElementPostLaunchAction.DELAY) {
 				isValid = (actionParam instanceof Integer) && ((Integer) actionParam > 0);
 				setErrorMessage(isValid ? null : DebugUIMessages.GroupLaunchConfigurationSelectionDialog_10);
+			} else if (action == GroupElementPostLaunchAction.OUTPUT_REGEXP) {
+				isValid = (actionParam instanceof String) && ((String) actionParam).length() > 0;
+				if (isValid) {
+					try {
+						Pattern.compile((String) actionParam);
+					} catch (PatternSyntaxException e) {
+						isValid = false;
+					}
+				}
+				setErrorMessage(isValid ? null : DebugUIMessages.GroupLaunchConfigurationSelectionDialog_17);
 			}
 		}
 
@@ -163,6 +163,8 @@ public class GroupLaunchConfigurationTabGroup extends AbstractLaunchConfiguratio
 					final Object actionParam = el.actionParam;
 						return NLS.bind(DebugUIMessages.GroupLaunchConfigurationTabGroup_13,
 							actionParam instanceof Integer ? Integer.toString((Integer) actionParam) : "?"); //$NON-NLS-1$
+				case OUTPUT_REGEXP:
+					return NLS.bind(DebugUIMessages.GroupLaunchConfigurationTabGroup_17, el.actionParam);
 				default:
 					assert false : "new post launch action missing logic here"; //$NON-NLS-1$
 					return ""; //$NON-NLS-1$
@@ -261,6 +263,7 @@ public class GroupLaunchConfigurationTabGroup extends AbstractLaunchConfiguratio
 	static class GroupLaunchTab extends AbstractLaunchConfigurationTab {
 		protected CheckboxTreeViewer treeViewer;
 		protected List<GroupLaunchElement> input = new ArrayList<GroupLaunchElement>();
+		protected Button parallelButton;
 
 		/**
 		 * copy of the initial state of the configuration used for cycle
@@ -479,6 +482,14 @@ public class GroupLaunchConfigurationTabGroup extends AbstractLaunchConfiguratio
 			GridData layoutData = new GridData(GridData.GRAB_VERTICAL);
 			layoutData.verticalAlignment = SWT.BEGINNING;
 			buts.setLayoutData(layoutData);
+
+			parallelButton = SWTFactory.createCheckButton(comp, DebugUIMessages.GroupLaunchConfigurationTabGroup_18, null, false, 2);
+			parallelButton.addSelectionListener(new SelectionAdapter() {
+				@Override
+				public void widgetSelected(SelectionEvent e) {
+					updateLaunchConfigurationDialog();
+				}
+			});
 		}
 
 		@Override
@@ -504,11 +515,26 @@ public class GroupLaunchConfigurationTabGroup extends AbstractLaunchConfiguratio
 			if (treeViewer != null) {
 				treeViewer.setInput(input);
 			}
+			if (parallelButton != null) {
+				try {
+					parallelButton.setSelection(configuration.getAttribute(GroupLaunchConfigurationDelegate.ATTR_PARALLEL, false));
+				} catch (CoreException e) {
+					DebugPlugin.log(e);
+				}
+			}
 		}
 
 		@Override
 		public void performApply(ILaunchConfigurationWorkingCopy configuration) {
 			GroupLaunchConfigurationDelegate.storeLaunchElements(configuration, input);
+			if (parallelButton != null) {
+				// the attribute is only stored for groups launched in parallel
+				if (parallelButton.getSelection()) {
+					configuration.setAttribute(GroupLaunchConfigurationDelegate.ATTR_PARALLEL, true);
+				} else {
+					configuration.removeAttribute(GroupLaunchConfigurationDelegate.ATTR_PARALLEL);
+				}
+			}
 		}
 
 		@Override
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.ui.importexport.breakpoints;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.core.model.IBreakpointImportParticipant;
+import org.eclipse.debug.core.model.IBreakpointImportParticipant2;
+
+/**
+ * Breakpoints indexed by marker type and line number, the attributes the
+ * default import participant compares, so that a breakpoint being imported is
+ * only compared with the breakpoints that may match it.
+ * <p>
+ * Import participants that match breakpoints by other attributes are asked
+ * about all breakpoints of the marker type, see
+ * {@link IBreakpointImportParticipant2}.
+ * </p>
+ */
+public class BreakpointImportIndex {
+
+	/**
+	 * The breakpoints of a marker type
+	 */
+	static class TypeBreakpoints {
+
+		/**
+		 * All breakpoints of the type, in the order they were added
+		 */
+		final List<IBreakpoint> fAll = new ArrayList<IBreakpoint>();
+
+		/**
+		 * Breakpoints with a line number by line number, in the order they
+		 * were added
+		 */
+		final Map<Object, List<IBreakpoint>> fByLine = new HashMap<Object, List<IBreakpoint>>();
+	}
+
+	/**
+	 * Breakpoints by marker type
+	 */
+	private final Map<String, TypeBreakpoints> fBreakpoints = new HashMap<String, TypeBreakpoints>();
+
+	/**
+	 * Creates an index of the given breakpoints.
+	 *
+	 * @param breakpoints existing breakpoints
+	 */
+	public BreakpointImportIndex(IBreakpoint[] breakpoints) {
+		for (int i = 0; i < breakpoints.length; i++) {
+			add(breakpoints[i]);
+		}
+	}
+
+	/**
+	 * Adds a breakpoint to the index, a breakpoint without a marker is not
+	 * added.
+	 *
+	 * @param breakpoint breakpoint
+	 */
+	public void add(IBreakpoint breakpoint) {
+		IMarker marker = breakpoint.getMarker();
+		if (marker == null || !marker.exists()) {
+			return;
+		}
+		String type;
+		Object line;
+		try {
+			type = marker.getType();
+			line = marker.getAttribute(IMarker.LINE_NUMBER);
+		} catch (CoreException e) {
+			return;
+		}
+		TypeBreakpoints breakpoints = fBreakpoints.get(type);
+		if (breakpoints == null) {
+			breakpoints = new TypeBreakpoints();
+			fBreakpoints.put(type, breakpoints);
+		}
+		breakpoints.fAll.add(breakpoint);
+		if (line != null) {
+			List<IBreakpoint> lineBreakpoints = breakpoints.fByLine.get(line);
+			if (lineBreakpoints == null) {
+				lineBreakpoints = new ArrayList<IBreakpoint>(1);
+				breakpoints.fByLine.put(line, lineBreakpoints);
+			}
+			lineBreakpoints.add(breakpoint);
+		}
+	}
+
+	/**
+	 * Returns the breakpoints that may match the breakpoint described by the
+	 * given attributes.
+	 *
+	 * @param attributes the attributes of a breakpoint being imported
+	 * @param byLine whether only breakpoints on the line of the imported
+	 *            breakpoint may match it, if it has a line number
+	 * @return the breakpoints with the same marker type, and the same line
+	 *         number if requested, possibly empty
+	 */
+	public List<IBreakpoint> getCandidates(Map<String, Object> attributes, boolean byLine) {
+		TypeBreakpoints breakpoints = fBreakpoints.get(attributes.get(IImportExportConstants.IE_NODE_TYPE));
+		if (breakpoints == null) {
+			return Collections.emptyList();
+		}
+		Object line = attributes.get(IMarker.LINE_NUMBER);
+		if (byLine && line != null) {
+			List<IBreakpoint> lineBreakpoints = breakpoints.fByLine.get(line);
+			if (lineBreakpoints == null) {
+				return Collections.emptyList();
+			}
+			return lineBreakpoints;
+		}
+		return breakpoints.fAll;
+	}
+
+	/**
+	 * Returns whether the given participants only match imported breakpoints
+	 * with existing breakpoints on the same line.
+	 *
+	 * @param participants the import participants of a marker type, possibly
+	 *            <code>null</code>
+	 * @return whether none of the participants asks for all breakpoints of
+	 *         the marker type
+	 */
+	public static boolean matchesByLine(IBreakpointImportParticipant[] participants) {
+		if (participants == null) {
+			return true;
+		}
+		for (int i = 0; i < participants.length; i++) {
+			if (participants[i] instanceof IBreakpointImportParticipant2 && !((IBreakpointImportParticipant2) participants[i]).matchesByLine()) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
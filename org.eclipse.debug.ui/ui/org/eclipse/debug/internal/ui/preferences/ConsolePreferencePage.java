@@ -135,6 +135,8 @@ public class ConsolePreferencePage extends FieldEditorPreferencePage implements
 			}
 		);
 		
+		addField(new BooleanFieldEditor(IDebugPreferenceConstants.CONSOLE_DISK_BACKED, DebugPreferencesMessages.ConsolePreferencePage_14, SWT.NONE, getFieldEditorParent()));
+
 		fTabSizeEditor = new ConsoleIntegerFieldEditor(IDebugPreferenceConstants.CONSOLE_TAB_WIDTH, DebugPreferencesMessages.ConsolePreferencePage_12, getFieldEditorParent()); 
 		addField(fTabSizeEditor);
 		fTabSizeEditor.setValidRange(1,100);
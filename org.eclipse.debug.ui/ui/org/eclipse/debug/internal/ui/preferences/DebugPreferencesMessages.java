@@ -31,6 +31,7 @@ public class DebugPreferencesMessages extends NLS {
 	public static String ConsolePreferencePage_console_width;
 	public static String ConsolePreferencePage_12;
 	public static String ConsolePreferencePage_13;
+	public static String ConsolePreferencePage_14;
 
 	public static String DebugPreferencePage_1;
 	public static String DebugPreferencePage_2;
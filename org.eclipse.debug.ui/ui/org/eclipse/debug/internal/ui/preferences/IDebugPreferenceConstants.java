@@ -76,6 +76,14 @@ public interface IDebugPreferenceConstants {
 	public static final String CONSOLE_LIMIT_CONSOLE_OUTPUT = "Console.limitConsoleOutput"; //$NON-NLS-1$
 	public static final String CONSOLE_LOW_WATER_MARK = "Console.lowWaterMark"; //$NON-NLS-1$ 
 	public static final String CONSOLE_HIGH_WATER_MARK = "Console.highWaterMark"; //$NON-NLS-1$
+
+	/**
+	 * Boolean preference specifying whether older console output is kept in
+	 * a temporary file rather than in memory.
+	 *
+	 * @since 3.12
+	 */
+	public static final String CONSOLE_DISK_BACKED = "Console.diskBacked"; //$NON-NLS-1$
 	
 	/**
 	 * Integer preference specifying the number of spaces composing a
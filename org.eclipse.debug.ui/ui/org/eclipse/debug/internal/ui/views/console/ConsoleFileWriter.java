@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.ui.views.console;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.internal.ui.DebugUIPlugin;
+
+/**
+ * Writes the output of a process console to a file. Text is queued by the
+ * stream listeners and encoded and written by a job, so that a slow file
+ * system does not hold up the output of the process.
+ * <p>
+ * When a size limit is set, the file is rotated before it would exceed the
+ * limit: the file is renamed to <code>&lt;file&gt;.1</code>, older files are
+ * shifted up to <code>&lt;file&gt;.5</code>, and output continues in a new
+ * file. Rotated files can be compressed with gzip. The encoder is flushed at
+ * the end of each file, so that each file is complete in its encoding.
+ * </p>
+ */
+public class ConsoleFileWriter {
+
+	/**
+	 * Size of the direct buffer text is encoded into
+	 */
+	private static final int BUFFER_SIZE = 256 * 1024;
+
+	/**
+	 * Delay in milliseconds before queued text is written
+	 */
+	private static final long WRITE_DELAY = 200;
+
+	/**
+	 * Number of queued characters above which writers wait for the queue to
+	 * be written
+	 */
+	private static final int MAX_PENDING_LENGTH = 4 * 1024 * 1024;
+
+	/**
+	 * Number of rotated files to keep
+	 */
+	private static final int MAX_ROTATED_FILES = 5;
+
+	private static final CharBuffer EMPTY = CharBuffer.allocate(0);
+
+	private final File fFile;
+
+	private final long fLimit;
+
+	private final boolean fCompress;
+
+	private final CharsetEncoder fEncoder;
+
+	/**
+	 * Number of bytes left in a file below which the file is rotated, enough
+	 * to encode a surrogate pair
+	 */
+	private final int fMinRemaining;
+
+	private final ByteBuffer fBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	private FileChannel fChannel;
+
+	/**
+	 * Size of the current file
+	 */
+	private long fSize;
+
+	/**
+	 * Characters of the queued text that the encoder could not encode yet,
+	 * such as the high surrogate of a pair split between two texts, or
+	 * <code>null</code>
+	 */
+	private String fLeftover;
+
+	/**
+	 * Whether the current file is full, and is rotated before more output
+	 * is written
+	 */
+	private boolean fRotate = false;
+
+	/**
+	 * Text queued to be written, guarded by <code>fLock</code>
+	 */
+	private List<String> fPending = new ArrayList<>();
+
+	private int fPendingLength = 0;
+
+	private boolean fScheduled = false;
+
+	private boolean fClosed = false;
+
+	/**
+	 * Whether writing failed, in which case further output is discarded
+	 */
+	private volatile boolean fFailed = false;
+
+	private final Object fLock = new Object();
+
+	private final Job fJob = new Job("Process Console File Writer") { //$NON-NLS-1$
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			writePending();
+			return Status.OK_STATUS;
+		}
+	};
+
+	/**
+	 * Opens the file to capture output in.
+	 *
+	 * @param file the file to write
+	 * @param append whether to append to the file rather than overwriting it
+	 * @param encoding the encoding of the file, or <code>null</code> for the
+	 *            platform default
+	 * @param limit the size in bytes above which the file is rotated, or
+	 *            <code>0</code> if the file is never rotated
+	 * @param compress whether rotated files are compressed
+	 * @throws FileNotFoundException if the file cannot be opened
+	 */
+	public ConsoleFileWriter(File file, boolean append, String encoding, long limit, boolean compress) throws FileNotFoundException {
+		fFile = file;
+		fLimit = limit;
+		fCompress = compress;
+		Charset charset = Charset.defaultCharset();
+		if (encoding != null) {
+			try {
+				charset = Charset.forName(encoding);
+			} catch (IllegalArgumentException e) {
+				DebugUIPlugin.log(e);
+			}
+		}
+		fEncoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		fMinRemaining = 2 * (int) Math.ceil(fEncoder.maxBytesPerChar());
+		fChannel = new FileOutputStream(file, append).getChannel();
+		try {
+			fSize = fChannel.size();
+		} catch (IOException e) {
+			fSize = 0;
+		}
+		fRotate = fLimit > 0 && fSize > 0 && fLimit - fSize < fMinRemaining;
+		fBuffer.limit(getRemaining());
+		fJob.setSystem(true);
+	}
+
+	/**
+	 * Queues the given text to be written. Waits while the queue is full.
+	 *
+	 * @param text the text to write
+	 */
+	public void write(String text) {
+		if (text == null || text.isEmpty()) {
+			return;
+		}
+		boolean schedule = false;
+		boolean full = false;
+		synchronized (fLock) {
+			while (fPendingLength > MAX_PENDING_LENGTH && !fClosed) {
+				try {
+					fLock.wait(1000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			if (fClosed || fFailed) {
+				return;
+			}
+			fPending.add(text);
+			fPendingLength += text.length();
+			if (!fScheduled) {
+				fScheduled = true;
+				schedule = true;
+			}
+			full = fPendingLength >= BUFFER_SIZE;
+		}
+		if (schedule) {
+			fJob.schedule(full ? 0 : WRITE_DELAY);
+		} else if (full) {
+			fJob.wakeUp();
+		}
+	}
+
+	/**
+	 * Writes the queued text and closes the file. Text written afterwards is
+	 * discarded.
+	 */
+	public void close() {
+		synchronized (fLock) {
+			if (fClosed) {
+				return;
+			}
+			fClosed = true;
+			fLock.notifyAll();
+		}
+		fJob.wakeUp();
+		try {
+			fJob.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		// write what may have been queued after the job ran
+		writePending();
+		synchronized (this) {
+			if (!fFailed) {
+				try {
+					finish(fLeftover != null ? CharBuffer.wrap(fLeftover) : EMPTY);
+				} catch (IOException e) {
+					fFailed = true;
+					DebugUIPlugin.log(e);
+				}
+			}
+			fLeftover = null;
+			try {
+				fChannel.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	/**
+	 * Writes all queued text, until the queue is empty.
+	 */
+	private synchronized void writePending() {
+		while (true) {
+			List<String> batch;
+			synchronized (fLock) {
+				batch = fPending;
+				if (batch.isEmpty()) {
+					fScheduled = false;
+					return;
+				}
+				fPending = new ArrayList<>();
+				fPendingLength = 0;
+				fLock.notifyAll();
+			}
+			if (fFailed) {
+				continue;
+			}
+			try {
+				for (String text : batch) {
+					CharBuffer chars;
+					if (fLeftover != null) {
+						chars = CharBuffer.wrap(fLeftover + text);
+						fLeftover = null;
+					} else {
+						chars = CharBuffer.wrap(text);
+					}
+					while (fEncoder.encode(chars, fBuffer, false).isOverflow()) {
+						drain();
+					}
+					if (chars.hasRemaining()) {
+						fLeftover = chars.toString();
+					}
+				}
+				drain();
+			} catch (IOException e) {
+				fFailed = true;
+				DebugUIPlugin.log(e);
+			}
+		}
+	}
+
+	/**
+	 * Writes the contents of the buffer to the file and ends the file in its
+	 * encoding when it is full. The buffer is limited to the space left in
+	 * the file, so that the encoder stops at the limit.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	private void drain() throws IOException {
+		writeBuffer();
+		if (!fRotate && fLimit > 0 && fSize > 0 && fLimit - fSize < fMinRemaining) {
+			finish(EMPTY);
+			fRotate = true;
+		}
+		fBuffer.limit(getRemaining());
+	}
+
+	/**
+	 * Returns the number of bytes to encode before the file is written,
+	 * which is the space left in the file when there is a limit.
+	 *
+	 * @return the limit of the buffer
+	 */
+	private int getRemaining() {
+		if (fLimit <= 0) {
+			return fBuffer.capacity();
+		}
+		long size = fRotate ? 0 : fSize;
+		return (int) Math.min(fBuffer.capacity(), Math.max(fLimit - size, fMinRemaining));
+	}
+
+	/**
+	 * Encodes the given characters as the end of the input, flushes the
+	 * encoder to the file and resets the encoder for the next file.
+	 *
+	 * @param chars the last characters of the file
+	 * @throws IOException if writing fails
+	 */
+	private void finish(CharBuffer chars) throws IOException {
+		fBuffer.limit(fBuffer.capacity());
+		while (fEncoder.encode(chars, fBuffer, true).isOverflow()) {
+			writeBuffer();
+		}
+		while (fEncoder.flush(fBuffer).isOverflow()) {
+			writeBuffer();
+		}
+		writeBuffer();
+		fEncoder.reset();
+	}
+
+	/**
+	 * Writes the contents of the buffer to the current file, rotating the
+	 * file first if it is full.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	private void writeBuffer() throws IOException {
+		fBuffer.flip();
+		if (fRotate && fBuffer.hasRemaining()) {
+			rotate();
+			fRotate = false;
+		}
+		while (fBuffer.hasRemaining()) {
+			fSize += fChannel.write(fBuffer);
+		}
+		fBuffer.clear();
+	}
+
+	/**
+	 * Closes the current file, shifts the rotated files and opens a new file.
+	 *
+	 * @throws IOException if the files cannot be renamed or opened
+	 */
+	private void rotate() throws IOException {
+		fChannel.close();
+		String suffix = fCompress ? ".gz" : ""; //$NON-NLS-1$ //$NON-NLS-2$
+		Files.deleteIfExists(getRotatedFile(MAX_ROTATED_FILES, suffix).toPath());
+		for (int i = MAX_ROTATED_FILES - 1; i > 0; i--) {
+			File file = getRotatedFile(i, suffix);
+			if (file.exists()) {
+				Files.move(file.toPath(), getRotatedFile(i + 1, suffix).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		File rotated = getRotatedFile(1, suffix);
+		if (fCompress) {
+			try (OutputStream out = new GZIPOutputStream(new FileOutputStream(rotated), BUFFER_SIZE)) {
+				Files.copy(fFile.toPath(), out);
+			}
+			Files.delete(fFile.toPath());
+		} else {
+			Files.move(fFile.toPath(), rotated.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		fChannel = new FileOutputStream(fFile, false).getChannel();
+		fSize = 0;
+	}
+
+	private File getRotatedFile(int index, String suffix) {
+		return new File(fFile.getPath() + '.' + index + suffix);
+	}
+}
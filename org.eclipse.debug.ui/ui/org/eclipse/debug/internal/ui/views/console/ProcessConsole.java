@@ -14,7 +14,6 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -100,7 +99,7 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
 
 	private InputStream fInput;
 
-    private FileOutputStream fFileOutputStream;
+    private ConsoleFileWriter fFileWriter;
 
     private boolean fAllocateConsole = true;
 	private String fStdInFile = null;
@@ -127,6 +126,8 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
         ILaunchConfiguration configuration = process.getLaunch().getLaunchConfiguration();
         String file = null;
         boolean append = false;
+        int limit = 0;
+        boolean compress = false;
         if (configuration != null) {
             try {
 				file = configuration.getAttribute(IDebugUIConstants.ATTR_CAPTURE_IN_FILE, (String) null);
@@ -136,6 +137,8 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
 					if (file != null) {
 						file = stringVariableManager.performStringSubstitution(file);
 						append = configuration.getAttribute(IDebugUIConstants.ATTR_APPEND_TO_FILE, false);
+						limit = configuration.getAttribute(IDebugUIConstants.ATTR_CAPTURE_IN_FILE_LIMIT, 0);
+						compress = configuration.getAttribute(IDebugUIConstants.ATTR_CAPTURE_IN_FILE_COMPRESS, false);
 					}
 
 					if (fStdInFile != null) {
@@ -167,7 +170,7 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
                 }
                 
                 File outputFile = new File(file);
-                fFileOutputStream = new FileOutputStream(outputFile, append);
+                fFileWriter = new ConsoleFileWriter(outputFile, append, encoding, limit, compress);
                 fileLoc = outputFile.getAbsolutePath();
                 
 				message = MessageFormat.format(ConsoleMessages.ProcessConsole_1, new Object[] { fileLoc });
@@ -317,6 +320,8 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
             } else {
                 setWaterMarks(-1, -1);
             }
+        } else if (property.equals(IDebugPreferenceConstants.CONSOLE_DISK_BACKED)) {
+            setDiskBacked(store.getBoolean(IDebugPreferenceConstants.CONSOLE_DISK_BACKED));
         } else if (property.equals(IDebugPreferenceConstants.CONSOLE_TAB_WIDTH)) {
             int tabWidth = store.getInt(IDebugPreferenceConstants.CONSOLE_TAB_WIDTH);
             setTabWidth(tabWidth);
@@ -402,14 +407,8 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
 		for (StreamListener listener : fStreamListeners) {
             listener.closeStream();
         }
-        if (fFileOutputStream != null) {
-	        synchronized (fFileOutputStream) {
-	            try {
-	                fFileOutputStream.flush();
-	                fFileOutputStream.close();
-	            } catch (IOException e) {
-	            }
-	        }
+        if (fFileWriter != null) {
+            fFileWriter.close();
         }
         try {
             fInput.close();
@@ -426,7 +425,7 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
 		for (StreamListener listener : fStreamListeners) {
             listener.dispose();
         }
-        fFileOutputStream = null;
+        fFileWriter = null;
         fInput = null;
     }
 
@@ -455,6 +454,7 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
             int lowWater = store.getInt(IDebugPreferenceConstants.CONSOLE_LOW_WATER_MARK);
             setWaterMarks(lowWater, highWater);
         }
+        setDiskBacked(store.getBoolean(IDebugPreferenceConstants.CONSOLE_DISK_BACKED));
 
         DebugUIPlugin.getStandardDisplay().asyncExec(new Runnable() {
             @Override
@@ -639,14 +639,8 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
 							fStream.write(text.getBytes(encoding));
 						}
                     }
-                    if (fFileOutputStream != null) {
-                        synchronized (fFileOutputStream) {
-                        	if (encoding == null) {
-								fFileOutputStream.write(text.getBytes());
-							} else {
-								fFileOutputStream.write(text.getBytes(encoding));
-							}
-                        }
+                    if (fFileWriter != null) {
+                        fFileWriter.write(text);
                     }
                 } catch (IOException e) {
                     DebugUIPlugin.log(e);
@@ -667,10 +661,8 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
                         if (fStream != null) {
                             fStream.write(contents);
                         }
-                        if (fFileOutputStream != null) {
-                            synchronized (fFileOutputStream) {
-                                fFileOutputStream.write(contents.getBytes());
-                            }
+                        if (fFileWriter != null) {
+                            fFileWriter.write(contents);
                         }
                     }
                 } catch (IOException e) {
@@ -989,7 +989,29 @@ public interface IDebugUIConstants {
 	 * @since 3.1
 	 */
 	public static final String ATTR_APPEND_TO_FILE = PLUGIN_ID + ".ATTR_APPEND_TO_FILE"; //$NON-NLS-1$
-	
+
+	/**
+	 * Launch configuration integer attribute specifying the size in bytes
+	 * above which the file specified by the <code>ATTR_CAPTURE_IN_FILE</code>
+	 * attribute is rotated. The current file is renamed by appending
+	 * <code>.1</code> to its name, older files are renamed accordingly, and
+	 * output continues in a new file. Default value is <code>0</code>, meaning
+	 * the file is never rotated.
+	 *
+	 * @since 3.12
+	 */
+	public static final String ATTR_CAPTURE_IN_FILE_LIMIT = PLUGIN_ID + ".ATTR_CAPTURE_IN_FILE_LIMIT"; //$NON-NLS-1$
+
+	/**
+	 * Launch configuration boolean attribute specifying whether files rotated
+	 * according to the <code>ATTR_CAPTURE_IN_FILE_LIMIT</code> attribute are
+	 * compressed with gzip. Compressed files are named with an additional
+	 * <code>.gz</code> extension. Default value is <code>false</code>.
+	 *
+	 * @since 3.12
+	 */
+	public static final String ATTR_CAPTURE_IN_FILE_COMPRESS = PLUGIN_ID + ".ATTR_CAPTURE_IN_FILE_COMPRESS"; //$NON-NLS-1$
+
 	// Extension points
 	
 	/**
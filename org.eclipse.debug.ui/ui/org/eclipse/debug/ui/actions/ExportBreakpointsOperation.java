@@ -11,14 +11,22 @@
 
 package org.eclipse.debug.ui.actions;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Map.Entry;
 
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
@@ -31,11 +39,9 @@ import org.eclipse.debug.internal.ui.importexport.breakpoints.IImportExportConst
 import org.eclipse.debug.internal.ui.importexport.breakpoints.ImportExportMessages;
 import org.eclipse.debug.ui.IDebugUIConstants;
 import org.eclipse.jface.operation.IRunnableWithProgress;
-import org.eclipse.ui.IMemento;
 import org.eclipse.ui.IWorkingSet;
 import org.eclipse.ui.IWorkingSetManager;
 import org.eclipse.ui.PlatformUI;
-import org.eclipse.ui.XMLMemento;
 
 import com.ibm.icu.text.MessageFormat;
 
@@ -87,73 +93,150 @@ public class ExportBreakpointsOperation implements IRunnableWithProgress {
 	@Override
 	public void run(IProgressMonitor monitor) throws InvocationTargetException {
 		SubMonitor localmonitor = SubMonitor.convert(monitor, ImportExportMessages.ExportOperation_0, fBreakpoints.length);
-		XMLMemento memento = XMLMemento.createWriteRoot(IImportExportConstants.IE_NODE_BREAKPOINTS);
-		try (Writer writer = fWriter;) {
+		if (fWriter != null) {
+			try (Writer writer = fWriter;) {
+				write(writer, localmonitor);
+			} catch (CoreException e) {
+				throw new InvocationTargetException(e);
+			} catch (IOException e) {
+				throw new InvocationTargetException(e);
+			} finally {
+				localmonitor.done();
+			}
+			return;
+		}
+		// breakpoints are written as they are read, to a temporary file that
+		// replaces the export file once complete
+		File file = new File(fFileName).getAbsoluteFile();
+		File temp = null;
+		try {
+			temp = File.createTempFile(file.getName(), ".tmp", file.getParentFile()); //$NON-NLS-1$
+			boolean complete;
+			try (Writer outWriter = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(temp)), "UTF-8")) { //$NON-NLS-1$
+				complete = write(outWriter, localmonitor);
+			}
+			if (complete) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (CoreException e) {
+			throw new InvocationTargetException(e);
+		} catch (IOException e) {
+			throw new InvocationTargetException(e, MessageFormat.format("There was a problem writing file: {0}", new Object[] { fFileName })); //$NON-NLS-1$
+		}
+		finally {
+			if (temp != null) {
+				temp.delete();
+			}
+			localmonitor.done();
+		}
+	}
+
+	/**
+	 * Writes the breakpoints to the given writer, in the format read by an
+	 * {@link ImportBreakpointsOperation}.
+	 *
+	 * @param writer the writer
+	 * @param monitor progress monitor
+	 * @return whether all breakpoints were written, <code>false</code> if
+	 *         canceled
+	 * @throws CoreException if the attributes of a breakpoint cannot be read
+	 * @throws IOException if writing fails
+	 */
+	private boolean write(Writer writer, SubMonitor monitor) throws CoreException, IOException {
+		try {
+			XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+			xml.writeStartDocument("UTF-8", "1.0"); //$NON-NLS-1$ //$NON-NLS-2$
+			newLine(xml, 0);
+			xml.writeStartElement(IImportExportConstants.IE_NODE_BREAKPOINTS);
 			for (int i = 0; i < fBreakpoints.length; i++) {
-				if (localmonitor.isCanceled()) {
-					return;
+				if (monitor.isCanceled()) {
+					return false;
 				}
 				IBreakpoint breakpoint = fBreakpoints[i];
 				//in the event we are in working set view, we can have multiple selection of the same breakpoint
 				//so do a simple check for it
 				IMarker marker = breakpoint.getMarker();
-				IMemento root = memento.createChild(IImportExportConstants.IE_NODE_BREAKPOINT);
-				root.putString(IImportExportConstants.IE_BP_ENABLED, Boolean.toString(breakpoint.isEnabled()));
-				root.putString(IImportExportConstants.IE_BP_REGISTERED, Boolean.toString(breakpoint.isRegistered()));
-				root.putString(IImportExportConstants.IE_BP_PERSISTANT, Boolean.toString(breakpoint.isPersisted()));
+				newLine(xml, 1);
+				xml.writeStartElement(IImportExportConstants.IE_NODE_BREAKPOINT);
+				xml.writeAttribute(IImportExportConstants.IE_BP_ENABLED, Boolean.toString(breakpoint.isEnabled()));
+				xml.writeAttribute(IImportExportConstants.IE_BP_REGISTERED, Boolean.toString(breakpoint.isRegistered()));
+				xml.writeAttribute(IImportExportConstants.IE_BP_PERSISTANT, Boolean.toString(breakpoint.isPersisted()));
 				//write out the resource information
 				IResource resource = marker.getResource();
-				IMemento child = root.createChild(IImportExportConstants.IE_NODE_RESOURCE);
-				child.putString(IImportExportConstants.IE_NODE_PATH, resource.getFullPath().toPortableString());
-				child.putInteger(IImportExportConstants.IE_NODE_TYPE, resource.getType());
+				newLine(xml, 2);
+				xml.writeEmptyElement(IImportExportConstants.IE_NODE_RESOURCE);
+				xml.writeAttribute(IImportExportConstants.IE_NODE_PATH, resource.getFullPath().toPortableString());
+				xml.writeAttribute(IImportExportConstants.IE_NODE_TYPE, Integer.toString(resource.getType()));
 				//a generalized (name, value) pairing for attributes each stored as an ATTRIB element
-				root = root.createChild(IImportExportConstants.IE_NODE_MARKER);
-				root.putString(IImportExportConstants.IE_NODE_TYPE, marker.getType());
-				Object val = marker.getAttribute(IMarker.LINE_NUMBER);
-				root.putString(IMarker.LINE_NUMBER, (val != null) ? val.toString() : null);
-				val = marker.getAttribute(IImportExportConstants.CHARSTART); 
-				root.putString(IImportExportConstants.CHARSTART, (val != null) ? val.toString() : null);
+				newLine(xml, 2);
+				xml.writeStartElement(IImportExportConstants.IE_NODE_MARKER);
+				writeAttribute(xml, IMarker.LINE_NUMBER, marker.getAttribute(IMarker.LINE_NUMBER));
+				writeAttribute(xml, IImportExportConstants.CHARSTART, marker.getAttribute(IImportExportConstants.CHARSTART));
+				xml.writeAttribute(IImportExportConstants.IE_NODE_TYPE, marker.getType());
 				String value = null;
 				boolean wsattrib = false;
 				for (Entry<String, Object> entry : marker.getAttributes().entrySet()) {
 					String iterval = entry.getKey();
 					value = entry.getValue().toString();
 					if(!iterval.equals(IMarker.LINE_NUMBER)) {
-						child = root.createChild(IImportExportConstants.IE_NODE_ATTRIB);
 						if(iterval.equals(IInternalDebugUIConstants.WORKING_SET_NAME)) {
 							wsattrib = true;
 							value = getWorkingSetsAttribute(breakpoint);
 						}
-						child.putString(IImportExportConstants.IE_NODE_NAME, iterval);
-						child.putString(IImportExportConstants.IE_NODE_VALUE, value);
+						writeAttrib(xml, iterval, value);
 					}
 				}
 				if(!wsattrib) {
 					//ensure the working set infos are present if not previously updated
-					child = root.createChild(IImportExportConstants.IE_NODE_ATTRIB);
-					child.putString(IImportExportConstants.IE_NODE_NAME, IInternalDebugUIConstants.WORKING_SET_NAME);
-					child.putString(IImportExportConstants.IE_NODE_VALUE, getWorkingSetsAttribute(breakpoint));
-					child = root.createChild(IImportExportConstants.IE_NODE_ATTRIB);
-					child.putString(IImportExportConstants.IE_NODE_NAME, IInternalDebugUIConstants.WORKING_SET_ID);
-					child.putString(IImportExportConstants.IE_NODE_VALUE, IDebugUIConstants.BREAKPOINT_WORKINGSET_ID);
+					writeAttrib(xml, IInternalDebugUIConstants.WORKING_SET_NAME, getWorkingSetsAttribute(breakpoint));
+					writeAttrib(xml, IInternalDebugUIConstants.WORKING_SET_ID, IDebugUIConstants.BREAKPOINT_WORKINGSET_ID);
 				}
-				localmonitor.worked(1);
-			}
-			if (writer == null) {
-				try (Writer outWriter = new OutputStreamWriter(new FileOutputStream(fFileName), "UTF-8")) { //$NON-NLS-1$
-					memento.save(outWriter);
-				}
-			} else {
-				memento.save(writer);
+				newLine(xml, 2);
+				xml.writeEndElement();
+				newLine(xml, 1);
+				xml.writeEndElement();
+				monitor.worked(1);
 			}
+			newLine(xml, 0);
+			xml.writeEndElement();
+			xml.writeEndDocument();
+			xml.flush();
+			xml.close();
+			return true;
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
+	}
 
-		} catch (CoreException e) {
-			throw new InvocationTargetException(e);
-		} catch (IOException e) {
-			throw new InvocationTargetException(e, MessageFormat.format("There was a problem writing file: {0}", new Object[] { fFileName })); //$NON-NLS-1$
+	/**
+	 * Writes a marker attribute as an ATTRIB element.
+	 */
+	private void writeAttrib(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+		newLine(xml, 3);
+		xml.writeEmptyElement(IImportExportConstants.IE_NODE_ATTRIB);
+		xml.writeAttribute(IImportExportConstants.IE_NODE_NAME, name);
+		if (value != null) {
+			xml.writeAttribute(IImportExportConstants.IE_NODE_VALUE, value);
 		}
-		finally {
-			localmonitor.done();
+	}
+
+	/**
+	 * Writes an XML attribute, unless the value is <code>null</code>.
+	 */
+	private void writeAttribute(XMLStreamWriter xml, String name, Object value) throws XMLStreamException {
+		if (value != null) {
+			xml.writeAttribute(name, value.toString());
+		}
+	}
+
+	/**
+	 * Starts a new line indented to the given depth, so that the file is laid
+	 * out as in the files written by earlier versions.
+	 */
+	private void newLine(XMLStreamWriter xml, int depth) throws XMLStreamException {
+		xml.writeCharacters("\n"); //$NON-NLS-1$
+		for (int i = 0; i < depth; i++) {
+			xml.writeCharacters("\t"); //$NON-NLS-1$
 		}
 	}
 
@@ -12,6 +12,7 @@
 
 package org.eclipse.debug.ui.actions;
 
+import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -27,19 +28,27 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.debug.core.model.IBreakpointImportParticipant;
 import org.eclipse.debug.internal.core.BreakpointManager;
+import org.eclipse.debug.internal.ui.DebugUIPlugin;
 import org.eclipse.debug.internal.ui.IInternalDebugUIConstants;
+import org.eclipse.debug.internal.ui.importexport.breakpoints.BreakpointImportIndex;
 import org.eclipse.debug.internal.ui.importexport.breakpoints.IImportExportConstants;
 import org.eclipse.debug.internal.ui.importexport.breakpoints.ImportExportMessages;
 import org.eclipse.debug.ui.IDebugUIConstants;
@@ -48,7 +57,10 @@ import org.eclipse.ui.IMemento;
 import org.eclipse.ui.IWorkingSet;
 import org.eclipse.ui.IWorkingSetManager;
 import org.eclipse.ui.PlatformUI;
-import org.eclipse.ui.XMLMemento;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import com.ibm.icu.text.MessageFormat;
 
@@ -72,6 +84,12 @@ public class ImportBreakpointsOperation implements IRunnableWithProgress {
 	
 	private String fCurrentWorkingSetProperty = null;
 
+	/**
+	 * Index of the breakpoints an imported breakpoint is compared with, while
+	 * importing
+	 */
+	private BreakpointImportIndex fExisting = null;
+
 	private BreakpointManager fManager = (BreakpointManager) DebugPlugin.getDefault().getBreakpointManager();
 	
 	/** 
@@ -159,86 +177,205 @@ public class ImportBreakpointsOperation implements IRunnableWithProgress {
 	 */
 	@Override
 	public void run(final IProgressMonitor monitor) throws InvocationTargetException {
-		SubMonitor localmonitor = SubMonitor.convert(monitor, ImportExportMessages.ImportOperation_0, 1);
-		try {
-			XMLMemento memento = null;
-			if (fBuffer == null) {
-				try (Reader reader = new InputStreamReader(new FileInputStream(fFileName), "UTF-8")) { //$NON-NLS-1$
-					memento = XMLMemento.createReadRoot(reader);
-				} catch (FileNotFoundException e) {
-					throw new InvocationTargetException(e, MessageFormat.format("Breakpoint import file not found: {0}", new Object[] { //$NON-NLS-1$
-							fFileName }));
-				} catch (UnsupportedEncodingException e) {
-					throw new InvocationTargetException(e, MessageFormat.format("The import file was written in non-UTF-8 encoding.", new Object[] { //$NON-NLS-1$
-							fFileName }));
-				} catch (IOException e) {
-					throw new InvocationTargetException(e);
-				}
-			} else {
-				try (Reader reader = new StringReader(fBuffer.toString())) {
-					memento = XMLMemento.createReadRoot(reader);
-				} catch (IOException e) {
-					throw new InvocationTargetException(e);
-				}
+		final Reader reader;
+		if (fBuffer == null) {
+			try {
+				reader = new InputStreamReader(new BufferedInputStream(new FileInputStream(fFileName)), "UTF-8"); //$NON-NLS-1$
+			} catch (FileNotFoundException e) {
+				throw new InvocationTargetException(e, MessageFormat.format("Breakpoint import file not found: {0}", new Object[] { //$NON-NLS-1$
+						fFileName }));
+			} catch (UnsupportedEncodingException e) {
+				throw new InvocationTargetException(e, MessageFormat.format("The import file was written in non-UTF-8 encoding.", new Object[] { //$NON-NLS-1$
+						fFileName }));
 			}
-			IMemento[] nodes = memento.getChildren(IImportExportConstants.IE_NODE_BREAKPOINT);
-			IWorkspaceRoot workspace = ResourcesPlugin.getWorkspace().getRoot();
-			localmonitor.setWorkRemaining(nodes.length);
-			Map<String, Object> attributes = null;
-			IBreakpointImportParticipant[] participants = null;
-			for(int i = 0; i < nodes.length; i++) {
-				if(localmonitor.isCanceled()) {
-					return;
-				}
-				attributes = collectBreakpointProperties(nodes[i]);
-				if(attributes == null) {
-					continue;
-				}
-				IResource resource;
-				if(fImportBreakpoints) {
-					resource = workspace.findMember((String) attributes.get(IImportExportConstants.IE_NODE_PATH));
-				} else {
-					resource = workspace;
-				}
-
-				// filter resource breakpoints that do not exist in this workspace
-				if(resource != null) {	
+		} else {
+			reader = new StringReader(fBuffer.toString());
+		}
+		// breakpoints are read one at a time, their markers are created in a
+		// single workspace operation and listeners are notified once
+		IWorkspaceRunnable runnable = new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor pm) throws CoreException {
+				SubMonitor localmonitor = SubMonitor.convert(pm, ImportExportMessages.ImportOperation_0, 100);
+				try {
+					fExisting = new BreakpointImportIndex(fManager.getBreakpoints());
+					parse(reader, localmonitor);
+				} finally {
+					fExisting = null;
 					try {
-						participants = fManager.getImportParticipants((String) attributes.get(IImportExportConstants.IE_NODE_TYPE)); 
+						// the breakpoints read before a problem or
+						// cancellation remain imported, and are registered
+						if (fAdded.size() > 0 && fImportBreakpoints) {
+							fManager.addBreakpoints(fAdded.toArray(new IBreakpoint[fAdded.size()]));
+						}
+					} finally {
+						localmonitor.done();
 					}
-					catch(CoreException ce) {}
-					IMarker marker = findExistingMarker(attributes, participants);
-					if(marker == null) {
+				}
+			}
+		};
+		try (Reader input = reader) {
+			fManager.runBatch(runnable, monitor);
+		} catch (OperationCanceledException e) {
+			// the breakpoints read before the cancellation remain imported
+		} catch (CoreException ce) {
+			throw new InvocationTargetException(ce,
+ MessageFormat.format("There was a problem importing breakpoints from: {0}", new Object[] { fFileName })); //$NON-NLS-1$
+		} catch (IOException e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	/**
+	 * Reads the breakpoints from the given reader and imports each breakpoint
+	 * as it is read.
+	 *
+	 * @param reader the reader of an export file
+	 * @param monitor progress monitor
+	 * @throws CoreException if the breakpoints cannot be read or imported
+	 */
+	private void parse(Reader reader, SubMonitor monitor) throws CoreException {
+		try {
+			SAXParserFactory.newInstance().newSAXParser().parse(new InputSource(reader), new BreakpointHandler(monitor));
+		} catch (SAXException e) {
+			Exception cause = e.getException();
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new CoreException(new Status(IStatus.ERROR, DebugUIPlugin.getUniqueIdentifier(), e.getMessage(), e));
+		} catch (ParserConfigurationException e) {
+			throw new CoreException(new Status(IStatus.ERROR, DebugUIPlugin.getUniqueIdentifier(), e.getMessage(), e));
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, DebugUIPlugin.getUniqueIdentifier(), e.getMessage(), e));
+		}
+	}
+
+	/**
+	 * Imports the breakpoint described by the given attributes, read from an
+	 * export file.
+	 *
+	 * @param attributes the attributes of the breakpoint
+	 * @throws CoreException if a marker cannot be created
+	 */
+	private void importBreakpoint(Map<String, Object> attributes) throws CoreException {
+		IResource resource;
+		if (fImportBreakpoints) {
+			resource = ResourcesPlugin.getWorkspace().getRoot().findMember((String) attributes.get(IImportExportConstants.IE_NODE_PATH));
+		} else {
+			resource = ResourcesPlugin.getWorkspace().getRoot();
+		}
+
+		// filter resource breakpoints that do not exist in this workspace
+		if (resource != null) {
+			IBreakpointImportParticipant[] participants = null;
+			try {
+				participants = fManager.getImportParticipants((String) attributes.get(IImportExportConstants.IE_NODE_TYPE));
+			} catch (CoreException ce) {
+			}
+			int added = fAdded.size();
+			IMarker marker = findExistingMarker(attributes, participants);
+			if (marker == null) {
+				marker = resource.createMarker((String) attributes.get(IImportExportConstants.IE_NODE_TYPE));
+				restoreBreakpoint(marker, attributes, participants);
+			} else {
+				if (fOverwriteAll) {
+					if (!fImportBreakpoints) {
 						marker = resource.createMarker((String) attributes.get(IImportExportConstants.IE_NODE_TYPE));
-						restoreBreakpoint(marker, attributes, participants);
-					}
-					else {
-						if(fOverwriteAll) {
-							if(!fImportBreakpoints) {
-								marker = resource.createMarker((String) attributes.get(IImportExportConstants.IE_NODE_TYPE));
-							} else {
-								marker.setAttributes(null);
-							}
-							restoreBreakpoint(marker, attributes, participants);
-						}
+					} else {
+						marker.setAttributes(null);
 					}
+					restoreBreakpoint(marker, attributes, participants);
 				}
-				fCurrentWorkingSetProperty = null;
-				localmonitor.worked(1);
 			}
-			if(fAdded.size() > 0 && fImportBreakpoints) {
-				fManager.addBreakpoints(fAdded.toArray(new IBreakpoint[fAdded.size()]));
+			// later breakpoints of the file may match the imported breakpoint
+			if (fExisting != null && fAdded.size() > added) {
+				fExisting.add(fAdded.get(fAdded.size() - 1));
 			}
-		} 
-		catch(CoreException ce) {
-			throw new InvocationTargetException(ce, 
- MessageFormat.format("There was a problem importing breakpoints from: {0}", new Object[] { fFileName })); //$NON-NLS-1$
 		}
-		finally {
-			localmonitor.done();
+		fCurrentWorkingSetProperty = null;
+	}
+
+	/**
+	 * Reads the breakpoints of an export file, importing each breakpoint when
+	 * its element ends.
+	 */
+	private class BreakpointHandler extends DefaultHandler {
+
+		private final SubMonitor fMonitor;
+
+		/**
+		 * The attributes of the breakpoint being read, or <code>null</code>
+		 */
+		private Map<String, Object> fAttributes = null;
+
+		/**
+		 * Depth of the current element, the root element being at depth 1
+		 */
+		private int fDepth = 0;
+
+		BreakpointHandler(SubMonitor monitor) {
+			fMonitor = monitor;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+			fDepth++;
+			if (fDepth == 2 && IImportExportConstants.IE_NODE_BREAKPOINT.equals(qName)) {
+				fAttributes = new HashMap<String, Object>();
+				fAttributes.put(IImportExportConstants.IE_BP_ENABLED, getBoolean(attributes, IImportExportConstants.IE_BP_ENABLED));
+				fAttributes.put(IImportExportConstants.IE_BP_PERSISTANT, getBoolean(attributes, IImportExportConstants.IE_BP_PERSISTANT));
+				fAttributes.put(IImportExportConstants.IE_BP_REGISTERED, getBoolean(attributes, IImportExportConstants.IE_BP_REGISTERED));
+			} else if (fAttributes == null) {
+				return;
+			} else if (fDepth == 3 && IImportExportConstants.IE_NODE_MARKER.equals(qName)) {
+				fAttributes.put(IImportExportConstants.IE_NODE_TYPE, attributes.getValue(IImportExportConstants.IE_NODE_TYPE));
+				fAttributes.put(IMarker.LINE_NUMBER, getInteger(attributes, IMarker.LINE_NUMBER));
+			} else if (fDepth == 4 && IImportExportConstants.IE_NODE_ATTRIB.equals(qName)) {
+				readAttribute(attributes.getValue(IImportExportConstants.IE_NODE_NAME), attributes.getValue(IImportExportConstants.IE_NODE_VALUE), fAttributes);
+			} else if (fDepth == 3 && IImportExportConstants.IE_NODE_RESOURCE.equals(qName)) {
+				fAttributes.put(IImportExportConstants.IE_NODE_PATH, attributes.getValue(IImportExportConstants.IE_NODE_PATH));
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			if (fDepth == 2 && fAttributes != null) {
+				Map<String, Object> attributes = fAttributes;
+				fAttributes = null;
+				if (fMonitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				try {
+					importBreakpoint(attributes);
+				} catch (CoreException e) {
+					throw new SAXException(e);
+				}
+				fMonitor.setWorkRemaining(100);
+				fMonitor.worked(1);
+			}
+			fDepth--;
+		}
+
+		private Boolean getBoolean(Attributes attributes, String name) {
+			String value = attributes.getValue(name);
+			return value == null ? null : Boolean.valueOf(value);
+		}
+
+		private Integer getInteger(Attributes attributes, String name) {
+			String value = attributes.getValue(name);
+			if (value != null) {
+				try {
+					return Integer.valueOf(value);
+				} catch (NumberFormatException e) {
+				}
+			}
+			return null;
 		}
 	}
-	
+
 	/**
 	 * Returns a marker backing an existing breakpoint based on the given set of breakpoint attributes
 	 * @param attributes the map of attributes to compare for marker equality
@@ -247,12 +384,14 @@ public class ImportBreakpointsOperation implements IRunnableWithProgress {
 	 * @since 3.5
 	 */
 	protected IMarker findExistingMarker(Map<String, Object> attributes, IBreakpointImportParticipant[] participants) {
-		IBreakpoint[] bps = fManager.getBreakpoints();		 
-		for(int i = 0; i < bps.length; i++) {
+		// only breakpoints with the same marker type, and the same line unless
+		// a participant compares other attributes, are compared
+		List<IBreakpoint> bps = fExisting != null ? fExisting.getCandidates(attributes, BreakpointImportIndex.matchesByLine(participants)) : Arrays.asList(fManager.getBreakpoints());
+		for (IBreakpoint bp : bps) {
 			for(int j = 0; j < participants.length; j++) {
 				try {
-					if(participants[j].matches(attributes, bps[i])) {
-						return bps[i].getMarker();
+					if(participants[j].matches(attributes, bp)) {
+						return bp.getMarker();
 					}
 				}
 				catch(CoreException ce) {}
@@ -304,8 +443,16 @@ public class ImportBreakpointsOperation implements IRunnableWithProgress {
 	 * @param map the map to add the read attribute to
 	 */
 	private void readAttribute(IMemento memento, Map<String, Object> map) {
-		String name = memento.getString(IImportExportConstants.IE_NODE_NAME), 
-		   	   value = memento.getString(IImportExportConstants.IE_NODE_VALUE);
+		readAttribute(memento.getString(IImportExportConstants.IE_NODE_NAME), memento.getString(IImportExportConstants.IE_NODE_VALUE), map);
+	}
+
+	/**
+	 * Converts the value of a marker attribute read from an export file and places it in the specified map
+	 * @param name the name of the attribute or <code>null</code>
+	 * @param value the value of the attribute or <code>null</code>
+	 * @param map the map to add the read attribute to
+	 */
+	private void readAttribute(String name, String value, Map<String, Object> map) {
 		if (value != null && name != null) {
 			if (name.equals(IInternalDebugUIConstants.WORKING_SET_NAME)) {
 				fCurrentWorkingSetProperty = value;
@@ -333,11 +480,16 @@ public class ImportBreakpointsOperation implements IRunnableWithProgress {
 	 * @since 3.5
 	 */
 	protected void restoreBreakpoint(IMarker marker, final Map<String, Object> attributes, IBreakpointImportParticipant[] participants) {
+		String[] names = new String[attributes.size()];
+		Object[] values = new Object[names.length];
+		int index = 0;
 		for (Entry<String, Object> entry : attributes.entrySet()) {
-			try {
-				marker.setAttribute(entry.getKey(), entry.getValue());
-			} catch (CoreException ce) {
-			}
+			names[index] = entry.getKey();
+			values[index++] = entry.getValue();
+		}
+		try {
+			marker.setAttributes(names, values);
+		} catch (CoreException ce) {
 		}
 		IBreakpoint breakpoint = null;
 		try {
@@ -348,8 +500,8 @@ public class ImportBreakpointsOperation implements IRunnableWithProgress {
 			breakpoint.setRegistered(((Boolean)attributes.get(IImportExportConstants.IE_BP_REGISTERED)).booleanValue());
 			fAdded.add(breakpoint);
 			if (fImportBreakpoints && fCreateWorkingSets && fCurrentWorkingSetProperty != null) {
-				String[] names = fCurrentWorkingSetProperty.split("\\" + IImportExportConstants.DELIMITER); //$NON-NLS-1$
-				updateWorkingSets(names, breakpoint);
+				String[] wsnames = fCurrentWorkingSetProperty.split("\\" + IImportExportConstants.DELIMITER); //$NON-NLS-1$
+				updateWorkingSets(wsnames, breakpoint);
 			}
 			if(participants != null) {
 				for(int i = 0; i < participants.length; i++) {
@@ -22,6 +22,7 @@ import java.util.List;
 import org.eclipse.jface.resource.ImageDescriptor;
 
 import org.eclipse.ui.WorkbenchEncoding;
+import org.eclipse.ui.internal.console.ConsoleDocument;
 import org.eclipse.ui.internal.console.IOConsolePage;
 import org.eclipse.ui.internal.console.IOConsolePartitioner;
 import org.eclipse.ui.part.IPageBookViewPage;
@@ -227,6 +228,78 @@ public class IOConsole extends TextConsole {
 		partitioner.setWaterMarks(low, high);
 	}
 
+	/**
+	 * Sets whether older output of this console is kept in a temporary file
+	 * rather than in memory. When enabled, only the most recent output is held
+	 * in memory and older output is read back from the file when displayed,
+	 * searched or matched, so that a console with unlimited water marks can
+	 * hold very large output. The file is deleted when this console is
+	 * disposed.
+	 *
+	 * @param diskBacked whether to keep older output in a temporary file
+	 * @since 3.7
+	 */
+	public void setDiskBacked(boolean diskBacked) {
+		((ConsoleDocument) getDocument()).setDiskBacked(diskBacked);
+	}
+
+	/**
+	 * Returns whether older output of this console is kept in a temporary
+	 * file rather than in memory.
+	 *
+	 * @return whether older output is kept in a temporary file
+	 * @since 3.7
+	 */
+	public boolean isDiskBacked() {
+		return ((ConsoleDocument) getDocument()).isDiskBacked();
+	}
+
+	/**
+	 * Returns the number of characters written to this console's output
+	 * streams that have not yet been appended to its document.
+	 *
+	 * @return the number of characters pending to be appended
+	 * @since 3.7
+	 */
+	public int getPendingOutputLength() {
+		return partitioner.getPendingLength();
+	}
+
+	/**
+	 * Returns the total time output streams of this console have been blocked
+	 * because more output was pending than the console could append to its
+	 * document.
+	 *
+	 * @return the time writers have been blocked, in milliseconds
+	 * @since 3.7
+	 */
+	public long getBlockedWriterTime() {
+		return partitioner.getBlockedWriterTime();
+	}
+
+	/**
+	 * Returns the number of characters removed from this console's document,
+	 * either to keep it within the water marks or because the console was
+	 * cleared.
+	 *
+	 * @return the number of characters trimmed from the document
+	 * @since 3.7
+	 */
+	public long getTrimmedOutputLength() {
+		return partitioner.getTrimmedLength();
+	}
+
+	/**
+	 * Returns the number of characters written to this console's output
+	 * streams that have been appended to its document.
+	 *
+	 * @return the number of characters appended to the document
+	 * @since 3.7
+	 */
+	public long getUpdatedOutputLength() {
+		return partitioner.getUpdateLength();
+	}
+
     /**
      * Check if all streams connected to this console are closed. If so,
      * notify the partitioner that this console is finished.
@@ -104,6 +104,7 @@ public abstract class TextConsole extends AbstractConsole {
     @Override
 	protected void dispose() {
         super.dispose();
+        fDocument.dispose();
         fFont = null;
 		synchronized(fAttributes) {
 		    fAttributes.clear();
@@ -13,7 +13,9 @@ package org.eclipse.ui.internal.console;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.BadPositionCategoryException;
 import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.GapTextStore;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextStore;
 import org.eclipse.jface.text.Position;
 
 /**
@@ -28,6 +30,13 @@ public class ConsoleDocument extends Document {
 	public synchronized String get(int pos, int length) throws BadLocationException {
 		return super.get(pos, length);
 	}
+	/* (non-Javadoc)
+	 * @see org.eclipse.jface.text.IDocument#getChar(int)
+	 */
+	@Override
+	public synchronized char getChar(int pos) throws BadLocationException {
+		return super.getChar(pos);
+	}
 	/* (non-Javadoc)
 	 * @see org.eclipse.jface.text.IDocument#getLength()
 	 */
@@ -98,6 +107,62 @@ public class ConsoleDocument extends Document {
 	public synchronized void set(String text) {
         super.set(text);
     }
+	/**
+	 * Sets whether older text of this document is kept in a temporary file
+	 * rather than in memory. The current text is moved to the new text store.
+	 *
+	 * @param diskBacked whether to keep older text in a temporary file
+	 */
+	public synchronized void setDiskBacked(boolean diskBacked) {
+		ITextStore store = getStore();
+		if (diskBacked == store instanceof DiskBackedTextStore) {
+			return;
+		}
+		ITextStore newStore = diskBacked ? new DiskBackedTextStore(DiskBackedTextStore.DEFAULT_WINDOW) : new GapTextStore();
+		copy(store, newStore);
+		setTextStore(newStore);
+		if (store instanceof DiskBackedTextStore) {
+			((DiskBackedTextStore) store).dispose();
+		}
+	}
+
+	/**
+	 * Appends the text of a store to an empty store in pieces, so that text
+	 * kept in a temporary file is not copied into a single string.
+	 *
+	 * @param from the store to copy
+	 * @param to the store to copy to
+	 */
+	private static void copy(ITextStore from, ITextStore to) {
+		int length = from.getLength();
+		for (int offset = 0; offset < length;) {
+			int count = Math.min(DiskBackedTextStore.COPY_SIZE, length - offset);
+			to.replace(offset, 0, from.get(offset, count));
+			offset += count;
+		}
+	}
+
+	/**
+	 * @return whether older text of this document is kept in a temporary file
+	 */
+	public synchronized boolean isDiskBacked() {
+		return getStore() instanceof DiskBackedTextStore;
+	}
+
+	/**
+	 * Releases the temporary file of a disk backed document. The text of the
+	 * document is cleared without notifying the listeners of the document,
+	 * which is no longer used.
+	 */
+	public synchronized void dispose() {
+		ITextStore store = getStore();
+		if (store instanceof DiskBackedTextStore) {
+			setTextStore(new GapTextStore());
+			getTracker().set(""); //$NON-NLS-1$
+			((DiskBackedTextStore) store).dispose();
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.jface.text.AbstractDocument#completeInitialization()
 	 */
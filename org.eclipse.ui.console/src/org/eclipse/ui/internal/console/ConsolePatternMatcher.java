@@ -12,7 +12,10 @@
 package org.eclipse.ui.internal.console;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -24,7 +27,6 @@ import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IDocumentListener;
-import org.eclipse.ui.console.ConsolePlugin;
 import org.eclipse.ui.console.IPatternMatchListener;
 import org.eclipse.ui.console.PatternMatchEvent;
 import org.eclipse.ui.console.TextConsole;
@@ -64,101 +66,34 @@ public class ConsolePatternMatcher implements IDocumentListener {
         @Override
 		protected IStatus run(IProgressMonitor monitor) {
 			IDocument doc = fConsole.getDocument();
-			String text = null;
-			int prevBaseOffset = -1;
 			if (doc != null && !monitor.isCanceled()) {
-				int endOfSearch = doc.getLength();
-				int indexOfLastChar = endOfSearch;
-				if (indexOfLastChar > 0) {
-					indexOfLastChar--;
-				}
-				int lastLineToSearch = 0;
-				int offsetOfLastLineToSearch = 0;
-				try {
-					lastLineToSearch = doc.getLineOfOffset(indexOfLastChar);
-					offsetOfLastLineToSearch = doc.getLineOffset(lastLineToSearch);
-				} catch (BadLocationException e) {
-					// perhaps the buffer was re-set
-					return Status.OK_STATUS;
-				}
 				Object[] patterns = null;
 				synchronized (fPatterns) {
 					patterns = fPatterns.toArray();
 				}
+				// fetch the text once for all listeners, starting at the
+				// smallest listener cursor
+				int endOfSearch = doc.getLength();
+				int startOfSearch = endOfSearch;
 				for (int i = 0; i < patterns.length; i++) {
-					if (monitor.isCanceled()) {
-						break;
+					startOfSearch = Math.min(startOfSearch, ((CompiledPatternMatchListener) patterns[i]).end);
+				}
+				if (startOfSearch < endOfSearch) {
+					String text;
+					LineIndex lines;
+					try {
+						text = doc.get(startOfSearch, endOfSearch - startOfSearch);
+						lines = new LineIndex(text, startOfSearch);
+					} catch (BadLocationException e) {
+						// perhaps the buffer was re-set
+						return Status.OK_STATUS;
 					}
-					CompiledPatternMatchListener notifier = (CompiledPatternMatchListener) patterns[i];
-					int baseOffset = notifier.end;
-					int lengthToSearch = endOfSearch - baseOffset;
-					if (lengthToSearch > 0) {
-						try {
-							if (prevBaseOffset != baseOffset) {
-								// reuse the text string if possible
-								text = doc.get(baseOffset, lengthToSearch);
-							}
-							if(text == null) {
-								continue;
-							}
-							Matcher reg = notifier.pattern.matcher(text);
-							Matcher quick = null;
-							if (notifier.qualifier != null) {
-								quick = notifier.qualifier.matcher(text);
-							}
-							int startOfNextSearch = 0;
-							int endOfLastMatch = -1;
-							int lineOfLastMatch = -1;
-							while ((startOfNextSearch < lengthToSearch) && !monitor.isCanceled()) {
-								if (quick != null) {
-									if (quick.find(startOfNextSearch)) {
-										// start searching on the beginning
-										// of the line where the potential
-										// match was found, or after the
-										// last match on the same line
-										int matchLine = doc.getLineOfOffset(baseOffset + quick.start());
-										if (lineOfLastMatch == matchLine) {
-											startOfNextSearch = endOfLastMatch;
-										} else {
-											startOfNextSearch = doc.getLineOffset(matchLine) - baseOffset;
-										}
-									} else {
-										startOfNextSearch = lengthToSearch;
-									}
-								}
-								if (startOfNextSearch < 0) {
-									startOfNextSearch = 0;
-								}
-								if (startOfNextSearch < lengthToSearch) {
-									if (reg.find(startOfNextSearch)) {
-										endOfLastMatch = reg.end();
-										lineOfLastMatch = doc.getLineOfOffset(baseOffset + endOfLastMatch - 1);
-										int regStart = reg.start();
-										IPatternMatchListener listener = notifier.listener;
-										if (listener != null && !monitor.isCanceled()) {
-											listener.matchFound(new PatternMatchEvent(fConsole, baseOffset + regStart, endOfLastMatch - regStart));
-										}
-										startOfNextSearch = endOfLastMatch;
-									} else {
-										startOfNextSearch = lengthToSearch;
-									}
-								}
-							}
-							// update start of next search to the last line
-							// searched
-							// or the end of the last match if it was on the
-							// line that
-							// was last searched
-							if (lastLineToSearch == lineOfLastMatch) {
-								notifier.end = baseOffset + endOfLastMatch;
-							} else {
-								notifier.end = offsetOfLastLineToSearch;
-							}
-						} catch (BadLocationException e) {
-							ConsolePlugin.log(e);
+					for (int i = 0; i < patterns.length; i++) {
+						if (monitor.isCanceled()) {
+							break;
 						}
+						match((CompiledPatternMatchListener) patterns[i], text, startOfSearch, lines, monitor);
 					}
-					prevBaseOffset = baseOffset;
 				}
 			}
 
@@ -173,6 +108,114 @@ public class ConsolePatternMatcher implements IDocumentListener {
 			return Status.OK_STATUS;
 		}
 
+		/**
+		 * Searches the text after the cursor of the given listener and notifies
+		 * it of matches. If the listener has a line qualifier, only the lines
+		 * matching the qualifier are searched.
+		 * <p>
+		 * Afterwards the cursor is set to the end of the last match if it was
+		 * on the last line searched, as that line may still be incomplete, or
+		 * else to the beginning of that line. The cursor never moves back, so
+		 * it stays in the middle of a line after a match on that line, and the
+		 * next search starts there: the rest of the line after the cursor is
+		 * searched again, until the line is complete. The qualifier is then
+		 * only matched against the rest of the line after the cursor.
+		 * </p>
+		 *
+		 * @param notifier the listener to search for
+		 * @param text the text from the smallest listener cursor to the end of
+		 *            the document
+		 * @param textOffset document offset of the text
+		 * @param lines the line index of the text
+		 * @param monitor progress monitor to check for cancellation
+		 */
+		private void match(CompiledPatternMatchListener notifier, String text, int textOffset, LineIndex lines, IProgressMonitor monitor) {
+			int baseOffset = notifier.end;
+			int lengthToSearch = textOffset + text.length() - baseOffset;
+			if (lengthToSearch <= 0) {
+				return;
+			}
+			// search a view of the shared text starting at the cursor, so
+			// patterns see the same input as if the text was fetched for this
+			// listener only
+			CharSequence input = baseOffset == textOffset ? text : new TextWindow(text, baseOffset - textOffset);
+			Matcher reg = notifier.pattern.matcher(input);
+			Matcher quick = null;
+			BitSet qualifiedLines = null;
+			if (notifier.qualifier != null) {
+				qualifiedLines = lines.getQualifiedLines(notifier.qualifier, text);
+				quick = notifier.qualifier.matcher(input);
+				quick.useAnchoringBounds(false);
+				quick.useTransparentBounds(true);
+			}
+			int lastLineToSearch = lines.getLastLine();
+			int startOfNextSearch = 0;
+			int endOfLastMatch = -1;
+			int lineOfLastMatch = -1;
+			int lineOfCursor = lines.getLineOfOffset(baseOffset);
+			if (lines.getLineOffset(lineOfCursor) < baseOffset) {
+				// the cursor is after a match in the middle of a line, the
+				// shared qualified lines may include text before the cursor
+				lineOfLastMatch = lineOfCursor;
+				endOfLastMatch = 0;
+			}
+			while ((startOfNextSearch < lengthToSearch) && !monitor.isCanceled()) {
+				if (qualifiedLines != null) {
+					int matchLine = qualifiedLines.nextSetBit(lines.getLineOfOffset(baseOffset + startOfNextSearch));
+					if (matchLine >= 0 && matchLine == lineOfLastMatch) {
+						// the rest of the line of the last match
+						// must be qualified again
+						quick.region(endOfLastMatch, lines.getLineEnd(matchLine) - baseOffset);
+						if (!quick.find()) {
+							matchLine = qualifiedLines.nextSetBit(matchLine + 1);
+						}
+					}
+					if (matchLine >= 0) {
+						// start searching on the beginning
+						// of the next line where a potential
+						// match was found, or after the
+						// last match on the same line
+						if (lineOfLastMatch == matchLine) {
+							startOfNextSearch = endOfLastMatch;
+						} else {
+							startOfNextSearch = lines.getLineOffset(matchLine) - baseOffset;
+						}
+					} else {
+						startOfNextSearch = lengthToSearch;
+					}
+				}
+				if (startOfNextSearch < 0) {
+					startOfNextSearch = 0;
+				}
+				if (startOfNextSearch < lengthToSearch) {
+					if (reg.find(startOfNextSearch)) {
+						endOfLastMatch = reg.end();
+						lineOfLastMatch = lines.getLineOfOffset(baseOffset + endOfLastMatch - 1);
+						int regStart = reg.start();
+						IPatternMatchListener listener = notifier.listener;
+						if (listener != null && !monitor.isCanceled()) {
+							listener.matchFound(new PatternMatchEvent(fConsole, baseOffset + regStart, endOfLastMatch - regStart));
+						}
+						startOfNextSearch = endOfLastMatch;
+					} else {
+						startOfNextSearch = lengthToSearch;
+					}
+				}
+			}
+			// update start of next search to the last line
+			// searched
+			// or the end of the last match if it was on the
+			// line that
+			// was last searched
+			if (lastLineToSearch == lineOfLastMatch) {
+				notifier.end = baseOffset + endOfLastMatch;
+			} else {
+				// the text starts at the smallest cursor, never move back
+				// before matches already reported
+				notifier.end = Math.max(baseOffset, lines.getLineOffset(lastLineToSearch));
+			}
+		}
+
 		@Override
 		public boolean belongsTo(Object family) {
             return family == fConsole;
@@ -181,6 +224,168 @@ public class ConsolePatternMatcher implements IDocumentListener {
 
     }
 
+    /**
+     * Line start offsets of the text searched by a match job, so line lookups
+     * do not query the document for every match.
+     */
+    private static class LineIndex {
+
+        /**
+         * Document offsets of the lines starting in the text, the first entry
+         * being the offset of the text
+         */
+        private int[] starts = new int[64];
+
+        private int count = 0;
+
+        /**
+         * Index of the line containing the last character of the text
+         */
+        private int lastLine;
+
+        /**
+         * Document offsets of the text and of its end
+         */
+        private final int offset;
+
+        private final int end;
+
+        /**
+         * Lines matching a qualifier, keyed by the qualifier's flags and
+         * expression
+         */
+        private final Map<String, BitSet> qualified = new HashMap<>();
+
+        /**
+         * Creates the index of the lines of the given text, recognizing the
+         * same line delimiters as the document ("\r", "\n" and "\r\n").
+         *
+         * @param text the text
+         * @param offset document offset of the text
+         */
+        LineIndex(String text, int offset) {
+            int length = text.length();
+            this.offset = offset;
+            this.end = offset + length;
+            add(offset);
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c == '\n') {
+                    add(offset + i + 1);
+                } else if (c == '\r' && (i + 1 >= length || text.charAt(i + 1) != '\n')) {
+                    add(offset + i + 1);
+                }
+            }
+            lastLine = getLineOfOffset(offset + Math.max(0, length - 1));
+        }
+
+        private void add(int lineStart) {
+            if (count == starts.length) {
+                int[] newStarts = new int[count * 2];
+                System.arraycopy(starts, 0, newStarts, 0, count);
+                starts = newStarts;
+            }
+            starts[count++] = lineStart;
+        }
+
+        int getLineOfOffset(int offset) {
+            int left = 0;
+            int right = count - 1;
+            while (left < right) {
+                int mid = (left + right + 1) >>> 1;
+                if (starts[mid] <= offset) {
+                    left = mid;
+                } else {
+                    right = mid - 1;
+                }
+            }
+            return left;
+        }
+
+        /**
+         * Returns the lines of the text containing a match of the given
+         * qualifier. The text is scanned once per qualifier, and the result
+         * shared by all listeners using the same qualifier.
+         *
+         * @param qualifier the line qualifier
+         * @param text the indexed text
+         * @return the indices of the qualified lines
+         */
+        BitSet getQualifiedLines(Pattern qualifier, String text) {
+            String key = qualifier.flags() + ":" + qualifier.pattern(); //$NON-NLS-1$
+            BitSet result = qualified.get(key);
+            if (result == null) {
+                result = new BitSet(count);
+                Matcher matcher = qualifier.matcher(text);
+                int start = 0;
+                while (start < text.length() && matcher.find(start)) {
+                    int line = getLineOfOffset(offset + matcher.start());
+                    result.set(line);
+                    if (line + 1 >= count) {
+                        break;
+                    }
+                    // continue on the next line
+                    start = starts[line + 1] - offset;
+                }
+                qualified.put(key, result);
+            }
+            return result;
+        }
+
+        int getLineOffset(int line) {
+            return starts[line];
+        }
+
+        /**
+         * @param line index of a line
+         * @return the document offset after the end of the line, including its
+         *         delimiter
+         */
+        int getLineEnd(int line) {
+            return line + 1 < count ? starts[line + 1] : end;
+        }
+
+        int getLastLine() {
+            return lastLine;
+        }
+    }
+
+    /**
+     * View of the end of a string, used to search the shared text from a
+     * listener's cursor without copying it.
+     */
+    private static class TextWindow implements CharSequence {
+
+        private final String text;
+
+        private final int offset;
+
+        TextWindow(String text, int offset) {
+            this.text = text;
+            this.offset = offset;
+        }
+
+        @Override
+        public int length() {
+            return text.length() - offset;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return text.charAt(offset + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return text.subSequence(offset + start, offset + end);
+        }
+
+        @Override
+        public String toString() {
+            return text.substring(offset);
+        }
+    }
+
     private class CompiledPatternMatchListener {
         Pattern pattern;
 
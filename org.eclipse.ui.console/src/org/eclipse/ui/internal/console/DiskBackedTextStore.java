@@ -0,0 +1,427 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.console;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jface.text.GapTextStore;
+import org.eclipse.jface.text.ITextStore;
+import org.eclipse.ui.console.ConsolePlugin;
+
+/**
+ * Text store keeping only the most recent text of a console in memory. Older
+ * text is moved to a memory-mapped temporary file and read back from it on
+ * demand.
+ * <p>
+ * Console documents are appended to at the end and trimmed at the start, so
+ * the text in the file is never modified. Other changes to the text in the
+ * file move the text following the change back into memory.
+ * </p>
+ * <p>
+ * Mapped regions before the start of the text are released when the text is
+ * trimmed, and once the trimmed part of the file is larger than the text in
+ * the file, the text is moved to the start of the file and the file is
+ * truncated.
+ * </p>
+ * <p>
+ * This class is not thread safe, the console document synchronizes access.
+ * </p>
+ */
+public class DiskBackedTextStore implements ITextStore {
+
+	/**
+	 * Default number of characters kept in memory
+	 */
+	public static final int DEFAULT_WINDOW = 1024 * 1024;
+
+	/**
+	 * Default number of characters in a mapped region of the file
+	 */
+	private static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+	/**
+	 * Number of characters copied at once when text is moved in the file or
+	 * to another text store
+	 */
+	static final int COPY_SIZE = 64 * 1024;
+
+	/**
+	 * Directory of the temporary files, deleted on exit
+	 */
+	private static File fgDirectory;
+
+	/**
+	 * The most recent text
+	 */
+	private final GapTextStore fMemory = new GapTextStore();
+
+	/**
+	 * Number of characters kept in memory after text is moved to the file.
+	 * Text is moved once twice as many characters are in memory.
+	 */
+	private final int fWindow;
+
+	/**
+	 * Number of characters in a mapped region of the file
+	 */
+	private final int fChunkSize;
+
+	private File fFile;
+
+	private FileChannel fChannel;
+
+	/**
+	 * Mapped regions of the file, each holding {@link #fChunkSize} characters,
+	 * or <code>null</code> for the regions that were released
+	 */
+	private final List<CharBuffer> fChunks = new ArrayList<>();
+
+	/**
+	 * Index in the file of the first character of the text
+	 */
+	private long fFileStart = 0;
+
+	/**
+	 * Index in the file after the last character of the text in the file
+	 */
+	private long fFileEnd = 0;
+
+	/**
+	 * Whether the file could not be written, in which case all text is kept
+	 * in memory
+	 */
+	private boolean fFailed = false;
+
+	/**
+	 * Creates a text store keeping the given number of characters in memory.
+	 *
+	 * @param window number of characters to keep in memory
+	 */
+	public DiskBackedTextStore(int window) {
+		this(window, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a text store keeping the given number of characters in memory
+	 * and mapping the file in regions of the given number of characters.
+	 *
+	 * @param window number of characters to keep in memory
+	 * @param chunkSize number of characters in a mapped region of the file
+	 */
+	public DiskBackedTextStore(int window, int chunkSize) {
+		fWindow = window;
+		fChunkSize = chunkSize;
+	}
+
+	@Override
+	public char get(int offset) {
+		int fileLength = getFileLength();
+		if (offset < fileLength) {
+			long index = fFileStart + offset;
+			return fChunks.get((int) (index / fChunkSize)).get((int) (index % fChunkSize));
+		}
+		return fMemory.get(offset - fileLength);
+	}
+
+	@Override
+	public String get(int offset, int length) {
+		int fileLength = getFileLength();
+		if (offset >= fileLength) {
+			return fMemory.get(offset - fileLength, length);
+		}
+		char[] chars = new char[length];
+		int fromFile = Math.min(length, fileLength - offset);
+		read(fFileStart + offset, chars, 0, fromFile);
+		if (fromFile < length) {
+			fMemory.get(0, length - fromFile).getChars(0, length - fromFile, chars, fromFile);
+		}
+		return new String(chars);
+	}
+
+	@Override
+	public int getLength() {
+		return getFileLength() + fMemory.getLength();
+	}
+
+	@Override
+	public void replace(int offset, int length, String text) {
+		if (text == null) {
+			text = ""; //$NON-NLS-1$
+		}
+		int fileLength = getFileLength();
+		if (offset < fileLength) {
+			if (offset == 0 && text.isEmpty()) {
+				// trimmed from the start
+				int fromFile = Math.min(length, fileLength);
+				fFileStart += fromFile;
+				length -= fromFile;
+				trimFile();
+				if (length > 0) {
+					fMemory.replace(0, length, text);
+				}
+				return;
+			}
+			// move the text after the offset back into memory
+			char[] chars = new char[fileLength - offset];
+			read(fFileStart + offset, chars, 0, chars.length);
+			fMemory.replace(0, 0, new String(chars));
+			fFileEnd = fFileStart + offset;
+			fileLength = offset;
+		}
+		fMemory.replace(offset - fileLength, length, text);
+		spill();
+	}
+
+	@Override
+	public void set(String text) {
+		fFileStart = fFileEnd;
+		trimFile();
+		fMemory.set(text);
+		spill();
+	}
+
+	/**
+	 * Returns the size in bytes of the temporary file, or <code>0</code> if
+	 * no text was moved to a file.
+	 *
+	 * @return the size of the temporary file
+	 */
+	public long getFileSize() {
+		if (fChannel != null) {
+			try {
+				return fChannel.size();
+			} catch (IOException e) {
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Deletes the temporary file. Text that was moved to the file is lost.
+	 */
+	public void dispose() {
+		fFileStart = 0;
+		fFileEnd = 0;
+		fChunks.clear();
+		if (fChannel != null) {
+			try {
+				fChannel.close();
+			} catch (IOException e) {
+			}
+			fChannel = null;
+		}
+		if (fFile != null) {
+			if (!fFile.delete()) {
+				// fails on some platforms while regions are still mapped, the
+				// file is then deleted on exit, before its directory
+				fFile.deleteOnExit();
+			}
+			fFile = null;
+		}
+	}
+
+	private int getFileLength() {
+		return (int) (fFileEnd - fFileStart);
+	}
+
+	/**
+	 * Moves the oldest text in memory to the file, if more than twice the
+	 * window is in memory.
+	 */
+	private void spill() {
+		int length = fMemory.getLength();
+		if (fFailed || length <= 2 * fWindow) {
+			return;
+		}
+		int count = length - fWindow;
+		try {
+			write(fMemory.get(0, count));
+		} catch (IOException e) {
+			fFailed = true;
+			ConsolePlugin.log(e);
+			return;
+		}
+		fMemory.replace(0, count, ""); //$NON-NLS-1$
+	}
+
+	/**
+	 * Appends the given text to the file.
+	 *
+	 * @param text the text to append
+	 * @throws IOException if the file cannot be created or extended
+	 */
+	private void write(String text) throws IOException {
+		if (fChannel == null) {
+			fFile = File.createTempFile("console", ".txt", getDirectory()); //$NON-NLS-1$ //$NON-NLS-2$
+			fChannel = new RandomAccessFile(fFile, "rw").getChannel(); //$NON-NLS-1$
+		}
+		write(fFileEnd, text.toCharArray(), 0, text.length());
+		fFileEnd += text.length();
+	}
+
+	/**
+	 * Returns the directory of the temporary files, creating it if required.
+	 * The directory, rather than each file, is deleted on exit, so that the
+	 * files of disposed stores are not remembered until exit. A file that
+	 * cannot be deleted when its store is disposed is deleted on exit.
+	 *
+	 * @return the directory of the temporary files
+	 * @throws IOException if the directory cannot be created
+	 */
+	private static synchronized File getDirectory() throws IOException {
+		if (fgDirectory == null || !fgDirectory.isDirectory()) {
+			fgDirectory = Files.createTempDirectory("console").toFile(); //$NON-NLS-1$
+			fgDirectory.deleteOnExit();
+		}
+		return fgDirectory;
+	}
+
+	/**
+	 * Writes characters to the file, mapping the regions written to.
+	 *
+	 * @param index index in the file of the first character to write
+	 * @param chars array to write from
+	 * @param offset offset in the array
+	 * @param length number of characters to write
+	 * @throws IOException if a region of the file cannot be mapped
+	 */
+	private void write(long index, char[] chars, int offset, int length) throws IOException {
+		while (length > 0) {
+			int position = (int) (index % fChunkSize);
+			int count = Math.min(length, fChunkSize - position);
+			CharBuffer buffer = getChunk((int) (index / fChunkSize)).duplicate();
+			buffer.position(position);
+			buffer.put(chars, offset, count);
+			index += count;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/**
+	 * Reads characters from the file.
+	 *
+	 * @param index index in the file of the first character to read
+	 * @param chars array to read into
+	 * @param offset offset in the array
+	 * @param length number of characters to read
+	 */
+	private void read(long index, char[] chars, int offset, int length) {
+		while (length > 0) {
+			int position = (int) (index % fChunkSize);
+			int count = Math.min(length, fChunkSize - position);
+			CharBuffer buffer = fChunks.get((int) (index / fChunkSize)).duplicate();
+			buffer.position(position);
+			buffer.get(chars, offset, count);
+			index += count;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/**
+	 * Returns the mapped region of the file with the given index, mapping it
+	 * if it is not mapped.
+	 *
+	 * @param index index of the region
+	 * @return the region
+	 * @throws IOException if the region cannot be mapped
+	 */
+	private CharBuffer getChunk(int index) throws IOException {
+		while (fChunks.size() <= index) {
+			fChunks.add(null);
+		}
+		CharBuffer chunk = fChunks.get(index);
+		if (chunk == null) {
+			chunk = fChannel.map(FileChannel.MapMode.READ_WRITE, (long) index * fChunkSize * 2, fChunkSize * 2L).asCharBuffer();
+			fChunks.set(index, chunk);
+		}
+		return chunk;
+	}
+
+	/**
+	 * Releases the regions of the file before the start of the text, and
+	 * shrinks the file once the trimmed part is larger than the text in the
+	 * file.
+	 */
+	private void trimFile() {
+		if (fChannel == null) {
+			return;
+		}
+		if (fFileStart == fFileEnd) {
+			// the file can be reused from its start
+			fFileStart = 0;
+			fFileEnd = 0;
+			truncate(0);
+			return;
+		}
+		int first = (int) (fFileStart / fChunkSize);
+		for (int i = 0; i < first && i < fChunks.size(); i++) {
+			// the mapping is released when the region is garbage collected
+			fChunks.set(i, null);
+		}
+		if (fFileStart >= fChunkSize && fFileStart >= fFileEnd - fFileStart) {
+			try {
+				compact();
+			} catch (IOException e) {
+				fFailed = true;
+				ConsolePlugin.log(e);
+			}
+		}
+	}
+
+	/**
+	 * Moves the text in the file to the start of the file and truncates the
+	 * file after the text. The text is copied forward in pieces no longer
+	 * than the trimmed part, so that a piece never overwrites text that is
+	 * still to be copied.
+	 *
+	 * @throws IOException if a region of the file cannot be mapped
+	 */
+	private void compact() throws IOException {
+		long length = fFileEnd - fFileStart;
+		char[] chars = new char[(int) Math.min(COPY_SIZE, fFileStart)];
+		for (long copied = 0; copied < length;) {
+			int count = (int) Math.min(chars.length, length - copied);
+			read(fFileStart + copied, chars, 0, count);
+			write(copied, chars, 0, count);
+			copied += count;
+		}
+		fFileStart = 0;
+		fFileEnd = length;
+		truncate((int) ((length + fChunkSize - 1) / fChunkSize));
+	}
+
+	/**
+	 * Releases the mapped regions from the given index and truncates the file
+	 * after the regions that remain.
+	 *
+	 * @param chunks number of regions to keep
+	 */
+	private void truncate(int chunks) {
+		for (int i = fChunks.size() - 1; i >= chunks; i--) {
+			fChunks.remove(i);
+		}
+		try {
+			fChannel.truncate((long) chunks * fChunkSize * 2);
+		} catch (IOException e) {
+			// fails on some platforms while the released regions are still
+			// mapped, the file is then truncated when next shrunk
+		}
+	}
+}
@@ -14,6 +14,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -46,9 +51,46 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	private IDocument document;
 	private ArrayList<IOConsolePartition> partitions;
 	/**
-	 * Blocks of data that have not yet been appended to the document.
+	 * Blocks of data that have not yet been appended to the document. Output
+	 * streams append to the queue without locking, the update job drains it.
 	 */
-	private ArrayList<PendingPartition> pendingPartitions;
+	private ConcurrentLinkedQueue<PendingPartition> pendingPartitions;
+	/**
+	 * Number of characters in <code>pendingPartitions</code>
+	 */
+	private final AtomicInteger pendingLength = new AtomicInteger();
+	/**
+	 * Whether the preparation job has been scheduled and has not yet started
+	 * to drain <code>pendingPartitions</code>.
+	 */
+	private final AtomicBoolean queueJobScheduled = new AtomicBoolean();
+	/**
+	 * Updates prepared from the pending partitions by the preparation job,
+	 * waiting to be applied to the document in the UI thread.
+	 */
+	private ConcurrentLinkedQueue<PreparedUpdate> preparedUpdates;
+	/**
+	 * Lock ensuring pending partitions are prepared in order
+	 */
+	private final Object prepareLock = new Object();
+	/**
+	 * Number of output characters applied to the document.
+	 */
+	private final AtomicLong updateLength = new AtomicLong();
+	/**
+	 * Lock writers wait on while too much output is pending
+	 */
+	private final Object backpressureLock = new Object();
+	/**
+	 * Total time in nanoseconds writers have been blocked waiting for pending
+	 * output to be appended to the document.
+	 */
+	private final AtomicLong blockedWriterTime = new AtomicLong();
+	/**
+	 * Number of characters removed from the document to enforce the water
+	 * marks or to clear the console.
+	 */
+	private final AtomicLong trimmedLength = new AtomicLong();
 	/**
 	 * A list of PendingPartitions to be appended by the updateJob
 	 */
@@ -58,7 +100,11 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	 */
 	private IOConsolePartition lastPartition;
 	/**
-	 * Job that appends pending partitions to the document.
+	 * Job that prepares pending partitions to be appended to the document.
+	 */
+	private QueuePreparationJob prepareJob;
+	/**
+	 * Job that appends prepared updates to the document.
 	 */
 	private QueueProcessingJob queueJob;
 	/**
@@ -96,8 +142,27 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	 */
 	private Object overflowLock = new Object();
 
-
-    private int fBuffer;
+	/**
+	 * Number of pending characters after which the update job runs without
+	 * delay.
+	 */
+	private static final int SCHEDULE_NOW_LENGTH = 1000;
+	/**
+	 * Number of pending characters after which writers are blocked until the
+	 * update job has appended the pending output.
+	 */
+	private static final int MAX_PENDING_LENGTH = 160000;
+	/**
+	 * Number of characters after which the preparation job starts a new
+	 * update, so that each replace in the UI thread is bounded. Output of a
+	 * single write is never split.
+	 */
+	private static final int MAX_UPDATE_LENGTH = 16000;
+	/**
+	 * Time in milliseconds the update job may spend in the UI thread before
+	 * it yields to let the workbench paint and handle input.
+	 */
+	private static final long UPDATE_TIME_BUDGET = 20;
 
 	public IOConsolePartitioner(IOConsoleInputStream inputStream, IOConsole console) {
 		this.inputStream = inputStream;
@@ -119,8 +184,12 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 		document.setDocumentPartitioner(this);
 		lld = document.getLegalLineDelimiters();
 		partitions = new ArrayList<IOConsolePartition>();
-		pendingPartitions = new ArrayList<PendingPartition>();
+		pendingPartitions = new ConcurrentLinkedQueue<PendingPartition>();
+		preparedUpdates = new ConcurrentLinkedQueue<PreparedUpdate>();
 		inputPartitions = new ArrayList<IOConsolePartition>();
+		prepareJob = new QueuePreparationJob();
+		prepareJob.setSystem(true);
+		prepareJob.setPriority(Job.INTERACTIVE);
 		queueJob = new QueueProcessingJob();
 		queueJob.setSystem(true);
         queueJob.setPriority(Job.INTERACTIVE);
@@ -152,10 +221,8 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	 */
     public void streamsClosed() {
         consoleClosedPartition = new PendingPartition(null, null);
-        synchronized (pendingPartitions) {
-            pendingPartitions.add(consoleClosedPartition);
-        }
-        queueJob.schedule(); //ensure that all pending partitions are processed.
+        pendingPartitions.add(consoleClosedPartition);
+        prepareJob.schedule(); //ensure that all pending partitions are processed.
     }
 
 	/*
@@ -168,6 +235,9 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 			document = null;
 			partitions.clear();
 			connected = false;
+			synchronized (backpressureLock) {
+				backpressureLock.notifyAll();
+			}
 			try {
 	            inputStream.close();
 	        } catch (IOException e) {
@@ -279,13 +349,9 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	 */
 	@Override
 	public ITypedRegion getPartition(int offset) {
-		for (int i = 0; i < partitions.size(); i++) {
-			ITypedRegion partition = partitions.get(i);
-			int start = partition.getOffset();
-			int end = start + partition.getLength();
-			if (offset >= start && offset < end) {
-				return partition;
-			}
+		int index = findPartitionIndex(offset);
+		if (index >= 0) {
+			return partitions.get(index);
 		}
 
 		if (lastPartition == null)  {
@@ -299,6 +365,34 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 		return lastPartition;
 	}
 
+	/**
+	 * Returns the index of the partition containing the given offset. As
+	 * partitions are sorted by offset and do not overlap, a binary search is
+	 * used. Offsets are read from the partitions themselves, so the search
+	 * remains valid after partitions are trimmed and shifted.
+	 *
+	 * @param offset the offset
+	 * @return the index of the partition containing the offset, or
+	 *         <code>-1</code> if there is none
+	 */
+	private int findPartitionIndex(int offset) {
+		int left = 0;
+		int right = partitions.size() - 1;
+		while (left <= right) {
+			int mid = (left + right) >>> 1;
+			ITypedRegion partition = partitions.get(mid);
+			int start = partition.getOffset();
+			if (offset < start) {
+				right = mid - 1;
+			} else if (offset >= start + partition.getLength()) {
+				left = mid + 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
 	/**
 	 * Enforces the buffer size.
 	 * When the number of lines in the document exceeds the high water mark, the
@@ -357,7 +451,7 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 				            continue;
 				        }
 
-				        int ppLen = pp.text.length();
+				        int ppLen = pp.length;
 				        if (lastPartition != null && lastPartition.getStream() == pp.stream) {
 				            int len = lastPartition.getLength();
 				            lastPartition.setLength(len + ppLen);
@@ -453,7 +547,12 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	 * A stream has been appended, add to pendingPartions list and schedule updateJob.
 	 * updateJob is scheduled with a slight delay, this allows the console to run the job
 	 * less frequently and update the document with a greater amount of data each time
-	 * the job is run
+	 * the job is run.
+	 * <p>
+	 * Appending does not lock, so several streams can write concurrently. When
+	 * too much output is pending, writers are blocked until the update job has
+	 * appended it to the document.
+	 * </p>
 	 * @param stream The stream that was written to.
 	 * @param s The string that should be appended to the document.
 	 */
@@ -461,59 +560,153 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
         if (document == null) {
             throw new IOException("Document is closed"); //$NON-NLS-1$
         }
-		synchronized(pendingPartitions) {
-			PendingPartition last = pendingPartitions.size() > 0 ? pendingPartitions.get(pendingPartitions.size()-1) : null;
-			if (last != null && last.stream == stream) {
-				last.append(s);
+		pendingPartitions.add(new PendingPartition(stream, s));
+		int pending = pendingLength.addAndGet(s.length());
+		if (queueJobScheduled.compareAndSet(false, true)) {
+			if (pending > SCHEDULE_NOW_LENGTH) {
+				prepareJob.schedule();
+			} else {
+				prepareJob.schedule(50);
+			}
+		} else if (pending > SCHEDULE_NOW_LENGTH && pending - s.length() <= SCHEDULE_NOW_LENGTH) {
+			// enough output pending to not wait for the delay
+			prepareJob.schedule();
+		}
+
+		if (pending > MAX_PENDING_LENGTH) {
+			if (Display.getCurrent() == null) {
+				waitForPendingOutput();
 			} else {
-				pendingPartitions.add(new PendingPartition(stream, s));
-                if (fBuffer > 1000) {
-                    queueJob.schedule();
-                } else {
-                    queueJob.schedule(50);
-                }
+				/*
+				 * if we are in UI thread we cannot lock it, so process
+				 * queued output.
+				 */
+				processQueue();
 			}
+		}
+	}
 
-            if (fBuffer > 160000) {
-            	if(Display.getCurrent() == null){
-					try {
-						pendingPartitions.wait();
-					} catch (InterruptedException e) {
-					}
-            	} else {
-					/*
-					 * if we are in UI thread we cannot lock it, so process
-					 * queued output.
-					 */
-            		processQueue();
-            	}
-            }
+	/**
+	 * Blocks the calling writer until the pending output has been appended to
+	 * the document, or the partitioner has been disconnected.
+	 */
+	private void waitForPendingOutput() {
+		long start = System.nanoTime();
+		synchronized (backpressureLock) {
+			while (connected && pendingLength.get() > MAX_PENDING_LENGTH) {
+				prepareJob.schedule();
+				try {
+					backpressureLock.wait(1000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
 		}
+		blockedWriterTime.addAndGet(System.nanoTime() - start);
+	}
+
+	/**
+	 * Returns the number of characters written to the console's output streams
+	 * and not yet appended to the document.
+	 *
+	 * @return the number of pending characters
+	 */
+	public int getPendingLength() {
+		return pendingLength.get();
+	}
+
+	/**
+	 * Returns the total time writers have been blocked because too much output
+	 * was pending.
+	 *
+	 * @return the blocked time in milliseconds
+	 */
+	public long getBlockedWriterTime() {
+		return TimeUnit.NANOSECONDS.toMillis(blockedWriterTime.get());
+	}
+
+	/**
+	 * Returns the number of characters removed from the document to enforce
+	 * the water marks or to clear the console.
+	 *
+	 * @return the number of trimmed characters
+	 */
+	public long getTrimmedLength() {
+		return trimmedLength.get();
+	}
+
+	/**
+	 * Returns the number of output characters appended to the document.
+	 *
+	 * @return the number of appended characters
+	 */
+	public long getUpdateLength() {
+		return updateLength.get();
 	}
 
 	/**
 	 * Holds data until updateJob can be run and the document can be updated.
 	 */
 	private class PendingPartition {
-		StringBuffer text = new StringBuffer(8192);
-		IOConsoleOutputStream stream;
+		final String text;
+		final IOConsoleOutputStream stream;
+		/**
+		 * Length of the partition, including the text of following pending
+		 * partitions of the same stream merged into it by the update job
+		 */
+		int length;
 
 		PendingPartition(IOConsoleOutputStream stream, String text) {
 			this.stream = stream;
-			if (text != null) {
-                append(text);
-            }
+			this.text = text;
+			length = text != null ? text.length() : 0;
+		}
+	}
+
+	/**
+	 * Output prepared to be appended to the document with a single replace.
+	 */
+	private static class PreparedUpdate {
+		/**
+		 * Partitions of the text, consecutive output of the same stream merged
+		 */
+		final ArrayList<PendingPartition> partitions = new ArrayList<PendingPartition>();
+		final StringBuilder text = new StringBuilder();
+		/**
+		 * Whether the console's streams were closed after this output
+		 */
+		boolean consoleClosed;
+	}
+
+	/**
+	 * Prepares the pending output to be appended to the document, off the UI
+	 * thread.
+	 */
+	private class QueuePreparationJob extends Job {
+
+		QueuePreparationJob() {
+			super("IOConsole Update Preparation"); //$NON-NLS-1$
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			if (prepareQueue()) {
+				queueJob.schedule();
+			}
+			return Status.OK_STATUS;
 		}
 
-		void append(String moreText) {
-			text.append(moreText);
-            fBuffer += moreText.length();
+		@Override
+		public boolean shouldRun() {
+			return connected;
 		}
 	}
 
 	/**
-	 * Updates the document. Will append everything that is available before
-	 * finishing.
+	 * Updates the document with the prepared output. Yields the UI thread
+	 * when its time budget is exceeded and runs again for the remaining
+	 * output.
 	 */
 	private class QueueProcessingJob extends UIJob {
 
@@ -527,69 +720,121 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
          */
         @Override
 		public IStatus runInUIThread(IProgressMonitor monitor) {
-        	processQueue();
+			if (!applyUpdates(TimeUnit.MILLISECONDS.toNanos(UPDATE_TIME_BUDGET))) {
+				schedule();
+			}
         	return Status.OK_STATUS;
         }
 
         /*
          * Job will process as much as it can each time it's run, but it gets
-         * scheduled everytime a PendingPartition is added to the list, meaning
+         * scheduled everytime an update is prepared, meaning
          * that this job could get scheduled unnecessarily in cases of heavy output.
          * Note however, that schedule() will only reschedule a running/scheduled Job
          * once even if it's called many times.
          */
         @Override
 		public boolean shouldRun() {
-            boolean shouldRun = connected && pendingPartitions != null && pendingPartitions.size() > 0;
+            boolean shouldRun = connected && preparedUpdates != null && !preparedUpdates.isEmpty();
             return shouldRun;
         }
 	}
 
+	/**
+	 * Appends all pending output to the document. Must be called in the UI
+	 * thread.
+	 */
 	void processQueue() {
-    	synchronized (overflowLock) {
-			ArrayList<PendingPartition> pendingCopy = new ArrayList<PendingPartition>();
-    		StringBuffer buffer = null;
-    		boolean consoleClosed = false;
-			synchronized(pendingPartitions) {
-				pendingCopy.addAll(pendingPartitions);
-				pendingPartitions.clear();
-				fBuffer = 0;
-				pendingPartitions.notifyAll();
-			}
-			// determine buffer size
-			int size = 0;
-			for (PendingPartition pp : pendingCopy) {
-				if (pp != consoleClosedPartition) {
-					size+= pp.text.length();
+		prepareQueue();
+		applyUpdates(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Drains the pending partitions into updates of bounded length, merging
+	 * consecutive output of the same stream.
+	 *
+	 * @return whether updates were prepared
+	 */
+	private boolean prepareQueue() {
+		synchronized (prepareLock) {
+			// allow writers to schedule the job again for output appended
+			// from now on
+			queueJobScheduled.set(false);
+			boolean prepared = false;
+			PreparedUpdate update = new PreparedUpdate();
+			PendingPartition last = null;
+			PendingPartition pp;
+			while ((pp = pendingPartitions.poll()) != null) {
+				if (pp == consoleClosedPartition) {
+					update.consoleClosed = true;
+				} else {
+					update.text.append(pp.text);
+					if (last != null && last.stream == pp.stream) {
+						last.length += pp.length;
+					} else {
+						update.partitions.add(pp);
+						last = pp;
+					}
+				}
+				if (update.consoleClosed || update.text.length() >= MAX_UPDATE_LENGTH) {
+					preparedUpdates.add(update);
+					prepared = true;
+					update = new PreparedUpdate();
+					last = null;
 				}
 			}
-			buffer = new StringBuffer(size);
-			for (PendingPartition pp : pendingCopy) {
-				if (pp != consoleClosedPartition) {
-					buffer.append(pp.text);
-				} else {
-					consoleClosed = true;
+			if (update.text.length() > 0) {
+				preparedUpdates.add(update);
+				prepared = true;
+			}
+			return prepared;
+		}
+	}
+
+	/**
+	 * Appends prepared updates to the document until all are applied or the
+	 * time budget is exceeded. Must be called in the UI thread.
+	 *
+	 * @param budget time in nanoseconds after which no further update is
+	 *            applied
+	 * @return whether all prepared updates were applied
+	 */
+	private boolean applyUpdates(long budget) {
+		long start = System.nanoTime();
+		boolean done = true;
+    	synchronized (overflowLock) {
+			PreparedUpdate update;
+			while ((update = preparedUpdates.poll()) != null) {
+				int length = update.text.length();
+	    		if (connected) {
+	    			setUpdateInProgress(true);
+	    			updatePartitions = update.partitions;
+	    			firstOffset = document.getLength();
+	    			try {
+	    				if (length > 0) {
+	    					document.replace(firstOffset, 0, update.text.toString());
+	    				}
+	    			} catch (BadLocationException e) {
+	    			}
+	    			updatePartitions = null;
+	    			setUpdateInProgress(false);
+	    		}
+				pendingLength.addAndGet(-length);
+				updateLength.addAndGet(length);
+				synchronized (backpressureLock) {
+					backpressureLock.notifyAll();
+				}
+	    		if (update.consoleClosed) {
+	    			console.partitionerFinished();
+	    		}
+				if (System.nanoTime() - start > budget) {
+					done = preparedUpdates.isEmpty();
+					break;
 				}
 			}
-    		if (connected) {
-    			setUpdateInProgress(true);
-    			updatePartitions = pendingCopy;
-    			firstOffset = document.getLength();
-    			try {
-    				if (buffer != null) {
-    					document.replace(firstOffset, 0, buffer.toString());
-    				}
-    			} catch (BadLocationException e) {
-    			}
-    			updatePartitions = null;
-    			setUpdateInProgress(false);
-    		}
-    		if (consoleClosed) {
-    			console.partitionerFinished();
-    		}
     		checkBufferSize();
     	}
-
+		return done;
 	}
 
     /**
@@ -635,6 +880,7 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
         			try {
         				if (truncateOffset < 0) {
         				    // clear
+        				    trimmedLength.addAndGet(length);
         				    setUpdateInProgress(true);
         					document.set(""); //$NON-NLS-1$
         					setUpdateInProgress(false);
@@ -646,18 +892,26 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 
 
         					// set the new length of the first partition
-        					IOConsolePartition partition = (IOConsolePartition) getPartition(cutOffset);
+        					IOConsolePartition partition;
+        					int index = findPartitionIndex(cutOffset);
+        					if (index >= 0) {
+        						partition = partitions.get(index);
+        					} else {
+        						// not within a partition, use the input partition
+        						partition = (IOConsolePartition) getPartition(cutOffset);
+        						index = partitions.indexOf(partition);
+        					}
         					partition.setLength(partition.getOffset() + partition.getLength() - cutOffset);
 
+        					trimmedLength.addAndGet(cutOffset);
         					setUpdateInProgress(true);
         					document.replace(0, cutOffset, ""); //$NON-NLS-1$
         					setUpdateInProgress(false);
 
         					//remove partitions and reset Partition offsets
-        					int index = partitions.indexOf(partition);
-        					for (int i = 0; i < index; i++) {
-                                partitions.remove(0);
-                            }
+        					if (index > 0) {
+        						partitions.subList(0, index).clear();
+        					}
 
         					int offset = 0;
 							for (IOConsolePartition p : partitions) {